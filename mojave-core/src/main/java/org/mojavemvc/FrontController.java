@@ -47,6 +47,12 @@ public void init() throws ServletException {
         framework.init(getServletConfig());
     }
 
+    @Override
+    public void destroy() {
+
+        framework.destroy();
+    }
+
     /**
      * Overrides the HttpServlet doGet() method. Executes processRequest().
      * 
@@ -99,5 +99,7 @@ private HttpMethod getHttpMethod(HttpServletRequest req) {
 
     @Override
     public void destroy() {
+        
+        framework.destroy();
     }
 }
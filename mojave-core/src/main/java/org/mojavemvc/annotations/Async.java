@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Marks an action, or all the actions of a controller, to be processed
+ * asynchronously. The action, its interceptors and the rendering of its view
+ * are run on the framework's bounded executor, and the container thread is
+ * released until they complete. Actions that return a
+ * java.util.concurrent.Future or a java.util.concurrent.Callable are processed
+ * asynchronously as well, and the value they produce is rendered.
+ * </p>
+ * 
+ * <pre>
+ * &#064;Async
+ * &#064;Action("report")
+ * public View report() {
+ *  ...
+ * }
+ * </pre>
+ * 
+ * <p>
+ * The requests are run on virtual threads when the
+ * <code>async-executor</code> init-param is set to <code>virtual</code> and
+ * the runtime supports them, and on a bounded pool of platform threads
+ * otherwise. Setting the <code>async-actions</code> init-param to
+ * <code>all</code> processes every action asynchronously, whether annotated
+ * or not.
+ * </p>
+ * 
+ * <p>
+ * NOTE: Asynchronous processing requires a Servlet 3 container, and the
+ * FrontController servlet or the RequestFilter to be declared with
+ * &lt;async-supported&gt;true&lt;/async-supported&gt;. Otherwise, the action
+ * is processed on the container thread.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Async {
+
+}
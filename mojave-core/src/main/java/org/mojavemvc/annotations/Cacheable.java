@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Marks an action whose rendered response can be cached and served again for
+ * subsequent GET requests, without binding the action's parameters, invoking
+ * its interceptors or the action itself, or rendering its view. Only
+ * responses with a status of 200 are cached.
+ * </p>
+ * 
+ * <p>
+ * Responses are cached by request path, by the values of the action's
+ * &#064;Param parameters, and by the values of the request headers named in
+ * <code>varyOn</code>. They expire after <code>ttl</code> seconds, or earlier
+ * if evicted or invalidated through the injectable
+ * org.mojavemvc.core.ResponseCache.
+ * </p>
+ * 
+ * <pre>
+ * &#064;Cacheable(ttl = 300, varyOn = { "Accept-Language" })
+ * &#064;Action("items")
+ * public View items(&#064;Param("category") String category) {
+ *  ...
+ * }
+ * </pre>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+    /**
+     * @return the time to live of a cached response, in seconds
+     */
+    long ttl() default 60;
+
+    /**
+     * @return the names of the request headers whose values the cached
+     *         response varies on
+     */
+    String[] varyOn() default {};
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * A method annotated with this annotation supplies the ETag of the response
+ * to a GET request, before the &#064;Action method is invoked. It is invoked
+ * after any &#064;BeforeAction methods. If the request's If-None-Match header
+ * matches the ETag, a 304 response is sent, and neither the action is
+ * invoked nor its view rendered. Otherwise, the ETag is set on the response.
+ * </p>
+ * 
+ * <p>
+ * There can be only one method with this annotation in a controller. An
+ * &#064;ETagProvider method is bound like an action: its arguments can be
+ * annotated with &#064;Param, including parameters of the request path, or
+ * with &#064;Model. It can also accept a 
+ * {@link org.mojavemvc.aop.RequestContext} argument, through which the
+ * action and its arguments are available. It cannot accept &#064;Entity or
+ * &#064;Resource arguments, as the request body is left for the action. The
+ * value returned is used as the ETag, quoted if it is not already; if null is
+ * returned, the response has no ETag, unless the action is annotated with 
+ * &#064;GenerateETag.
+ * </p>
+ * 
+ * <pre>
+ * &#064;ETagProvider
+ * public String version(&#064;Param(&quot;id&quot;) String id) {
+ *     return catalog.getVersion(id);
+ * }
+ * </pre>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ETagProvider {
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Marks an action, or all the actions of a controller, whose responses to
+ * GET requests are given a strong ETag, computed by hashing the rendered
+ * body. The view is rendered into a buffer; if the request's If-None-Match
+ * header matches the ETag, a 304 response is sent instead of the body.
+ * </p>
+ * 
+ * <p>
+ * Hashing still requires the action to be invoked and its view rendered. An
+ * &#064;ETagProvider method can supply the ETag before the action is invoked
+ * instead.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface GenerateETag {
+
+}
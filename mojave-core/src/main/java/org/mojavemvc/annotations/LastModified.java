@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * A method annotated with this annotation supplies the time the resource
+ * requested by a GET request was last modified, before the &#064;Action
+ * method is invoked. It is invoked after any &#064;BeforeAction methods. If
+ * the resource has not been modified since the date in the request's
+ * If-Modified-Since header, a 304 response is sent, and neither the action is
+ * invoked nor its view rendered. Otherwise, the Last-Modified header is set on
+ * the response. If-Modified-Since is ignored when the request has an
+ * If-None-Match header.
+ * </p>
+ * 
+ * <p>
+ * There can be only one method with this annotation in a controller. A
+ * &#064;LastModified method is bound like an action: its arguments can be
+ * annotated with &#064;Param, including parameters of the request path, or
+ * with &#064;Model. It can also accept a 
+ * {@link org.mojavemvc.aop.RequestContext} argument, through which the
+ * action and its arguments are available. It cannot accept &#064;Entity or
+ * &#064;Resource arguments, as the request body is left for the action. It 
+ * must return a java.util.Date, or a long holding the milliseconds since the
+ * epoch; if null or a negative value is returned, the time is not known.
+ * </p>
+ * 
+ * <pre>
+ * &#064;LastModified
+ * public Date lastModified(&#064;Param(&quot;id&quot;) String id) {
+ *     return documents.getUpdated(id);
+ * }
+ * </pre>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LastModified {
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Limits the size of the request body accepted by an action. A request 
+ * whose Content-Length exceeds the limit is answered with a 413 before its
+ * body is read. A multipart request without a Content-Length is answered 
+ * with a 413 as soon as parsing its body exceeds the limit.
+ * </p>
+ * 
+ * <pre>
+ * &#064;MaxUploadSize(10 * 1024 * 1024)
+ * &#064;POSTAction
+ * public View upload(&#064;Param("file") UploadedFile file) {
+ *  ...
+ * }
+ * </pre>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MaxUploadSize {
+
+    /**
+     * @return the maximum size of the request body, in bytes
+     */
+    long value();
+}
@@ -23,8 +23,18 @@
 /**
  * <p>
  * Only one instance of this controller will exist in the application, placed in
- * the front controller context. Its dependencies, if any, are re-injected with
- * every new request.
+ * the front controller context. Its dependencies, if any, are injected once,
+ * when the instance is created. To have them re-injected with every new
+ * request instead, set <code>reinject</code> to true:
+ * </p>
+ * 
+ * <pre>
+ * &#064;SingletonController(value = "some-name", reinject = true)
+ * </pre>
+ * 
+ * <p>
+ * A controller that is injected once should depend on per-request resources,
+ * such as the HttpServletRequest, through a Provider.
  * </p>
  * 
  * <p>
@@ -58,4 +68,6 @@
 @Target(ElementType.TYPE)
 public @interface SingletonController {
     String value() default "";
+
+    boolean reinject() default false;
 }
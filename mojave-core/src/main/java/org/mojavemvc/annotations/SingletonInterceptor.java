@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Only one instance of this interceptor will exist in the application. It is
+ * created, and its dependencies injected, the first time it intercepts an
+ * action, and the same instance is used for every request thereafter. By
+ * default, a new instance of an interceptor is created for every request.
+ * </p>
+ * 
+ * <p>
+ * An interceptor annotated with Guice's &#064;Singleton is treated the same
+ * way.
+ * </p>
+ * 
+ * <pre>
+ * &#064;SingletonInterceptor
+ * public class SomeInterceptor {
+ *  ...
+ * }
+ * </pre>
+ * 
+ * <p>
+ * NOTE: It is up to the developer to address thread-safety in singleton
+ * interceptors. The single instance will be accessed simultaneously by
+ * multiple threads, so an interceptor that keeps state between its
+ * &#064;BeforeAction and &#064;AfterAction methods must not be a singleton.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SingletonInterceptor {
+}
@@ -15,12 +15,27 @@
  */
 package org.mojavemvc.core;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.mojavemvc.views.View;
 
 /**
+ * An implementation of this interface is shared by all requests, and 
+ * must be thread-safe.
+ * 
  * @author Luis Antunes
  */
 public interface ActionInvoker {
 
-    View invokeAction(Object actionController, ActionSignature actionSignature) throws Exception;
+    View invokeAction(HttpServletRequest request, HttpServletResponse response, RoutedRequest routed, 
+            Object actionController, ActionSignature actionSignature) throws Exception;
+
+    /**
+     * @param deferredTimeout
+     *            the maximum time, in milliseconds, to wait for the value of
+     *            a Future returned by the action, or 0 to wait indefinitely
+     */
+    View invokeAction(HttpServletRequest request, HttpServletResponse response, RoutedRequest routed, 
+            Object actionController, DispatchEntry dispatchEntry, long deferredTimeout) throws Exception;
 }
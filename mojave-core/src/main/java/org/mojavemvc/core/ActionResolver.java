@@ -15,16 +15,17 @@
  */
 package org.mojavemvc.core;
 
+import javax.servlet.http.HttpServletRequest;
+
 /**
+ * An implementation of this interface is shared by all requests, and 
+ * must be thread-safe.
+ * 
  * @author Luis Antunes
  */
 public interface ActionResolver {
 
-    void resolve(String controller, String action) throws Exception;
-
-    ActionSignature getActionSignature();
-
-    Object getActionController();
+    DispatchEntry resolveDispatchEntry(RoutedRequest routed, HttpMethod httpMethod);
 
-    String getControllerClassName();
+    Object getActionController(HttpServletRequest request, DispatchEntry dispatchEntry) throws Exception;
 }
@@ -34,9 +34,31 @@ public interface ActionSignature {
 
     int fastIndex();
 
+    /**
+     * @return the invoker of the method, or null if the signature was
+     *         created with only a FastClass index
+     */
+    MethodInvoker invoker();
+
     List<Class<?>> getInterceptorClasses(ControllerDatabase controllerDb, Class<?> controllerClass, String action);
 
     Object[] getArgs(Map<String, ?> parametersMap, InputStream servletInputStream);
+
+    /**
+     * Get the arguments for the action, taking the values of any
+     * parameters named in the request path from the path itself.
+     * 
+     * @param parametersMap
+     *            the request parameters
+     * @param pathParameters
+     *            the parameters in the request path, or null if there are
+     *            none
+     * @param servletInputStream
+     *            the request body
+     * @return the arguments for the action, in declaration order
+     */
+    Object[] getArgs(Map<String, ?> parametersMap, PathParameters pathParameters, 
+            InputStream servletInputStream);
     
     View marshall(Object entity);
     
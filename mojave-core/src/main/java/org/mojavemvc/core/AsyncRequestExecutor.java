@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletRequest;
+
+import org.mojavemvc.util.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes requests asynchronously, using Servlet 3 asynchronous processing,
+ * either on a bounded pool of platform threads, or on virtual threads when
+ * the runtime supports them. The framework is compiled against the Servlet
+ * 2.5 API and Java 6, and so the Servlet 3 methods and virtual threads are
+ * looked up reflectively; in a container that does not support asynchronous
+ * processing, requests are processed on the container thread. An instance of
+ * this class is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class AsyncRequestExecutor {
+
+    public static final String KEY = AsyncRequestExecutor.class.getName();
+
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
+
+    private static final AsyncMethods UNSUPPORTED = new AsyncMethods();
+
+    private final ConcurrentMap<Class<?>, AsyncMethods> asyncMethods = 
+            new ConcurrentHashMap<Class<?>, AsyncMethods>();
+
+    private final ExecutorService executor;
+    private final long timeout;
+    private final boolean allActions;
+
+    /**
+     * @param threads
+     *            the maximum number of threads processing requests
+     * @param queueSize
+     *            the maximum number of requests waiting for a thread; when
+     *            the queue is full, a request is processed on the container
+     *            thread
+     * @param timeout
+     *            the asynchronous processing timeout, in milliseconds, or 0
+     *            to use the container's default
+     */
+    public AsyncRequestExecutor(int threads, int queueSize, long timeout) {
+
+        this(newPlatformThreadPool(threads, queueSize), timeout, false);
+    }
+
+    /**
+     * @param executor
+     *            the executor running the requests
+     * @param timeout
+     *            the asynchronous processing timeout, in milliseconds, or 0
+     *            to use the container's default
+     * @param allActions
+     *            whether all actions are processed asynchronously, rather
+     *            than only those that are annotated with @Async, or that
+     *            return a Future or a Callable
+     */
+    public AsyncRequestExecutor(ExecutorService executor, long timeout, boolean allActions) {
+
+        this.executor = executor;
+        this.timeout = timeout;
+        this.allActions = allActions;
+    }
+
+    /**
+     * @param threads
+     *            the maximum number of threads
+     * @param queueSize
+     *            the maximum number of tasks waiting for a thread
+     * @return a bounded pool of platform threads
+     */
+    public static ExecutorService newPlatformThreadPool(int threads, int queueSize) {
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, 
+                new ArrayBlockingQueue<Runnable>(queueSize), new DaemonThreadFactory("mojave-async-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task, or
+     *         null if the runtime does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+
+        try {
+            Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            logger.debug("could not create a virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param dispatchEntry
+     *            the dispatch entry of the request, or null if there is none
+     * @return true if the request is to be processed asynchronously
+     */
+    public boolean isAsync(DispatchEntry dispatchEntry) {
+
+        return allActions || (dispatchEntry != null && dispatchEntry.isAsync());
+    }
+
+    /**
+     * Start asynchronous processing of the request, and run the given task on
+     * the pool. Asynchronous processing is completed once the task has run,
+     * or once the task is aborted because the container timed out the
+     * request, or reported an error for it.
+     * 
+     * @param request
+     *            the request to process
+     * @param task
+     *            the processing of the request
+     * @return true if the task was dispatched, or false if the container
+     *         does not support asynchronous processing for the request, in
+     *         which case the caller must run the task
+     */
+    public boolean dispatch(ServletRequest request, AsyncTask task) {
+
+        AsyncMethods methods = getAsyncMethods(request.getClass());
+        if (methods == UNSUPPORTED || 
+                !Boolean.TRUE.equals(invoke(methods.isAsyncSupported, request))) {
+            return false;
+        }
+
+        Object asyncContext = invoke(methods.startAsync, request);
+        if (timeout > 0) {
+            invoke(methods.setTimeout, asyncContext, timeout);
+        }
+        task.start(methods, asyncContext, (Long) invoke(methods.getTimeout, asyncContext));
+        invoke(methods.addListener, asyncContext, newListener(methods.listenerType, task));
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("async request queue is full; processing on the container thread");
+            task.run();
+        }
+        return true;
+    }
+
+    /*
+     * the methods are looked up on the class of the request, rather than on 
+     * the ServletRequest interface, as the Servlet API the framework is 
+     * deployed with may predate Servlet 3
+     */
+    private AsyncMethods getAsyncMethods(Class<?> requestClass) {
+
+        AsyncMethods methods = asyncMethods.get(requestClass);
+        if (methods == null) {
+            methods = AsyncMethods.lookUp(requestClass);
+            asyncMethods.putIfAbsent(requestClass, methods);
+        }
+        return methods;
+    }
+
+    /*
+     * the AsyncListener interface is not available at compile time, so the 
+     * listener is a proxy that aborts the task on timeout or error
+     */
+    private static Object newListener(Class<?> listenerType, final AsyncTask task) {
+
+        return Proxy.newProxyInstance(listenerType.getClassLoader(), 
+                new Class<?>[] { listenerType }, new InvocationHandler() {
+            
+            public Object invoke(Object proxy, Method method, Object[] args) {
+
+                String name = method.getName();
+                if (method.getDeclaringClass() == Object.class) {
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return "AsyncListener[" + task + "]";
+                }
+                if (name.equals("onTimeout")) {
+                    task.abort(null);
+                } else if (name.equals("onError")) {
+                    task.abort(getThrowable(args[0]));
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Throwable getThrowable(Object asyncEvent) {
+
+        try {
+            Method getThrowable = asyncEvent.getClass().getMethod("getThrowable");
+            getThrowable.setAccessible(true);
+            return (Throwable) getThrowable.invoke(asyncEvent);
+        } catch (Exception e) {
+            return new IllegalStateException("asynchronous processing failed");
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void shutdown() {
+
+        executor.shutdown();
+    }
+
+    /**
+     * The processing of a request dispatched for asynchronous processing. If
+     * the container times out the request, or reports an error for it, before
+     * the task has started rendering, the task is aborted: its 
+     * {@link #abort(Throwable)} method renders the response, and the task must
+     * not render anything once {@link #beginRender()} returns false. If the
+     * task has started rendering, the container waits for it to finish.
+     */
+    public static abstract class AsyncTask implements Runnable {
+
+        private AsyncMethods methods;
+        private Object asyncContext;
+        private long timeout;
+
+        private boolean rendering;
+        private boolean aborted;
+        private boolean done;
+
+        /**
+         * Process the request, on a thread of the pool.
+         */
+        protected abstract void process();
+
+        /**
+         * Render the response of a request that was aborted, on a container
+         * thread.
+         * 
+         * @param cause
+         *            the error reported by the container, or null if the
+         *            request timed out
+         */
+        protected abstract void onAbort(Throwable cause) throws Exception;
+
+        public final void run() {
+
+            try {
+                if (!isAborted()) {
+                    process();
+                }
+            } finally {
+                finish();
+            }
+        }
+
+        /**
+         * @return the asynchronous processing timeout, in milliseconds, or 0
+         *         if there is none
+         */
+        public long getTimeout() {
+
+            return timeout;
+        }
+
+        /**
+         * Claim the response for rendering.
+         * 
+         * @return false if the task was aborted, in which case nothing may be
+         *         rendered
+         */
+        public synchronized boolean beginRender() {
+
+            if (aborted) {
+                return false;
+            }
+            rendering = true;
+            return true;
+        }
+
+        public synchronized boolean isAborted() {
+
+            return aborted;
+        }
+
+        void start(AsyncMethods methods, Object asyncContext, Long timeout) {
+
+            this.methods = methods;
+            this.asyncContext = asyncContext;
+            this.timeout = timeout != null && timeout > 0 ? timeout : 0;
+        }
+
+        void abort(Throwable cause) {
+
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (rendering) {
+                    waitUntilDone();
+                    return;
+                }
+                aborted = true;
+            }
+
+            try {
+                onAbort(cause);
+            } catch (Throwable e) {
+                logger.error("error rendering aborted async request: ", e);
+            } finally {
+                complete();
+            }
+        }
+
+        private void waitUntilDone() {
+
+            try {
+                while (!done) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void finish() {
+
+            synchronized (this) {
+                done = true;
+                notifyAll();
+                if (aborted) {
+                    return;
+                }
+            }
+            complete();
+        }
+
+        private void complete() {
+
+            if (methods == null) {
+                return;
+            }
+            try {
+                invoke(methods.complete, asyncContext);
+            } catch (RuntimeException e) {
+                logger.debug("could not complete async request", e);
+            }
+        }
+    }
+
+    private static class AsyncMethods {
+
+        Method isAsyncSupported;
+        Method startAsync;
+        Method setTimeout;
+        Method getTimeout;
+        Method complete;
+        Method addListener;
+        Class<?> listenerType;
+
+        static AsyncMethods lookUp(Class<?> requestClass) {
+
+            try {
+                AsyncMethods methods = new AsyncMethods();
+                methods.isAsyncSupported = accessible(requestClass.getMethod("isAsyncSupported"));
+                methods.startAsync = accessible(requestClass.getMethod("startAsync"));
+                Class<?> asyncContextClass = methods.startAsync.getReturnType();
+                methods.setTimeout = accessible(asyncContextClass.getMethod("setTimeout", long.class));
+                methods.getTimeout = accessible(asyncContextClass.getMethod("getTimeout"));
+                methods.complete = accessible(asyncContextClass.getMethod("complete"));
+                for (Method method : asyncContextClass.getMethods()) {
+                    if (method.getName().equals("addListener") && 
+                            method.getParameterTypes().length == 1) {
+                        methods.addListener = accessible(method);
+                        methods.listenerType = method.getParameterTypes()[0];
+                    }
+                }
+                return methods.addListener != null ? methods : UNSUPPORTED;
+            } catch (NoSuchMethodException e) {
+                /* not a Servlet 3 container */
+                return UNSUPPORTED;
+            } catch (SecurityException e) {
+                logger.debug("could not look up async methods", e);
+                return UNSUPPORTED;
+            }
+        }
+
+        private static Method accessible(Method method) {
+
+            /* the method may be declared by a class that is not public */
+            method.setAccessible(true);
+            return method;
+        }
+    }
+}
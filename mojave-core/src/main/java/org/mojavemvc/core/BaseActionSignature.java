@@ -15,14 +15,8 @@
  */
 package org.mojavemvc.core;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +28,7 @@
 import org.mojavemvc.forms.Submittable;
 import org.mojavemvc.marshalling.DefaultEntityMarshaller;
 import org.mojavemvc.marshalling.EntityMarshaller;
+import org.mojavemvc.util.BeanAccessor;
 import org.mojavemvc.views.View;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,18 +53,21 @@ public class BaseActionSignature implements ActionSignature {
      * Given the following signature:
      * 
      * someSignature(@Param("p1") String p1, @Model SomeModel Model, 
-     *  @Param("p2") Date p2, @Resource InputStream in, @Param("p3") UploadedFile file)
+     *  @Param("p2") Date p2, @Resource InputStream in, @Param("p3") UploadedFile file,
+     *  @Entity SomePojo pojo)
      * 
      * this array will look like:
      * 
-     * ["p1"][String.class]
-     * [SomeForm.class][List<PropertyDescriptor>-beanProperties]
-     * ["p2"][Date.class]
-     * [Resource.class][InputStream.class]
-     * ["p3"][UploadedFile.class]
-     * [Entity.class][SomePojo.class]
+     * [ParamBinder["p1", StringParameter]]
+     * [ModelBinder[BeanAccessor[SomeModel.class]]]
+     * [ParamBinder["p2", DateParameter]]
+     * [ResourceBinder]
+     * [ParamBinder["p3", UploadedFileParameter]]
+     * [EntityBinder[SomePojo.class]]
+     * 
+     * a slot is null if its parameter has none of these annotations
      */
-    private final Object[][] paramTypeMap;
+    private final ArgBinder[] binders;
 
     /*
      * an array of the method's parameter types in the order in which they are
@@ -78,46 +76,57 @@ public class BaseActionSignature implements ActionSignature {
     private final Class<?>[] parameterTypes;
 
     /*
-     * the cglib method index
+     * the cglib method index, or -1 if the method is not invoked 
+     * through a FastClass
      */
     private final int fastIndex;
     
+    private final MethodInvoker invoker;
+    
     private final EntityMarshaller paramMarshaller;
     
     private final EntityMarshaller viewMarshaller;
     
     private final Annotation[] methodAnnotations;
 
-    public BaseActionSignature(int fastIndex, String methodName, Class<?>[] paramTypes, 
+    public BaseActionSignature(MethodInvoker invoker, String methodName, Class<?>[] paramTypes, 
             Annotation[][] paramAnnotations, Annotation[] methodAnnotations) {
-        this(fastIndex, methodName, paramTypes, paramAnnotations, methodAnnotations, 
+        this(invoker, methodName, paramTypes, paramAnnotations, methodAnnotations, 
                 null, new DefaultEntityMarshaller());
     }
     
-    public BaseActionSignature(int fastIndex, String methodName, Class<?>[] paramTypes, 
+    public BaseActionSignature(MethodInvoker invoker, String methodName, Class<?>[] paramTypes, 
             Annotation[][] paramAnnotations, Annotation[] methodAnnotations, 
             EntityMarshaller paramMarshaller, EntityMarshaller viewMarshaller) {
+        this(invoker instanceof FastClassInvoker ? ((FastClassInvoker) invoker).getIndex() : -1, 
+                invoker, methodName, paramTypes, paramAnnotations, methodAnnotations, 
+                paramMarshaller, viewMarshaller);
+    }
+    
+    private BaseActionSignature(int fastIndex, MethodInvoker invoker, String methodName, 
+            Class<?>[] paramTypes, Annotation[][] paramAnnotations, Annotation[] methodAnnotations, 
+            EntityMarshaller paramMarshaller, EntityMarshaller viewMarshaller) {
 
         this.fastIndex = fastIndex;
+        this.invoker = invoker;
         this.methodName = methodName;
-        this.paramTypeMap = new Object[paramTypes.length][2];
+        this.binders = new ArgBinder[paramTypes.length];
         this.paramMarshaller = paramMarshaller;
         this.viewMarshaller = viewMarshaller;
         this.methodAnnotations = methodAnnotations;
 
-        int i = 0;
-        for (Annotation[] annotationsForParam : paramAnnotations) {
-            for (Annotation annotation : annotationsForParam) {
+        for (int i = 0; i < paramAnnotations.length && i < paramTypes.length; i++) {
+            for (Annotation annotation : paramAnnotations[i]) {
                 if (annotation instanceof Param) {
-                    paramTypeMap[i] = new Object[] { ((Param) annotation).value(), paramTypes[i] };
+                    binders[i] = new ParamBinder(((Param) annotation).value(), 
+                            SignatureParameters.getParameterFromType(paramTypes[i]));
                 } else if (annotation instanceof Model) {
-                    paramTypeMap[i] = new Object[] { paramTypes[i], getFormTypes(paramTypes[i]) };
+                    binders[i] = new ModelBinder(BeanAccessor.forClass(paramTypes[i]));
                 } else if (annotation instanceof Resource) {
-                    paramTypeMap[i] = new Object[] { Resource.class, paramTypes[i] };
+                    binders[i] = new ResourceBinder();
                 } else if (annotation instanceof Entity) {
-                    paramTypeMap[i] = new Object[] { Entity.class, paramTypes[i] };
+                    binders[i] = new EntityBinder(paramTypes[i]);
                 }
-                i++;
             }
         }
 
@@ -139,6 +148,11 @@ public int fastIndex() {
         return fastIndex;
     }
     
+    public MethodInvoker invoker() {
+        
+        return invoker;
+    }
+    
     public Annotation[] getAnnotations() {
         
         return methodAnnotations;
@@ -153,96 +167,138 @@ public View marshall(Object entity) {
         return viewMarshaller.marshall(entity);
     }
     
-    @SuppressWarnings("unchecked")
     public Object[] getArgs(Map<String, ?> parametersMap, InputStream servletInputStream) {
+        
+        return getArgs(parametersMap, null, servletInputStream);
+    }
+    
+    public Object[] getArgs(Map<String, ?> parametersMap, PathParameters pathParameters, 
+            InputStream servletInputStream) {
+
+        Object[] args = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            ArgBinder binder = binders[i];
+            if (binder != null) {
+                args[i] = binder.bind(parametersMap, pathParameters, servletInputStream);
+            }
+        }
+        return args;
+    }
 
-        List<Object> args = new ArrayList<Object>();
+    /*
+     * binds the value of a single action argument; an instance 
+     * of this class must be stateless to permit safe concurrent access
+     */
+    private static abstract class ArgBinder {
 
-        for (int i = 0; i < paramTypeMap.length; i++) {
-            Object[] mapRow = paramTypeMap[i];
-            Object key = mapRow[0];
-            Object value = mapRow[1];
-            if (key instanceof String && value instanceof Class<?>) {
+        abstract Object bind(Map<String, ?> parametersMap, PathParameters pathParameters, 
+                InputStream servletInputStream);
+    }
 
-                Object paramValue = parametersMap.get((String) key);
-                
-                Parameter param = SignatureParameters.getParameterFromType((Class<?>) value);
-                param.populateArgs(args, paramValue);
+    private static class ParamBinder extends ArgBinder {
 
-            } else if (key instanceof Class && value instanceof List) {
+        private final String name;
+        private final Parameter param;
 
-                populateArgsForForms((Class<?>) key, parametersMap, (List<PropertyDescriptor>) value, args);
-                
-            } else if (key.equals(Resource.class)) {
-                
-                if (servletInputStream == null) {
-                    throw new RuntimeException("an InputStream is a requested parameter but none has been provided");
-                }
-                args.add(servletInputStream);
-                
-            } else if (key.equals(Entity.class)) {
-                
-                if (paramMarshaller == null) {
-                    throw new RuntimeException("a parameter entity needs to be unmarshalled but no param marshaller exists");
+        ParamBinder(String name, Parameter param) {
+            this.name = name;
+            this.param = param;
+        }
+
+        Object bind(Map<String, ?> parametersMap, PathParameters pathParameters, 
+                InputStream servletInputStream) {
+
+            /*
+             * a path parameter value takes precedence over a request
+             * parameter with the same name
+             */
+            if (pathParameters != null) {
+                int pathIndex = pathParameters.indexOf(name);
+                if (pathIndex != -1) {
+                    return param.convertFromPath(pathParameters, pathIndex);
                 }
-                args.add(paramMarshaller.unmarshall(servletInputStream, (Class<?>)value));
             }
+            return param.convert(parametersMap.get(name));
         }
-
-        return args.toArray();
     }
 
-    private void populateArgsForForms(Class<?> formType, Map<String, ?> parametersMap, List<PropertyDescriptor> params,
-            List<Object> args) {
+    private static class ModelBinder extends ArgBinder {
 
-        try {
+        private final BeanAccessor accessor;
+        private final BeanAccessor.Property[] properties;
+        private final Parameter[] setterParams;
 
-            Object formBean = formType.newInstance();
+        ModelBinder(BeanAccessor accessor) {
+            this.accessor = accessor;
+            List<BeanAccessor.Property> writable = accessor.getWritableProperties();
+            this.properties = writable.toArray(new BeanAccessor.Property[writable.size()]);
+            this.setterParams = new Parameter[properties.length];
+            for (int i = 0; i < setterParams.length; i++) {
+                setterParams[i] = SignatureParameters.getParameterFromType(properties[i].getType());
+            }
+        }
 
-            /* set the properties on the bean */
-            for (PropertyDescriptor propertyDescriptor : params) {
-                /* val can be a String or String[] */
-                Object val = parametersMap.get(propertyDescriptor.getName());
-                /* get the write method */
-                Method setter = propertyDescriptor.getWriteMethod();
-                /* there should be only one parameter type */
-                Class<?> setterParamType = setter.getParameterTypes()[0];
-                List<Object> setterArgs = new ArrayList<Object>();
-                
-                Parameter param = SignatureParameters.getParameterFromType(setterParamType);
-                param.populateArgs(setterArgs, val);
+        Object bind(Map<String, ?> parametersMap, PathParameters pathParameters, 
+                InputStream servletInputStream) {
+
+            try {
+
+                Object formBean = accessor.newInstance();
+
+                /* set the properties on the bean */
+                for (int i = 0; i < properties.length; i++) {
+                    String name = properties[i].getName();
+                    /* val can be a String or String[] */
+                    Object val = null;
+                    int pathIndex = pathParameters != null ? pathParameters.indexOf(name) : -1;
+                    if (pathIndex != -1) {
+                        val = setterParams[i].convertFromPath(pathParameters, pathIndex);
+                    } else {
+                        val = setterParams[i].convert(parametersMap.get(name));
+                    }
+                    properties[i].set(formBean, val);
+                }
 
-                setter.invoke(formBean, setterArgs.toArray());
-            }
+                if (formBean instanceof Submittable) {
+                    ((Submittable) formBean).onSubmit();
+                }
+
+                return formBean;
 
-            if (formBean instanceof Submittable) {
-                ((Submittable) formBean).onSubmit();
+            } catch (Exception e) {
+                logger.error("error populating args for forms", e);
+                return null;
             }
+        }
+    }
+
+    private static class ResourceBinder extends ArgBinder {
 
-            args.add(formBean);
+        Object bind(Map<String, ?> parametersMap, PathParameters pathParameters, 
+                InputStream servletInputStream) {
 
-        } catch (Exception e) {
-            logger.error("error populating args for forms", e);
+            if (servletInputStream == null) {
+                throw new RuntimeException("an InputStream is a requested parameter but none has been provided");
+            }
+            return servletInputStream;
         }
     }
 
-    private List<PropertyDescriptor> getFormTypes(Class<?> formType) {
+    private class EntityBinder extends ArgBinder {
 
-        List<PropertyDescriptor> params = new ArrayList<PropertyDescriptor>();
+        private final Class<?> entityType;
 
-        try {
+        EntityBinder(Class<?> entityType) {
+            this.entityType = entityType;
+        }
 
-            BeanInfo info = Introspector.getBeanInfo(formType);
-            for (PropertyDescriptor propertyDescriptor : info.getPropertyDescriptors()) {
-                if (!propertyDescriptor.getName().equals("class")) {
-                    params.add(propertyDescriptor);
-                }
-            }
+        Object bind(Map<String, ?> parametersMap, PathParameters pathParameters, 
+                InputStream servletInputStream) {
 
-        } catch (IntrospectionException e) {
-            /* ignore */
+            if (paramMarshaller == null) {
+                throw new RuntimeException("a parameter entity needs to be unmarshalled but no param marshaller exists");
+            }
+            return paramMarshaller.unmarshall(servletInputStream, entityType);
         }
-
-        return params;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
+
+/**
+ * A response that buffers the body written to it, so that it can be
+ * inspected once a view has been rendered, before it is written to the
+ * wrapped response with its Content-Length. The status and headers are passed
+ * through to the wrapped response, and are also recorded, so that the
+ * response can be cached. A response that sets a cookie, sends an error or a
+ * redirect, or has a status other than 200 cannot be cached.
+ * <p>
+ * The buffer is taken from a pool, and must be returned with
+ * {@link #release()} once the body has been written.
+ * 
+ * @author Luis Antunes
+ */
+public class BufferedResponse extends HttpServletResponseWrapper {
+
+    private final BufferPool pool;
+    private final ByteArrayBuffer buffer;
+    private final List<String> headerNames = new ArrayList<String>();
+    private final List<Object> headerValues = new ArrayList<Object>();
+
+    private int status = SC_OK;
+    private boolean cacheable = true;
+    private boolean sent;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public BufferedResponse(HttpServletResponse response) {
+        this(response, BufferPool.getShared());
+    }
+
+    public BufferedResponse(HttpServletResponse response, BufferPool pool) {
+
+        super(response);
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    /**
+     * @return the buffer holding the body written to this response so far
+     */
+    public ByteArrayBuffer getBuffer() {
+
+        if (writer != null) {
+            writer.flush();
+        }
+        return buffer;
+    }
+
+    /**
+     * @return a copy of the body written to this response so far
+     */
+    public byte[] getBody() {
+        return getBuffer().toByteArray();
+    }
+
+    /**
+     * Return the buffer of this response to its pool. The response must not
+     * be used afterwards.
+     */
+    public void release() {
+        pool.release(buffer);
+    }
+
+    /**
+     * @return the status set on this response
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return a cacheable copy of this response, or null if this response
+     *         cannot be cached
+     */
+    public CachedResponse toCachedResponse() {
+
+        if (!cacheable || status != SC_OK) {
+            return null;
+        }
+        return new CachedResponse(getContentType(), headerNames, headerValues, getBody());
+    }
+
+    /**
+     * Write the buffered body to the wrapped response, with its
+     * Content-Length, unless an error or a redirect was sent.
+     * 
+     * @throws IOException
+     */
+    public void writeBody() throws IOException {
+
+        if (sent) {
+            return;
+        }
+        ByteArrayBuffer body = getBuffer();
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        response.setContentLength(body.size());
+        body.writeTo(response.getOutputStream());
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    buffer.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    buffer.write(b, off, len);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+
+        /* the body is written only once the view has been rendered */
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+
+        super.resetBuffer();
+        if (writer != null) {
+            writer.flush();
+        }
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+        resetBuffer();
+        headerNames.clear();
+        headerValues.clear();
+        status = SC_OK;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        /* the Content-Length is set from the buffered body */
+    }
+
+    @Override
+    public void setStatus(int sc) {
+
+        super.setStatus(sc);
+        status = sc;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void setStatus(int sc, String sm) {
+
+        super.setStatus(sc, sm);
+        status = sc;
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+
+        super.sendError(sc);
+        status = sc;
+        sent = true;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+
+        super.sendError(sc, msg);
+        status = sc;
+        sent = true;
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+
+        super.sendRedirect(location);
+        status = SC_MOVED_TEMPORARILY;
+        sent = true;
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+
+        super.addCookie(cookie);
+        cacheable = false;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+
+        super.setHeader(name, value);
+        recordHeader(name, value, true);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+
+        super.addHeader(name, value);
+        recordHeader(name, value, false);
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+
+        super.setDateHeader(name, date);
+        recordHeader(name, date, true);
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+
+        super.addDateHeader(name, date);
+        recordHeader(name, date, false);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+
+        super.setIntHeader(name, value);
+        recordHeader(name, value, true);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+
+        super.addIntHeader(name, value);
+        recordHeader(name, value, false);
+    }
+
+    private void recordHeader(String name, Object value, boolean replace) {
+
+        if (replace) {
+            Iterator<Object> values = headerValues.iterator();
+            for (Iterator<String> names = headerNames.iterator(); names.hasNext();) {
+                values.next();
+                if (names.next().equalsIgnoreCase(name)) {
+                    names.remove();
+                    values.remove();
+                }
+            }
+        }
+        headerNames.add(name);
+        headerValues.add(value);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Describes how the responses of a &#064;Cacheable action are cached: for
+ * how long, and what they vary on. An instance of this class is immutable,
+ * and thus is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class CachePolicy {
+
+    private final long ttlMillis;
+    private final String[] paramNames;
+    private final String[] varyHeaders;
+    private final String vary;
+
+    /**
+     * @param ttlMillis
+     *            the time to live of a cached response, in milliseconds
+     * @param paramNames
+     *            the names of the action's parameters
+     * @param varyHeaders
+     *            the names of the request headers the response varies on
+     */
+    public CachePolicy(long ttlMillis, String[] paramNames, String[] varyHeaders) {
+
+        this.ttlMillis = ttlMillis;
+        this.paramNames = paramNames;
+        this.varyHeaders = varyHeaders;
+        
+        StringBuilder vary = new StringBuilder();
+        for (String varyHeader : varyHeaders) {
+            if (vary.length() > 0) {
+                vary.append(", ");
+            }
+            vary.append(varyHeader);
+        }
+        this.vary = vary.length() > 0 ? vary.toString() : null;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * @return the value of the Vary header of a cached response, listing
+     *         the request headers it varies on, or null if it varies on none
+     */
+    public String getVary() {
+        return vary;
+    }
+
+    /**
+     * Get the key of the cached response for a request. The key starts with
+     * the request path, so that the responses under a path can be 
+     * invalidated together by prefix.
+     * 
+     * @param path
+     *            the routed request path, relative to the servlet or filter,
+     *            or null to use the request URI, relative to the context path
+     * @param request
+     *            the request
+     * @param parameterMap
+     *            the request parameters
+     * @return the cache key
+     */
+    public String getKey(String path, HttpServletRequest request, Map<String, ?> parameterMap) {
+
+        if (path == null) {
+            path = request.getRequestURI().substring(request.getContextPath().length());
+        }
+        StringBuilder key = new StringBuilder(path);
+        char separator = '?';
+        for (String paramName : paramNames) {
+            key.append(separator).append(paramName).append('=');
+            appendValue(key, parameterMap.get(paramName));
+            separator = '&';
+        }
+        for (String varyHeader : varyHeaders) {
+            key.append('|').append(varyHeader).append('=');
+            appendValue(key, request.getHeader(varyHeader));
+        }
+        return key.toString();
+    }
+
+    /*
+     * values are encoded, so that a value containing a 
+     * separator cannot produce the key of another request
+     */
+    private void appendValue(StringBuilder key, Object value) {
+
+        if (value instanceof String[]) {
+            String[] values = (String[]) value;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    key.append(',');
+                }
+                key.append(encode(values[i]));
+            }
+        } else if (value != null) {
+            key.append(encode(value.toString()));
+        }
+    }
+
+    private String encode(String value) {
+
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            /* UTF-8 is always supported */
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.views.View;
+
+/**
+ * A rendered response, held in a response cache. It is rendered by replaying
+ * its content type, headers and body, or with a 304 status if the response
+ * has an ETag matched by the request, or has not been modified since the
+ * date of the request's If-Modified-Since header. If the response is being
+ * compressed, the body is compressed once for each content coding, and the 
+ * compressed bytes are kept alongside the original. An instance of this 
+ * class is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class CachedResponse implements View {
+
+    private final String contentType;
+    private final String[] headerNames;
+    private final Object[] headerValues;
+    private final byte[] body;
+    private final String etag;
+    private final long lastModified;
+    private final ConcurrentMap<String, byte[]> compressedBodies = 
+            new ConcurrentHashMap<String, byte[]>(2);
+
+    /**
+     * @param contentType
+     *            the content type of the response, or null if it has none
+     * @param headerNames
+     *            the names of the headers, in the order they were set
+     * @param headerValues
+     *            the values of the headers; a String, or a Long for date
+     *            headers, or an Integer for int headers
+     * @param body
+     *            the body of the response
+     */
+    public CachedResponse(String contentType, List<String> headerNames, 
+            List<Object> headerValues, byte[] body) {
+
+        this.contentType = contentType;
+        this.headerNames = headerNames.toArray(new String[headerNames.size()]);
+        this.headerValues = headerValues.toArray(new Object[headerValues.size()]);
+        this.body = body;
+
+        String tag = null;
+        long modified = -1;
+        for (int i = 0; i < this.headerNames.length; i++) {
+            if (Preconditions.isETagHeader(this.headerNames[i])) {
+                tag = String.valueOf(this.headerValues[i]);
+            } else if (Preconditions.isLastModifiedHeader(this.headerNames[i])) {
+                modified = Preconditions.toMillis(this.headerValues[i]);
+            }
+        }
+        this.etag = tag;
+        this.lastModified = modified;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        boolean notModified = Preconditions.isETagMatched(request, etag) || 
+                Preconditions.isNotModifiedSince(request, lastModified);
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        for (int i = 0; i < headerNames.length; i++) {
+            Object value = headerValues[i];
+            if (value instanceof Long) {
+                response.addDateHeader(headerNames[i], (Long) value);
+            } else if (value instanceof Integer) {
+                response.addIntHeader(headerNames[i], (Integer) value);
+            } else {
+                response.addHeader(headerNames[i], (String) value);
+            }
+        }
+        if (!notModified && !writeCompressed(response)) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Write out the body compressed, if the response is compressing and
+     * the body should be compressed.
+     * 
+     * @param response
+     *            the response, which may be a {@link CompressingResponse}
+     * @return true if the compressed body was written
+     */
+    boolean writeCompressed(HttpServletResponse response) throws IOException {
+
+        if (!(response instanceof CompressingResponse)) {
+            return false;
+        }
+        CompressingResponse compressing = (CompressingResponse) response;
+        if (!compressing.shouldCompress(body.length)) {
+            return false;
+        }
+        compressing.writePrecompressed(getCompressedBody(compressing.getCompression(), 
+                compressing.getCoding()));
+        return true;
+    }
+
+    /**
+     * @param compression
+     *            the compression configuration
+     * @param coding
+     *            gzip or deflate
+     * @return the body compressed with the given content coding
+     */
+    public byte[] getCompressedBody(Compression compression, String coding) throws IOException {
+
+        byte[] compressed = compressedBodies.get(coding);
+        if (compressed == null) {
+            compressed = compression.compress(body, 0, body.length, coding);
+            byte[] existing = compressedBodies.putIfAbsent(coding, compressed);
+            if (existing != null) {
+                compressed = existing;
+            }
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.views.View;
+
+/**
+ * Renders a view into a buffer, and caches the rendered response before
+ * writing it out, if it can be cached. If the response is to be compressed,
+ * the compressed body is kept with the cached response. If the cache policy
+ * varies on request headers, they are listed in a Vary header, which is 
+ * cached with the response.
+ * 
+ * @author Luis Antunes
+ */
+public class CachingView implements View {
+
+    private final View view;
+    private final ResponseCache cache;
+    private final String key;
+    private final CachePolicy policy;
+
+    public CachingView(View view, ResponseCache cache, String key, CachePolicy policy) {
+
+        this.view = view;
+        this.cache = cache;
+        this.key = key;
+        this.policy = policy;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        BufferedResponse buffered = new BufferedResponse(response);
+        try {
+            String vary = policy.getVary();
+            if (vary != null) {
+                buffered.addHeader("Vary", vary);
+            }
+            view.render(request, buffered, properties);
+
+            CachedResponse cached = buffered.toCachedResponse();
+            if (cached != null) {
+                cache.put(key, cached, policy.getTtlMillis());
+                if (cached.writeCompressed(response)) {
+                    return;
+                }
+            }
+            buffered.writeBody();
+        } finally {
+            buffered.release();
+        }
+    }
+}
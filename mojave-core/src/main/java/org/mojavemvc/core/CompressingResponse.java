@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
+import org.mojavemvc.util.DeflatingOutputStream;
+
+/**
+ * <p>
+ * A response wrapper that compresses the body with a negotiated content
+ * coding. Whether the body is compressed is decided when the first bytes 
+ * are written, if the Content-Length is known, or else once the body 
+ * reaches the compression threshold, or when it is flushed or finished. 
+ * Until then, the body is held in a pooled buffer. A body is compressed if 
+ * its content type is compressible, its length is not below the threshold, 
+ * and no Content-Encoding was set on the response. The ETag of a compressed 
+ * body is made weak, as the compressed and uncompressed bodies are not 
+ * byte-for-byte identical, and so must not share a strong validator.
+ * </p>
+ * 
+ * <p>
+ * Views that already hold a compressed body, such as cached responses, can
+ * write it out with {@link #writePrecompressed(byte[])}.
+ * </p>
+ * 
+ * <p>
+ * {@link #finish()} must be called once the view has been rendered, and
+ * {@link #release()} once the response is done with.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public class CompressingResponse extends HttpServletResponseWrapper {
+
+    private static final String DEFAULT_CHARACTER_ENCODING = "ISO-8859-1";
+
+    private final Compression compression;
+    private final String coding;
+
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+    private ByteArrayBuffer buffer;
+    private OutputStream target;
+    private DeflatingOutputStream deflating;
+    private int contentLength = -1;
+    private String etag;
+    private boolean compressing;
+    private boolean encoded;
+    private boolean uncompressible;
+    private boolean finished;
+
+    /**
+     * @param response
+     *            the response to wrap
+     * @param compression
+     *            the compression configuration
+     * @param coding
+     *            the content coding negotiated for the request
+     */
+    public CompressingResponse(HttpServletResponse response, Compression compression, 
+            String coding) {
+
+        super(response);
+        this.compression = compression;
+        this.coding = coding;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public String getCoding() {
+        return coding;
+    }
+
+    /**
+     * @param length
+     *            the length of a body of the response's content type
+     * @return true if the body would be compressed
+     */
+    public boolean shouldCompress(int length) {
+
+        return !encoded && !uncompressible && length >= compression.getThreshold() && 
+                compression.isCompressible(getContentType());
+    }
+
+    /**
+     * @return true if the body is being compressed, in which case the 
+     *         Content-Encoding header has been set on the wrapped response
+     */
+    public boolean isCompressing() {
+        return compressing;
+    }
+
+    /**
+     * Write out a body that has already been compressed with the 
+     * negotiated content coding. Nothing must have been written to the 
+     * response.
+     * 
+     * @param body
+     *            the compressed body
+     */
+    public void writePrecompressed(byte[] body) throws IOException {
+
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        setEncodingHeaders(response);
+        response.setContentLength(body.length);
+        target = response.getOutputStream();
+        target.write(body);
+    }
+
+    /**
+     * Write out any buffered body, and complete the compressed body.
+     */
+    public void finish() throws IOException {
+
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            decide(contentLength >= 0 ? contentLength : bufferedSize());
+        }
+        if (deflating != null) {
+            deflating.finish();
+        }
+    }
+
+    /**
+     * Return the pooled buffer and Deflater held by this response.
+     */
+    public void release() {
+
+        BufferPool.getShared().release(buffer);
+        buffer = null;
+        compression.release(deflating, coding);
+        deflating = null;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        return getStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            String encoding = getCharacterEncoding();
+            writer = new PrintWriter(new OutputStreamWriter(getStream(), 
+                    encoding != null ? encoding : DEFAULT_CHARACTER_ENCODING));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+
+        if (target == null) {
+            contentLength = len;
+        } else if (deflating == null) {
+            super.setContentLength(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+
+        if (isContentLength(name) && interceptContentLength(value)) {
+            return;
+        }
+        checkContentEncoding(name);
+        super.setHeader(name, checkETag(name, value));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+
+        if (isContentLength(name) && interceptContentLength(value)) {
+            return;
+        }
+        checkContentEncoding(name);
+        super.addHeader(name, checkETag(name, value));
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+
+        if (isContentLength(name)) {
+            setContentLength(value);
+            return;
+        }
+        super.setIntHeader(name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+
+        if (isContentLength(name)) {
+            setContentLength(value);
+            return;
+        }
+        super.addIntHeader(name, value);
+    }
+
+    @Override
+    public void setStatus(int sc) {
+
+        checkStatus(sc);
+        super.setStatus(sc);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void setStatus(int sc, String sm) {
+
+        checkStatus(sc);
+        super.setStatus(sc, sm);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+
+        discardBody();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+
+        discardBody();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+
+        discardBody();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            decide(contentLength);
+        }
+        target.flush();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+
+        if (target == null && buffer != null) {
+            buffer.reset();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+
+        if (target == null) {
+            if (buffer != null) {
+                buffer.reset();
+            }
+            contentLength = -1;
+            etag = null;
+            encoded = false;
+            uncompressible = false;
+        }
+        super.reset();
+    }
+
+    /*
+     * a length that does not fit in an int is that of a body too large to be 
+     * buffered or compressed, such as a large file, and its header is passed 
+     * through; returns true if the header is not to be passed through
+     */
+    private boolean interceptContentLength(String value) {
+
+        long length;
+        try {
+            length = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (length <= Integer.MAX_VALUE) {
+            setContentLength((int) length);
+            return true;
+        }
+        if (target == null) {
+            uncompressible = true;
+            return false;
+        }
+        return deflating != null;
+    }
+
+    private ServletOutputStream getStream() {
+
+        if (stream == null) {
+            stream = new CompressingStream();
+        }
+        return stream;
+    }
+
+    private int bufferedSize() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /*
+     * decides whether the body is compressed, given its length, or -1 if
+     * the length is not known, in which case it is compressed if its content
+     * type is compressible; any buffered body is then written out
+     */
+    private void decide(int length) throws IOException {
+
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        boolean compress = length < 0 ? shouldCompress(compression.getThreshold()) : 
+            shouldCompress(length);
+        if (compress) {
+            setEncodingHeaders(response);
+            deflating = compression.newOutputStream(response.getOutputStream(), coding);
+            target = deflating;
+        } else {
+            if (contentLength >= 0) {
+                response.setContentLength(contentLength);
+            }
+            target = response.getOutputStream();
+        }
+        if (buffer != null) {
+            buffer.writeTo(target);
+            BufferPool.getShared().release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void setEncodingHeaders(HttpServletResponse response) {
+
+        compressing = true;
+        response.setHeader("Content-Encoding", coding);
+        response.addHeader("Vary", "Accept-Encoding");
+        if (etag != null) {
+            response.setHeader("ETag", weaken(etag));
+        }
+    }
+
+    private void discardBody() {
+
+        if (target == null) {
+            BufferPool.getShared().release(buffer);
+            buffer = null;
+            uncompressible = true;
+            target = NULL_STREAM;
+        }
+    }
+
+    private void checkContentEncoding(String name) {
+
+        if ("Content-Encoding".equalsIgnoreCase(name)) {
+            encoded = true;
+        }
+    }
+
+    private String checkETag(String name, String value) {
+
+        if (!Preconditions.isETagHeader(name) || value == null) {
+            return value;
+        }
+        etag = value;
+        return compressing ? weaken(value) : value;
+    }
+
+    private static String weaken(String etag) {
+        return etag.startsWith("W/") ? etag : "W/" + etag;
+    }
+
+    private void checkStatus(int sc) {
+
+        /* a partial body is a range of the uncompressed representation */
+        if (sc < HttpServletResponse.SC_OK || sc == HttpServletResponse.SC_NO_CONTENT || 
+                sc == HttpServletResponse.SC_PARTIAL_CONTENT || 
+                sc == HttpServletResponse.SC_NOT_MODIFIED) {
+            uncompressible = true;
+        }
+    }
+
+    private static boolean isContentLength(String name) {
+        return "Content-Length".equalsIgnoreCase(name);
+    }
+
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {}
+    };
+
+    private class CompressingStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            if (target == null) {
+                if (contentLength >= 0) {
+                    decide(contentLength);
+                } else {
+                    if (buffer == null) {
+                        buffer = BufferPool.getShared().acquire();
+                    }
+                    buffer.write(b, off, len);
+                    if (buffer.size() >= compression.getThreshold()) {
+                        decide(-1);
+                    }
+                    return;
+                }
+            }
+            target.write(b, off, len);
+        }
+
+        /*
+         * the writer is flushed when the response is finished, 
+         * which must not be taken as the body being streamed
+         */
+        @Override
+        public void flush() throws IOException {
+
+            if (target == null) {
+                if (finished) {
+                    return;
+                }
+                decide(contentLength);
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+    }
+}
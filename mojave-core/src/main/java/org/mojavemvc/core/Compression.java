@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.mojavemvc.util.DeflaterPool;
+import org.mojavemvc.util.DeflatingOutputStream;
+
+/**
+ * The configuration of the response compression stage: the content types 
+ * that are compressed, the size below which a response is not compressed, 
+ * and the pool of Deflaters of the configured compression level. It also 
+ * negotiates a content coding from a request's Accept-Encoding header. An 
+ * instance of this class is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class Compression {
+
+    public static final String KEY = Compression.class.getName();
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+    public static final String[] DEFAULT_CONTENT_TYPES = new String[] {
+        "text/html", "text/plain", "text/css", "text/xml", "text/csv",
+        "text/javascript", "application/javascript", "application/json", 
+        "application/x-ndjson", "application/xml"
+    };
+
+    private final int threshold;
+    private final Set<String> contentTypes;
+    private final DeflaterPool deflaterPool;
+
+    public Compression() {
+
+        this(DEFAULT_THRESHOLD, DEFAULT_LEVEL, DEFAULT_CONTENT_TYPES);
+    }
+
+    /**
+     * @param threshold
+     *            the size, in bytes, below which a response is not 
+     *            compressed
+     * @param level
+     *            the compression level, from 0 to 9, or -1 for the default
+     * @param contentTypes
+     *            the content types that are compressed
+     */
+    public Compression(int threshold, int level, String... contentTypes) {
+
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level: " + level);
+        }
+        this.threshold = threshold;
+        Set<String> types = new HashSet<String>();
+        for (String contentType : contentTypes) {
+            types.add(contentType.trim().toLowerCase());
+        }
+        this.contentTypes = Collections.unmodifiableSet(types);
+        this.deflaterPool = new DeflaterPool(level, DeflaterPool.DEFAULT_MAX_DEFLATERS);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public Set<String> getContentTypes() {
+        return contentTypes;
+    }
+
+    /**
+     * @param contentType
+     *            a content type, which may include parameters
+     * @return true if responses of the given content type are compressed
+     */
+    public boolean isCompressible(String contentType) {
+
+        if (contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        if (semicolon >= 0) {
+            contentType = contentType.substring(0, semicolon);
+        }
+        return contentTypes.contains(contentType.trim().toLowerCase());
+    }
+
+    /**
+     * Choose the content coding with which to compress the response to the
+     * given request, from the codings accepted by its Accept-Encoding 
+     * header. gzip is preferred over deflate when both are equally 
+     * acceptable.
+     * 
+     * @param request
+     *            the request
+     * @return gzip, or deflate, or null if the response is not to be 
+     *         compressed
+     */
+    public String negotiate(HttpServletRequest request) {
+
+        String header = request.getHeader("Accept-Encoding");
+        if (header == null) {
+            return null;
+        }
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            float q = getQuality(parts);
+            if (name.equals(GZIP) || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals(DEFLATE)) {
+                deflate = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private float getQuality(String[] parts) {
+
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @param out
+     *            the stream to write the coded data to
+     * @param coding
+     *            gzip or deflate
+     * @return a stream which must be released with 
+     *         {@link #release(DeflatingOutputStream, String)} once finished
+     */
+    public DeflatingOutputStream newOutputStream(OutputStream out, String coding) 
+            throws IOException {
+
+        boolean gzip = GZIP.equals(coding);
+        return new DeflatingOutputStream(out, deflaterPool.acquire(gzip), gzip);
+    }
+
+    /**
+     * Return the Deflater of a stream to the pool. The stream must not be 
+     * used after it has been released.
+     */
+    public void release(DeflatingOutputStream out, String coding) {
+
+        if (out != null) {
+            deflaterPool.release(out.getDeflater(), GZIP.equals(coding));
+        }
+    }
+
+    /**
+     * @param b
+     *            the data to compress
+     * @param off
+     *            the offset of the data
+     * @param len
+     *            the length of the data
+     * @param coding
+     *            gzip or deflate
+     * @return the compressed data
+     */
+    public byte[] compress(byte[] b, int off, int len, String coding) throws IOException {
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(len / 4, 64));
+        DeflatingOutputStream out = newOutputStream(compressed, coding);
+        try {
+            out.write(b, off, len);
+            out.finish();
+        } finally {
+            release(out, coding);
+        }
+        return compressed.toByteArray();
+    }
+}
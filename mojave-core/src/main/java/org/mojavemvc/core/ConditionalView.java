@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.ByteArrayBuffer;
+import org.mojavemvc.views.HTTPHeader;
+import org.mojavemvc.views.View;
+
+/**
+ * Renders a view with its validators, an ETag and a Last-Modified date. If
+ * no ETag is given, and one is to be generated, the view is rendered into a
+ * pooled buffer, and the ETag is computed by hashing the buffered body. If
+ * the request's If-None-Match header matches the ETag, a 304 response is 
+ * sent instead of the body.
+ * 
+ * @author Luis Antunes
+ */
+public class ConditionalView implements View {
+
+    private final View view;
+    private final String etag;
+    private final boolean generateETag;
+    private final long lastModified;
+
+    /**
+     * @param view
+     *            the view to render
+     * @param etag
+     *            the ETag of the view, quoted, or null if it has none
+     * @param generateETag
+     *            true if the ETag should be computed from the rendered body
+     *            when none is given
+     * @param lastModified
+     *            the time the resource was last modified, in milliseconds, 
+     *            or -1 if it is not known
+     */
+    public ConditionalView(View view, String etag, boolean generateETag, long lastModified) {
+
+        this.view = view;
+        this.etag = etag;
+        this.generateETag = generateETag;
+        this.lastModified = lastModified;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        if (lastModified >= 0) {
+            response.setDateHeader(HTTPHeader.LAST_MODIFIED, lastModified);
+        }
+
+        if (etag != null || !generateETag) {
+            if (etag != null) {
+                response.setHeader(HTTPHeader.ETAG, etag);
+            }
+            view.render(request, response, properties);
+            return;
+        }
+
+        BufferedResponse buffered = new BufferedResponse(response);
+        try {
+            view.render(request, buffered, properties);
+
+            if (buffered.getStatus() == HttpServletResponse.SC_OK) {
+                ByteArrayBuffer body = buffered.getBuffer();
+                String hashedTag = Preconditions.hashETag(body.getBytes(), body.size());
+                buffered.setHeader(HTTPHeader.ETAG, hashedTag);
+                if (Preconditions.isETagMatched(request, hashedTag)) {
+                    buffered.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            buffered.writeBody();
+        } finally {
+            buffered.release();
+        }
+    }
+}
@@ -72,6 +72,28 @@ public interface ControllerDatabase {
      */
     ActionSignature getAfterActionMethodFor(Class<?> controllerClass);
 
+    /**
+     * Get the ActionSignature annotated with @ETagProvider for the given
+     * controller class. ActionSignature is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the ActionSignature, or null if there is no ActionSignature
+     *         annotated with @ETagProvider
+     */
+    ActionSignature getETagProviderMethodFor(Class<?> controllerClass);
+
+    /**
+     * Get the ActionSignature annotated with @LastModified for the given
+     * controller class. ActionSignature is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the ActionSignature, or null if there is no ActionSignature
+     *         annotated with @LastModified
+     */
+    ActionSignature getLastModifiedMethodFor(Class<?> controllerClass);
+
     /**
      * Get the ActionSignature annotated with @DefaultAction for the given
      * controller class. ActionSignature is thread-safe.
@@ -134,6 +156,28 @@ public interface ControllerDatabase {
      */
     ActionSignature getBeforeActionMethodForInterceptor(Class<?> interceptorClass);
 
+    /**
+     * Get the InterceptorDescriptor for the given interceptor class.
+     * InterceptorDescriptor is thread-safe.
+     * 
+     * @param interceptorClass
+     *            the interceptor class
+     * @return the InterceptorDescriptor, or null if the class is not an
+     *         interceptor of any controller
+     */
+    InterceptorDescriptor getInterceptorDescriptor(Class<?> interceptorClass);
+
+    /**
+     * Get the holder of the instance of the given singleton controller class.
+     * SingletonControllerHolder is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the SingletonControllerHolder, or null if the class is not a
+     *         singleton controller
+     */
+    SingletonControllerHolder getSingletonHolder(Class<?> controllerClass);
+
     /**
      * Get the default controller for the application, if specified.
      * 
@@ -205,6 +249,33 @@ public interface ControllerDatabase {
      */
     ActionSignature getHttpMethodActionSignature(Class<?> controllerClass, HttpMethod httpMethod);
     
+    /**
+     * Get the DispatchEntry for the given action of the given controller
+     * class. If the action is null or empty, the entry for the HTTP method
+     * action is returned, or the entry for the default action if there is
+     * no action for the HTTP method. DispatchEntry is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @param action
+     *            the request action, or null
+     * @param httpMethod
+     *            the HTTP method of the request
+     * @return the DispatchEntry, or null if there is no matching action
+     */
+    DispatchEntry getDispatchEntry(Class<?> controllerClass, String action, HttpMethod httpMethod);
+    
+    /**
+     * Get the DispatchEntry created for the given action signature.
+     * DispatchEntry is thread-safe.
+     * 
+     * @param actionSignature
+     *            an action signature of this database
+     * @return the DispatchEntry, or null if the signature is not the action,
+     *         default action or HTTP method action signature of a controller
+     */
+    DispatchEntry getDispatchEntry(ActionSignature actionSignature);
+    
     /**
      * Get the Router for the application.
      * 
@@ -26,11 +26,11 @@
  */
 public class DefaultActionSignature extends BaseActionSignature {
 
-    public DefaultActionSignature(int fastIndex, String methodName, Class<?>[] paramTypes,
+    public DefaultActionSignature(MethodInvoker invoker, String methodName, Class<?>[] paramTypes,
             Annotation[][] paramAnnotations, Annotation[] methodAnnotations, 
             EntityMarshaller paramMarshaller, EntityMarshaller viewMarshaller) {
 
-        super(fastIndex, methodName, paramTypes, paramAnnotations, methodAnnotations, 
+        super(invoker, methodName, paramTypes, paramAnnotations, methodAnnotations, 
                 paramMarshaller, viewMarshaller);
     }
 
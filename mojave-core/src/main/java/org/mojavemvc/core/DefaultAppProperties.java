@@ -15,10 +15,13 @@
  */
 package org.mojavemvc.core;
 
+import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.mojavemvc.initialization.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * 
@@ -26,6 +29,8 @@
  */
 public class DefaultAppProperties implements AppProperties {
 
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
+    
     private Map<String, Object> properties;
     
     /**
@@ -48,4 +53,24 @@ public Object getProperty(String name) {
     void setProperties(Map<String, Object> params) {
         this.properties = new HashMap<String, Object>(params);
     }
+    
+    /*
+     * closes the properties that hold resources, such as 
+     * background threads, when the application is destroyed
+     */
+    void close() {
+        
+        if (properties == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            if (entry.getValue() instanceof Closeable) {
+                try {
+                    ((Closeable) entry.getValue()).close();
+                } catch (Exception e) {
+                    logger.error("error closing property " + entry.getKey(), e);
+                }
+            }
+        }
+    }
 }
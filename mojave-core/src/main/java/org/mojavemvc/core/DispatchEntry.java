@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+/**
+ * Everything needed to dispatch a request to a controller action, resolved
+ * once when the controller database is created. A route refers to its
+ * dispatch entries directly, so that a request does not have to look up the
+ * controller class, action signature and interceptors by name.
+ * An instance of this class is immutable, apart from the instance held for a
+ * singleton controller, and is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class DispatchEntry {
+
+    /**
+     * How instances of the controller are obtained for a request.
+     */
+    public enum Lifecycle {
+        STATELESS, STATEFUL, SINGLETON
+    }
+
+    private final Class<?> controllerClass;
+    private final Lifecycle lifecycle;
+    private final ActionSignature actionSignature;
+    private final ActionSignature afterConstructSignature;
+    private final ActionSignature beforeActionSignature;
+    private final ActionSignature afterActionSignature;
+    private final ActionSignature eTagProviderSignature;
+    private final ActionSignature lastModifiedSignature;
+    private final InterceptorChain interceptorChain;
+    private final SingletonControllerHolder singletonHolder;
+    private final boolean async;
+    private final CachePolicy cachePolicy;
+    private final boolean generateETag;
+    private final long maxUploadSize;
+
+    private DispatchEntry(Builder builder) {
+
+        this.controllerClass = builder.controllerClass;
+        this.lifecycle = builder.lifecycle;
+        this.actionSignature = builder.actionSignature;
+        this.afterConstructSignature = builder.afterConstructSignature;
+        this.beforeActionSignature = builder.beforeActionSignature;
+        this.afterActionSignature = builder.afterActionSignature;
+        this.eTagProviderSignature = builder.eTagProviderSignature;
+        this.lastModifiedSignature = builder.lastModifiedSignature;
+        this.interceptorChain = builder.interceptorChain;
+        this.singletonHolder = builder.singletonHolder;
+        this.async = builder.async;
+        this.cachePolicy = builder.cachePolicy;
+        this.generateETag = builder.generateETag;
+        this.maxUploadSize = builder.maxUploadSize;
+    }
+
+    public Class<?> getControllerClass() {
+        return controllerClass;
+    }
+
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public ActionSignature getActionSignature() {
+        return actionSignature;
+    }
+
+    /**
+     * @return the @AfterConstruct signature of the controller, or null if
+     *         there is none
+     */
+    public ActionSignature getAfterConstructSignature() {
+        return afterConstructSignature;
+    }
+
+    /**
+     * @return the @BeforeAction signature of the controller, or null if
+     *         there is none
+     */
+    public ActionSignature getBeforeActionSignature() {
+        return beforeActionSignature;
+    }
+
+    /**
+     * @return the @AfterAction signature of the controller, or null if
+     *         there is none
+     */
+    public ActionSignature getAfterActionSignature() {
+        return afterActionSignature;
+    }
+
+    /**
+     * @return the @ETagProvider signature of the controller, or null if
+     *         there is none
+     */
+    public ActionSignature getETagProviderSignature() {
+        return eTagProviderSignature;
+    }
+
+    /**
+     * @return the @LastModified signature of the controller, or null if
+     *         there is none
+     */
+    public ActionSignature getLastModifiedSignature() {
+        return lastModifiedSignature;
+    }
+
+    /**
+     * @return the interceptors of the action; never null
+     */
+    public InterceptorChain getInterceptorChain() {
+        return interceptorChain;
+    }
+
+    /**
+     * @return the holder of the controller instance, shared by all the
+     *         entries of the controller, or null if the controller is not a
+     *         singleton
+     */
+    public SingletonControllerHolder getSingletonHolder() {
+        return singletonHolder;
+    }
+
+    /**
+     * @return true if the action is annotated with @Async, or returns a
+     *         Future or a Callable, and should be processed asynchronously
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return the cache policy of the action, if it is annotated with
+     *         @Cacheable, or null otherwise
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    /**
+     * @return true if the action or its controller is annotated with
+     *         @GenerateETag, and the ETag of the response should be computed
+     *         from its body
+     */
+    public boolean isGenerateETag() {
+        return generateETag;
+    }
+
+    /**
+     * @return the maximum size of the request body, in bytes, if the action
+     *         is annotated with @MaxUploadSize, or -1 otherwise
+     */
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    /**
+     * Builds a DispatchEntry. Unless set otherwise, the entry is for a
+     * stateless controller, with no lifecycle or validator signatures, no
+     * interceptors, no cache policy and no upload limit, and is processed
+     * synchronously.
+     */
+    public static class Builder {
+
+        private final Class<?> controllerClass;
+        private final ActionSignature actionSignature;
+        private Lifecycle lifecycle = Lifecycle.STATELESS;
+        private ActionSignature afterConstructSignature;
+        private ActionSignature beforeActionSignature;
+        private ActionSignature afterActionSignature;
+        private ActionSignature eTagProviderSignature;
+        private ActionSignature lastModifiedSignature;
+        private InterceptorChain interceptorChain = InterceptorChain.EMPTY;
+        private SingletonControllerHolder singletonHolder;
+        private boolean async;
+        private CachePolicy cachePolicy;
+        private boolean generateETag;
+        private long maxUploadSize = -1;
+
+        public Builder(Class<?> controllerClass, ActionSignature actionSignature) {
+            this.controllerClass = controllerClass;
+            this.actionSignature = actionSignature;
+        }
+
+        public Builder withLifecycle(Lifecycle lifecycle) {
+            this.lifecycle = lifecycle;
+            return this;
+        }
+
+        public Builder withAfterConstructSignature(ActionSignature afterConstructSignature) {
+            this.afterConstructSignature = afterConstructSignature;
+            return this;
+        }
+
+        public Builder withBeforeActionSignature(ActionSignature beforeActionSignature) {
+            this.beforeActionSignature = beforeActionSignature;
+            return this;
+        }
+
+        public Builder withAfterActionSignature(ActionSignature afterActionSignature) {
+            this.afterActionSignature = afterActionSignature;
+            return this;
+        }
+
+        public Builder withETagProviderSignature(ActionSignature eTagProviderSignature) {
+            this.eTagProviderSignature = eTagProviderSignature;
+            return this;
+        }
+
+        public Builder withLastModifiedSignature(ActionSignature lastModifiedSignature) {
+            this.lastModifiedSignature = lastModifiedSignature;
+            return this;
+        }
+
+        public Builder withInterceptorChain(InterceptorChain interceptorChain) {
+            this.interceptorChain = interceptorChain;
+            return this;
+        }
+
+        public Builder withSingletonHolder(SingletonControllerHolder singletonHolder) {
+            this.singletonHolder = singletonHolder;
+            return this;
+        }
+
+        public Builder withAsync(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        public Builder withCachePolicy(CachePolicy cachePolicy) {
+            this.cachePolicy = cachePolicy;
+            return this;
+        }
+
+        public Builder withGenerateETag(boolean generateETag) {
+            this.generateETag = generateETag;
+            return this;
+        }
+
+        public Builder withMaxUploadSize(long maxUploadSize) {
+            this.maxUploadSize = maxUploadSize;
+            return this;
+        }
+
+        public DispatchEntry build() {
+            return new DispatchEntry(this);
+        }
+    }
+}
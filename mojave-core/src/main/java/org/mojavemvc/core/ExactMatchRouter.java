@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bigtesting.routd.Route;
+import org.bigtesting.routd.Router;
+
+/**
+ * A Router that keeps static routes, those without any named or splat
+ * parameters, in a hash table keyed by their exact resource path. A request
+ * path that is identical to the path of a static route is matched with a
+ * single lookup; any other path is routed by the delegate Router, to which
+ * all routes are also added.
+ * <p>
+ * Routes are meant to be added during initialization only, after which this
+ * class can be shared by multiple threads.
+ * 
+ * @author Luis Antunes
+ */
+public class ExactMatchRouter implements Router {
+
+    private final Router delegate;
+    
+    /*
+     * a map of the resource paths of static routes to their routes
+     * eg. "/index/some-action" -> MojaveRoute["index", "some-action", null]
+     */
+    private final Map<String, Route> staticRoutes = new HashMap<String, Route>();
+    
+    public ExactMatchRouter(Router delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public void add(Route route) {
+        
+        if (route.getNamedParameterElements().isEmpty() && 
+                route.getSplatParameterElements().isEmpty()) {
+            
+            staticRoutes.put(route.getResourcePath(), route);
+        }
+        delegate.add(route);
+    }
+
+    @Override
+    public Route route(String path) {
+        
+        if (!requiresDecoding(path)) {
+            
+            Route route = staticRoutes.get(path);
+            if (route != null) {
+                return route;
+            }
+        }
+        return delegate.route(path);
+    }
+    
+    /*
+     * the delegate URL-decodes the path before matching it, 
+     * so such paths can't be compared as they are
+     */
+    private boolean requiresDecoding(String path) {
+        
+        return path.indexOf('%') != -1 || path.indexOf('+') != -1;
+    }
+}
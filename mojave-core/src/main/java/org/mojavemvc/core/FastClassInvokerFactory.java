@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * Creates invokers that call methods through a cglib FastClass, generated
+ * once per class. FastClass cannot see non-public methods; those are
+ * invoked through reflection instead.
+ * 
+ * @author Luis Antunes
+ */
+public class FastClassInvokerFactory implements InvokerFactory {
+
+    private final ConcurrentMap<Class<?>, FastClass> fastClasses = 
+            new ConcurrentHashMap<Class<?>, FastClass>();
+
+    public MethodInvoker createInvoker(Class<?> clazz, Method method) {
+
+        FastClass fastClass = getFastClass(clazz);
+        int index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        if (index < 0) {
+            return new ReflectionInvoker(method);
+        }
+        return new FastClassInvoker(fastClass, index);
+    }
+
+    private FastClass getFastClass(Class<?> clazz) {
+
+        FastClass fastClass = fastClasses.get(clazz);
+        if (fastClass == null) {
+            fastClass = FastClass.create(clazz);
+            fastClasses.putIfAbsent(clazz, fastClass);
+        }
+        return fastClass;
+    }
+}
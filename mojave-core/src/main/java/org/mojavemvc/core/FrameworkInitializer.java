@@ -15,6 +15,7 @@
  */
 package org.mojavemvc.core;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
@@ -23,9 +24,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import net.sf.cglib.reflect.FastClass;
 
+import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.bigtesting.routd.TreeRouter;
 import org.mojavemvc.exception.ConfigurationException;
 import org.mojavemvc.exception.DefaultErrorHandlerFactory;
@@ -38,8 +41,10 @@
 import org.mojavemvc.initialization.ModuleProvider;
 import org.mojavemvc.marshalling.EntityMarshaller;
 import org.mojavemvc.marshalling.JSONEntityMarshaller;
+import org.mojavemvc.marshalling.NDJSONEntityMarshaller;
 import org.mojavemvc.marshalling.PlainTextEntityMarshaller;
 import org.mojavemvc.marshalling.XMLEntityMarshaller;
+import org.mojavemvc.util.BufferPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +65,29 @@ public class FrameworkInitializer {
     private static final String ERROR_HANDLER_FACTORY = "error-handler-factory";
     private static final String ENTITY_MARSHALLERS = "entity-marshallers";
     private static final String INITIALIZERS = "initializers";
+    private static final String INVOKER_FACTORY = "invoker-factory";
+    private static final String ASYNC_THREADS = "async-threads";
+    private static final String ASYNC_QUEUE_SIZE = "async-queue-size";
+    private static final String ASYNC_TIMEOUT = "async-timeout";
+    private static final String ASYNC_EXECUTOR = "async-executor";
+    private static final String ASYNC_ACTIONS = "async-actions";
+    private static final String RESPONSE_CACHE_SIZE = "response-cache-size";
+    private static final String BUFFER_POOL_SIZE = "buffer-pool-size";
+    private static final String BUFFER_SIZE = "buffer-size";
+    private static final String COMPRESSION = "compression";
+    private static final String COMPRESSION_THRESHOLD = "compression-threshold";
+    private static final String COMPRESSION_LEVEL = "compression-level";
+    private static final String COMPRESSION_TYPES = "compression-types";
+    private static final String MULTIPART_MODE = "multipart-mode";
+    private static final String UPLOAD_THRESHOLD = "upload-threshold";
+    private static final String UPLOAD_REPOSITORY = "upload-repository";
+    private static final String MAX_UPLOAD_SIZE = "max-upload-size";
+    
+    private static final String VIRTUAL_THREADS = "virtual";
+    private static final String ALL_ACTIONS = "all";
+    
+    private static final int DEFAULT_ASYNC_THREADS = 64;
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 256;
     
     private static final String INTERNAL_INITIALIZER_PACKAGE = "org.mojavemvc.initialization.internal";
     
@@ -80,10 +108,14 @@ public FrameworkInitializer(Config config, Context context,
     public void performInitialization() {
 
         logger.debug("performing initialization...");
+        createBufferPool();
         createGuiceInjector();
         processInitializers();
         createControllerDatabase();
         createErrorHandlerFactory();
+        createAsyncRequestExecutor();
+        createCompression();
+        createMultipartConfig();
     }
     
     private void createGuiceInjector() {
@@ -96,8 +128,11 @@ private void createGuiceInjector() {
             Set<Module> providedModules = getModulesFromProvider();
             AppProperties appProps = new DefaultAppProperties();
             context.setAttribute(AppProperties.KEY, appProps); 
+            ResponseCache responseCache = new ResponseCache(
+                    getIntInitParameter(RESPONSE_CACHE_SIZE, ResponseCache.DEFAULT_MAX_ENTRIES));
+            context.setAttribute(ResponseCache.KEY, responseCache);
             GuiceInitializer guiceInitializer = 
-                    new GuiceInitializer(moduleClasses, providedModules, appProps);
+                    new GuiceInitializer(moduleClasses, providedModules, appProps, responseCache);
             Injector injector = guiceInitializer.initializeInjector();
             context.setAttribute(GuiceInitializer.KEY, injector);
 
@@ -217,8 +252,9 @@ private void createControllerDatabase() {
             Set<Class<?>> controllerClasses = scanControllerClasses();
             Map<String, EntityMarshaller> entityMarshallers = scanEntityMarshallers();
             ControllerDatabase controllerDatabase = 
-                    new MappedControllerDatabase(controllerClasses, new TreeRouter(), 
-                            entityMarshallers);
+                    new MappedControllerDatabase(controllerClasses, 
+                            new ExactMatchRouter(new TreeRouter()), 
+                            entityMarshallers, createInvokerFactory());
             context.setAttribute(ControllerDatabase.KEY, controllerDatabase);
 
         } catch (Throwable e) {
@@ -226,6 +262,133 @@ private void createControllerDatabase() {
         }
     }
 
+    private InvokerFactory createInvokerFactory() throws Exception {
+
+        String invokerFactoryName = config.getInitParameter(INVOKER_FACTORY);
+        if (isEmpty(invokerFactoryName)) {
+            logger.debug("no " + INVOKER_FACTORY + " init-param specified, using default...");
+            return new FastClassInvokerFactory();
+        }
+
+        logger.debug("setting " + INVOKER_FACTORY + " to " + invokerFactoryName);
+        return (InvokerFactory) Class.forName(invokerFactoryName.trim()).newInstance();
+    }
+
+    private void createAsyncRequestExecutor() {
+
+        logger.debug("creating AsyncRequestExecutor...");
+
+        try {
+
+            ExecutorService executor = null;
+            if (VIRTUAL_THREADS.equalsIgnoreCase(trim(config.getInitParameter(ASYNC_EXECUTOR)))) {
+                executor = AsyncRequestExecutor.newVirtualThreadExecutor();
+                if (executor == null) {
+                    logger.info("virtual threads are not supported by the runtime; " +
+                            "using a pool of platform threads");
+                }
+            }
+            if (executor == null) {
+                int threads = getIntInitParameter(ASYNC_THREADS, DEFAULT_ASYNC_THREADS);
+                int queueSize = getIntInitParameter(ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE);
+                executor = AsyncRequestExecutor.newPlatformThreadPool(threads, queueSize);
+            }
+            
+            long timeout = getIntInitParameter(ASYNC_TIMEOUT, 0);
+            boolean allActions = ALL_ACTIONS.equalsIgnoreCase(trim(config.getInitParameter(ASYNC_ACTIONS)));
+            context.setAttribute(AsyncRequestExecutor.KEY, 
+                    new AsyncRequestExecutor(executor, timeout, allActions));
+
+        } catch (Throwable e) {
+            logger.error("error creating AsyncRequestExecutor", e);
+        }
+    }
+
+    private void createBufferPool() {
+
+        logger.debug("creating BufferPool...");
+
+        try {
+
+            int maxBuffers = getIntInitParameter(BUFFER_POOL_SIZE, BufferPool.DEFAULT_MAX_BUFFERS);
+            int bufferSize = getIntInitParameter(BUFFER_SIZE, BufferPool.DEFAULT_INITIAL_CAPACITY);
+            BufferPool.setShared(new BufferPool(maxBuffers, bufferSize, 
+                    Math.max(bufferSize, BufferPool.DEFAULT_MAX_RETAINED_CAPACITY)));
+
+        } catch (Throwable e) {
+            logger.error("error creating BufferPool", e);
+        }
+    }
+
+    private void createCompression() {
+
+        logger.debug("creating Compression...");
+
+        try {
+
+            /* responses may already be compressed by a container filter or a proxy */
+            if (!"true".equalsIgnoreCase(trim(config.getInitParameter(COMPRESSION)))) {
+                logger.debug("response compression is not enabled");
+                return;
+            }
+            int threshold = getIntInitParameter(COMPRESSION_THRESHOLD, Compression.DEFAULT_THRESHOLD);
+            int level = getIntInitParameter(COMPRESSION_LEVEL, Compression.DEFAULT_LEVEL);
+            String[] contentTypes = Compression.DEFAULT_CONTENT_TYPES;
+            String types = config.getInitParameter(COMPRESSION_TYPES);
+            if (!isEmpty(types)) {
+                logger.debug("setting " + COMPRESSION_TYPES + " to " + types);
+                contentTypes = types.split(NAMESPACE_SEPARATOR);
+            }
+            context.setAttribute(Compression.KEY, new Compression(threshold, level, contentTypes));
+
+        } catch (Throwable e) {
+            logger.error("error creating Compression", e);
+        }
+    }
+
+    private void createMultipartConfig() {
+
+        logger.debug("creating MultipartConfig...");
+
+        try {
+
+            boolean streaming = "streaming".equalsIgnoreCase(trim(config.getInitParameter(MULTIPART_MODE)));
+            int threshold = getIntInitParameter(UPLOAD_THRESHOLD, DiskFileItemFactory.DEFAULT_SIZE_THRESHOLD);
+            File repository = null;
+            String repositoryPath = config.getInitParameter(UPLOAD_REPOSITORY);
+            if (!isEmpty(repositoryPath)) {
+                logger.debug("setting " + UPLOAD_REPOSITORY + " to " + repositoryPath);
+                repository = new File(repositoryPath.trim());
+            }
+            long maxUploadSize = -1;
+            String maxSize = config.getInitParameter(MAX_UPLOAD_SIZE);
+            if (!isEmpty(maxSize)) {
+                logger.debug("setting " + MAX_UPLOAD_SIZE + " to " + maxSize);
+                maxUploadSize = Long.parseLong(maxSize.trim());
+            }
+            context.setAttribute(MultipartConfig.KEY, 
+                    new MultipartConfig(streaming, threshold, repository, maxUploadSize));
+
+        } catch (Throwable e) {
+            logger.error("error creating MultipartConfig", e);
+        }
+    }
+
+    private String trim(String value) {
+        
+        return value != null ? value.trim() : null;
+    }
+
+    private int getIntInitParameter(String name, int defaultValue) {
+
+        String value = config.getInitParameter(name);
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        logger.debug("setting " + name + " to " + value);
+        return Integer.parseInt(value.trim());
+    }
+
     private Set<Class<?>> scanControllerClasses() {
 
         List<String> packages = getControllerPackages();
@@ -253,6 +416,7 @@ private Map<String, EntityMarshaller> scanEntityMarshallers() {
          * can be overridden by user's marshallers */
         addToEntityMarshallerMap(new PlainTextEntityMarshaller(), marshallerMap);
         addToEntityMarshallerMap(new JSONEntityMarshaller(), marshallerMap);
+        addToEntityMarshallerMap(new NDJSONEntityMarshaller(), marshallerMap);
         addToEntityMarshallerMap(new XMLEntityMarshaller(), marshallerMap);
         
         String marshallersNamespaces = config.getInitParameter(ENTITY_MARSHALLERS);
@@ -358,13 +522,13 @@ public void createInitControllers() {
                          * we've already validated that there are no method
                          * parameters when creating the controller database
                          */
-                        FastClass actionFastClass = controllerDb.getFastClass(controllerClass);
-                        actionFastClass.invoke(afterConstructSig.fastIndex(), actionController, new Object[] {});
+                        afterConstructSig.invoker().invoke(actionController, new Object[] {});
                         logger.debug("invoked after construct action for " + controllerClass.getName());
                     }
 
                     /* add this singleton controller to the servlet context */
                     context.setAttribute(controllerClass.getName(), actionController);
+                    controllerDb.getSingletonHolder(controllerClass).setInstance(actionController);
                 }
 
             } catch (Throwable e) {
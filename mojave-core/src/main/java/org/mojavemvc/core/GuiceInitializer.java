@@ -48,15 +48,24 @@ public class GuiceInitializer {
     private final Set<Class<? extends Module>> moduleClasses;
     private final Set<Module> providedModules;
     private final AppProperties appProperties;
+    private final ResponseCache responseCache;
 
     public GuiceInitializer(Set<Class<? extends Module>> moduleClasses, 
             Set<Module> providedModules,
             AppProperties appProperties) {
 
+        this(moduleClasses, providedModules, appProperties, new ResponseCache());
+    }
+
+    public GuiceInitializer(Set<Class<? extends Module>> moduleClasses, 
+            Set<Module> providedModules,
+            AppProperties appProperties, ResponseCache responseCache) {
+
         this.moduleClasses = moduleClasses;
         this.providedModules = 
                 providedModules != null ? providedModules : new HashSet<Module>();
         this.appProperties = appProperties;
+        this.responseCache = responseCache;
     }
 
     public Injector initializeInjector() throws Exception {
@@ -64,7 +73,7 @@ public Injector initializeInjector() throws Exception {
         List<Module> modules = new ArrayList<Module>();
 
         logger.debug("adding " + ServletResourceModule.class.getName() + " ...");
-        modules.add(new ServletResourceModule(appProperties));
+        modules.add(new ServletResourceModule(appProperties, responseCache));
 
         for (Class<? extends Module> moduleClass : moduleClasses) {
 
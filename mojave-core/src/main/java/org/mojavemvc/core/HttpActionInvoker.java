@@ -16,17 +16,22 @@
 package org.mojavemvc.core;
 
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import net.sf.cglib.reflect.FastClass;
-
 import org.mojavemvc.aop.RequestContext;
+import org.mojavemvc.exception.UploadSizeExceededException;
 import org.mojavemvc.views.EmptyView;
+import org.mojavemvc.views.Response;
 import org.mojavemvc.views.View;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,36 +45,53 @@ public class HttpActionInvoker implements ActionInvoker {
 
     private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
 
-    private final HttpServletRequest request;
-    private final HttpServletResponse response;
     private final ControllerDatabase controllerDb;
     private final Injector injector;
-    private final String controller;
-    private final String action;
-    private final Map<String, Object> parameterMap;
+    private final ResponseCache responseCache;
+
+    public HttpActionInvoker(ControllerDatabase controllerDb, Injector injector) {
+
+        this(controllerDb, injector, null);
+    }
 
-    public HttpActionInvoker(HttpServletRequest request, HttpServletResponse response, ControllerDatabase controllerDb,
-            RoutedRequest routed, Injector injector) {
+    public HttpActionInvoker(ControllerDatabase controllerDb, Injector injector, 
+            ResponseCache responseCache) {
 
-        this.request = request;
-        this.response = response;
         this.controllerDb = controllerDb;
         this.injector = injector;
+        this.responseCache = responseCache;
+    }
 
-        String cntrl = routed.getController();
-        controller = (cntrl == null || cntrl.trim().length() == 0) ? "" : cntrl;
+    public View invokeAction(HttpServletRequest request, HttpServletResponse response, RoutedRequest routed, 
+            Object actionController, ActionSignature actionSignature) throws Exception {
 
-        String actn = routed.getAction();
-        action = (actn == null || actn.trim().length() == 0) ? "" : actn;
-        
-        this.parameterMap = routed.getParameterMap();
+        DispatchEntry dispatchEntry = controllerDb.getDispatchEntry(actionSignature);
+        if (dispatchEntry == null) {
+            throw new IllegalArgumentException("no dispatch entry for action " + 
+                    actionSignature.methodName() + " of " + actionController.getClass().getName());
+        }
+        return invokeAction(request, response, routed, actionController, dispatchEntry, 0);
     }
 
-    public View invokeAction(Object actionController, ActionSignature actionSignature) throws Exception {
+    public View invokeAction(HttpServletRequest request, HttpServletResponse response, RoutedRequest routed, 
+            Object actionController, DispatchEntry dispatchEntry, long deferredTimeout) throws Exception {
+
+        logInitMessage(dispatchEntry.getActionSignature(), actionController.getClass());
 
-        Class<?> actionControllerClass = actionController.getClass();
-        logInitMessage(actionSignature, actionControllerClass);
-        return invokeActionMethod(actionController, actionSignature, actionControllerClass);
+        CachePolicy cachePolicy = dispatchEntry.getCachePolicy();
+        if (cachePolicy != null && responseCache != null && HttpMethod.GET.name().equals(request.getMethod())) {
+
+            String cacheKey = cachePolicy.getKey(routed.getPath(), request, routed.getParameterMap());
+            CachedResponse cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                logger.debug("serving cached response for " + cacheKey);
+                return cached;
+            }
+            return invokeActionMethod(request, response, routed, actionController, dispatchEntry, 
+                    deferredTimeout, cachePolicy, cacheKey);
+        }
+        return invokeActionMethod(request, response, routed, actionController, dispatchEntry, 
+                deferredTimeout, null, null);
     }
 
     private void logInitMessage(ActionSignature actionSignature, Class<?> actionControllerClass) {
@@ -84,123 +106,263 @@ private void logInitMessage(ActionSignature actionSignature, Class<?> actionCont
         logger.debug(message);
     }
 
-    private View invokeActionMethod(Object actionController, ActionSignature actionSignature, 
-            Class<?> actionControllerClass) throws Exception {
+    private View invokeActionMethod(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Object actionController, DispatchEntry dispatchEntry, 
+            long deferredTimeout, CachePolicy cachePolicy, String cacheKey) throws Exception {
 
         View view = null;
+        Map<String, Object> parameterMap = routed.getParameterMap();
 
-        Object[] args = actionSignature.getArgs(parameterMap, request.getInputStream());
-        Annotation[] actionAnnotations = actionSignature.getAnnotations();
-
-        List<Object> classInterceptors = createInterceptors(controllerDb.getInterceptorsFor(actionControllerClass));
-
-        List<Object> methodInterceptors = createInterceptorsForAction(actionSignature, actionControllerClass);
-
-        for (Object interceptor : classInterceptors) {
-
-            view = invokeBeforeActionIfRequired(interceptor, actionAnnotations,
-                    controllerDb.getBeforeActionMethodForInterceptor(interceptor.getClass()), args);
-            if (view != null) {
-                return view;
+        ActionSignature actionSignature = dispatchEntry.getActionSignature();
+        
+        long maxUploadSize = dispatchEntry.getMaxUploadSize();
+        if (maxUploadSize >= 0) {
+            /* reject a declared oversize body before any of it is read */
+            if (request.getContentLength() > maxUploadSize) {
+                return new Response.RequestEntityTooLarge();
+            }
+            if (parameterMap instanceof MultipartParameterMap) {
+                ((MultipartParameterMap) parameterMap).setSizeMax(maxUploadSize);
             }
         }
+        
+        Object[] args;
+        try {
+            args = actionSignature.getArgs(parameterMap, routed.getPathParameters(), request.getInputStream());
+        } catch (UploadSizeExceededException e) {
+            logger.debug(e.getMessage());
+            return new Response.RequestEntityTooLarge();
+        }
+        Annotation[] actionAnnotations = actionSignature.getAnnotations();
 
-        for (Object interceptor : methodInterceptors) {
-
-            view = invokeBeforeActionIfRequired(interceptor, actionAnnotations,
-                    controllerDb.getBeforeActionMethodForInterceptor(interceptor.getClass()), args);
+        InterceptorChain chain = dispatchEntry.getInterceptorChain();
+        InterceptorDescriptor[] interceptors = chain.getInterceptors();
+        
+        /*
+         * one instance of each interceptor is used for both its before 
+         * and after actions; they are created as they are needed
+         */
+        Object[] interceptorInstances = new Object[interceptors.length];
+
+        for (int i : chain.getBeforeChain()) {
+
+            InterceptorDescriptor interceptor = interceptors[i];
+            view = invokeBeforeActionIfRequired(request, response, routed, 
+                    getInterceptorInstance(interceptors, interceptorInstances, i), 
+                    actionAnnotations, interceptor.getBeforeActionSignature(), args);
             if (view != null) {
                 return view;
             }
         }
 
-        view = invokeBeforeActionIfRequired(actionController, actionAnnotations,
-                controllerDb.getBeforeActionMethodFor(actionControllerClass), args);
+        view = invokeBeforeActionIfRequired(request, response, routed, actionController, actionAnnotations,
+                dispatchEntry.getBeforeActionSignature(), args);
 
         if (view != null) {
             return view;
         }
 
-        FastClass actionFastClass = controllerDb.getFastClass(actionControllerClass);
-        Object entity = actionFastClass.invoke(actionSignature.fastIndex(), actionController, args);
+        /*
+         * the validators of a GET or HEAD response may be supplied before 
+         * the action is invoked, so that a conditional request can be 
+         * answered without invoking the action or rendering its view
+         */
+        String method = request.getMethod();
+        boolean isGetOrHead = HttpMethod.GET.name().equals(method) || 
+                HttpMethod.HEAD.name().equals(method);
+        String etag = null;
+        long lastModified = -1;
+        if (isGetOrHead) {
+            if (dispatchEntry.getETagProviderSignature() != null) {
+                etag = Preconditions.toETag(invokeValidatorMethod(request, response, routed, 
+                        actionController, actionAnnotations, dispatchEntry.getETagProviderSignature(), args));
+            }
+            if (dispatchEntry.getLastModifiedSignature() != null) {
+                lastModified = Preconditions.toMillis(invokeValidatorMethod(request, response, routed, 
+                        actionController, actionAnnotations, dispatchEntry.getLastModifiedSignature(), args));
+            }
+            if (Preconditions.isETagMatched(request, etag) || 
+                    Preconditions.isNotModifiedSince(request, lastModified)) {
+                logger.debug("not modified: " + request.getRequestURI());
+                return newNotModifiedResponse(etag, lastModified);
+            }
+        }
+
+        Object entity;
+        try {
+            entity = getDeferredResult(actionSignature.invoker().invoke(actionController, args), 
+                    deferredTimeout);
+        } catch (Exception e) {
+            /* a streamed upload may exceed its maximum size as the action reads it */
+            UploadSizeExceededException sizeExceeded = getUploadSizeExceeded(e);
+            if (sizeExceeded == null) {
+                throw e;
+            }
+            logger.debug(sizeExceeded.getMessage());
+            return new Response.RequestEntityTooLarge();
+        }
         View marshalledEntity = actionSignature.marshall(entity);
         view = marshalledEntity;
-        logger.debug("invoked " + actionSignature.methodName() + " for " + actionControllerClass.getName());
+        logger.debug("invoked " + actionSignature.methodName() + " for " + actionController.getClass().getName());
 
-        View afterActionView = invokeAfterActionIfRequired(actionController, actionAnnotations,
-                controllerDb.getAfterActionMethodFor(actionControllerClass), 
-                args, entity, marshalledEntity);
+        View afterActionView = invokeAfterActionIfRequired(request, response, routed, actionController, 
+                actionAnnotations, dispatchEntry.getAfterActionSignature(), args, entity, marshalledEntity);
 
         if (afterActionView != null) {
             view = afterActionView;
         }
 
-        for (Object interceptor : methodInterceptors) {
+        View interceptorView = invokeAfterActionChain(request, response, routed, chain.getActionAfterChain(), 
+                interceptors, interceptorInstances, actionAnnotations, args, entity, marshalledEntity);
+        if (interceptorView != null) {
+            view = interceptorView;
+        }
 
-            View interceptorView = invokeAfterActionIfRequired(interceptor, actionAnnotations,
-                    controllerDb.getAfterActionMethodForInterceptor(interceptor.getClass()), 
-                    args, entity, marshalledEntity);
-            if (interceptorView != null) {
-                view = interceptorView;
-                break;
-            }
+        interceptorView = invokeAfterActionChain(request, response, routed, chain.getClassAfterChain(), 
+                interceptors, interceptorInstances, actionAnnotations, args, entity, marshalledEntity);
+        if (interceptorView != null) {
+            view = interceptorView;
         }
 
-        for (Object interceptor : classInterceptors) {
+        boolean generateETag = isGetOrHead && dispatchEntry.isGenerateETag();
+        if (view != null && (etag != null || lastModified >= 0 || generateETag)) {
+            view = new ConditionalView(view, etag, generateETag, lastModified);
+        }
 
-            View interceptorView = invokeAfterActionIfRequired(interceptor, actionAnnotations,
-                    controllerDb.getAfterActionMethodForInterceptor(interceptor.getClass()), 
-                    args, entity, marshalledEntity);
-            if (interceptorView != null) {
-                view = interceptorView;
-                break;
-            }
+        /*
+         * only the response of an action that was invoked is cached; 
+         * a view returned by a before action is not
+         */
+        if (cachePolicy != null && view != null) {
+            view = new CachingView(view, responseCache, cacheKey, cachePolicy);
         }
 
         return view;
     }
 
-    private List<Object> createInterceptorsForAction(ActionSignature actionSignature, 
-            Class<?> actionControllerClass) throws Exception {
+    /*
+     * an action may return a Future or a Callable, typically to be processed
+     * asynchronously; the value it produces is treated as the action's result;
+     * the wait for a Future is bounded by the asynchronous processing timeout, 
+     * so that a Future that never completes does not hold the thread
+     */
+    private Object getDeferredResult(Object entity, long deferredTimeout) throws Exception {
 
-        List<Class<?>> interceptorClasses = null;
-        interceptorClasses = actionSignature.getInterceptorClasses(controllerDb, actionControllerClass, action);
-        return createInterceptors(interceptorClasses);
+        if (entity instanceof Callable<?>) {
+            return ((Callable<?>) entity).call();
+        }
+        if (entity instanceof Future<?>) {
+            Future<?> future = (Future<?>) entity;
+            try {
+                return deferredTimeout > 0 ? 
+                        future.get(deferredTimeout, TimeUnit.MILLISECONDS) : future.get();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return entity;
     }
 
-    private List<Object> createInterceptors(List<Class<?>> interceptorClasses) throws Exception {
+    private UploadSizeExceededException getUploadSizeExceeded(Exception e) {
+
+        Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+        return cause instanceof UploadSizeExceededException ? 
+                (UploadSizeExceededException) cause : null;
+    }
 
-        List<Object> interceptors = new ArrayList<Object>();
-        if (interceptorClasses != null) {
-            for (Class<?> interceptorClass : interceptorClasses) {
+    /*
+     * returns the view of the first interceptor in the chain 
+     * that returns one, skipping the rest of the chain
+     */
+    private View invokeAfterActionChain(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, int[] afterChain, InterceptorDescriptor[] interceptors, 
+            Object[] interceptorInstances, Annotation[] actionAnnotations, Object[] args, 
+            Object entity, View marshalledEntity) throws Exception {
+
+        for (int i : afterChain) {
+
+            InterceptorDescriptor interceptor = interceptors[i];
+            View interceptorView = invokeAfterActionIfRequired(request, response, routed, 
+                    getInterceptorInstance(interceptors, interceptorInstances, i), actionAnnotations,
+                    interceptor.getAfterActionSignature(), args, entity, marshalledEntity);
+            if (interceptorView != null) {
+                return interceptorView;
+            }
+        }
+        return null;
+    }
 
-                /* use the Guice Injector */
-                Object interceptor = injector.getInstance(interceptorClass);
-                interceptors.add(interceptor);
+    /*
+     * invokes an @ETagProvider or @LastModified method, which is bound like
+     * an action, and may also accept a RequestContext
+     */
+    private Object invokeValidatorMethod(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Object actionController, Annotation[] actionAnnotations, 
+            ActionSignature validatorMethod, Object[] actionArgs) throws Exception {
+
+        Object[] args = validatorMethod.getArgs(routed.getParameterMap(), routed.getPathParameters(), null);
+        Class<?>[] paramTypes = validatorMethod.parameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (paramTypes[i].equals(RequestContext.class)) {
+                args[i] = new RequestContext(request, response, actionArgs, 
+                        getAction(routed), getController(routed), actionAnnotations, null, null);
             }
         }
-        return interceptors;
+        Object validator = validatorMethod.invoker().invoke(actionController, args);
+        logger.debug("invoked " + validatorMethod.methodName() + " for " + 
+                actionController.getClass().getName());
+        return validator;
     }
 
-    private View invokeBeforeActionIfRequired(Object instance, Annotation[] actionAnnotations, 
-            ActionSignature interceptorMethod, Object[] actionArgs)
-            throws Exception {
+    private View newNotModifiedResponse(String etag, long lastModified) {
 
-        return invokeBeforeOrAfterActionIfRequired(instance, actionAnnotations, 
+        Response.NotModified notModified = new Response.NotModified();
+        if (etag != null) {
+            notModified.withTag(etag);
+        }
+        if (lastModified >= 0) {
+            notModified.withLastModified(new Date(lastModified));
+        }
+        return notModified;
+    }
+
+    private Object getInterceptorInstance(InterceptorDescriptor[] interceptors, 
+            Object[] interceptorInstances, int i) {
+
+        Object instance = interceptorInstances[i];
+        if (instance == null) {
+            /* use the Guice Injector, unless it is a singleton already created */
+            instance = interceptors[i].getInstance(injector);
+            interceptorInstances[i] = instance;
+        }
+        return instance;
+    }
+
+    private View invokeBeforeActionIfRequired(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Object instance, Annotation[] actionAnnotations, 
+            ActionSignature interceptorMethod, Object[] actionArgs) throws Exception {
+
+        return invokeBeforeOrAfterActionIfRequired(request, response, routed, instance, actionAnnotations, 
                 interceptorMethod, actionArgs, null, null, "before");
     }
 
-    private View invokeAfterActionIfRequired(Object instance, Annotation[] actionAnnotations, 
-            ActionSignature interceptorMethod, Object[] actionArgs, Object entity, View marshalledEntity)
-            throws Exception {
+    private View invokeAfterActionIfRequired(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Object instance, Annotation[] actionAnnotations, 
+            ActionSignature interceptorMethod, Object[] actionArgs, Object entity, 
+            View marshalledEntity) throws Exception {
 
-        return invokeBeforeOrAfterActionIfRequired(instance, actionAnnotations, 
+        return invokeBeforeOrAfterActionIfRequired(request, response, routed, instance, actionAnnotations, 
                 interceptorMethod, actionArgs, entity, marshalledEntity, "after");
     }
 
-    private View invokeBeforeOrAfterActionIfRequired(Object instance, Annotation[] actionAnnotations,
-            ActionSignature interceptorMethod, Object[] actionArgs, Object entity, View marshalledEntity,
-            String which) throws Exception {
+    private View invokeBeforeOrAfterActionIfRequired(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Object instance, Annotation[] actionAnnotations,
+            ActionSignature interceptorMethod, Object[] actionArgs, Object entity, 
+            View marshalledEntity, String which) throws Exception {
 
         View view = null;
 
@@ -210,10 +372,9 @@ private View invokeBeforeOrAfterActionIfRequired(Object instance, Annotation[] a
              * creating the controller database
              */
 
-            FastClass actionFastClass = controllerDb.getFastClass(instance.getClass());
-            Object returnObj = actionFastClass.invoke(interceptorMethod.fastIndex(), instance,
-                    getBeforeOrAfterActionArgs(interceptorMethod.parameterTypes(), actionArgs, 
-                            actionAnnotations, entity, marshalledEntity));
+            Object returnObj = interceptorMethod.invoker().invoke(instance,
+                    getBeforeOrAfterActionArgs(request, response, routed, interceptorMethod.parameterTypes(), 
+                            actionArgs, actionAnnotations, entity, marshalledEntity));
 
             if (returnObj != null && returnObj instanceof View) {
                 view = (View) returnObj;
@@ -234,7 +395,8 @@ private View invokeBeforeOrAfterActionIfRequired(Object instance, Annotation[] a
         return view;
     }
 
-    private Object[] getBeforeOrAfterActionArgs(Class<?>[] paramterTypes, Object[] actionArgs, 
+    private Object[] getBeforeOrAfterActionArgs(HttpServletRequest request, HttpServletResponse response, 
+            RoutedRequest routed, Class<?>[] paramterTypes, Object[] actionArgs, 
             Annotation[] actionAnnotations, Object entity, View marshalledEntity) {
 
         Object[] args = new Object[] {};
@@ -243,9 +405,21 @@ private Object[] getBeforeOrAfterActionArgs(Class<?>[] paramterTypes, Object[] a
 
             args = new Object[1];
             args[0] = new RequestContext(request, response, actionArgs, 
-                    action, controller, actionAnnotations, entity, marshalledEntity);
+                    getAction(routed), getController(routed), actionAnnotations, entity, marshalledEntity);
         }
 
         return args;
     }
+
+    private String getController(RoutedRequest routed) {
+
+        String controller = routed.getController();
+        return (controller == null || controller.trim().length() == 0) ? "" : controller;
+    }
+
+    private String getAction(RoutedRequest routed) {
+
+        String action = routed.getAction();
+        return (action == null || action.trim().length() == 0) ? "" : action;
+    }
 }
@@ -15,16 +15,10 @@
  */
 package org.mojavemvc.core;
 
-import java.lang.annotation.Annotation;
-
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
-import net.sf.cglib.reflect.FastClass;
-
 import org.mojavemvc.annotations.DefaultController;
-import org.mojavemvc.annotations.SingletonController;
-import org.mojavemvc.annotations.StatefulController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,34 +33,35 @@ public class HttpActionResolver implements ActionResolver {
     private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
 
     private final Context context;
-    private final HttpServletRequest request;
-    private final HttpMethod httpMethod;
     private final ControllerDatabase controllerDb;
     private final Injector injector;
 
-    private Object actionController;
-    private ActionSignature actionSignature;
-    private Class<?> controllerClass;
-
-    public HttpActionResolver(Context context, HttpServletRequest req, HttpMethod httpMethod,
-            ControllerDatabase controllerDb, Injector injector) {
+    public HttpActionResolver(Context context, ControllerDatabase controllerDb, Injector injector) {
 
         this.context = context;
-        this.request = req;
-        this.httpMethod = httpMethod;
         this.controllerDb = controllerDb;
         this.injector = injector;
     }
 
-    public void resolve(final String controller, final String action) throws Exception {
+    public DispatchEntry resolveDispatchEntry(RoutedRequest routed, HttpMethod httpMethod) {
 
-        resolveControllerClass(controller);
-        createActionController();
-        resolveActionSignature(action);
+        DispatchEntry dispatchEntry = routed.getDispatchEntry(httpMethod);
+        if (dispatchEntry == null) {
+            /* 
+             * the route was not created by the controller database, 
+             * or there is no action for the HTTP method 
+             */
+            Class<?> controllerClass = resolveControllerClass(routed.getController());
+            dispatchEntry = resolveDispatchEntry(controllerClass, routed.getAction(), httpMethod);
+        }
+        logger.debug("received request for " + dispatchEntry.getControllerClass().getName() + 
+                "; processing...");
+        return dispatchEntry;
     }
 
-    private void resolveControllerClass(final String controller) {
+    private Class<?> resolveControllerClass(final String controller) {
 
+        Class<?> controllerClass;
         if (controller != null) {
             controllerClass = controllerDb.getControllerClass(controller);
             if (controllerClass == null) {
@@ -79,119 +74,100 @@ private void resolveControllerClass(final String controller) {
                         + DefaultController.class.getSimpleName() + " exists");
             }
         }
-        logger.debug("received request for " + controllerClass.getName() + "; processing...");
+        return controllerClass;
     }
 
-    private void createActionController() throws Exception {
-
-        Annotation annot = controllerClass.getAnnotation(StatefulController.class);
-        if (annot != null) {
+    private DispatchEntry resolveDispatchEntry(final Class<?> controllerClass, final String action, 
+            final HttpMethod httpMethod) {
 
+        DispatchEntry dispatchEntry = controllerDb.getDispatchEntry(controllerClass, action, httpMethod);
+        if (dispatchEntry == null) {
+            
+            if (action == null || action.trim().length() == 0) {
+                throw new UnsupportedOperationException("no default action found in " + controllerClass.getName());
+            }
+            
             /*
-             * a StatefulController
+             * an invalid action parameter was given
              */
+            throw new IllegalArgumentException("no action '" + action + "' defined for " + controllerClass);
+        }
+        return dispatchEntry;
+    }
+
+    public Object getActionController(HttpServletRequest request, DispatchEntry dispatchEntry) throws Exception {
+
+        Class<?> controllerClass = dispatchEntry.getControllerClass();
+        
+        switch (dispatchEntry.getLifecycle()) {
+        
+        case STATEFUL:
+
             HttpSession sess = request.getSession();
             Object actionConrollerInSession = sess.getAttribute(controllerClass.getName());
             if (actionConrollerInSession != null) {
                 /* re-inject any Guice-managed dependencies */
                 injector.injectMembers(actionConrollerInSession);
-                actionController = actionConrollerInSession;
-            } else {
-                createNewActionController();
-                request.getSession().setAttribute(controllerClass.getName(), actionController);
+                return actionConrollerInSession;
             }
+            Object actionController = createNewActionController(dispatchEntry);
+            sess.setAttribute(controllerClass.getName(), actionController);
+            return actionController;
 
-        } else {
+        case SINGLETON:
 
-            annot = controllerClass.getAnnotation(SingletonController.class);
-            if (annot != null) {
-
-                /*
-                 * a SingletonController
-                 */
-                Object actionControllerInCtx = context.getAttribute(controllerClass.getName());
-                if (actionControllerInCtx != null) {
-                    /* re-inject any Guice-managed dependencies */
-                    injector.injectMembers(actionControllerInCtx);
-                    actionController = actionControllerInCtx;
-                } else {
-                    createNewActionController();
-                    context.setAttribute(controllerClass.getName(), actionController);
-                }
-
-            } else {
-
-                /*
-                 * must be a StatelessController
-                 */
-                createNewActionController();
+            SingletonControllerHolder holder = dispatchEntry.getSingletonHolder();
+            Object singletonController = holder.getInstance();
+            if (singletonController == null) {
+                singletonController = createSingletonController(holder, dispatchEntry);
+            } else if (holder.isReinjected()) {
+                /* re-inject any Guice-managed dependencies */
+                injector.injectMembers(singletonController);
             }
-        }
-    }
-
-    private void createNewActionController() throws Exception {
-
-        /* use the Guice Injector */
-        actionController = injector.getInstance(controllerClass);
-
-        invokeAfterConstructIfRequired();
-    }
+            return singletonController;
 
-    private void invokeAfterConstructIfRequired() throws Exception {
-
-        ActionSignature afterConstructSig = controllerDb.getAfterConstructMethodFor(controllerClass);
-        if (afterConstructSig != null) {
-            /*
-             * we've already validated that there are no method parameters when
-             * creating the controller database
-             */
-            FastClass actionFastClass = controllerDb.getFastClass(controllerClass);
-            actionFastClass.invoke(afterConstructSig.fastIndex(), actionController, new Object[] {});
-            logger.debug("invoked after construct action for " + controllerClass.getName());
+        default:
+            
+            return createNewActionController(dispatchEntry);
         }
     }
 
-    private void resolveActionSignature(final String action) {
-
-        if (action == null || action.trim().length() == 0) {
-
-            actionSignature = controllerDb.getHttpMethodActionSignature(controllerClass, httpMethod);
-
-            if (actionSignature == null) {
+    private Object createSingletonController(SingletonControllerHolder holder, 
+            DispatchEntry dispatchEntry) throws Exception {
 
-                actionSignature = controllerDb.getDefaultActionMethodFor(controllerClass);
-
-                if (actionSignature == null) {
-                    throw new UnsupportedOperationException("no default action found in " + controllerClass.getName());
-                }
-            }
-
-        } else {
-
-            actionSignature = controllerDb.getActionMethodSignature(controllerClass, action);
-
-            /*
-             * if the actionSignature is null, an invalid action parameter was
-             * given
-             */
-            if (actionSignature == null) {
-                throw new IllegalArgumentException("no action '" + action + "' defined for " + controllerClass);
+        synchronized (holder) {
+            Object singletonController = holder.getInstance();
+            if (singletonController == null) {
+                singletonController = createNewActionController(dispatchEntry);
+                context.setAttribute(dispatchEntry.getControllerClass().getName(), singletonController);
+                holder.setInstance(singletonController);
             }
+            return singletonController;
         }
     }
 
-    public ActionSignature getActionSignature() {
-
-        return actionSignature;
-    }
+    private Object createNewActionController(DispatchEntry dispatchEntry) throws Exception {
 
-    public Object getActionController() {
+        /* use the Guice Injector */
+        Object actionController = injector.getInstance(dispatchEntry.getControllerClass());
 
+        invokeAfterConstructIfRequired(actionController, dispatchEntry);
+        
         return actionController;
     }
 
-    public String getControllerClassName() {
+    private void invokeAfterConstructIfRequired(Object actionController, 
+            DispatchEntry dispatchEntry) throws Exception {
 
-        return controllerClass != null ? controllerClass.getName() : "<unknown>";
+        ActionSignature afterConstructSig = dispatchEntry.getAfterConstructSignature();
+        if (afterConstructSig != null) {
+            /*
+             * we've already validated that there are no method parameters when
+             * creating the controller database
+             */
+            afterConstructSig.invoker().invoke(actionController, new Object[] {});
+            logger.debug("invoked after construct action for " + 
+                    dispatchEntry.getControllerClass().getName());
+        }
     }
 }
@@ -28,18 +28,11 @@ public class HttpMethodActionSignature extends BaseActionSignature {
 
     private final HttpMethod httpMethod;
 
-    public HttpMethodActionSignature(HttpMethod httpMethod, int fastIndex, String methodName, Class<?>[] paramTypes,
-            Annotation[][] paramAnnotations, Annotation[] methodAnnotations) {
-
-        super(fastIndex, methodName, paramTypes, paramAnnotations, methodAnnotations);
-        this.httpMethod = httpMethod;
-    }
-    
-    public HttpMethodActionSignature(HttpMethod httpMethod, int fastIndex, String methodName, Class<?>[] paramTypes,
-            Annotation[][] paramAnnotations, Annotation[] methodAnnotations, 
+    public HttpMethodActionSignature(HttpMethod httpMethod, MethodInvoker invoker, String methodName, 
+            Class<?>[] paramTypes, Annotation[][] paramAnnotations, Annotation[] methodAnnotations, 
             EntityMarshaller paramMarshaller, EntityMarshaller viewMarshaller) {
 
-        super(fastIndex, methodName, paramTypes, paramAnnotations, methodAnnotations, 
+        super(invoker, methodName, paramTypes, paramAnnotations, methodAnnotations, 
                 paramMarshaller, viewMarshaller);
         this.httpMethod = httpMethod;
     }
@@ -15,39 +15,40 @@
  */
 package org.mojavemvc.core;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 
-import org.apache.commons.fileupload.FileItem;
-import org.apache.commons.fileupload.disk.DiskFileItemFactory;
-import org.apache.commons.fileupload.servlet.ServletFileUpload;
-import org.mojavemvc.forms.UploadedFile;
-
 /**
  * @author Luis Antunes
  */
 public class HttpParameterMapSource implements ParameterMapSource {
     
-    private final HttpServletRequest req;
+    private final MultipartConfig multipartConfig;
+    
+    public HttpParameterMapSource() {
+        this(new MultipartConfig());
+    }
     
-    public HttpParameterMapSource(HttpServletRequest req) {
-        this.req = req;
+    public HttpParameterMapSource(MultipartConfig multipartConfig) {
+        this.multipartConfig = multipartConfig;
     }
 
     @SuppressWarnings("unchecked")
-    public Map<String, Object> getParameterMap() {
+    public Map<String, Object> getParameterMap(HttpServletRequest req) {
         
         Map<String, Object> paramMap = null;
         
         if (isMultipartContent(req)) {
             
-            paramMap = getMapFromMultipartRequest(req);
+            /*
+             * the body is parsed when the parameters are first looked up;
+             * NOTE: parameters that are not part of the request body, such
+             * as from a query string, take precedence over form parameters 
+             * of the same name
+             */
+            paramMap = new MultipartParameterMap(req, multipartConfig);
             
         } else {
             /*
@@ -72,63 +73,4 @@ private boolean isMultipartContent(HttpServletRequest req) {
         }
         return contentType.toLowerCase().startsWith("multipart/");
     }
-    
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getMapFromMultipartRequest(HttpServletRequest req) {
-        
-        Map<String, Object> paramMap = new HashMap<String, Object>();
-        try {
-            ServletFileUpload upload = new ServletFileUpload(new DiskFileItemFactory());
-            List<FileItem> items = upload.parseRequest(req);
-            for (FileItem item : items) {
-                if (item.isFormField()) {
-                    processFormField(item, paramMap);
-                } else {
-                    processUploadedFile(item, paramMap);
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("error getting parameters from multipart request: ", e);
-        }
-        
-        /* 
-         * there may be parameters that are not part of the request body, 
-         * such as from a query string; NOTE: if these share the same name as
-         * a form parameter, the form parameter will be overwritten 
-         */
-        paramMap.putAll(req.getParameterMap());
-        
-        return paramMap;
-    }
-    
-    private void processFormField(FileItem item, Map<String, Object> paramMap) {
-        
-        String name = item.getFieldName();
-        String value = item.getString();
-        /* handle multiple items with the same name; add to array */
-        String[] valueArray = (String[])paramMap.get(name);
-        if (valueArray != null) {
-            List<String> valueList = Arrays.asList(valueArray);
-            valueList.add(value);
-            valueArray = valueList.toArray(new String[valueList.size()]);
-        } else {
-            valueArray = new String[]{value};
-        }
-        paramMap.put(name, valueArray);
-    }
-    
-    private void processUploadedFile(FileItem item, 
-            Map<String, Object> paramMap) throws IOException {
-        
-        String fieldName = item.getFieldName();
-        String fileName = item.getName();
-        String contentType = item.getContentType();
-        boolean isInMemory = item.isInMemory();
-        long sizeInBytes = item.getSize();
-        InputStream uploadedStream = item.getInputStream();
-        
-        paramMap.put(fieldName, 
-                new UploadedFile(fileName, uploadedStream, 
-                        contentType, isInMemory, sizeInBytes));
-    }
 }
@@ -15,11 +15,13 @@
  */
 package org.mojavemvc.core;
 
-import static org.bigtesting.routd.RouteHelper.*;
+import static org.bigtesting.routd.RouteHelper.PATH_ELEMENT_SEPARATOR;
 
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.bigtesting.routd.NamedParameterElement;
 import org.bigtesting.routd.Router;
 import org.mojavemvc.exception.NoMatchingRouteException;
@@ -30,26 +32,25 @@
 public class HttpRequestRouter implements RequestRouter {
 
     private final ParameterMapSource paramMapSource;
-    private final String path;
     private final Router routeMap;
     
-    public HttpRequestRouter(String path, 
-            ParameterMapSource paramMapSource, Router router) {
+    public HttpRequestRouter(ParameterMapSource paramMapSource, Router router) {
         this.paramMapSource = paramMapSource;
-        this.path = path;
         this.routeMap = router;
     }
     
     @Override
-    public RoutedRequest route() {
+    public RoutedRequest route(HttpServletRequest req, String path) {
         
         String controller = null;
         String action = null;
-        Map<String, Object> paramMap = paramMapSource.getParameterMap();
+        MojaveRoute route = null;
+        PathParameters pathParams = null;
+        Map<String, Object> paramMap = paramMapSource.getParameterMap(req);
         
         if (path != null && path.startsWith(PATH_ELEMENT_SEPARATOR)) {
             
-            MojaveRoute route = (MojaveRoute)routeMap.route(path);
+            route = (MojaveRoute)routeMap.route(path);
             
             if (route == null) {
                 throw new NoMatchingRouteException(
@@ -58,28 +59,18 @@ public RoutedRequest route() {
             
             controller = route.getController();
             action = route.getAction();
-            handleParameters(path, paramMap, route);
-        }
-        
-        return new RoutedRequest(controller, action, paramMap);
-    }
-
-    private void handleParameters(String path, 
-            Map<String, Object> paramMap, MojaveRoute route) {
-        
-        List<NamedParameterElement> paramElements = 
-                route.getNamedParameterElements();
-        if (!paramElements.isEmpty()) {
             
-            /*
-             * we matched the path, so we can assume that there
-             * are the required number of tokens in the request
-             * path as there are in the route path
-             */
-            String[] pathTokens = getPathElements(path);
-            for (NamedParameterElement elem : paramElements) {
-                paramMap.put(elem.name(), new String[]{pathTokens[elem.index()]});
+            List<NamedParameterElement> paramElements = route.getNamedParameterElements();
+            if (!paramElements.isEmpty()) {
+                /*
+                 * we matched the path, so we can assume that there
+                 * are the required number of elements in the request
+                 * path as there are in the route path
+                 */
+                pathParams = new PathParameters(path, paramElements);
             }
         }
+        
+        return new RoutedRequest(controller, action, paramMap, route, pathParams, path);
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The interceptors of an action, arranged in the order in which their
+ * &#064;BeforeAction and &#064;AfterAction methods are invoked. Interceptors
+ * declared on the controller class come before those declared on the action
+ * method. An interceptor appears in a chain only if it has the method the
+ * chain invokes.
+ * <p>
+ * The chains are arrays of positions in {@link #getInterceptors()}, so that
+ * a single instance of each interceptor can be used for both its before and
+ * after methods during a request. An instance of this class is immutable,
+ * and thus is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class InterceptorChain {
+
+    public static final InterceptorChain EMPTY = new InterceptorChain(
+            new ArrayList<InterceptorDescriptor>(), new ArrayList<InterceptorDescriptor>());
+
+    private final InterceptorDescriptor[] interceptors;
+    private final int[] beforeChain;
+    private final int[] actionAfterChain;
+    private final int[] classAfterChain;
+
+    /**
+     * @param classInterceptors
+     *            the interceptors declared on the controller class, in
+     *            declaration order
+     * @param actionInterceptors
+     *            the interceptors declared on the action method, in
+     *            declaration order
+     */
+    public InterceptorChain(List<InterceptorDescriptor> classInterceptors, 
+            List<InterceptorDescriptor> actionInterceptors) {
+
+        List<InterceptorDescriptor> all = new ArrayList<InterceptorDescriptor>(classInterceptors);
+        all.addAll(actionInterceptors);
+        interceptors = all.toArray(new InterceptorDescriptor[all.size()]);
+
+        int classCount = classInterceptors.size();
+        List<Integer> before = new ArrayList<Integer>();
+        List<Integer> actionAfter = new ArrayList<Integer>();
+        List<Integer> classAfter = new ArrayList<Integer>();
+        for (int i = 0; i < interceptors.length; i++) {
+            if (interceptors[i].getBeforeActionSignature() != null) {
+                before.add(i);
+            }
+            if (interceptors[i].getAfterActionSignature() != null) {
+                (i < classCount ? classAfter : actionAfter).add(i);
+            }
+        }
+        beforeChain = toArray(before);
+        actionAfterChain = toArray(actionAfter);
+        classAfterChain = toArray(classAfter);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    public boolean isEmpty() {
+        return interceptors.length == 0;
+    }
+
+    /**
+     * @return all the interceptors, class interceptors first; the returned
+     *         array must not be modified
+     */
+    public InterceptorDescriptor[] getInterceptors() {
+        return interceptors;
+    }
+
+    /**
+     * @return the positions of the interceptors with a @BeforeAction method,
+     *         in invocation order; the returned array must not be modified
+     */
+    public int[] getBeforeChain() {
+        return beforeChain;
+    }
+
+    /**
+     * @return the positions of the action method interceptors with an
+     *         @AfterAction method, in invocation order; the returned array
+     *         must not be modified
+     */
+    public int[] getActionAfterChain() {
+        return actionAfterChain;
+    }
+
+    /**
+     * @return the positions of the controller class interceptors with an
+     *         @AfterAction method, in invocation order; the returned array
+     *         must not be modified
+     */
+    public int[] getClassAfterChain() {
+        return classAfterChain;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import org.mojavemvc.annotations.SingletonInterceptor;
+
+import com.google.inject.Injector;
+
+/**
+ * Describes an interceptor class: its &#064;BeforeAction and
+ * &#064;AfterAction signatures, resolved when the controller database is
+ * created. There is one instance of this class per interceptor class in the
+ * application. It is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class InterceptorDescriptor {
+
+    private final Class<?> interceptorClass;
+    private final ActionSignature beforeActionSignature;
+    private final ActionSignature afterActionSignature;
+    private final boolean singleton;
+
+    /*
+     * the single instance of a singleton interceptor, 
+     * created the first time it is needed
+     */
+    private volatile Object instance;
+
+    public InterceptorDescriptor(Class<?> interceptorClass, 
+            ActionSignature beforeActionSignature, ActionSignature afterActionSignature) {
+
+        this.interceptorClass = interceptorClass;
+        this.beforeActionSignature = beforeActionSignature;
+        this.afterActionSignature = afterActionSignature;
+        this.singleton = isSingleton(interceptorClass);
+    }
+
+    private static boolean isSingleton(Class<?> interceptorClass) {
+
+        return interceptorClass.isAnnotationPresent(SingletonInterceptor.class)
+                || interceptorClass.isAnnotationPresent(com.google.inject.Singleton.class)
+                || interceptorClass.isAnnotationPresent(javax.inject.Singleton.class);
+    }
+
+    public Class<?> getInterceptorClass() {
+        return interceptorClass;
+    }
+
+    /**
+     * @return the @BeforeAction signature, or null if there is none
+     */
+    public ActionSignature getBeforeActionSignature() {
+        return beforeActionSignature;
+    }
+
+    /**
+     * @return the @AfterAction signature, or null if there is none
+     */
+    public ActionSignature getAfterActionSignature() {
+        return afterActionSignature;
+    }
+
+    public boolean isSingleton() {
+        return singleton;
+    }
+
+    /**
+     * Get an instance of the interceptor. A singleton interceptor is
+     * created only once; otherwise, a new instance is created with each call.
+     * 
+     * @param injector
+     *            the injector used to create the interceptor
+     * @return an instance of the interceptor
+     */
+    public Object getInstance(Injector injector) {
+
+        if (!singleton) {
+            return injector.getInstance(interceptorClass);
+        }
+
+        Object inst = instance;
+        if (inst == null) {
+            synchronized (this) {
+                inst = instance;
+                if (inst == null) {
+                    inst = injector.getInstance(interceptorClass);
+                    instance = inst;
+                }
+            }
+        }
+        return inst;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the {@link MethodInvoker}s used to call actions, interceptors and
+ * &#064;AfterConstruct methods. The factory to use is selected with the
+ * <code>invoker-factory</code> init-param, which takes the name of a class
+ * implementing this interface; {@link FastClassInvokerFactory} is the
+ * default.
+ * 
+ * @author Luis Antunes
+ */
+public interface InvokerFactory {
+
+    /**
+     * @param clazz
+     *            the controller or interceptor class
+     * @param method
+     *            the method of the class to invoke
+     * @return an invoker for the method
+     */
+    MethodInvoker createInvoker(Class<?> clazz, Method method);
+}
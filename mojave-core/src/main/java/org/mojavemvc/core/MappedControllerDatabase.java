@@ -20,12 +20,18 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 
 import net.sf.cglib.reflect.FastClass;
 
@@ -33,20 +39,29 @@
 import org.mojavemvc.annotations.Action;
 import org.mojavemvc.annotations.AfterAction;
 import org.mojavemvc.annotations.AfterConstruct;
+import org.mojavemvc.annotations.Async;
 import org.mojavemvc.annotations.BeforeAction;
+import org.mojavemvc.annotations.Cacheable;
 import org.mojavemvc.annotations.DELETEAction;
 import org.mojavemvc.annotations.DefaultAction;
 import org.mojavemvc.annotations.DefaultController;
+import org.mojavemvc.annotations.ETagProvider;
 import org.mojavemvc.annotations.Entity;
 import org.mojavemvc.annotations.Expects;
 import org.mojavemvc.annotations.GETAction;
+import org.mojavemvc.annotations.GenerateETag;
 import org.mojavemvc.annotations.HEADAction;
 import org.mojavemvc.annotations.Init;
 import org.mojavemvc.annotations.InterceptedBy;
+import org.mojavemvc.annotations.LastModified;
+import org.mojavemvc.annotations.MaxUploadSize;
+import org.mojavemvc.annotations.Model;
 import org.mojavemvc.annotations.OPTIONSAction;
 import org.mojavemvc.annotations.POSTAction;
 import org.mojavemvc.annotations.PUTAction;
+import org.mojavemvc.annotations.Param;
 import org.mojavemvc.annotations.ParamPath;
+import org.mojavemvc.annotations.Resource;
 import org.mojavemvc.annotations.Returns;
 import org.mojavemvc.annotations.SingletonController;
 import org.mojavemvc.annotations.StatefulController;
@@ -56,6 +71,8 @@
 import org.mojavemvc.exception.ConfigurationException;
 import org.mojavemvc.marshalling.DefaultEntityMarshaller;
 import org.mojavemvc.marshalling.EntityMarshaller;
+import org.mojavemvc.marshalling.PreparableEntityMarshaller;
+import org.mojavemvc.util.BeanAccessor;
 import org.mojavemvc.util.ParamPathHelper;
 import org.mojavemvc.views.View;
 import org.slf4j.Logger;
@@ -100,6 +117,20 @@ public class MappedControllerDatabase implements ControllerDatabase {
      */
     private final Map<Class<?>, ActionSignature> controllerClassToAfterActionMap = new HashMap<Class<?>, ActionSignature>();
 
+    /*
+     * a map of the controller classes to their @ETagProvider methods eg.
+     * org.mojavemvc.tests.IndexController ->
+     * ActionSignature["version"]
+     */
+    private final Map<Class<?>, ActionSignature> controllerClassToETagProviderMap = new HashMap<Class<?>, ActionSignature>();
+
+    /*
+     * a map of the controller classes to their @LastModified methods eg.
+     * org.mojavemvc.tests.IndexController ->
+     * ActionSignature["lastModified"]
+     */
+    private final Map<Class<?>, ActionSignature> controllerClassToLastModifiedMap = new HashMap<Class<?>, ActionSignature>();
+
     /*
      * a map of the controller classes to their @DefaultAction methods eg.
      * org.mojavemvc.tests.IndexController -> ActionSignature[ "someAction", []
@@ -150,6 +181,12 @@ public class MappedControllerDatabase implements ControllerDatabase {
      */
     private final Map<Class<?>, ActionSignature> interceptorClassToAfterActionMap = new HashMap<Class<?>, ActionSignature>();
 
+    /*
+     * a map of the interceptor classes to their descriptors eg.
+     * org.mojavemvc.tests.Interceptor -> InterceptorDescriptor
+     */
+    private final Map<Class<?>, InterceptorDescriptor> interceptorClassToDescriptorMap = new HashMap<Class<?>, InterceptorDescriptor>();
+
     /*
      * a map of the controller classes to a map of their action names to
      * interceptor classes eg. org.mojavemvc.tests.IndexController ->
@@ -166,9 +203,9 @@ public class MappedControllerDatabase implements ControllerDatabase {
 
     /*
      * a map of controller and interceptor classes to their FastClass
-     * counter-part
+     * counter-part, created on first request
      */
-    private final Map<Class<?>, FastClass> classToFastClassMap = new HashMap<Class<?>, FastClass>();
+    private final ConcurrentMap<Class<?>, FastClass> classToFastClassMap = new ConcurrentHashMap<Class<?>, FastClass>();
 
     /*
      * a map of controller classes to a map of their HTTP methods to
@@ -177,6 +214,49 @@ public class MappedControllerDatabase implements ControllerDatabase {
      */
     private final Map<Class<?>, Map<HttpMethod, ActionSignature>> controllerClassToHttpMethodMap = new HashMap<Class<?>, Map<HttpMethod, ActionSignature>>();
     
+    /*
+     * a map of the controller classes to a map of their action names to
+     * dispatch entries eg. org.mojavemvc.tests.IndexController -> 
+     * ["some-action" -> DispatchEntry]
+     */
+    private final Map<Class<?>, Map<String, DispatchEntry>> controllerClassToActionDispatchMap = new HashMap<Class<?>, Map<String, DispatchEntry>>();
+    
+    /*
+     * a map of the controller classes to the dispatch entries used when no
+     * action is given, indexed by HttpMethod ordinal; an HTTP method without
+     * an action of its own is mapped to the default action entry, if any
+     */
+    private final Map<Class<?>, DispatchEntry[]> controllerClassToHttpMethodDispatchMap = new HashMap<Class<?>, DispatchEntry[]>();
+    
+    /*
+     * a map of the singleton controller classes to the holders of their
+     * instances eg. org.mojavemvc.tests.IndexController -> 
+     * SingletonControllerHolder
+     */
+    private final Map<Class<?>, SingletonControllerHolder> controllerClassToSingletonHolderMap = new HashMap<Class<?>, SingletonControllerHolder>();
+    
+    /*
+     * the action signatures whose methods return a Future or a Callable
+     */
+    private final Set<ActionSignature> deferredActionSignatures = new HashSet<ActionSignature>();
+    
+    /*
+     * the cache policies of the action signatures whose methods are
+     * annotated with @Cacheable
+     */
+    private final Map<ActionSignature, CachePolicy> actionSignatureToCachePolicyMap = new HashMap<ActionSignature, CachePolicy>();
+    
+    /*
+     * a map of the action signatures to their dispatch entries
+     */
+    private final Map<ActionSignature, DispatchEntry> actionSignatureToDispatchMap = new HashMap<ActionSignature, DispatchEntry>();
+    
+    /*
+     * the routes of the controller currently being processed; they are
+     * added to the router once the controller's dispatch entries exist
+     */
+    private final Set<MojaveRoute> pendingRoutes = new LinkedHashSet<MojaveRoute>();
+    
     /*
      * the router to configure during initialization
      */
@@ -189,6 +269,11 @@ public class MappedControllerDatabase implements ControllerDatabase {
      */
     private final Map<String, EntityMarshaller> entityMarshallerMap;
     
+    /*
+     * creates the invokers of the controller and interceptor methods
+     */
+    private final InvokerFactory invokerFactory;
+    
     /**
      * Construct a controller database based on the given Set of controller
      * Classes.
@@ -198,8 +283,23 @@ public class MappedControllerDatabase implements ControllerDatabase {
     public MappedControllerDatabase(Set<Class<?>> controllerClasses, Router router, 
             Map<String, EntityMarshaller> entityMarshallerMap) {
 
+        this(controllerClasses, router, entityMarshallerMap, new FastClassInvokerFactory());
+    }
+
+    /**
+     * Construct a controller database based on the given Set of controller
+     * Classes, invoking their methods through invokers created by the given
+     * factory.
+     * 
+     * @param controllerClasses
+     * @param invokerFactory
+     */
+    public MappedControllerDatabase(Set<Class<?>> controllerClasses, Router router, 
+            Map<String, EntityMarshaller> entityMarshallerMap, InvokerFactory invokerFactory) {
+
         this.router = router;
         this.entityMarshallerMap = entityMarshallerMap;
+        this.invokerFactory = invokerFactory;
         init(controllerClasses);
     }
 
@@ -271,6 +371,34 @@ public ActionSignature getAfterActionMethodFor(Class<?> controllerClass) {
         return controllerClassToAfterActionMap.get(controllerClass);
     }
 
+    /**
+     * Get the ActionSignature annotated with @ETagProvider for the given
+     * controller class. ActionSignature is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the ActionSignature, or null if there is no ActionSignature
+     *         annotated with @ETagProvider
+     */
+    public ActionSignature getETagProviderMethodFor(Class<?> controllerClass) {
+
+        return controllerClassToETagProviderMap.get(controllerClass);
+    }
+
+    /**
+     * Get the ActionSignature annotated with @LastModified for the given
+     * controller class. ActionSignature is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the ActionSignature, or null if there is no ActionSignature
+     *         annotated with @LastModified
+     */
+    public ActionSignature getLastModifiedMethodFor(Class<?> controllerClass) {
+
+        return controllerClassToLastModifiedMap.get(controllerClass);
+    }
+
     /**
      * Get the ActionSignature annotated with @DefaultAction for the given
      * controller class. ActionSignature is thread-safe.
@@ -351,6 +479,34 @@ public ActionSignature getBeforeActionMethodForInterceptor(Class<?> interceptorC
         return interceptorClassToBeforeActionMap.get(interceptorClass);
     }
 
+    /**
+     * Get the InterceptorDescriptor for the given interceptor class.
+     * InterceptorDescriptor is thread-safe.
+     * 
+     * @param interceptorClass
+     *            the interceptor class
+     * @return the InterceptorDescriptor, or null if the class is not an
+     *         interceptor of any controller
+     */
+    public InterceptorDescriptor getInterceptorDescriptor(Class<?> interceptorClass) {
+
+        return interceptorClassToDescriptorMap.get(interceptorClass);
+    }
+
+    /**
+     * Get the holder of the instance of the given singleton controller class.
+     * SingletonControllerHolder is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @return the SingletonControllerHolder, or null if the class is not a
+     *         singleton controller
+     */
+    public SingletonControllerHolder getSingletonHolder(Class<?> controllerClass) {
+
+        return controllerClassToSingletonHolderMap.get(controllerClass);
+    }
+
     /**
      * Get the default controller for the application, if specified.
      * 
@@ -422,15 +578,23 @@ public List<Class<?>> getInterceptorsForHttpMethodAction(Class<?> controllerClas
 
     /**
      * Get the cached FastClass version of the given controller or interceptor
-     * class. FastClass is thread-safe.
+     * class. FastClass is thread-safe. The FastClass is not used for
+     * dispatching, and so it is generated only when first requested.
      * 
      * @param clazz
      *            the controller or interceptor class
-     * @return the FastClass version of the class
+     * @return the FastClass version of the class, or null if the class is
+     *         neither a controller nor an interceptor
      */
     public FastClass getFastClass(Class<?> clazz) {
 
-        return classToFastClassMap.get(clazz);
+        FastClass fastClass = classToFastClassMap.get(clazz);
+        if (fastClass == null && (controllerClassToActionMap.containsKey(clazz) 
+                || interceptorClassToDescriptorMap.containsKey(clazz))) {
+            fastClass = FastClass.create(clazz);
+            classToFastClassMap.putIfAbsent(clazz, fastClass);
+        }
+        return fastClass;
     }
 
     /**
@@ -454,6 +618,49 @@ public ActionSignature getHttpMethodActionSignature(Class<?> controllerClass, Ht
         return null;
     }
 
+    /**
+     * Get the DispatchEntry for the given action of the given controller
+     * class. If the action is null or empty, the entry for the HTTP method
+     * action is returned, or the entry for the default action if there is
+     * no action for the HTTP method. DispatchEntry is thread-safe.
+     * 
+     * @param controllerClass
+     *            the controller class
+     * @param action
+     *            the request action, or null
+     * @param httpMethod
+     *            the HTTP method of the request
+     * @return the DispatchEntry, or null if there is no matching action
+     */
+    public DispatchEntry getDispatchEntry(Class<?> controllerClass, String action, HttpMethod httpMethod) {
+        
+        if (action == null || action.trim().length() == 0) {
+            
+            DispatchEntry[] entries = controllerClassToHttpMethodDispatchMap.get(controllerClass);
+            return entries != null ? entries[httpMethod.ordinal()] : null;
+        }
+        
+        Map<String, DispatchEntry> actionMap = controllerClassToActionDispatchMap.get(controllerClass);
+        if (actionMap == null) {
+            throw new ConfigurationException("no actions defined for " + controllerClass.getName());
+        }
+        return actionMap.get(action);
+    }
+
+    /**
+     * Get the DispatchEntry created for the given action signature.
+     * DispatchEntry is thread-safe.
+     * 
+     * @param actionSignature
+     *            an action signature of this database
+     * @return the DispatchEntry, or null if the signature is not the action,
+     *         default action or HTTP method action signature of a controller
+     */
+    public DispatchEntry getDispatchEntry(ActionSignature actionSignature) {
+        
+        return actionSignatureToDispatchMap.get(actionSignature);
+    }
+
     /*--------------------------private methods----------------------------------------*/
 
     private void init(Set<Class<?>> controllerClasses) {
@@ -466,7 +673,7 @@ private void init(Set<Class<?>> controllerClasses) {
 
             String controllerVariable = getControllerVariable(controllerClass, controllerAnnotation);
 
-            addControllerClass(controllerVariable, controllerClass);
+            addControllerClass(controllerVariable, controllerClass, getLifecycle(controllerAnnotation));
         }
     }
 
@@ -519,7 +726,18 @@ private String getControllerVariable(Class<?> controllerClass, Annotation contro
         return controllerVariable;
     }
 
-    private void addControllerClass(String controllerVariable, Class<?> controllerClass) {
+    private DispatchEntry.Lifecycle getLifecycle(Annotation controllerAnnotation) {
+        
+        if (controllerAnnotation instanceof StatefulController) {
+            return DispatchEntry.Lifecycle.STATEFUL;
+        } else if (controllerAnnotation instanceof SingletonController) {
+            return DispatchEntry.Lifecycle.SINGLETON;
+        }
+        return DispatchEntry.Lifecycle.STATELESS;
+    }
+
+    private void addControllerClass(String controllerVariable, Class<?> controllerClass, 
+            DispatchEntry.Lifecycle lifecycle) {
 
         /*
          * check if this controller variable already exists; if so raise an
@@ -535,6 +753,182 @@ private void addControllerClass(String controllerVariable, Class<?> controllerCl
         boolean isDefaultController = checkForDefaultController(controllerClass);
         setActionMethodIndicesFor(controllerClass, controllerVariable, isDefaultController);
         setInterceptorsFor(controllerClass);
+        setDispatchEntriesFor(controllerClass, lifecycle);
+        addPendingRoutesFor(controllerClass);
+    }
+    
+    private void setDispatchEntriesFor(Class<?> controllerClass, DispatchEntry.Lifecycle lifecycle) {
+        
+        SingletonControllerHolder singletonHolder = null;
+        if (lifecycle == DispatchEntry.Lifecycle.SINGLETON) {
+            singletonHolder = new SingletonControllerHolder(
+                    controllerClass.getAnnotation(SingletonController.class).reinject());
+            controllerClassToSingletonHolderMap.put(controllerClass, singletonHolder);
+        }
+        
+        Map<String, DispatchEntry> actionDispatchMap = new HashMap<String, DispatchEntry>();
+        for (Map.Entry<String, ActionSignature> entry : controllerClassToActionMap.get(controllerClass).entrySet()) {
+            
+            String action = entry.getKey();
+            actionDispatchMap.put(action, newDispatchEntry(controllerClass, lifecycle, singletonHolder, 
+                    entry.getValue(), getInterceptorsForAction(controllerClass, action)));
+        }
+        
+        DispatchEntry defaultEntry = null;
+        ActionSignature defaultSig = getDefaultActionMethodFor(controllerClass);
+        if (defaultSig != null) {
+            defaultEntry = newDispatchEntry(controllerClass, lifecycle, singletonHolder, defaultSig, 
+                    getInterceptorsForDefaultAction(controllerClass));
+        }
+        
+        HttpMethod[] httpMethods = HttpMethod.values();
+        DispatchEntry[] httpMethodEntries = new DispatchEntry[httpMethods.length];
+        for (HttpMethod httpMethod : httpMethods) {
+            
+            ActionSignature sig = getHttpMethodActionSignature(controllerClass, httpMethod);
+            httpMethodEntries[httpMethod.ordinal()] = sig != null ? 
+                    newDispatchEntry(controllerClass, lifecycle, singletonHolder, sig, 
+                            getInterceptorsForHttpMethodAction(controllerClass, httpMethod)) : 
+                    defaultEntry;
+        }
+        
+        controllerClassToActionDispatchMap.put(controllerClass, actionDispatchMap);
+        controllerClassToHttpMethodDispatchMap.put(controllerClass, httpMethodEntries);
+    }
+    
+    private DispatchEntry newDispatchEntry(Class<?> controllerClass, DispatchEntry.Lifecycle lifecycle, 
+            SingletonControllerHolder singletonHolder, ActionSignature sig, List<Class<?>> actionInterceptors) {
+        
+        boolean async = controllerClass.isAnnotationPresent(Async.class) || 
+                isAnnotationPresent(sig.getAnnotations(), Async.class) ||
+                deferredActionSignatures.contains(sig);
+        
+        boolean generateETag = controllerClass.isAnnotationPresent(GenerateETag.class) || 
+                isAnnotationPresent(sig.getAnnotations(), GenerateETag.class);
+        
+        long maxUploadSize = -1;
+        for (Annotation annotation : sig.getAnnotations()) {
+            if (annotation instanceof MaxUploadSize) {
+                maxUploadSize = ((MaxUploadSize) annotation).value();
+            }
+        }
+        
+        DispatchEntry entry = new DispatchEntry.Builder(controllerClass, sig)
+                .withLifecycle(lifecycle)
+                .withAfterConstructSignature(getAfterConstructMethodFor(controllerClass))
+                .withBeforeActionSignature(getBeforeActionMethodFor(controllerClass))
+                .withAfterActionSignature(getAfterActionMethodFor(controllerClass))
+                .withETagProviderSignature(getETagProviderMethodFor(controllerClass))
+                .withLastModifiedSignature(getLastModifiedMethodFor(controllerClass))
+                .withInterceptorChain(newInterceptorChain(getInterceptorsFor(controllerClass), actionInterceptors))
+                .withSingletonHolder(singletonHolder)
+                .withAsync(async)
+                .withCachePolicy(actionSignatureToCachePolicyMap.get(sig))
+                .withGenerateETag(generateETag)
+                .withMaxUploadSize(maxUploadSize)
+                .build();
+        actionSignatureToDispatchMap.put(sig, entry);
+        return entry;
+    }
+    
+    private boolean isAnnotationPresent(Annotation[] annotations, Class<? extends Annotation> annotationClass) {
+        
+        for (Annotation annotation : annotations) {
+            if (annotationClass.isInstance(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void addActionMetadata(ActionSignature sig, Method method) {
+        
+        if (isDeferredType(method.getReturnType())) {
+            deferredActionSignatures.add(sig);
+        }
+        
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable != null) {
+            actionSignatureToCachePolicyMap.put(sig, new CachePolicy(cacheable.ttl() * 1000, 
+                    getCacheKeyParamNames(method), cacheable.varyOn()));
+        }
+    }
+    
+    /*
+     * the names of the parameters the action's response depends on: its 
+     * @Param parameters, and the properties of its @Model parameters; an 
+     * action that binds the request body cannot be cached
+     */
+    private String[] getCacheKeyParamNames(Method method) {
+        
+        List<String> paramNames = new ArrayList<String>();
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Annotation[][] paramAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < paramTypes.length; i++) {
+            for (Annotation annotation : paramAnnotations[i]) {
+                if (annotation instanceof Param) {
+                    paramNames.add(((Param) annotation).value());
+                } else if (annotation instanceof Model) {
+                    for (BeanAccessor.Property property : 
+                            BeanAccessor.forClass(paramTypes[i]).getWritableProperties()) {
+                        paramNames.add(property.getName());
+                    }
+                } else if (annotation instanceof Entity || annotation instanceof Resource) {
+                    throw new ConfigurationException("@Cacheable action " + method.getName() + 
+                            " in " + method.getDeclaringClass().getName() + 
+                            " cannot bind an @" + annotation.annotationType().getSimpleName() + 
+                            " parameter");
+                }
+            }
+        }
+        return paramNames.toArray(new String[paramNames.size()]);
+    }
+    
+    private boolean isDeferredType(Class<?> returnType) {
+        
+        return Future.class.isAssignableFrom(returnType) || Callable.class.isAssignableFrom(returnType);
+    }
+    
+    private InterceptorChain newInterceptorChain(List<Class<?>> classInterceptors, 
+            List<Class<?>> actionInterceptors) {
+        
+        if ((classInterceptors == null || classInterceptors.isEmpty()) && 
+                (actionInterceptors == null || actionInterceptors.isEmpty())) {
+            return InterceptorChain.EMPTY;
+        }
+        return new InterceptorChain(getInterceptorDescriptors(classInterceptors), 
+                getInterceptorDescriptors(actionInterceptors));
+    }
+    
+    private List<InterceptorDescriptor> getInterceptorDescriptors(List<Class<?>> interceptorClasses) {
+        
+        List<InterceptorDescriptor> descriptors = new ArrayList<InterceptorDescriptor>();
+        if (interceptorClasses != null) {
+            for (Class<?> interceptorClass : interceptorClasses) {
+                descriptors.add(interceptorClassToDescriptorMap.get(interceptorClass));
+            }
+        }
+        return descriptors;
+    }
+    
+    private void addPendingRoutesFor(Class<?> controllerClass) {
+        
+        for (MojaveRoute pending : pendingRoutes) {
+            
+            DispatchEntry[] entries;
+            if (pending.getAction() == null) {
+                entries = controllerClassToHttpMethodDispatchMap.get(controllerClass);
+            } else {
+                entries = new DispatchEntry[HttpMethod.values().length];
+                Arrays.fill(entries, controllerClassToActionDispatchMap.get(controllerClass).get(pending.getAction()));
+            }
+            
+            MojaveRoute route = new MojaveRoute(pending.getController(), pending.getAction(), 
+                    pending.getParamPath(), entries);
+            logger.debug("adding route " + route);
+            router.add(route);
+        }
+        pendingRoutes.clear();
     }
 
     private void checkForInitController(Class<?> controllerClass) {
@@ -583,9 +977,6 @@ private void setActionMethodIndicesFor(Class<?> controllerClass, String controll
 
         Method[] methods = getAllMethodsIn(controllerClass);
         
-        FastClass fastClass = FastClass.create(controllerClass);
-        classToFastClassMap.put(controllerClass, fastClass);
-
         for (int i = 0; i < methods.length; i++) {
 
             Annotation ann = methods[i].getAnnotation(Action.class);
@@ -599,12 +990,12 @@ private void setActionMethodIndicesFor(Class<?> controllerClass, String controll
                      */
                     action = methods[i].getName();
                 }
-                addActionSignature(action, methods[i], actionMap, fastClass, controllerVariable, isDefaultController);
+                addActionSignature(controllerClass, action, methods[i], actionMap, controllerVariable, isDefaultController);
                 setInterceptorsForAction(controllerClass, action, methods[i], actionInterceptorsMap);
                 continue;
             }
 
-            if (addHttpMethodActionSignature(controllerClass, methods[i], fastClass, httpMethodActionMap,
+            if (addHttpMethodActionSignature(controllerClass, methods[i], httpMethodActionMap,
                     httpMethodActionInterceptorsMap, controllerVariable, isDefaultController)) {
                 continue;
             }
@@ -612,21 +1003,36 @@ private void setActionMethodIndicesFor(Class<?> controllerClass, String controll
             ann = methods[i].getAnnotation(BeforeAction.class);
             if (ann != null) {
                 addBeforeOrAfterActionSignature(controllerClassToBeforeActionMap, BeforeAction.class, controllerClass,
-                        methods[i], fastClass);
+                        methods[i]);
                 continue;
             }
 
             ann = methods[i].getAnnotation(AfterAction.class);
             if (ann != null) {
                 addBeforeOrAfterActionSignature(controllerClassToAfterActionMap, AfterAction.class, controllerClass,
-                        methods[i], fastClass);
+                        methods[i]);
+                continue;
+            }
+
+            ann = methods[i].getAnnotation(ETagProvider.class);
+            if (ann != null) {
+                addValidatorSignature(controllerClassToETagProviderMap, ETagProvider.class, 
+                        controllerClass, methods[i]);
+                continue;
+            }
+
+            ann = methods[i].getAnnotation(LastModified.class);
+            if (ann != null) {
+                validateLastModifiedReturnType(controllerClass, methods[i]);
+                addValidatorSignature(controllerClassToLastModifiedMap, LastModified.class, 
+                        controllerClass, methods[i]);
                 continue;
             }
 
             ann = methods[i].getAnnotation(DefaultAction.class);
             if (ann != null) {
                 addDefaultActionSignature(controllerClassToDefaultActionMap, DefaultAction.class, controllerClass,
-                        methods[i], fastClass, controllerVariable, isDefaultController);
+                        methods[i], controllerVariable, isDefaultController);
                 setInterceptorsForDefaultAction(controllerClass, methods[i]);
                 continue;
             }
@@ -634,7 +1040,7 @@ private void setActionMethodIndicesFor(Class<?> controllerClass, String controll
             ann = methods[i].getAnnotation(AfterConstruct.class);
             if (ann != null) {
                 addAfterContructSignature(controllerClassToAfterConstructMap, AfterConstruct.class, controllerClass,
-                        methods[i], fastClass);
+                        methods[i]);
             }
         }
 
@@ -668,7 +1074,7 @@ private Method[] getAllMethodsIn(Class<?> clazz) {
         return methodsList.toArray(new Method[methodsList.size()]);
     }
 
-    private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method actionMethod, FastClass fastClass,
+    private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method actionMethod,
             Map<HttpMethod, ActionSignature> httpMethodActionMap,
             Map<HttpMethod, List<Class<?>>> httpMethodActionInterceptorsMap, 
             String controllerVariable, boolean isDefaultController) {
@@ -677,7 +1083,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(GETAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.GET, actionMethod, fastClass, 
+            addHttpMethodActionSignature(HttpMethod.GET, controllerClass, actionMethod, 
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.GET, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -686,7 +1092,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(POSTAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.POST, actionMethod, fastClass, 
+            addHttpMethodActionSignature(HttpMethod.POST, controllerClass, actionMethod, 
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.POST, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -695,7 +1101,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(PUTAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.PUT, actionMethod, fastClass, 
+            addHttpMethodActionSignature(HttpMethod.PUT, controllerClass, actionMethod, 
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.PUT, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -704,7 +1110,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(OPTIONSAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.OPTIONS, actionMethod, fastClass,
+            addHttpMethodActionSignature(HttpMethod.OPTIONS, controllerClass, actionMethod,
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.OPTIONS, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -713,7 +1119,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(HEADAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.HEAD, actionMethod, fastClass, 
+            addHttpMethodActionSignature(HttpMethod.HEAD, controllerClass, actionMethod, 
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.HEAD, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -722,7 +1128,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(TRACEAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.TRACE, actionMethod, fastClass,
+            addHttpMethodActionSignature(HttpMethod.TRACE, controllerClass, actionMethod,
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.TRACE, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -731,7 +1137,7 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
 
         if (actionMethod.isAnnotationPresent(DELETEAction.class)) {
 
-            addHttpMethodActionSignature(HttpMethod.DELETE, actionMethod, fastClass,
+            addHttpMethodActionSignature(HttpMethod.DELETE, controllerClass, actionMethod,
                     httpMethodActionMap, controllerVariable, isDefaultController);
             setInterceptorsForHttpMethodAction(controllerClass, HttpMethod.DELETE, actionMethod,
                     httpMethodActionInterceptorsMap);
@@ -741,53 +1147,55 @@ private boolean addHttpMethodActionSignature(Class<?> controllerClass, Method ac
         return annotationFound;
     }
 
-    private void addHttpMethodActionSignature(HttpMethod httpMethod, Method actionMethod,
-            FastClass fastClass, Map<HttpMethod, ActionSignature> httpMethodActionMap, 
+    private void addHttpMethodActionSignature(HttpMethod httpMethod, Class<?> controllerClass, 
+            Method actionMethod, Map<HttpMethod, ActionSignature> httpMethodActionMap, 
             String controllerVariable, boolean isDefaultController) {
 
-        validateActionReturnType(actionMethod, fastClass.getJavaClass().getName());
+        validateActionReturnType(actionMethod, controllerClass.getName());
 
         ActionSignature existingActionSignature = httpMethodActionMap.get(httpMethod);
         if (existingActionSignature != null) {
 
             throw new ConfigurationException("mulitple action methods for " + httpMethod + " found; "
                     + "only one action method per HTTP method type is allowed in " + 
-                    fastClass.getJavaClass().getName());
+                    controllerClass.getName());
         }
         
         EntityMarshaller paramMarshaller = getParamEntityMarshaller(actionMethod, 
-                fastClass.getJavaClass().getName());
+                controllerClass.getName());
         EntityMarshaller viewMarshaller = getViewEntityMarshaller(actionMethod, 
-                fastClass.getJavaClass().getName());
+                controllerClass.getName());
 
-        int fastIndex = fastClass.getIndex(actionMethod.getName(), actionMethod.getParameterTypes());
+        MethodInvoker invoker = invokerFactory.createInvoker(controllerClass, actionMethod);
 
-        ActionSignature sig = new HttpMethodActionSignature(httpMethod, fastIndex, actionMethod.getName(),
+        ActionSignature sig = new HttpMethodActionSignature(httpMethod, invoker, actionMethod.getName(),
                 actionMethod.getParameterTypes(), actionMethod.getParameterAnnotations(), 
                 actionMethod.getDeclaredAnnotations(), paramMarshaller, viewMarshaller);
         httpMethodActionMap.put(httpMethod, sig);
+        addActionMetadata(sig, actionMethod);
         
-        addRoute(actionMethod, fastClass.getJavaClass().getName(), controllerVariable, 
+        addRoute(actionMethod, controllerClass.getName(), controllerVariable, 
                 null, isDefaultController);
     }
 
-    private void addActionSignature(String action, Method method,
-            Map<String, ActionSignature> actionMap, FastClass fastClass, 
+    private void addActionSignature(Class<?> controllerClass, String action, Method method,
+            Map<String, ActionSignature> actionMap, 
             String controllerVariable, boolean isDefaultController) {
 
-        validateActionReturnType(method, fastClass.getJavaClass().getName());
+        validateActionReturnType(method, controllerClass.getName());
         
-        EntityMarshaller paramMarshaller = getParamEntityMarshaller(method, fastClass.getJavaClass().getName());
-        EntityMarshaller viewMarshaller = getViewEntityMarshaller(method, fastClass.getJavaClass().getName());
+        EntityMarshaller paramMarshaller = getParamEntityMarshaller(method, controllerClass.getName());
+        EntityMarshaller viewMarshaller = getViewEntityMarshaller(method, controllerClass.getName());
 
-        int fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        MethodInvoker invoker = invokerFactory.createInvoker(controllerClass, method);
 
-        ActionSignature sig = new BaseActionSignature(fastIndex, method.getName(), method.getParameterTypes(),
+        ActionSignature sig = new BaseActionSignature(invoker, method.getName(), method.getParameterTypes(),
                 method.getParameterAnnotations(), method.getDeclaredAnnotations(), 
                 paramMarshaller, viewMarshaller);
         actionMap.put(action, sig);
+        addActionMetadata(sig, method);
         
-        addRoute(method, fastClass.getJavaClass().getName(), controllerVariable, action, isDefaultController);
+        addRoute(method, controllerClass.getName(), controllerVariable, action, isDefaultController);
     }
 
     private EntityMarshaller getParamEntityMarshaller(Method method, String className) {
@@ -795,10 +1203,12 @@ private EntityMarshaller getParamEntityMarshaller(Method method, String classNam
         EntityMarshaller paramMarshaller = new DefaultEntityMarshaller();
         Annotation[][] paramAnnotations = method.getParameterAnnotations();
         List<Entity> entityAnnotations = new ArrayList<Entity>();
-        for (Annotation[] annotationsForParam : paramAnnotations) {
-            for (Annotation annotation : annotationsForParam) {
+        Class<?> entityType = null;
+        for (int i = 0; i < paramAnnotations.length; i++) {
+            for (Annotation annotation : paramAnnotations[i]) {
                 if (annotation instanceof Entity) {
                     entityAnnotations.add((Entity)annotation);
+                    entityType = method.getParameterTypes()[i];
                 }
             }
         }
@@ -819,6 +1229,9 @@ private EntityMarshaller getParamEntityMarshaller(Method method, String classNam
             EntityMarshaller marshaller = entityMarshallerMap.get(contentType);
             if (marshaller != null) {
                 paramMarshaller = marshaller;
+                if (marshaller instanceof PreparableEntityMarshaller) {
+                    ((PreparableEntityMarshaller) marshaller).prepare(entityType);
+                }
             } else {
                 logger.error("could not find parameter entity marshaller for content type " 
                         + contentType + " for action " + method.getName() + " in controller "
@@ -851,7 +1264,15 @@ private EntityMarshaller getViewEntityMarshaller(Method method, String className
     private void validateActionReturnType(Method actionMethod, String className) {
 
         Class<?> returnType = actionMethod.getReturnType();
-        if (returnType.equals(Void.TYPE)) {
+        if (isDeferredType(returnType)) {
+            
+            /* 
+             * the value produced is a View, or is marshalled 
+             * if there is a @Returns annotation 
+             */
+            return;
+            
+        } else if (returnType.equals(Void.TYPE)) {
 
             throw new ConfigurationException("action " + actionMethod.getName() + " in controller "
                     + className + " must return " + View.class.getName() + " or one of its subtypes, " +
@@ -878,13 +1299,9 @@ private void addRoute(Method method, String controllerClassName,
         
         String paramPath = getParamPathIfExists(method, controllerClassName);
         
-        MojaveRoute route = new MojaveRoute(controllerVariable, actionVariable, paramPath);
-        logger.debug("adding route " + route);
-        router.add(route);
+        pendingRoutes.add(new MojaveRoute(controllerVariable, actionVariable, paramPath));
         if (isDefaultController) {
-            route = new MojaveRoute(null, actionVariable, paramPath);
-            logger.debug("adding route " + route);
-            router.add(route);
+            pendingRoutes.add(new MojaveRoute(null, actionVariable, paramPath));
         }
     }
 
@@ -1004,22 +1421,20 @@ private void addMethodsForInterceptor(Class<?> interceptorClass) {
                 && !interceptorClassToBeforeActionMap.containsKey(interceptorClass)) {
 
             Method[] methods = getAllMethodsIn(interceptorClass);
-            FastClass fastClass = FastClass.create(interceptorClass);
-            classToFastClassMap.put(interceptorClass, fastClass);
 
             for (int i = 0; i < methods.length; i++) {
 
                 Annotation ann = methods[i].getAnnotation(BeforeAction.class);
                 if (ann != null) {
                     addBeforeOrAfterActionSignature(interceptorClassToBeforeActionMap, BeforeAction.class,
-                            interceptorClass, methods[i], fastClass);
+                            interceptorClass, methods[i]);
                     continue;
                 }
 
                 ann = methods[i].getAnnotation(AfterAction.class);
                 if (ann != null) {
                     addBeforeOrAfterActionSignature(interceptorClassToAfterActionMap, AfterAction.class,
-                            interceptorClass, methods[i], fastClass);
+                            interceptorClass, methods[i]);
                 }
             }
 
@@ -1032,23 +1447,83 @@ private void addMethodsForInterceptor(Class<?> interceptorClass) {
                         + " must have at least a @" + BeforeAction.class.getSimpleName() + " or a @"
                         + AfterAction.class.getSimpleName());
             }
+            
+            interceptorClassToDescriptorMap.put(interceptorClass, 
+                    new InterceptorDescriptor(interceptorClass, before, after));
         }
     }
 
     private void addBeforeOrAfterActionSignature(Map<Class<?>, ActionSignature> map, Class<?> annotationClass,
-            Class<?> clazz, Method method, FastClass fastClass) {
+            Class<?> clazz, Method method) {
 
         validateActionOccursOnlyOnce(map, annotationClass, clazz);
         validateMethodAcceptsOnlyInterceptorArgs(annotationClass, clazz, method);
 
-        int fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        MethodInvoker invoker = invokerFactory.createInvoker(clazz, method);
 
-        ActionSignature sig = new BaseActionSignature(fastIndex, method.getName(), method.getParameterTypes(),
+        ActionSignature sig = new BaseActionSignature(invoker, method.getName(), method.getParameterTypes(),
                 new Annotation[][] {}, method.getDeclaredAnnotations());
 
         map.put(clazz, sig);
     }
 
+    /*
+     * a method supplying a validator of the response is bound like an action,
+     * so that it can take the action's parameters, such as the id of the 
+     * requested resource
+     */
+    private void addValidatorSignature(Map<Class<?>, ActionSignature> map, Class<?> annotationClass,
+            Class<?> controllerClass, Method method) {
+
+        validateActionOccursOnlyOnce(map, annotationClass, controllerClass);
+        validateValidatorArgs(annotationClass, controllerClass, method);
+
+        MethodInvoker invoker = invokerFactory.createInvoker(controllerClass, method);
+
+        ActionSignature sig = new BaseActionSignature(invoker, method.getName(), method.getParameterTypes(),
+                method.getParameterAnnotations(), method.getDeclaredAnnotations());
+
+        map.put(controllerClass, sig);
+    }
+
+    private void validateValidatorArgs(Class<?> annotationClass, Class<?> controllerClass, 
+            Method method) {
+
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Annotation[][] paramAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (paramTypes[i].equals(RequestContext.class)) {
+                continue;
+            }
+            boolean bound = false;
+            for (Annotation annotation : paramAnnotations[i]) {
+                if (annotation instanceof Entity || annotation instanceof Resource) {
+                    /* the body must be left for the action */
+                    throw new ConfigurationException("a @" + annotationClass.getSimpleName()
+                            + " method cannot read the request body in " + controllerClass.getName());
+                }
+                bound |= annotation instanceof Param || annotation instanceof Model;
+            }
+            if (!bound) {
+                throw new ConfigurationException("the arguments of a @" + annotationClass.getSimpleName()
+                        + " method must be annotated with @" + Param.class.getSimpleName() + " or @" 
+                        + Model.class.getSimpleName() + ", or be a " + RequestContext.class.getSimpleName() 
+                        + ", in " + controllerClass.getName());
+            }
+        }
+    }
+
+    private void validateLastModifiedReturnType(Class<?> controllerClass, Method method) {
+        
+        Class<?> returnType = method.getReturnType();
+        if (!Date.class.isAssignableFrom(returnType) && 
+                !returnType.equals(long.class) && !returnType.equals(Long.class)) {
+            
+            throw new ConfigurationException("a @" + LastModified.class.getSimpleName()
+                    + " method must return a Date or a long in " + controllerClass.getName());
+        }
+    }
+
     private void validateMethodAcceptsOnlyInterceptorArgs(Class<?> annotationClass, 
             Class<?> clazz, Method method) {
         
@@ -1063,14 +1538,14 @@ private void validateMethodAcceptsOnlyInterceptorArgs(Class<?> annotationClass,
     }
 
     private void addAfterContructSignature(Map<Class<?>, ActionSignature> map, Class<?> annotationClass,
-            Class<?> controllerClass, Method method, FastClass fastClass) {
+            Class<?> controllerClass, Method method) {
 
         validateActionOccursOnlyOnce(map, annotationClass, controllerClass);
         validateMethodDoesNotAcceptArguments(annotationClass, controllerClass, method);
 
-        int fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        MethodInvoker invoker = invokerFactory.createInvoker(controllerClass, method);
 
-        ActionSignature sig = new BaseActionSignature(fastIndex, method.getName(), method.getParameterTypes(),
+        ActionSignature sig = new BaseActionSignature(invoker, method.getName(), method.getParameterTypes(),
                 new Annotation[][] {}, method.getDeclaredAnnotations());
 
         map.put(controllerClass, sig);
@@ -1096,8 +1571,7 @@ private void validateActionOccursOnlyOnce(Map<Class<?>, ActionSignature> map, Cl
     }
     
     private void addDefaultActionSignature(Map<Class<?>, ActionSignature> map, Class<?> annotationClass,
-            Class<?> controllerClass, Method method, FastClass fastClass, 
-            String controllerVariable, boolean isDefaultController) {
+            Class<?> controllerClass, Method method, String controllerVariable, boolean isDefaultController) {
 
         validateActionOccursOnlyOnce(map, annotationClass, controllerClass);
         validateActionReturnType(method, controllerClass.getName());
@@ -1105,13 +1579,14 @@ private void addDefaultActionSignature(Map<Class<?>, ActionSignature> map, Class
         EntityMarshaller paramMarshaller = getParamEntityMarshaller(method, controllerClass.getName());
         EntityMarshaller viewMarshaller = getViewEntityMarshaller(method, controllerClass.getName());
 
-        int fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+        MethodInvoker invoker = invokerFactory.createInvoker(controllerClass, method);
 
-        ActionSignature sig = new DefaultActionSignature(fastIndex, method.getName(), method.getParameterTypes(),
+        ActionSignature sig = new DefaultActionSignature(invoker, method.getName(), method.getParameterTypes(),
                 method.getParameterAnnotations(), method.getDeclaredAnnotations(), 
                 paramMarshaller, viewMarshaller);
 
         map.put(controllerClass, sig);
+        addActionMetadata(sig, method);
         
         addRoute(method, controllerClass.getName(), controllerVariable, null, isDefaultController);
     }
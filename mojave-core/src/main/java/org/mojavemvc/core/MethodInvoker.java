@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Invokes a single controller or interceptor method. Implementations are
+ * created by an {@link InvokerFactory} when the controller database is
+ * created, and must be thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public interface MethodInvoker {
+
+    /**
+     * @param target
+     *            the instance to invoke the method on
+     * @param args
+     *            the method arguments, in declaration order
+     * @return the value returned by the method, or null if it is void
+     * @throws InvocationTargetException
+     *             if the method itself throws an exception
+     */
+    Object invoke(Object target, Object[] args) throws InvocationTargetException;
+}
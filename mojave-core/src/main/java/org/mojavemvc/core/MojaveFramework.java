@@ -23,9 +23,11 @@
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.mojavemvc.core.AsyncRequestExecutor.AsyncTask;
 import org.mojavemvc.exception.ErrorHandler;
 import org.mojavemvc.exception.ErrorHandlerFactory;
 import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.views.Response;
 import org.mojavemvc.views.View;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +50,25 @@ public class MojaveFramework {
      */
     private Context ctx;
     
+    /*
+     * looked up from the Context once initialization is complete, 
+     * so that requests don't have to
+     */
+    private ControllerDatabase controllerDb;
+    private ErrorHandlerFactory errorHandlerFactory;
+    private Injector injector;
+    private AppProperties properties;
+    private AsyncRequestExecutor asyncExecutor;
+    private ResponseCache responseCache;
+    private Compression compression;
+    private MultipartConfig multipartConfig;
+    
+    /*
+     * shared by all requests; the state of a request is passed to them
+     */
+    private RequestRouter router;
+    private RequestProcessor requestProcessor;
+    
     public void init(FilterConfig config) {
         
         init(new FilterBasedConfig(config));
@@ -70,56 +91,198 @@ private void init(Config config) {
         initializer.performInitialization();
 
         initializer.createInitControllers();
+        
+        controllerDb = (ControllerDatabase) ctx.getAttribute(ControllerDatabase.KEY);
+        errorHandlerFactory = (ErrorHandlerFactory) ctx.getAttribute(ErrorHandlerFactory.KEY);
+        injector = (Injector) ctx.getAttribute(GuiceInitializer.KEY);
+        properties = (AppProperties) ctx.getAttribute(AppProperties.KEY);
+        asyncExecutor = (AsyncRequestExecutor) ctx.getAttribute(AsyncRequestExecutor.KEY);
+        responseCache = (ResponseCache) ctx.getAttribute(ResponseCache.KEY);
+        compression = (Compression) ctx.getAttribute(Compression.KEY);
+        multipartConfig = (MultipartConfig) ctx.getAttribute(MultipartConfig.KEY);
+        if (multipartConfig == null) {
+            multipartConfig = new MultipartConfig();
+        }
+        
+        router = new HttpRequestRouter(new HttpParameterMapSource(multipartConfig), 
+                controllerDb.getRouter());
+        requestProcessor = new RequestProcessor(
+                new HttpActionResolver(ctx, controllerDb, injector), 
+                new HttpActionInvoker(controllerDb, injector, responseCache));
     }
     
-    public void handleRequest(HttpServletRequest req, HttpServletResponse res, HttpMethod httpMethod, String path)
-            throws ServletException, IOException {
+    public void destroy() {
         
-        ControllerDatabase controllerDb = (ControllerDatabase) ctx.getAttribute(ControllerDatabase.KEY);
-
-        ErrorHandlerFactory errorHandlerFactory = (ErrorHandlerFactory) ctx.getAttribute(ErrorHandlerFactory.KEY);
-        ErrorHandler errorHandler = errorHandlerFactory.createErrorHandler();
-
-        Injector injector = (Injector) ctx.getAttribute(GuiceInitializer.KEY);
-        AppProperties properties = (AppProperties) ctx.getAttribute(AppProperties.KEY);
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+        if (properties instanceof DefaultAppProperties) {
+            ((DefaultAppProperties) properties).close();
+        }
+    }
+    
+    public void handleRequest(final HttpServletRequest req, final HttpServletResponse res, 
+            final HttpMethod httpMethod, String path) throws ServletException, IOException {
+        
+        final ErrorHandler errorHandler = errorHandlerFactory.createErrorHandler();
 
-        ServletResourceModule.set(req, res);
+        final RequestScope scope = new RequestScope(req, res);
+        RequestScope previous = ServletResourceModule.enter(scope);
 
-        View view;
         try {
             
-            RequestRouter router = new HttpRequestRouter(path, 
-                    new HttpParameterMapSource(req), controllerDb.getRouter());
+            final RoutedRequest routed;
+            try {
+                
+                routed = router.route(req, path);
+                
+            } catch (Throwable e) {
+                
+                handleError(e, errorHandler, req, res);
+                return;
+            }
+            
+            if (isAsync(routed, httpMethod)) {
+                
+                boolean dispatched = asyncExecutor.dispatch(req, new AsyncTask() {
+                    
+                    protected void process() {
+                        processAsyncRequest(scope, httpMethod, routed, errorHandler, this);
+                    }
+                    
+                    protected void onAbort(Throwable cause) throws Exception {
+                        abortAsyncRequest(scope, errorHandler, cause);
+                    }
+                });
+                if (dispatched) {
+                    return;
+                }
+            }
             
-            RoutedRequest routed = router.route();
+            processRequest(req, res, httpMethod, routed, errorHandler, null);
             
-            ActionResolver resolver = new HttpActionResolver(ctx, req, httpMethod, controllerDb, injector);
+        } finally {
+            
+            ServletResourceModule.exit(previous);
+        }
+    }
     
-            ActionInvoker invoker = new HttpActionInvoker(req, res, controllerDb, routed, injector);
+    private boolean isAsync(RoutedRequest routed, HttpMethod httpMethod) {
+        
+        return asyncExecutor != null && asyncExecutor.isAsync(routed.getDispatchEntry(httpMethod));
+    }
     
-            RequestProcessor requestProcessor = new RequestProcessor(resolver, invoker, errorHandler);
+    private void processAsyncRequest(RequestScope scope, HttpMethod httpMethod, 
+            RoutedRequest routed, ErrorHandler errorHandler, AsyncTask task) {
+        
+        RequestScope previous = ServletResourceModule.enter(scope);
+        try {
+            
+            processRequest(scope.getRequest(), scope.getResponse(), httpMethod, routed, 
+                    errorHandler, task);
+            
+        } catch (Throwable e) {
             
-            view = requestProcessor.process(routed.getController(), routed.getAction(), properties);
+            /* there is no container thread to propagate to */
+            logger.error("error rendering error view: ", e);
+            
+        } finally {
+            
+            ServletResourceModule.exit(previous);
+        }
+    }
+    
+    /*
+     * the async task is null when the request is processed on the container 
+     * thread; otherwise, nothing is rendered once the task has been aborted
+     */
+    private void abortAsyncRequest(RequestScope scope, ErrorHandler errorHandler, 
+            Throwable cause) throws ServletException, IOException {
+        
+        RequestScope previous = ServletResourceModule.enter(scope);
+        try {
+            
+            if (cause == null) {
+                logger.error("async request timed out");
+                new Response.ServiceUnavailable().render(scope.getRequest(), 
+                        scope.getResponse(), properties);
+            } else {
+                handleError(cause, errorHandler, scope.getRequest(), scope.getResponse());
+            }
+            
+        } finally {
+            
+            ServletResourceModule.exit(previous);
+        }
+    }
+    
+    private void processRequest(HttpServletRequest req, HttpServletResponse res, HttpMethod httpMethod, 
+            RoutedRequest routed, ErrorHandler errorHandler, AsyncTask task) 
+                    throws ServletException, IOException {
+        
+        CompressingResponse compressing = newCompressingResponse(req, res, httpMethod);
+        try {
+            
+            View view = requestProcessor.process(req, res, httpMethod, routed, errorHandler, 
+                    task != null ? task.getTimeout() : 0, properties);
     
-            logger.debug("processed request for " + requestProcessor.getControllerClassName() + "; rendering...");
+            if (task != null && !task.beginRender()) {
+                logger.debug("async request was aborted; not rendering");
+                return;
+            }
 
-            view.render(req, res, properties);
+            if (compressing != null) {
+                view.render(req, compressing, properties);
+                compressing.finish();
+            } else {
+                view.render(req, res, properties);
+            }
 
         } catch (Throwable e) {
 
-            logger.error("error processing request: ", e);
-            view = errorHandler.handleError(e, properties);
-            if (view != null) {
-                /*
-                 * we're not catching any exceptions thrown from rendering the
-                 * error view
-                 */
-                view.render(req, res, properties);
+            if (task != null && !task.beginRender()) {
+                logger.error("error processing aborted async request: ", e);
+                return;
+            }
+            if (compressing != null && compressing.isCompressing()) {
+                if (res.isCommitted()) {
+                    logger.error("error rendering compressed response after it was committed: ", e);
+                    return;
+                }
+                /* the error view is not compressed; clear the encoding headers */
+                res.reset();
             }
+            handleError(e, errorHandler, req, res);
             
         } finally {
             
-            ServletResourceModule.unset();
+            if (compressing != null) {
+                compressing.release();
+            }
+        }
+    }
+    
+    private CompressingResponse newCompressingResponse(HttpServletRequest req, 
+            HttpServletResponse res, HttpMethod httpMethod) {
+        
+        if (compression == null || httpMethod == HttpMethod.HEAD) {
+            return null;
+        }
+        String coding = compression.negotiate(req);
+        return coding != null ? new CompressingResponse(res, compression, coding) : null;
+    }
+    
+    private void handleError(Throwable e, ErrorHandler errorHandler, HttpServletRequest req, 
+            HttpServletResponse res) throws ServletException, IOException {
+        
+        logger.error("error processing request: ", e);
+        View view = errorHandler.handleError(e, properties);
+        if (view != null) {
+            /*
+             * we're not catching any exceptions thrown from rendering the
+             * error view
+             */
+            view.render(req, res, properties);
         }
     }
 }
@@ -28,12 +28,25 @@ public class MojaveRoute extends Route {
     private final String action;
     private final String paramPath;
     
+    /*
+     * the dispatch entries for this route, indexed by HttpMethod ordinal;
+     * null if the route was not created by the controller database
+     */
+    private final DispatchEntry[] dispatchEntries;
+    
     public MojaveRoute(String controller, String action, String paramPath) {
         
+        this(controller, action, paramPath, null);
+    }
+    
+    MojaveRoute(String controller, String action, String paramPath, 
+            DispatchEntry[] dispatchEntries) {
+        
         super(toRouteString(controller, action, paramPath));
         this.controller = controller;
         this.action = action;
         this.paramPath = paramPath;
+        this.dispatchEntries = dispatchEntries;
     }
     
     private static String toRouteString(String controller, String action, String paramPath) {
@@ -67,6 +80,18 @@ public String getParamPath() {
         return paramPath;
     }
     
+    /**
+     * Get the dispatch entry for the given HTTP method.
+     * 
+     * @param httpMethod
+     *            the HTTP method of the request
+     * @return the dispatch entry, or null if there is no action for
+     *         the HTTP method, or if the route has no dispatch entries
+     */
+    public DispatchEntry getDispatchEntry(HttpMethod httpMethod) {
+        return dispatchEntries == null ? null : dispatchEntries[httpMethod.ordinal()];
+    }
+    
     public int hashCode() {
         int hash = 1;
         hash = hash * 17 + (controller == null ? 0 : controller.hashCode());
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.File;
+
+import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.disk.DiskFileItemFactory;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+
+/**
+ * The configuration of multipart request parsing. In buffered mode, every
+ * part is parsed before the action's parameters are bound, and uploaded 
+ * files above the size threshold are written to the repository. In 
+ * streaming mode, parts are parsed as the action's parameters are bound, 
+ * and uploaded files are read directly from the request, unless a later 
+ * part must be parsed before they are read. An instance of 
+ * this class is immutable, and thus is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class MultipartConfig {
+
+    public static final String KEY = MultipartConfig.class.getName();
+
+    private final boolean streaming;
+    private final int sizeThreshold;
+    private final File repository;
+    private final long maxUploadSize;
+
+    public MultipartConfig() {
+
+        this(false, DiskFileItemFactory.DEFAULT_SIZE_THRESHOLD, null, -1);
+    }
+
+    /**
+     * @param streaming
+     *            true to parse parts as parameters are bound
+     * @param sizeThreshold
+     *            the size, in bytes, above which a buffered file is written
+     *            to the repository
+     * @param repository
+     *            the directory buffered files are written to, or null for 
+     *            the temporary directory
+     * @param maxUploadSize
+     *            the maximum size of a request body, in bytes, or -1 for no
+     *            maximum
+     */
+    public MultipartConfig(boolean streaming, int sizeThreshold, File repository, 
+            long maxUploadSize) {
+
+        this.streaming = streaming;
+        this.sizeThreshold = sizeThreshold;
+        this.repository = repository;
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    /**
+     * @param sizeMax
+     *            the maximum size of the request body, in bytes, or -1 for 
+     *            no maximum
+     * @return a new ServletFileUpload
+     */
+    public ServletFileUpload newFileUpload(long sizeMax) {
+
+        ServletFileUpload upload = streaming ? new ServletFileUpload() : 
+            new ServletFileUpload(newFileItemFactory());
+        upload.setSizeMax(sizeMax);
+        return upload;
+    }
+
+    /**
+     * @return a new factory of file items that are kept in memory up to the
+     *         size threshold, and written to the repository above it
+     */
+    public FileItemFactory newFileItemFactory() {
+
+        return new DiskFileItemFactory(sizeThreshold, repository);
+    }
+}
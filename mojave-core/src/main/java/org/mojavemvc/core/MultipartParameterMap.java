@@ -0,0 +1,387 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.disk.DiskFileItem;
+import org.apache.commons.fileupload.util.Streams;
+import org.mojavemvc.exception.UploadSizeExceededException;
+import org.mojavemvc.forms.UploadedFile;
+
+/**
+ * <p>
+ * The parameters of a multipart request, parsed from the request body when
+ * they are first looked up, so that a maximum upload size for the action 
+ * can be set before the body is read.
+ * </p>
+ * 
+ * <p>
+ * In buffered mode, the whole body is parsed on the first lookup. In 
+ * streaming mode, parts are parsed only as far as the part being looked 
+ * up, along with any parts that repeat the same form field, and an 
+ * uploaded file is a stream over its part of the request body. As the body 
+ * can only be read once, the unread remainder of a file is buffered, as in
+ * buffered mode, when a later part has to be parsed before the file is 
+ * read; a file that is read before any later part is looked up is never 
+ * buffered. If the maximum upload size is exceeded while a file is read, 
+ * its stream throws an {@link UploadSizeExceededException}.
+ * </p>
+ * 
+ * <p>
+ * Parameters of the query string take precedence over form fields of the 
+ * same name.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public class MultipartParameterMap extends HashMap<String, Object> {
+
+    private static final long serialVersionUID = 0;
+
+    private static final String DEFAULT_CHARSET = "ISO-8859-1";
+
+    private final transient HttpServletRequest request;
+    private final transient MultipartConfig config;
+    private final Set<String> queryParamNames;
+    private long sizeMax;
+    private transient FileItemIterator items;
+    private transient FileItemStream pending;
+    private transient PartInputStream lastFile;
+    private boolean started;
+    private boolean parsed;
+
+    @SuppressWarnings("unchecked")
+    public MultipartParameterMap(HttpServletRequest request, MultipartConfig config) {
+
+        this.request = request;
+        this.config = config;
+        this.sizeMax = config.getMaxUploadSize();
+        Map<String, Object> queryParams = request.getParameterMap();
+        super.putAll(queryParams);
+        this.queryParamNames = queryParams.keySet();
+    }
+
+    /**
+     * Set the maximum size of the request body, if it has not yet been 
+     * read.
+     * 
+     * @param sizeMax
+     *            the maximum size, in bytes
+     */
+    public void setSizeMax(long sizeMax) {
+
+        if (!started) {
+            this.sizeMax = sizeMax;
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+
+        Object value = super.get(key);
+        if (value == null && !parsed) {
+            value = parseUntil(key);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null || super.containsKey(key);
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+
+        parseAll();
+        return super.entrySet();
+    }
+
+    @Override
+    public Set<String> keySet() {
+
+        parseAll();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+
+        parseAll();
+        return super.values();
+    }
+
+    @Override
+    public int size() {
+
+        parseAll();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+
+        parseAll();
+        return super.isEmpty();
+    }
+
+    private Object parseUntil(Object key) {
+
+        if (!config.isStreaming()) {
+            parseAll();
+            return super.get(key);
+        }
+        try {
+            FileItemStream item;
+            while ((item = nextItem()) != null) {
+                String name = item.getFieldName();
+                addItem(item);
+                if (item.isFormField()) {
+                    /* all the values of a repeated field are read before it is returned */
+                    while ((item = nextItem()) != null && item.isFormField() && 
+                            item.getFieldName().equals(name)) {
+                        addItem(item);
+                    }
+                    pending = item;
+                }
+                if (name.equals(key)) {
+                    return super.get(key);
+                }
+            }
+            parsed = true;
+            return null;
+        } catch (Exception e) {
+            throw newParseException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void parseAll() {
+
+        if (parsed) {
+            return;
+        }
+        started = true;
+        try {
+            if (config.isStreaming()) {
+                FileItemStream item;
+                while ((item = nextItem()) != null) {
+                    addItem(item);
+                }
+            } else {
+                List<FileItem> fileItems = config.newFileUpload(sizeMax).parseRequest(request);
+                for (FileItem item : fileItems) {
+                    addItem(item);
+                }
+            }
+            parsed = true;
+        } catch (Exception e) {
+            parsed = true;
+            throw newParseException(e);
+        }
+    }
+
+    /*
+     * returns the part read ahead while looking for repeated fields, if 
+     * any; otherwise, buffers the unread content of the last file, which
+     * the iterator would otherwise skip, and advances the iterator
+     */
+    private FileItemStream nextItem() throws Exception {
+
+        if (pending != null) {
+            FileItemStream item = pending;
+            pending = null;
+            return item;
+        }
+        FileItemIterator iterator = getItems();
+        if (lastFile != null) {
+            PartInputStream file = lastFile;
+            lastFile = null;
+            file.buffer(config.newFileItemFactory());
+        }
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private FileItemIterator getItems() throws Exception {
+
+        if (items == null) {
+            started = true;
+            items = config.newFileUpload(sizeMax).getItemIterator(request);
+        }
+        return items;
+    }
+
+    private void addItem(FileItemStream item) throws IOException {
+
+        String name = item.getFieldName();
+        if (item.isFormField()) {
+            String encoding = request.getCharacterEncoding();
+            addFormField(name, Streams.asString(item.openStream(), 
+                    encoding != null ? encoding : DEFAULT_CHARSET));
+        } else if (!queryParamNames.contains(name)) {
+            lastFile = new PartInputStream(item, item.openStream());
+            put(name, new UploadedFile(item.getName(), lastFile, 
+                    item.getContentType(), false, -1));
+        }
+    }
+
+    private void addItem(FileItem item) throws IOException {
+
+        String name = item.getFieldName();
+        if (item.isFormField()) {
+            addFormField(name, item.getString());
+        } else if (!queryParamNames.contains(name)) {
+            put(name, new UploadedFile(item.getName(), item.getInputStream(), 
+                    item.getContentType(), item.isInMemory(), item.getSize(), 
+                    item instanceof DiskFileItem ? ((DiskFileItem) item).getStoreLocation() : null));
+        }
+    }
+
+    private void addFormField(String name, String value) {
+
+        if (queryParamNames.contains(name)) {
+            return;
+        }
+        /* handle multiple items with the same name; add to array */
+        String[] values = (String[]) super.get(name);
+        if (values != null) {
+            String[] newValues = new String[values.length + 1];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            newValues[values.length] = value;
+            values = newValues;
+        } else {
+            values = new String[] {value};
+        }
+        put(name, values);
+    }
+
+    private RuntimeException newParseException(Exception e) {
+
+        UploadSizeExceededException sizeExceeded = toSizeExceeded(e);
+        if (sizeExceeded != null) {
+            return sizeExceeded;
+        }
+        return new RuntimeException("error getting parameters from multipart request: ", e);
+    }
+
+    private static UploadSizeExceededException toSizeExceeded(Exception e) {
+
+        Throwable cause = e instanceof FileUploadBase.FileUploadIOException ? e.getCause() : e;
+        if (cause instanceof FileUploadBase.SizeLimitExceededException
+                || cause instanceof FileUploadBase.FileSizeLimitExceededException) {
+            return new UploadSizeExceededException(cause.getMessage(), cause);
+        }
+        return null;
+    }
+
+    /*
+     * the stream of a file part, which switches to a buffered copy of its 
+     * unread content when a later part is parsed before it has been read
+     */
+    private static class PartInputStream extends FilterInputStream {
+
+        private final FileItemStream item;
+        private FileItem buffered;
+        private boolean closed;
+
+        PartInputStream(FileItemStream item, InputStream in) {
+            super(in);
+            this.item = item;
+        }
+
+        synchronized void buffer(FileItemFactory factory) throws IOException {
+
+            if (closed) {
+                return;
+            }
+            FileItem fileItem = factory.createItem(item.getFieldName(), item.getContentType(), 
+                    false, item.getName());
+            Streams.copy(in, fileItem.getOutputStream(), true);
+            in.close();
+            in = fileItem.getInputStream();
+            buffered = fileItem;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+
+            try {
+                return super.read();
+            } catch (FileUploadBase.FileUploadIOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+
+            try {
+                return super.read(b, off, len);
+            } catch (FileUploadBase.FileUploadIOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public synchronized long skip(long n) throws IOException {
+
+            try {
+                return super.skip(n);
+            } catch (FileUploadBase.FileUploadIOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+
+            closed = true;
+            try {
+                super.close();
+            } catch (FileUploadBase.FileUploadIOException e) {
+                throw translate(e);
+            } finally {
+                if (buffered != null) {
+                    buffered.delete();
+                }
+            }
+        }
+
+        private IOException translate(FileUploadBase.FileUploadIOException e) {
+
+            UploadSizeExceededException sizeExceeded = toSizeExceeded(e);
+            if (sizeExceeded != null) {
+                throw sizeExceeded;
+            }
+            return e;
+        }
+    }
+}
@@ -17,10 +17,15 @@
 
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+
 /**
+ * An implementation of this interface is shared by all requests, and 
+ * must be thread-safe.
+ * 
  * @author Luis Antunes
  */
 public interface ParameterMapSource {
 
-    Map<String, Object> getParameterMap();
+    Map<String, Object> getParameterMap(HttpServletRequest req);
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.util.List;
+
+import org.bigtesting.routd.NamedParameterElement;
+
+/**
+ * The named parameters of a request path, as declared by the matched route.
+ * The path is not split; only the offsets of the parameter values in the
+ * path are recorded, so that a value can be converted directly from the path
+ * characters when it is bound to an action argument.
+ * <p>
+ * An instance of this class is created for each request that matches a
+ * route with named parameters.
+ * 
+ * @author Luis Antunes
+ */
+public class PathParameters {
+
+    private final String path;
+    private final List<NamedParameterElement> elements;
+    
+    /*
+     * the start and end offsets in the path of each named
+     * parameter value, in the order of the named elements
+     */
+    private final int[] offsets;
+
+    /**
+     * @param path
+     *            the request path, which has matched the route the named
+     *            elements belong to
+     * @param elements
+     *            the named parameter elements of the route
+     */
+    public PathParameters(String path, List<NamedParameterElement> elements) {
+
+        this.path = path;
+        this.elements = elements;
+        this.offsets = new int[elements.size() * 2];
+        recordOffsets();
+    }
+
+    /*
+     * elements are counted the same way as splitting the path, less
+     * its leading separator, on the separator would number them
+     */
+    private void recordOffsets() {
+
+        int start = 0;
+        int end = path.length();
+        while (start < end && path.charAt(start) <= ' ') start++;
+        while (end > start && path.charAt(end - 1) <= ' ') end--;
+        if (start < end && path.charAt(start) == '/') start++;
+
+        int elementIndex = 0;
+        int elementStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || path.charAt(i) == '/') {
+                for (int k = 0; k < elements.size(); k++) {
+                    if (elements.get(k).index() == elementIndex) {
+                        offsets[k * 2] = elementStart;
+                        offsets[k * 2 + 1] = i;
+                    }
+                }
+                elementIndex++;
+                elementStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * @return the number of named parameters
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * @param name
+     *            the name of the parameter
+     * @return the position of the parameter, to be used with the other
+     *         accessors, or -1 if there is no parameter with the given name
+     */
+    public int indexOf(String name) {
+
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getName(int i) {
+        return elements.get(i).name();
+    }
+
+    public String getValue(int i) {
+        return path.substring(offsets[i * 2], offsets[i * 2 + 1]);
+    }
+
+    /**
+     * @param name
+     *            the name of the parameter
+     * @return the value of the parameter, or null if there is no parameter
+     *         with the given name
+     */
+    public String get(String name) {
+
+        int i = indexOf(name);
+        return i == -1 ? null : getValue(i);
+    }
+
+    /**
+     * Parse the value at the given position as a decimal int, 
+     * without creating an intermediate String.
+     * 
+     * @throws NumberFormatException
+     *             if the value is not a parsable int
+     */
+    public int getInt(int i) {
+
+        long val = parseLong(i);
+        if (val < Integer.MIN_VALUE || val > Integer.MAX_VALUE) {
+            throw invalidNumber(i);
+        }
+        return (int) val;
+    }
+
+    /**
+     * Parse the value at the given position as a decimal long, 
+     * without creating an intermediate String.
+     * 
+     * @throws NumberFormatException
+     *             if the value is not a parsable long
+     */
+    public long getLong(int i) {
+
+        return parseLong(i);
+    }
+
+    private long parseLong(int i) {
+
+        int start = offsets[i * 2];
+        int end = offsets[i * 2 + 1];
+        if (start == end) {
+            throw invalidNumber(i);
+        }
+
+        boolean negative = false;
+        char first = path.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) {
+                throw invalidNumber(i);
+            }
+        }
+
+        /* accumulate negatively, so that Long.MIN_VALUE can be parsed */
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+        for (int k = start; k < end; k++) {
+            int digit = Character.digit(path.charAt(k), 10);
+            if (digit < 0 || result < multmin) {
+                throw invalidNumber(i);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalidNumber(i);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private NumberFormatException invalidNumber(int i) {
+        return new NumberFormatException("For input string: \"" + getValue(i) + "\"");
+    }
+}
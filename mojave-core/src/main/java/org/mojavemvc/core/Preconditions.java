@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.mojavemvc.views.HTTPHeader;
+
+/**
+ * Evaluates the conditional headers of a request against the validators of
+ * a response.
+ * 
+ * @author Luis Antunes
+ */
+public final class Preconditions {
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String IF_RANGE = "If-Range";
+    private static final String WEAK_PREFIX = "W/";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Preconditions() {
+    }
+
+    /**
+     * @param request
+     *            the request
+     * @param etag
+     *            the ETag of the response, quoted
+     * @return true if the request's If-None-Match header matches the given
+     *         ETag, using the weak comparison
+     */
+    public static boolean isETagMatched(HttpServletRequest request, String etag) {
+
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        String opaqueTag = stripWeakPrefix(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (stripWeakPrefix(candidate.trim()).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param request
+     *            the request
+     * @param lastModified
+     *            the time the resource was last modified, in milliseconds,
+     *            or -1 if it is not known
+     * @return true if the resource has not been modified since the date in
+     *         the request's If-Modified-Since header; always false if the
+     *         request has an If-None-Match header, which takes precedence
+     */
+    public static boolean isNotModifiedSince(HttpServletRequest request, long lastModified) {
+
+        if (lastModified < 0 || request.getHeader(IF_NONE_MATCH) != null) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            /* an invalid date is ignored */
+            return false;
+        }
+        /* HTTP dates have a precision of one second */
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * @param request
+     *            the request
+     * @param etag
+     *            the ETag of the response, quoted, or null
+     * @param lastModified
+     *            the last modification time of the response, or -1
+     * @return true if the request's Range header is to be honored: either
+     *         the request has no If-Range header, or its If-Range header is
+     *         an ETag equal to the given ETag, using the strong comparison, 
+     *         or a date equal to the last modification time
+     */
+    public static boolean isRangeApplicable(HttpServletRequest request, String etag, 
+            long lastModified) {
+
+        String ifRange = request.getHeader(IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith(WEAK_PREFIX)) {
+            return etag != null && !etag.startsWith(WEAK_PREFIX) && ifRange.equals(etag);
+        }
+        long date;
+        try {
+            date = request.getDateHeader(IF_RANGE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return lastModified >= 0 && date >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    /**
+     * @param value
+     *            a Date, or a Number of milliseconds since the epoch, or null
+     * @return the milliseconds since the epoch, or -1 if the value is null
+     */
+    public static long toMillis(Object value) {
+
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return -1;
+    }
+
+    /**
+     * @param value
+     *            the value of an ETag, quoted or not, or null
+     * @return the ETag, quoted, or null if the value is null
+     */
+    public static String toETag(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+        String etag = value.toString();
+        if (etag.startsWith("\"") || etag.startsWith(WEAK_PREFIX + "\"")) {
+            return etag;
+        }
+        return '"' + etag + '"';
+    }
+
+    /**
+     * @param bytes
+     *            the body of a response
+     * @param len
+     *            the number of valid bytes
+     * @return a strong ETag for the given body
+     */
+    public static String hashETag(byte[] bytes, int len) {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            /* MD5 is always supported */
+            throw new IllegalStateException(e);
+        }
+        digest.update(bytes, 0, len);
+
+        byte[] hash = digest.digest();
+        char[] etag = new char[hash.length * 2 + 2];
+        etag[0] = '"';
+        for (int i = 0; i < hash.length; i++) {
+            etag[i * 2 + 1] = HEX[(hash[i] >> 4) & 0xf];
+            etag[i * 2 + 2] = HEX[hash[i] & 0xf];
+        }
+        etag[etag.length - 1] = '"';
+        return new String(etag);
+    }
+
+    /**
+     * @param headerName
+     *            the name of a header
+     * @return true if the header is the ETag header
+     */
+    static boolean isETagHeader(String headerName) {
+        return HTTPHeader.ETAG.equalsIgnoreCase(headerName);
+    }
+
+    /**
+     * @param headerName
+     *            the name of a header
+     * @return true if the header is the Last-Modified header
+     */
+    static boolean isLastModifiedHeader(String headerName) {
+        return HTTPHeader.LAST_MODIFIED.equalsIgnoreCase(headerName);
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+    }
+}
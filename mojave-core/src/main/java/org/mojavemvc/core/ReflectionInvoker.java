@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a method through java.lang.reflect. The method is made accessible
+ * once, when the invoker is created.
+ * 
+ * @author Luis Antunes
+ */
+public class ReflectionInvoker implements MethodInvoker {
+
+    private final Method method;
+
+    public ReflectionInvoker(Method method) {
+        method.setAccessible(true);
+        this.method = method;
+    }
+
+    public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+        
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            /* cannot happen, as the method has been made accessible */
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates invokers that call methods through java.lang.reflect. No classes
+ * are generated at startup, which shortens the startup of applications with
+ * many controllers.
+ * 
+ * @author Luis Antunes
+ */
+public class ReflectionInvokerFactory implements InvokerFactory {
+
+    public MethodInvoker createInvoker(Class<?> clazz, Method method) {
+        return new ReflectionInvoker(method);
+    }
+}
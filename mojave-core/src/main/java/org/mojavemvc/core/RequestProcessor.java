@@ -15,6 +15,9 @@
  */
 package org.mojavemvc.core;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.mojavemvc.exception.ErrorHandler;
 import org.mojavemvc.initialization.AppProperties;
 import org.mojavemvc.views.View;
@@ -22,8 +25,7 @@
 import org.slf4j.LoggerFactory;
 
 /**
- * An instance of this class is not thread-safe and should not be shared by
- * multiple threads.
+ * An instance of this class is shared by all requests, and is thread-safe.
  * 
  * @author Luis Antunes
  */
@@ -33,30 +35,34 @@ public class RequestProcessor {
 
     private final ActionResolver resolver;
     private final ActionInvoker invoker;
-    private final ErrorHandler errorHandler;
-
-    private String controllerClassName;
 
-    public RequestProcessor(ActionResolver resolver, ActionInvoker invoker, ErrorHandler errorHandler) {
+    public RequestProcessor(ActionResolver resolver, ActionInvoker invoker) {
 
         this.resolver = resolver;
         this.invoker = invoker;
-        this.errorHandler = errorHandler;
     }
 
-    public View process(String controller, String action, AppProperties properties) {
+    /**
+     * @param deferredTimeout
+     *            the maximum time, in milliseconds, to wait for the value of
+     *            a Future returned by the action, or 0 to wait indefinitely
+     */
+    public View process(HttpServletRequest req, HttpServletResponse res, HttpMethod httpMethod, 
+            RoutedRequest routed, ErrorHandler errorHandler, long deferredTimeout, 
+            AppProperties properties) {
 
         View view;
+        String controllerClassName = "<unknown>";
 
         try {
 
-            resolver.resolve(controller, action);
-
-            controllerClassName = resolver.getControllerClassName();
-            Object actionController = resolver.getActionController();
-            ActionSignature actionSignature = resolver.getActionSignature();
+            DispatchEntry dispatchEntry = resolver.resolveDispatchEntry(routed, httpMethod);
+            controllerClassName = dispatchEntry.getControllerClass().getName();
+            
+            Object actionController = resolver.getActionController(req, dispatchEntry);
 
-            view = invoker.invokeAction(actionController, actionSignature);
+            view = invoker.invokeAction(req, res, routed, actionController, dispatchEntry, 
+                    deferredTimeout);
 
         } catch (Throwable e) {
 
@@ -64,11 +70,7 @@ public View process(String controller, String action, AppProperties properties)
             view = errorHandler.handleError(e, properties);
         }
 
+        logger.debug("processed request for " + controllerClassName + "; rendering...");
         return view;
     }
-
-    public String getControllerClassName() {
-
-        return controllerClassName;
-    }
 }
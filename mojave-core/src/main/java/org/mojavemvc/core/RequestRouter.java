@@ -15,10 +15,15 @@
  */
 package org.mojavemvc.core;
 
+import javax.servlet.http.HttpServletRequest;
+
 /**
+ * An implementation of this interface is shared by all requests, and 
+ * must be thread-safe.
+ * 
  * @author Luis Antunes
  */
 public interface RequestRouter {
 
-    RoutedRequest route();
+    RoutedRequest route(HttpServletRequest req, String path);
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Carries the servlet resources of a request, so that they can be provided
+ * for injection on whichever thread is processing the request. A scope is
+ * entered on a thread with {@link ServletResourceModule#enter(RequestScope)}.
+ * An instance of this class is immutable.
+ * 
+ * @author Luis Antunes
+ */
+public class RequestScope {
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+
+    public RequestScope(HttpServletRequest request, HttpServletResponse response) {
+
+        this.request = request;
+        this.response = response;
+    }
+
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of rendered responses, bounded in size, evicting the least recently
+ * used response when full. Each response expires after its time to live. An
+ * instance of this class is available for injection, so that applications
+ * can invalidate responses when the data they were rendered from changes.
+ * An instance of this class is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class ResponseCache {
+
+    public static final String KEY = ResponseCache.class.getName();
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final Map<String, Entry> entries;
+
+    public ResponseCache() {
+
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries
+     *            the maximum number of responses held in the cache
+     */
+    @SuppressWarnings("serial")
+    public ResponseCache(final int maxEntries) {
+
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key
+     *            the key of the response
+     * @return the cached response, or null if there is none, or if it has
+     *         expired
+     */
+    public CachedResponse get(String key) {
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.response;
+        }
+    }
+
+    /**
+     * @param key
+     *            the key of the response
+     * @param response
+     *            the response to cache
+     * @param ttlMillis
+     *            the time to live of the response, in milliseconds
+     */
+    public void put(String key, CachedResponse response, long ttlMillis) {
+
+        Entry entry = new Entry(response, System.currentTimeMillis() + ttlMillis);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Remove all the responses whose keys start with the given prefix. A key
+     * starts with the request path, relative to the servlet or filter; for
+     * example, the prefix "/catalog/" invalidates all the responses of the
+     * catalog controller.
+     * 
+     * @param keyPrefix
+     *            the prefix of the keys of the responses to remove
+     * @return the number of responses removed
+     */
+    public int invalidate(String keyPrefix) {
+
+        int removed = 0;
+        synchronized (entries) {
+            for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+                if (it.next().startsWith(keyPrefix)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove all the responses in the cache.
+     */
+    public void invalidateAll() {
+
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+
+        private final CachedResponse response;
+        private final long expiresAt;
+
+        private Entry(CachedResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -25,11 +25,27 @@ public class RoutedRequest {
     private final String controller;
     private final String action;
     private final Map<String, Object> parameterMap;
+    private final MojaveRoute route;
+    private final PathParameters pathParameters;
+    private final String path;
 
     public RoutedRequest(String controller, String action, Map<String, Object> parameterMap) {
+        this(controller, action, parameterMap, null, null);
+    }
+
+    public RoutedRequest(String controller, String action, Map<String, Object> parameterMap, 
+            MojaveRoute route, PathParameters pathParameters) {
+        this(controller, action, parameterMap, route, pathParameters, null);
+    }
+
+    public RoutedRequest(String controller, String action, Map<String, Object> parameterMap, 
+            MojaveRoute route, PathParameters pathParameters, String path) {
         this.controller = controller;
         this.action = action;
         this.parameterMap = parameterMap;
+        this.route = route;
+        this.pathParameters = pathParameters;
+        this.path = path;
     }
 
     public String getController() {
@@ -43,4 +59,28 @@ public String getAction() {
     public Map<String, Object> getParameterMap() {
         return parameterMap;
     }
+    
+    /**
+     * @return the parameters in the request path, or null if
+     *         the matched route has no named parameters
+     */
+    public PathParameters getPathParameters() {
+        return pathParameters;
+    }
+    
+    /**
+     * @return the request path that was routed, relative to the 
+     *         servlet or filter, or null if it is not known
+     */
+    public String getPath() {
+        return path;
+    }
+    
+    /**
+     * @return the dispatch entry of the matched route for the given
+     *         HTTP method, or null if it must be resolved by name
+     */
+    public DispatchEntry getDispatchEntry(HttpMethod httpMethod) {
+        return route == null ? null : route.getDispatchEntry(httpMethod);
+    }
 }
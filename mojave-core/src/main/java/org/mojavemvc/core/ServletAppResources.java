@@ -17,6 +17,7 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Set;
 
 import javax.servlet.ServletContext;
 
@@ -50,6 +51,13 @@ public URL getResource(String path) throws MalformedURLException {
         return ctx.getResource(path);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public Set<String> getResourcePaths(String path) {
+        
+        return ctx.getResourcePaths(path);
+    }
+
     @Override
     public Injector getInjector() {
         
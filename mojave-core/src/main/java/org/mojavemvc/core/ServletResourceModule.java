@@ -30,9 +30,7 @@
  */
 public class ServletResourceModule extends AbstractModule {
 
-    private static final ThreadLocal<HttpServletRequest> threadRequest = new ThreadLocal<HttpServletRequest>();
-
-    private static final ThreadLocal<HttpServletResponse> threadResponse = new ThreadLocal<HttpServletResponse>();
+    private static final ThreadLocal<RequestScope> threadScope = new ThreadLocal<RequestScope>();
 
     /*
      * an instance of this class is read-only, and is created during 
@@ -42,9 +40,21 @@ public class ServletResourceModule extends AbstractModule {
      */
     private final AppProperties appProperties;
     
+    /*
+     * the response cache is shared by all threads, 
+     * and is thread-safe
+     */
+    private final ResponseCache responseCache;
+    
     public ServletResourceModule(AppProperties appProperties) {
         
+        this(appProperties, new ResponseCache());
+    }
+    
+    public ServletResourceModule(AppProperties appProperties, ResponseCache responseCache) {
+        
         this.appProperties = appProperties;
+        this.responseCache = responseCache;
     }
     
     @Override
@@ -56,41 +66,68 @@ AppProperties providesAppProperties() {
         
         return appProperties;
     }
+    
+    @Provides
+    ResponseCache providesResponseCache() {
+        
+        return responseCache;
+    }
 
     @Provides
     HttpServletRequest provideRequest() {
 
-        return threadRequest.get();
+        RequestScope scope = threadScope.get();
+        return scope != null ? scope.getRequest() : null;
     }
 
     @Provides
     HttpServletResponse provideResponse() {
 
-        return threadResponse.get();
+        RequestScope scope = threadScope.get();
+        return scope != null ? scope.getResponse() : null;
     }
 
     @Provides
     HttpSession provideSession() {
 
-        HttpServletRequest request = threadRequest.get();
-        if (request != null) {
-            return request.getSession();
+        RequestScope scope = threadScope.get();
+        if (scope != null && scope.getRequest() != null) {
+            return scope.getRequest().getSession();
         }
         return null;
     }
 
-    public static void set(HttpServletRequest req, HttpServletResponse resp) {
-
-        if (threadRequest.get() != null || threadResponse.get() != null) {
-            throw new IllegalStateException("attempting to re-handle request");
-        }
-        threadRequest.set(req);
-        threadResponse.set(resp);
+    /**
+     * Make the given scope the current scope of this thread. Scopes can be
+     * nested, as when a request is forwarded back to the framework on the
+     * same thread, and so the scope being replaced is returned, to be
+     * restored with {@link #exit(RequestScope)}.
+     * 
+     * @param scope
+     *            the scope of the request to be processed on this thread
+     * @return the scope previously current on this thread, or null if
+     *         there was none
+     */
+    public static RequestScope enter(RequestScope scope) {
+        
+        RequestScope previous = threadScope.get();
+        threadScope.set(scope);
+        return previous;
     }
     
-    public static void unset() {
+    /**
+     * Restore the scope that was current on this thread before the last call
+     * to {@link #enter(RequestScope)}.
+     * 
+     * @param previous
+     *            the scope returned by {@link #enter(RequestScope)}
+     */
+    public static void exit(RequestScope previous) {
         
-        threadRequest.remove();
-        threadResponse.remove();
+        if (previous == null) {
+            threadScope.remove();
+        } else {
+            threadScope.set(previous);
+        }
     }
 }
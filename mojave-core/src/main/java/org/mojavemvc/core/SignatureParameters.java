@@ -19,7 +19,6 @@
 import java.sql.Date;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.mojavemvc.forms.UploadedFile;
@@ -76,37 +75,40 @@ static Parameter getParameterFromType(Class<?> paramType) {
      */
     static abstract class Parameter {
 
-        public void populateArgs(List<Object> args, Object paramValue) {
+        public Object convert(Object paramValue) {
             if (paramValue instanceof String[]) {
-                populateArgsFromStringArray((String[]) paramValue, args);
-            } else {
-                populateArgsFromObject(paramValue, args);
+                return convertFromStringArray((String[]) paramValue);
             }
+            return convertFromObject(paramValue);
         }
         
-        protected abstract void populateArgsFromStringArray(String[] paramValues, List<Object> args);
+        /*
+         * the default conversion of a value in the request path 
+         * is the same as that of a single request parameter value
+         */
+        public Object convertFromPath(PathParameters pathParameters, int index) {
+            return convertFromStringArray(new String[] { pathParameters.getValue(index) });
+        }
+        
+        protected abstract Object convertFromStringArray(String[] paramValues);
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? null : paramValue);
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue;
         }
     }
     
     static abstract class ArrayParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            if (paramValues != null) {
-                Object vals = convertParamValues(paramValues);
-                args.add(vals);
-            } else {
-                args.add(null);
-            }
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues != null ? convertParamValues(paramValues) : null;
         }
         
         protected abstract Object convertParamValues(String[] paramValues);
     }
     
     /*
-     * NOTE: a new instance must be created for each request
+     * NOTE: an instance of this class is created for each parameter 
+     * of an unsupported type when the action signature is created
      */
     static class UnknownParameter extends Parameter {
         
@@ -116,14 +118,19 @@ public UnknownParameter(Class<?> paramType) {
             this.paramType = paramType;
         }
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
+        protected Object convertFromStringArray(String[] paramValues) {
             throw new UnsupportedOperationException("unsupported parameter type: " + paramType.getName());
         }
     }
     
     static class StringParameter extends Parameter {
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? null : paramValues[0]);
+        
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? null : paramValues[0];
+        }
+        
+        public Object convertFromPath(PathParameters pathParameters, int index) {
+            return pathParameters.getValue(index);
         }
     }
     
@@ -136,12 +143,18 @@ protected Object convertParamValues(String[] paramValues) {
     
     static class IntegerParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? 0 : Integer.parseInt(paramValues[0]));
+        private static final Integer ZERO = Integer.valueOf(0);
+        
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? ZERO : Integer.valueOf(Integer.parseInt(paramValues[0]));
+        }
+        
+        public Object convertFromPath(PathParameters pathParameters, int index) {
+            return Integer.valueOf(pathParameters.getInt(index));
         }
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? 0 : paramValue);
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue == null ? ZERO : paramValue;
         }
     }
     
@@ -165,12 +178,18 @@ protected Object convertParamValues(String[] paramValues) {
     
     static class LongParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? 0 : Long.parseLong(paramValues[0]));
+        private static final Long ZERO = Long.valueOf(0L);
+        
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? ZERO : Long.valueOf(Long.parseLong(paramValues[0]));
         }
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? 0 : paramValue);
+        public Object convertFromPath(PathParameters pathParameters, int index) {
+            return Long.valueOf(pathParameters.getLong(index));
+        }
+        
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue == null ? ZERO : paramValue;
         }
     }
     
@@ -194,12 +213,14 @@ protected Object convertParamValues(String[] paramValues) {
     
     static class DoubleParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? 0 : Double.parseDouble(paramValues[0]));
+        private static final Double ZERO = Double.valueOf(0d);
+        
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? ZERO : Double.valueOf(Double.parseDouble(paramValues[0]));
         }
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? 0 : paramValue);
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue == null ? ZERO : paramValue;
         }
     }
     
@@ -222,8 +243,9 @@ protected Object convertParamValues(String[] paramValues) {
     }
     
     static class DateParameter extends Parameter {
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? null : Date.valueOf(paramValues[0]));
+        
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? null : Date.valueOf(paramValues[0]);
         }
     }
     
@@ -238,12 +260,12 @@ protected Object convertParamValues(String[] paramValues) {
     
     static class BooleanParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? false : getBooleanValue(paramValues[0]));
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? Boolean.FALSE : Boolean.valueOf(getBooleanValue(paramValues[0]));
         }
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? false : paramValue);
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue == null ? Boolean.FALSE : paramValue;
         }
     }
     
@@ -267,19 +289,19 @@ protected Object convertParamValues(String[] paramValues) {
     
     static class UploadedFileParameter extends Parameter {
         @Override
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
+        protected Object convertFromStringArray(String[] paramValues) {
             throw new UnsupportedOperationException("unsupported operation for an uploaded file parameter");
         }
     }
     
     static class BigDecimalParameter extends Parameter {
         
-        protected void populateArgsFromStringArray(String[] paramValues, List<Object> args) {
-            args.add(paramValues == null ? BigDecimal.ZERO : new BigDecimal(paramValues[0]));
+        protected Object convertFromStringArray(String[] paramValues) {
+            return paramValues == null ? BigDecimal.ZERO : new BigDecimal(paramValues[0]);
         }
         
-        protected void populateArgsFromObject(Object paramValue, List<Object> args) {
-            args.add(paramValue == null ? BigDecimal.ZERO : paramValue);
+        protected Object convertFromObject(Object paramValue) {
+            return paramValue == null ? BigDecimal.ZERO : paramValue;
         }
     }
     
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.core;
+
+/**
+ * Holds the single instance of a singleton controller. It is shared by all
+ * the dispatch entries of the controller, so that a request obtains the
+ * instance directly rather than through a context lookup. The instance is
+ * set once, either during init or by the first request for the controller.
+ * 
+ * @author Luis Antunes
+ */
+public class SingletonControllerHolder {
+
+    private final boolean reinjected;
+    private volatile Object instance;
+
+    /**
+     * @param reinjected
+     *            whether the dependencies of the controller instance are to
+     *            be re-injected with every request
+     */
+    public SingletonControllerHolder(boolean reinjected) {
+        this.reinjected = reinjected;
+    }
+
+    public boolean isReinjected() {
+        return reinjected;
+    }
+
+    /**
+     * @return the controller instance, or null if it has not been created yet
+     */
+    public Object getInstance() {
+        return instance;
+    }
+
+    public void setInstance(Object instance) {
+        this.instance = instance;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.exception;
+
+/**
+ * Thrown when the body of a multipart request exceeds the maximum upload
+ * size of the action or of the application.
+ * 
+ * @author Luis Antunes
+ */
+public class UploadSizeExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 0;
+
+    public UploadSizeExceededException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
+}
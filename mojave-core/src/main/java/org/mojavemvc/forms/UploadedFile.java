@@ -15,9 +15,22 @@
  */
 package org.mojavemvc.forms;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
 /**
+ * A file uploaded with a multipart request. When multipart requests are
+ * parsed in streaming mode, the file is read directly from the request 
+ * body, and its size is not known in advance; if a parameter whose part 
+ * follows it is looked up first, such as when the action's parameters are 
+ * bound, the rest of the file is buffered so that it can still be read.
+ * 
  * @author Luis Antunes
  */
 public class UploadedFile {
@@ -27,15 +40,28 @@ public class UploadedFile {
     private final String contentType;
     private final boolean isInMemory;
     private final long sizeInBytes;
+    private final File storeLocation;
     
     public UploadedFile(String fileName, InputStream uploadedInputStream, 
             String contentType, boolean isInMemory, long sizeInBytes) {
         
+        this(fileName, uploadedInputStream, contentType, isInMemory, sizeInBytes, null);
+    }
+    
+    /**
+     * @param storeLocation
+     *            the temporary file the upload was saved to, or null if it
+     *            was not saved to a file
+     */
+    public UploadedFile(String fileName, InputStream uploadedInputStream, 
+            String contentType, boolean isInMemory, long sizeInBytes, File storeLocation) {
+        
         this.fileName = fileName;
         this.uploadedInputStream = uploadedInputStream;
         this.contentType = contentType;
         this.isInMemory = isInMemory;
         this.sizeInBytes = sizeInBytes;
+        this.storeLocation = storeLocation;
     }
     
     public String getFileName() {
@@ -63,9 +89,47 @@ public boolean isInMemory() {
     /**
      * The size of the file in bytes.
      * 
-     * @return size in bytes
+     * @return size in bytes, or -1 if it is not known
      */
     public long getSize() {
         return sizeInBytes;
     }
+    
+    /**
+     * Write the uploaded file to the given destination. A file that was 
+     * saved to a temporary location is moved there, if possible; otherwise,
+     * its content is transferred with a FileChannel. The input stream of 
+     * this file must not have been read.
+     * 
+     * @param destination
+     *            the file to write to
+     * @throws IOException
+     */
+    public void transferTo(File destination) throws IOException {
+        
+        if (!isInMemory && storeLocation != null) {
+            uploadedInputStream.close();
+            if (!storeLocation.renameTo(destination)) {
+                transfer(new FileInputStream(storeLocation).getChannel(), destination);
+            }
+            return;
+        }
+        transfer(Channels.newChannel(uploadedInputStream), destination);
+    }
+    
+    private void transfer(ReadableByteChannel in, File destination) throws IOException {
+        
+        FileOutputStream out = new FileOutputStream(destination);
+        try {
+            FileChannel channel = out.getChannel();
+            long position = 0;
+            long transferred;
+            while ((transferred = channel.transferFrom(in, position, Long.MAX_VALUE)) > 0) {
+                position += transferred;
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
 }
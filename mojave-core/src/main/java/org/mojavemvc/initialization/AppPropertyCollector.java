@@ -16,6 +16,8 @@
 package org.mojavemvc.initialization;
 
 /**
+ * Collects the application properties. A property that implements 
+ * {@link java.io.Closeable} is closed when the framework is destroyed.
  * 
  * @author Luis Antunes
  */
@@ -17,6 +17,7 @@
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Set;
 
 import com.google.inject.Injector;
 
@@ -29,5 +30,14 @@ public interface AppResources {
     
     URL getResource(String path) throws MalformedURLException;
     
+    /**
+     * @param path
+     *            a directory path, beginning with a '/'
+     * @return the paths of the resources directly within the directory, with
+     *         the paths of sub-directories ending in a '/', or null if there
+     *         are none
+     */
+    Set<String> getResourcePaths(String path);
+    
     Injector getInjector();
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.initialization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.mojavemvc.util.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Compiles templates in parallel at startup, on a pool of daemon threads
+ * sized to the number of processors. A template that cannot be compiled is
+ * logged and left out of the result, so that it is compiled, and its error
+ * reported, when it is first rendered.
+ * </p>
+ * 
+ * @author Luis Antunes
+ * 
+ * @param <T>
+ *            the type of a compiled template
+ */
+public abstract class TemplateCompiler<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
+    
+    private final String threadNamePrefix;
+    
+    /**
+     * @param threadNamePrefix
+     *            the prefix of the names of the compiling threads
+     */
+    protected TemplateCompiler(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+    
+    /**
+     * @param name
+     *            the name of the template
+     * @return the compiled template
+     * @throws Exception
+     *             if the template cannot be compiled
+     */
+    protected abstract T compile(String name) throws Exception;
+    
+    /**
+     * @param names
+     *            the names of the templates
+     * @return the templates that were compiled, keyed by name
+     */
+    public Map<String, T> compileAll(Collection<String> names) {
+        
+        Map<String, T> templates = new HashMap<String, T>();
+        if (names.isEmpty()) {
+            return templates;
+        }
+        
+        int threads = Math.min(names.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, 
+                new DaemonThreadFactory(threadNamePrefix));
+        try {
+            
+            List<String> taskNames = new ArrayList<String>(names);
+            List<Callable<T>> tasks = new ArrayList<Callable<T>>();
+            for (final String name : taskNames) {
+                tasks.add(new Callable<T>() {
+                    public T call() {
+                        return tryCompile(name);
+                    }
+                });
+            }
+            
+            List<Future<T>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < taskNames.size(); i++) {
+                T template = results.get(i).get();
+                if (template != null) {
+                    templates.put(taskNames.get(i), template);
+                }
+            }
+            logger.debug("precompiled " + templates.size() + " of " + names.size() + " templates");
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("error precompiling templates", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return templates;
+    }
+    
+    private T tryCompile(String name) {
+        
+        try {
+            return compile(name);
+        } catch (Exception e) {
+            logger.error("error precompiling template " + name, e);
+            return null;
+        }
+    }
+}
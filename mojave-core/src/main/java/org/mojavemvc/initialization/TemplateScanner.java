@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.initialization;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Finds the names of the templates with a given suffix under a directory,
+ * so that template initializers can compile them at startup. Names are 
+ * relative to the directory, and use '/' as a separator.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public final class TemplateScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc");
+    
+    private TemplateScanner() {}
+    
+    /**
+     * @param resources
+     *            the application's resources
+     * @param basePath
+     *            a directory path, beginning and ending with a '/'
+     * @param suffix
+     *            the template suffix, such as .ftl
+     * @return the names of the templates in the directory and its
+     *         sub-directories
+     */
+    public static List<String> findResourceNames(AppResources resources, 
+            String basePath, String suffix) {
+        
+        List<String> names = new ArrayList<String>();
+        findResourceNames(resources, basePath, basePath, suffix, names);
+        return names;
+    }
+    
+    /**
+     * @param url
+     *            the URL of a directory, typically of a classpath resource
+     * @param suffix
+     *            the template suffix, such as .ftl
+     * @return the names of the templates in the directory and its
+     *         sub-directories, or an empty list if the URL is not that of a
+     *         file system directory, such as one within a jar
+     */
+    public static List<String> findURLNames(URL url, String suffix) {
+        
+        if (url == null || !"file".equals(url.getProtocol())) {
+            logger.warn("templates in " + url + " cannot be listed for precompiling; " + 
+                    "they will be compiled when first requested");
+            return new ArrayList<String>();
+        }
+        try {
+            return findFileNames(new File(url.toURI()), suffix);
+        } catch (URISyntaxException e) {
+            logger.error("could not list templates in " + url, e);
+            return new ArrayList<String>();
+        }
+    }
+    
+    /**
+     * @param dir
+     *            a file system directory
+     * @param suffix
+     *            the template suffix, such as .ftl
+     * @return the names of the templates in the directory and its
+     *         sub-directories
+     */
+    public static List<String> findFileNames(File dir, String suffix) {
+        
+        List<String> names = new ArrayList<String>();
+        findFileNames(dir, "", suffix, names);
+        return names;
+    }
+    
+    private static void findResourceNames(AppResources resources, String basePath, 
+            String dirPath, String suffix, List<String> names) {
+        
+        Set<String> paths = resources.getResourcePaths(dirPath);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                findResourceNames(resources, basePath, path, suffix, names);
+            } else if (path.endsWith(suffix) && path.startsWith(basePath)) {
+                names.add(path.substring(basePath.length()));
+            }
+        }
+    }
+    
+    private static void findFileNames(File dir, String prefix, String suffix, 
+            List<String> names) {
+        
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findFileNames(file, prefix + file.getName() + "/", suffix, names);
+            } else if (file.getName().endsWith(suffix)) {
+                names.add(prefix + file.getName());
+            }
+        }
+    }
+}
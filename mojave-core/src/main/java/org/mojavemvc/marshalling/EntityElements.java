@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.marshalling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * The elements of an entity that can be marshalled incrementally, one
+ * element at a time, without the whole collection being materialized: an
+ * Iterator, an Iterable that is not a Collection, or a java.util.stream.Stream
+ * on runtimes that have one. When the elements have been marshalled, the
+ * source is closed if it is a Closeable or a Stream, so that a cursor
+ * backing it is released.
+ * 
+ * @author Luis Antunes
+ */
+public class EntityElements implements Iterator<Object>, Closeable {
+
+    private static final Class<?> BASE_STREAM_CLASS = findClass("java.util.stream.BaseStream");
+
+    private final Iterator<?> iterator;
+    private final Object source;
+
+    private EntityElements(Iterator<?> iterator, Object source) {
+
+        this.iterator = iterator;
+        this.source = source;
+    }
+
+    /**
+     * @param entity
+     *            the entity returned by an action
+     * @return the elements of the entity, or null if the entity cannot be
+     *         marshalled incrementally
+     */
+    public static EntityElements of(Object entity) {
+
+        if (entity instanceof Iterator<?>) {
+            return new EntityElements((Iterator<?>) entity, entity);
+        }
+        if (entity instanceof Iterable<?> && !(entity instanceof Collection<?>)) {
+            return new EntityElements(((Iterable<?>) entity).iterator(), entity);
+        }
+        if (BASE_STREAM_CLASS != null && BASE_STREAM_CLASS.isInstance(entity)) {
+            return new EntityElements((Iterator<?>) invoke(entity, "iterator"), entity);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    @Override
+    public Object next() {
+        return iterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (source instanceof Closeable) {
+            ((Closeable) source).close();
+        } else if (BASE_STREAM_CLASS != null && BASE_STREAM_CLASS.isInstance(source)) {
+            invoke(source, "close");
+        }
+    }
+
+    private static Object invoke(Object stream, String methodName) {
+
+        try {
+            Method method = BASE_STREAM_CLASS.getMethod(methodName);
+            return method.invoke(stream);
+        } catch (Exception e) {
+            throw new RuntimeException("could not invoke " + methodName + " on stream", e);
+        }
+    }
+
+    private static Class<?> findClass(String name) {
+
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -16,8 +16,10 @@
 package org.mojavemvc.marshalling;
 
 import java.io.InputStream;
+import java.util.Iterator;
 
 import org.mojavemvc.views.JSON;
+import org.mojavemvc.views.JSONStream;
 import org.mojavemvc.views.View;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,9 +36,19 @@ public class JSONEntityMarshaller implements EntityMarshaller {
     
     private final EntityResolver entityResolver = new EntityResolver();
 
+    /*
+     * the entity is serialized when the view is rendered, 
+     * directly to the response's output stream; an entity 
+     * whose elements can be iterated is serialized as a JSON 
+     * array, one element at a time
+     */
     @Override
     public View marshall(Object entity) {
         entity = entityResolver.resolve(entity);
+        Iterator<?> elements = EntityElements.of(entity);
+        if (elements != null) {
+            return new JSONStream(elements, false);
+        }
         return new JSON(entity);
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.marshalling;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.mojavemvc.views.JSONStream;
+import org.mojavemvc.views.View;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Marshalls entities as newline-delimited JSON. An entity whose elements
+ * can be iterated is written one element per line, as the elements are
+ * iterated; any other entity is written as a single line.
+ * 
+ * @author Luis Antunes
+ */
+public class NDJSONEntityMarshaller implements EntityMarshaller {
+
+    /*
+     * ObjectMapper is thread-safe
+     */
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final EntityResolver entityResolver = new EntityResolver();
+
+    @Override
+    public View marshall(Object entity) {
+        entity = entityResolver.resolve(entity);
+        Iterator<?> elements = EntityElements.of(entity);
+        if (elements == null) {
+            elements = Collections.singletonList(entity).iterator();
+        }
+        return new JSONStream(elements, true);
+    }
+
+    @Override
+    public <T> T unmarshall(InputStream in, Class<T> type) {
+
+        try {
+            return mapper.readValue(in, type);
+        } catch (Exception e) {
+            throw new RuntimeException("could not unmarshall NDJSON entity", e);
+        }
+    }
+
+    @Override
+    public String[] contentTypesHandled() {
+        return new String[]{JSONStream.NDJSON_CONTENT_TYPE};
+    }
+}
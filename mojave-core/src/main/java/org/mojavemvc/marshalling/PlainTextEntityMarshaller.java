@@ -15,11 +15,12 @@
  */
 package org.mojavemvc.marshalling;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
 import org.mojavemvc.views.PlainText;
 import org.mojavemvc.views.View;
 
@@ -50,17 +51,18 @@ public <T> T unmarshall(InputStream in, Class<T> type) {
     }
 
     private String readTextFromStream(InputStream in) {
+        BufferPool pool = BufferPool.getShared();
+        ByteArrayBuffer out = pool.acquire();
+        byte[] segment = pool.acquireSegment();
         try {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            byte[] buff = new byte[1024];
-            int len = 0;
-            while ((len = in.read(buff)) != -1) {
-                out.write(buff, 0, len);
-            }
-            return new String(out.toByteArray());
+            out.readFrom(in, segment);
+            return new String(out.getBytes(), 0, out.size());
         } catch (IOException e) {
             throw new RuntimeException("error unmarshalling plain text: " +
                     "error reading from request stream", e);
+        } finally {
+            pool.releaseSegment(segment);
+            pool.release(out);
         }
     }
     
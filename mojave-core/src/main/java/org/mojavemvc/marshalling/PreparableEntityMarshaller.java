@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.marshalling;
+
+/**
+ * <p>
+ * An {@link EntityMarshaller} that can prepare, ahead of the first
+ * request, whatever it needs to unmarshall a given entity type, such as
+ * a reader bound to the type. The framework invokes {@link #prepare(Class)}
+ * once for each &#064;Entity parameter type when the controllers are
+ * initialized.
+ * </p>
+ * 
+ * <p>
+ * Implementations must remain thread-safe, and must still be able to
+ * unmarshall types that were not prepared.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public interface PreparableEntityMarshaller extends EntityMarshaller {
+
+    /**
+     * @param type the &#064;Action method entity parameter type
+     */
+    void prepare(Class<?> type);
+}
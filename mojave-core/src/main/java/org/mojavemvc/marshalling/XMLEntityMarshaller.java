@@ -16,16 +16,26 @@
 package org.mojavemvc.marshalling;
 
 import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.mojavemvc.views.View;
 import org.mojavemvc.views.XML;
+import org.mojavemvc.views.XMLStream;
 
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
 /**
+ * Marshalls entities to and from XML. Entities are read from the request's
+ * input stream, and written to the response's output stream, through 
+ * Woodstox, without an intermediate String. The ObjectReader for each 
+ * entity type is prepared once and reused.
+ * 
  * @author Luis Antunes
  */
-public class XMLEntityMarshaller implements EntityMarshaller {
+public class XMLEntityMarshaller implements PreparableEntityMarshaller {
 
     /*
      * XmlMapper is thread-safe
@@ -34,19 +44,51 @@ public class XMLEntityMarshaller implements EntityMarshaller {
     
     private final EntityResolver entityResolver = new EntityResolver();
     
+    /*
+     * ObjectReader is immutable and thread-safe
+     */
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = 
+            new ConcurrentHashMap<Class<?>, ObjectReader>();
+    
+    /*
+     * an entity whose elements can be iterated is 
+     * serialized one element at a time
+     */
     @Override
     public View marshall(Object entity) {
         entity = entityResolver.resolve(entity);
+        Iterator<?> elements = EntityElements.of(entity);
+        if (elements != null) {
+            return new XMLStream(elements);
+        }
         return new XML(entity);
     }
 
     @Override
     public <T> T unmarshall(InputStream in, Class<T> type) {
         try {
-            return mapper.readValue(in, type);
+            return getReader(type).readValue(in);
         } catch (Exception e) {
-            throw new RuntimeException("could not construct XML View", e);
+            throw new RuntimeException("could not unmarshall XML entity", e);
+        }
+    }
+    
+    @Override
+    public void prepare(Class<?> type) {
+        getReader(type);
+    }
+    
+    private ObjectReader getReader(Class<?> type) {
+        
+        ObjectReader reader = readers.get(type);
+        if (reader == null) {
+            reader = mapper.reader(type);
+            ObjectReader existing = readers.putIfAbsent(type, reader);
+            if (existing != null) {
+                reader = existing;
+            }
         }
+        return reader;
     }
 
     @Override
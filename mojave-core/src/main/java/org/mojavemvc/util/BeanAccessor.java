@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.cglib.reflect.FastClass;
+
+/**
+ * Reads and writes the properties of a JavaBean class without reflection.
+ * The bean's properties are introspected once, when the accessor for the
+ * class is first requested, and its getters and setters are invoked through
+ * a generated FastClass. If a FastClass cannot be generated for the class,
+ * the accessor falls back to the reflective Method.
+ * <p>
+ * Accessors are cached per class. An instance of this class is immutable,
+ * and thus is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class BeanAccessor {
+
+    private static final ConcurrentMap<Class<?>, BeanAccessor> ACCESSORS = 
+            new ConcurrentHashMap<Class<?>, BeanAccessor>();
+    
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Class<?> beanClass;
+    private final FastClass fastClass;
+    private final List<Property> readable;
+    private final List<Property> writable;
+    private final Map<String, Property> readableByName;
+    private final Map<String, Property> writableByName;
+
+    private BeanAccessor(Class<?> beanClass) {
+
+        this.beanClass = beanClass;
+        this.fastClass = createFastClass(beanClass);
+
+        List<Property> readableList = new ArrayList<Property>();
+        List<Property> writableList = new ArrayList<Property>();
+        Map<String, Property> readableMap = new HashMap<String, Property>();
+        Map<String, Property> writableMap = new HashMap<String, Property>();
+
+        for (PropertyDescriptor pd : getPropertyDescriptors(beanClass)) {
+
+            String name = pd.getName();
+            if (name.equals("class")) {
+                continue;
+            }
+            if (pd.getReadMethod() != null) {
+                Property property = new Property(name, pd.getReadMethod());
+                readableList.add(property);
+                readableMap.put(name, property);
+            }
+            if (pd.getWriteMethod() != null) {
+                Property property = new Property(name, pd.getWriteMethod());
+                writableList.add(property);
+                writableMap.put(name, property);
+            }
+        }
+
+        this.readable = Collections.unmodifiableList(readableList);
+        this.writable = Collections.unmodifiableList(writableList);
+        this.readableByName = readableMap;
+        this.writableByName = writableMap;
+    }
+
+    /**
+     * Get the accessor for the given bean class, creating it if this is the
+     * first time it is requested.
+     * 
+     * @param beanClass
+     *            the JavaBean class
+     * @return the accessor for the class
+     */
+    public static BeanAccessor forClass(Class<?> beanClass) {
+
+        BeanAccessor accessor = ACCESSORS.get(beanClass);
+        if (accessor == null) {
+            /* a concurrent first use may introspect twice, which is harmless */
+            BeanAccessor created = new BeanAccessor(beanClass);
+            accessor = ACCESSORS.putIfAbsent(beanClass, created);
+            if (accessor == null) {
+                accessor = created;
+            }
+        }
+        return accessor;
+    }
+
+    private static FastClass createFastClass(Class<?> beanClass) {
+
+        try {
+            return FastClass.create(beanClass);
+        } catch (Throwable e) {
+            /* e.g. a class not visible to the generated class; use reflection */
+            return null;
+        }
+    }
+
+    private static PropertyDescriptor[] getPropertyDescriptors(Class<?> beanClass) {
+
+        try {
+            BeanInfo info = Introspector.getBeanInfo(beanClass);
+            return info.getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            return new PropertyDescriptor[0];
+        }
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * @return the properties that have a getter, except 'class'
+     */
+    public List<Property> getReadableProperties() {
+        return readable;
+    }
+
+    /**
+     * @return the properties that have a setter
+     */
+    public List<Property> getWritableProperties() {
+        return writable;
+    }
+
+    /**
+     * @param name
+     *            the property name
+     * @return the property with the given name that has a getter, or null if
+     *         there is no such property
+     */
+    public Property getReadableProperty(String name) {
+        return readableByName.get(name);
+    }
+
+    /**
+     * @param name
+     *            the property name
+     * @return the property with the given name that has a setter, or null if
+     *         there is no such property
+     */
+    public Property getWritableProperty(String name) {
+        return writableByName.get(name);
+    }
+
+    public Object newInstance() throws Exception {
+
+        if (fastClass != null) {
+            try {
+                return fastClass.newInstance();
+            } catch (InvocationTargetException e) {
+                throw unwrap(e);
+            }
+        }
+        return beanClass.newInstance();
+    }
+
+    private static Exception unwrap(InvocationTargetException e) {
+
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+
+    /**
+     * A bean property together with its getter or setter.
+     */
+    public class Property {
+
+        private final String name;
+        private final Method method;
+        private final Class<?> type;
+        private final int fastIndex;
+
+        private Property(String name, Method method) {
+
+            this.name = name;
+            this.method = method;
+            Class<?>[] paramTypes = method.getParameterTypes();
+            this.type = paramTypes.length == 1 ? paramTypes[0] : method.getReturnType();
+            this.fastIndex = fastClass != null ? 
+                    fastClass.getIndex(method.getName(), paramTypes) : -1;
+            if (fastIndex == -1) {
+                method.setAccessible(true);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the type of the property
+         */
+        public Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Invoke the getter of this property on the given bean.
+         */
+        public Object get(Object bean) throws Exception {
+            return invoke(bean, NO_ARGS);
+        }
+
+        /**
+         * Invoke the setter of this property on the given bean.
+         */
+        public void set(Object bean, Object value) throws Exception {
+            invoke(bean, new Object[] { value });
+        }
+
+        private Object invoke(Object bean, Object[] args) throws Exception {
+
+            try {
+                if (fastIndex != -1) {
+                    return fastClass.invoke(fastIndex, bean, args);
+                }
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException e) {
+                throw unwrap(e);
+            }
+        }
+    }
+}
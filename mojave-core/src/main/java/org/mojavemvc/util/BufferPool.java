@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of byte buffers, used when a response body is rendered into
+ * memory before being written out, and of fixed-size segments, used when 
+ * copying between streams. Buffers that have grown beyond the maximum 
+ * retained capacity are not returned to the pool, so that one large
+ * response does not pin its memory. An instance of this class is 
+ * thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class BufferPool {
+
+    public static final int DEFAULT_MAX_BUFFERS = 64;
+    public static final int DEFAULT_INITIAL_CAPACITY = 8 * 1024;
+    public static final int DEFAULT_MAX_RETAINED_CAPACITY = 256 * 1024;
+
+    private static volatile BufferPool shared = new BufferPool(DEFAULT_MAX_BUFFERS, 
+            DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY);
+
+    private final Queue<ByteArrayBuffer> buffers = new ConcurrentLinkedQueue<ByteArrayBuffer>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final Queue<byte[]> segments = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger pooledSegments = new AtomicInteger();
+    private final int maxBuffers;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    /**
+     * @param maxBuffers
+     *            the maximum number of buffers, and of segments, held by the
+     *            pool
+     * @param initialCapacity
+     *            the initial capacity of a buffer, and the size of a segment
+     * @param maxRetainedCapacity
+     *            the capacity beyond which a buffer is not returned to the 
+     *            pool
+     */
+    public BufferPool(int maxBuffers, int initialCapacity, int maxRetainedCapacity) {
+
+        this.maxBuffers = maxBuffers;
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * @return the pool shared by the framework's views
+     */
+    public static BufferPool getShared() {
+        return shared;
+    }
+
+    /**
+     * Replace the pool shared by the framework's views, as configured by
+     * the framework's init-params.
+     * 
+     * @param pool
+     *            the pool to share
+     */
+    public static void setShared(BufferPool pool) {
+        shared = pool;
+    }
+
+    /**
+     * @return the size of the segments of this pool
+     */
+    public int getSegmentSize() {
+        return initialCapacity;
+    }
+
+    /**
+     * @return an empty buffer, taken from the pool if one is available
+     */
+    public ByteArrayBuffer acquire() {
+
+        ByteArrayBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return new ByteArrayBuffer(initialCapacity);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Return a buffer to the pool. The buffer must not be used after it 
+     * has been released.
+     * 
+     * @param buffer
+     *            the buffer to return
+     */
+    public void release(ByteArrayBuffer buffer) {
+
+        if (buffer == null || buffer.capacity() > maxRetainedCapacity) {
+            return;
+        }
+        buffer.reset();
+        if (pooled.incrementAndGet() <= maxBuffers) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return a segment of {@link #getSegmentSize()} bytes, taken from the
+     *         pool if one is available; its content is undefined
+     */
+    public byte[] acquireSegment() {
+
+        byte[] segment = segments.poll();
+        if (segment == null) {
+            return new byte[initialCapacity];
+        }
+        pooledSegments.decrementAndGet();
+        return segment;
+    }
+
+    /**
+     * Return a segment to the pool. The segment must not be used after it 
+     * has been released.
+     * 
+     * @param segment
+     *            the segment to return
+     */
+    public void releaseSegment(byte[] segment) {
+
+        if (segment == null || segment.length != initialCapacity) {
+            return;
+        }
+        if (pooledSegments.incrementAndGet() <= maxBuffers) {
+            segments.offer(segment);
+        } else {
+            pooledSegments.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A ByteArrayOutputStream whose internal array can be read without being
+ * copied, so that a buffered body can be hashed or written out as it is.
+ * 
+ * @author Luis Antunes
+ */
+public class ByteArrayBuffer extends ByteArrayOutputStream {
+
+    public ByteArrayBuffer(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * @return the internal array of this buffer; only the first
+     *         {@link #size()} bytes are valid
+     */
+    public byte[] getBytes() {
+        return buf;
+    }
+
+    /**
+     * @return the length of the internal array of this buffer
+     */
+    public int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Read the remainder of a stream into this buffer.
+     * 
+     * @param in
+     *            the stream to read
+     * @param segment
+     *            the array to read through
+     */
+    public void readFrom(InputStream in, byte[] segment) throws IOException {
+
+        int n;
+        while ((n = in.read(segment)) != -1) {
+            write(segment, 0, n);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A range of bytes of a representation, as requested with a Range header.
+ * An instance of this class is immutable.
+ * 
+ * @author Luis Antunes
+ */
+public class ByteRange {
+
+    /* more ranges than this are not honored, and the whole content is sent */
+    public static final int MAX_RANGES = 16;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    /**
+     * @param start
+     *            the position of the first byte
+     * @param end
+     *            the position of the last byte, inclusive
+     */
+    public ByteRange(long start, long end) {
+
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * @param length
+     *            the length of the whole content
+     * @return the value of the Content-Range header for this range
+     */
+    public String toContentRange(long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+
+    /**
+     * Parse the value of a Range header, such as 
+     * <code>bytes=0-499, -500</code>.
+     * 
+     * @param header
+     *            the value of the Range header, or null
+     * @param length
+     *            the length of the whole content
+     * @return the satisfiable ranges, sorted, with overlapping and adjacent
+     *         ranges merged, which is empty if none of the ranges is 
+     *         satisfiable, or null if the header is absent or invalid, or
+     *         has too many ranges, or its ranges together are longer than 
+     *         the content, in which case it is to be ignored
+     */
+    public static List<ByteRange> parse(String header, long length) {
+
+        if (header == null) {
+            return null;
+        }
+        header = header.trim();
+        if (!header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        String[] specs = header.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<ByteRange>(specs.length);
+        try {
+            for (String spec : specs) {
+                spec = spec.trim();
+                int dash = spec.indexOf('-');
+                if (dash < 0) {
+                    return null;
+                }
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.length() == 0) {
+                    /* a suffix range: the last N bytes */
+                    long suffix = Long.parseLong(last);
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    if (suffix > 0 && length > 0) {
+                        ranges.add(new ByteRange(Math.max(0, length - suffix), length - 1));
+                    }
+                } else {
+                    long start = Long.parseLong(first);
+                    long end = last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (start < 0 || end < start) {
+                        return null;
+                    }
+                    if (start < length) {
+                        ranges.add(new ByteRange(start, Math.min(end, length - 1)));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (ranges.isEmpty()) {
+            return Collections.<ByteRange>emptyList();
+        }
+        /* overlapping ranges could otherwise be used to amplify the response */
+        long total = 0;
+        for (ByteRange range : ranges) {
+            total += range.getLength();
+        }
+        if (total > length) {
+            return null;
+        }
+        return merge(ranges);
+    }
+
+    private static List<ByteRange> merge(List<ByteRange> ranges) {
+
+        if (ranges.size() == 1) {
+            return ranges;
+        }
+        Collections.sort(ranges, BY_START);
+        List<ByteRange> merged = new ArrayList<ByteRange>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.start <= current.end + 1) {
+                current = new ByteRange(current.start, Math.max(current.end, next.end));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static final Comparator<ByteRange> BY_START = new Comparator<ByteRange>() {
+        public int compare(ByteRange r1, ByteRange r2) {
+            return r1.start < r2.start ? -1 : (r1.start == r2.start ? 0 : 1);
+        }
+    };
+}
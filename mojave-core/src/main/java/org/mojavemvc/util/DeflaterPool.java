@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of Deflaters of a given compression level, so that their
+ * native memory is not allocated and freed for every compressed response.
+ * Deflaters producing raw deflate data, as used for gzip, and Deflaters 
+ * producing zlib data, as used for the deflate content coding, are pooled
+ * separately. Deflaters that cannot be returned to the pool are ended. An 
+ * instance of this class is thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class DeflaterPool {
+
+    public static final int DEFAULT_MAX_DEFLATERS = 32;
+
+    private final Queue<Deflater> rawDeflaters = new ConcurrentLinkedQueue<Deflater>();
+    private final Queue<Deflater> zlibDeflaters = new ConcurrentLinkedQueue<Deflater>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int level;
+    private final int maxDeflaters;
+
+    public DeflaterPool(int level, int maxDeflaters) {
+
+        this.level = level;
+        this.maxDeflaters = maxDeflaters;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @param nowrap
+     *            true for a Deflater producing raw deflate data, false for
+     *            one producing zlib data
+     * @return a Deflater, taken from the pool if one is available
+     */
+    public Deflater acquire(boolean nowrap) {
+
+        Deflater deflater = queue(nowrap).poll();
+        if (deflater == null) {
+            return new Deflater(level, nowrap);
+        }
+        pooled.decrementAndGet();
+        return deflater;
+    }
+
+    /**
+     * Return a Deflater to the pool. The Deflater must not be used after it
+     * has been released.
+     * 
+     * @param deflater
+     *            the Deflater to return
+     * @param nowrap
+     *            the nowrap setting the Deflater was acquired with
+     */
+    public void release(Deflater deflater, boolean nowrap) {
+
+        if (deflater == null) {
+            return;
+        }
+        deflater.reset();
+        if (pooled.incrementAndGet() <= maxDeflaters) {
+            queue(nowrap).offer(deflater);
+        } else {
+            pooled.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+    private Queue<Deflater> queue(boolean nowrap) {
+        return nowrap ? rawDeflaters : zlibDeflaters;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A DeflaterOutputStream that writes either the gzip or the deflate (zlib)
+ * content coding, using a Deflater supplied by the caller, so that the 
+ * Deflater can be pooled. For gzip, the Deflater must produce raw deflate 
+ * data; the gzip header and trailer are written by this stream. Calling 
+ * {@link #finish()} completes the coded data without closing the 
+ * underlying stream.
+ * 
+ * @author Luis Antunes
+ */
+public class DeflatingOutputStream extends DeflaterOutputStream {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final byte[] GZIP_HEADER = new byte[] {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final CRC32 crc;
+    private boolean finished;
+
+    /**
+     * @param out
+     *            the stream to write the coded data to
+     * @param deflater
+     *            the Deflater to use; it is not ended by this stream
+     * @param gzip
+     *            true to write the gzip coding, false to write the deflate
+     *            coding
+     */
+    public DeflatingOutputStream(OutputStream out, Deflater deflater, boolean gzip) 
+            throws IOException {
+
+        super(out, deflater, BUFFER_SIZE);
+        if (gzip) {
+            crc = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            crc = null;
+        }
+    }
+
+    public Deflater getDeflater() {
+        return def;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+
+        super.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+
+        if (finished) {
+            return;
+        }
+        finished = true;
+        super.finish();
+        if (crc != null) {
+            writeInt((int) crc.getValue());
+            writeInt((int) def.getBytesRead());
+        }
+    }
+
+    /* little-endian, as the gzip trailer requires */
+    private void writeInt(int i) throws IOException {
+
+        out.write(i & 0xff);
+        out.write((i >> 8) & 0xff);
+        out.write((i >> 16) & 0xff);
+        out.write((i >> 24) & 0xff);
+    }
+}
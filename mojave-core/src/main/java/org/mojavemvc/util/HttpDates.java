@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats dates for HTTP headers, in the RFC 1123 format, eg. 
+ * "Sun, 06 Nov 1994 08:49:37 GMT". A SimpleDateFormat is not thread-safe,
+ * and is expensive to create, so one is kept per thread.
+ * 
+ * @author Luis Antunes
+ */
+public final class HttpDates {
+
+    private static final String RFC1123_DATE = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private static final ThreadLocal<DateFormat> FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            SimpleDateFormat df = new SimpleDateFormat(RFC1123_DATE, Locale.US);
+            df.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return df;
+        }
+    };
+
+    private HttpDates() {
+    }
+
+    /**
+     * @param date
+     *            the date to format
+     * @return the date in the RFC 1123 format
+     */
+    public static String format(Date date) {
+        return FORMAT.get().format(date);
+    }
+
+    /**
+     * @param millis
+     *            the date to format, in milliseconds since the epoch
+     * @return the date in the RFC 1123 format
+     */
+    public static String format(long millis) {
+        return format(new Date(millis));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * A Writer that encodes characters as UTF-8 into a byte segment, and writes
+ * the segment to an output stream whenever it fills up, or when the writer 
+ * is flushed. Unlike an OutputStreamWriter, it does no locking and keeps no
+ * CharsetEncoder state beyond a pending high surrogate. As with the JDK's 
+ * encoder, an unpaired surrogate is written as a '?'. An instance of this 
+ * class is not thread-safe.
+ * 
+ * @author Luis Antunes
+ */
+public class Utf8Writer extends Writer {
+
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private final OutputStream out;
+    private final byte[] segment;
+    private int pos;
+    private char highSurrogate;
+
+    /**
+     * @param out
+     *            the stream the encoded bytes are written to
+     * @param segment
+     *            the array the characters are encoded into, which must be at
+     *            least 4 bytes long
+     */
+    public Utf8Writer(OutputStream out, byte[] segment) {
+
+        if (segment.length < 4) {
+            throw new IllegalArgumentException("segment is too small");
+        }
+        this.out = out;
+        this.segment = segment;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+
+        if (pos + 4 > segment.length) {
+            drain();
+        }
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (pos + 4 > segment.length) {
+                drain();
+            }
+            char c = cbuf[i];
+            if (c < 0x80 && highSurrogate == 0) {
+                segment[pos++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (pos + 4 > segment.length) {
+                drain();
+            }
+            char c = str.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                segment[pos++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    private void encode(char c) {
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                segment[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                segment[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                segment[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                segment[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+                return;
+            }
+            /* at most 3 more bytes follow, so 4 reserved bytes are enough */
+            segment[pos++] = REPLACEMENT;
+        }
+
+        if (c < 0x80) {
+            segment[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            segment[pos++] = (byte) (0xc0 | (c >> 6));
+            segment[pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            segment[pos++] = REPLACEMENT;
+        } else {
+            segment[pos++] = (byte) (0xe0 | (c >> 12));
+            segment[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            segment[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+    }
+
+    /**
+     * Write the encoded bytes to the stream, and flush the stream. A pending
+     * high surrogate is kept until the next character is written.
+     */
+    @Override
+    public void flush() throws IOException {
+
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Write the encoded bytes, including a replacement for any pending high
+     * surrogate, to the stream. The stream itself is not closed.
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (pos + 1 > segment.length) {
+                drain();
+            }
+            segment[pos++] = REPLACEMENT;
+        }
+        drain();
+    }
+
+    private void drain() throws IOException {
+
+        if (pos > 0) {
+            out.write(segment, 0, pos);
+            pos = 0;
+        }
+    }
+}
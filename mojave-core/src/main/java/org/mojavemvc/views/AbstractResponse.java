@@ -16,28 +16,23 @@
 package org.mojavemvc.views;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TimeZone;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.HttpDates;
 
 
 /**
  * @author Luis Antunes
  */
 public abstract class AbstractResponse<T extends AbstractResponse<T>> extends StreamView {
-
-    private static final String RFC822_DATE = "EEE, dd MMM yyyy HH:mm:ss z";
-    private static final String RFC1123_DATE = "EEE, dd MMM yyyy HH:mm:ss zzz";
     
     protected final int status;
     protected String contentType;
@@ -86,15 +81,12 @@ public T withTag(String tag) {
     }
     
     public T withExpires(Date date) {
-        SimpleDateFormat df = new SimpleDateFormat(RFC822_DATE);
-        headers.put(HTTPHeader.EXPIRES, df.format(date));
+        headers.put(HTTPHeader.EXPIRES, HttpDates.format(date));
         return self();
     }
     
     public T withLastModified(Date date) {
-        SimpleDateFormat df = new SimpleDateFormat(RFC1123_DATE, Locale.US);
-        df.setTimeZone(TimeZone.getTimeZone("GMT"));
-        headers.put(HTTPHeader.LAST_MODIFIED, df.format(date));
+        headers.put(HTTPHeader.LAST_MODIFIED, HttpDates.format(date));
         return self();
     }
     
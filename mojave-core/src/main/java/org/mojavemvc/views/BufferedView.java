@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.IOException;
+
+import org.mojavemvc.util.ByteArrayBuffer;
+
+/**
+ * A view whose body is written into a buffer taken from the framework's
+ * {@link org.mojavemvc.util.BufferPool}, rather than returned as a new 
+ * array. A {@link StreamView} implementing this interface is rendered by
+ * writing its body into a pooled buffer, setting the Content-Length from
+ * the size of the buffer, and writing the buffer out.
+ * 
+ * @author Luis Antunes
+ */
+public interface BufferedView extends View {
+
+    /**
+     * Write the body of the view into the given buffer. The buffer must
+     * not be retained once this method returns.
+     * 
+     * @param buffer
+     *            a pooled buffer
+     */
+    void writePayload(ByteArrayBuffer buffer) throws IOException;
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Random;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.core.Preconditions;
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.ByteRange;
+
+/**
+ * <p>
+ * A view of content whose length and last modification time are known in 
+ * advance, and of which any range of bytes can be sent. It sets the 
+ * Content-Length, Last-Modified and ETag headers from that metadata, and 
+ * answers a GET or HEAD request with a matching If-None-Match or 
+ * If-Modified-Since header with a 304.
+ * </p>
+ * 
+ * <p>
+ * A GET request with a Range header, and a matching If-Range header if any,
+ * is answered with a 206 and a Content-Range header; several ranges are sent
+ * as a multipart/byteranges body. A Range header of which no range is 
+ * satisfiable is answered with a 416.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public abstract class ByteRangeView implements View {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CRLF = "\r\n";
+    private static final Random random = new Random();
+
+    protected final String contentType;
+
+    /**
+     * @param contentType
+     *            the content type, or null for application/octet-stream
+     */
+    protected ByteRangeView(String contentType) {
+
+        this.contentType = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * @return true if the content exists
+     */
+    protected abstract boolean exists();
+
+    /**
+     * @return the length of the content, in bytes
+     */
+    protected abstract long getLength();
+
+    /**
+     * @return the last modification time of the content, or -1 if it is not
+     *         known
+     */
+    protected abstract long getLastModified();
+
+    /**
+     * Write a range of the content to the response. This method is called
+     * for each range, in the order the ranges were requested.
+     * 
+     * @param position
+     *            the position of the first byte
+     * @param count
+     *            the number of bytes
+     * @param response
+     *            the response
+     */
+    protected abstract void transfer(long position, long count, HttpServletResponse response) 
+            throws IOException;
+
+    /**
+     * Release any resources held while transferring the content.
+     */
+    protected void close() throws IOException {
+    }
+
+    /**
+     * @return the ETag of the content, derived from its length and last 
+     *         modification time
+     */
+    public String getETag() {
+        return "\"" + Long.toHexString(getLength()) + "-" + 
+                Long.toHexString(getLastModified()) + "\"";
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        if (!exists()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = getLength();
+        long lastModified = getLastModified();
+        String etag = getETag();
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+        String method = request.getMethod();
+        if (("GET".equals(method) || "HEAD".equals(method)) && 
+                (Preconditions.isETagMatched(request, etag) || 
+                        Preconditions.isNotModifiedSince(request, lastModified))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<ByteRange> ranges = null;
+        if ("GET".equals(method) && 
+                Preconditions.isRangeApplicable(request, etag, lastModified)) {
+            ranges = ByteRange.parse(request.getHeader("Range"), length);
+        }
+
+        try {
+            if (ranges == null) {
+                response.setContentType(contentType);
+                setContentLength(response, length);
+                if (length > 0) {
+                    transfer(0, length, response);
+                }
+            } else if (ranges.isEmpty()) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            } else if (ranges.size() == 1) {
+                ByteRange range = ranges.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(contentType);
+                response.setHeader("Content-Range", range.toContentRange(length));
+                setContentLength(response, range.getLength());
+                transfer(range.getStart(), range.getLength(), response);
+            } else {
+                renderMultipart(ranges, length, response);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void renderMultipart(List<ByteRange> ranges, long length, 
+            HttpServletResponse response) throws IOException {
+
+        String boundary = Long.toHexString(random.nextLong());
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long contentLength = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = (CRLF + "--" + boundary + CRLF + 
+                    "Content-Type: " + contentType + CRLF + 
+                    "Content-Range: " + range.toContentRange(length) + CRLF + CRLF)
+                    .getBytes("ISO-8859-1");
+            contentLength += partHeaders[i].length + range.getLength();
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes("ISO-8859-1");
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        setContentLength(response, contentLength);
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders[i]);
+            transfer(range.getStart(), range.getLength(), response);
+        }
+        out.write(closing);
+    }
+
+    private void setContentLength(HttpServletResponse response, long length) {
+
+        if (length <= Integer.MAX_VALUE) {
+            response.setContentLength((int) length);
+        } else {
+            response.setHeader("Content-Length", Long.toString(length));
+        }
+    }
+}
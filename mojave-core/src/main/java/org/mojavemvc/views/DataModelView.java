@@ -15,13 +15,11 @@
  */
 package org.mojavemvc.views;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.mojavemvc.util.BeanAccessor;
+
 /**
  * @author Luis Antunes
  */
@@ -82,13 +80,9 @@ public void setModel(Object javaBean) {
 
         try {
 
-            BeanInfo info = Introspector.getBeanInfo(javaBean.getClass());
-            for (PropertyDescriptor propertyDescriptor : info.getPropertyDescriptors()) {
-                String propertyName = propertyDescriptor.getName();
-                if (!propertyName.equals("class")) {
-                    Method getter = propertyDescriptor.getReadMethod();
-                    attributes.put(propertyName, getter.invoke(javaBean, new Object[] {}));
-                }
+            BeanAccessor accessor = BeanAccessor.forClass(javaBean.getClass());
+            for (BeanAccessor.Property property : accessor.getReadableProperties()) {
+                attributes.put(property.getName(), property.get(javaBean));
             }
 
         } catch (Exception e) {
@@ -111,31 +105,19 @@ public void setModel(Object javaBean) {
      */
     public <M> M getModel(Class<M> modelClass) throws Exception {
 
-        BeanInfo info = Introspector.getBeanInfo(modelClass);
+        BeanAccessor accessor = BeanAccessor.forClass(modelClass);
 
-        M model = modelClass.newInstance();
+        M model = modelClass.cast(accessor.newInstance());
 
         if (attributes != null && !attributes.isEmpty()) {
 
-            Map<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
-            PropertyDescriptor[] descriptors = info.getPropertyDescriptors();
-            for (PropertyDescriptor pd : descriptors) {
-
-                if (properties.get(pd.getName()) != null) {
-
-                    throw new IllegalStateException("property already exists in bean");
-                }
-                properties.put(pd.getName(), pd);
-            }
-
-            for (String key : attributes.keySet()) {
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
 
-                PropertyDescriptor pd = properties.get(key);
+                BeanAccessor.Property property = accessor.getWritableProperty(entry.getKey());
                 /* there can be non-model attributes in the map */
-                if (pd != null) {
+                if (property != null) {
 
-                    Method setter = pd.getWriteMethod();
-                    setter.invoke(model, new Object[] { attributes.get(key) });
+                    property.set(model, entry.getValue());
                 }
             }
         }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A view of a file. The file, or the requested ranges of it, are sent with
+ * FileChannel.transferTo, rather than copied through a byte array; if the 
+ * container's output stream is itself a WritableByteChannel, the bytes are
+ * transferred without passing through the heap. See {@link ByteRangeView} 
+ * for the headers and range requests that are handled.
+ * 
+ * @author Luis Antunes
+ */
+public class FileView extends ByteRangeView {
+
+    private final File file;
+    private FileInputStream in;
+
+    /**
+     * @param file
+     *            the file
+     */
+    public FileView(File file) {
+
+        this(file, URLConnection.guessContentTypeFromName(file.getName()));
+    }
+
+    /**
+     * @param file
+     *            the file
+     * @param contentType
+     *            the content type, or null for application/octet-stream
+     */
+    public FileView(File file, String contentType) {
+
+        super(contentType);
+        if (file == null) {
+            throw new IllegalArgumentException("file cannot be null");
+        }
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    protected boolean exists() {
+        return file.isFile();
+    }
+
+    @Override
+    protected long getLength() {
+        return file.length();
+    }
+
+    @Override
+    protected long getLastModified() {
+
+        long lastModified = file.lastModified();
+        return lastModified > 0 ? lastModified : -1;
+    }
+
+    @Override
+    protected void transfer(long position, long count, HttpServletResponse response) 
+            throws IOException {
+
+        if (in == null) {
+            in = new FileInputStream(file);
+        }
+        FileChannel channel = in.getChannel();
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = out instanceof WritableByteChannel ? 
+                (WritableByteChannel) out : Channels.newChannel(out);
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                throw new IOException("could not transfer " + file + 
+                        " at position " + position);
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    @Override
+    protected void close() throws IOException {
+
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * A view that serializes a sequence of elements one at a time, as they are
+ * iterated, directly to the response's output stream as UTF-8: either as a
+ * JSON array, or as newline-delimited JSON, with one element per line. The
+ * output is flushed periodically, so that the elements are sent as they are
+ * produced. If the iterator is a Closeable, it is closed once rendered.
+ * 
+ * @author Luis Antunes
+ */
+public class JSONStream implements View {
+
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    /* the number of elements written between flushes */
+    static final int FLUSH_INTERVAL = 1000;
+
+    /*
+     * ObjectMapper and ObjectWriter are thread-safe
+     */
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectWriter writer = 
+            mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final Iterator<?> elements;
+    private final boolean delimited;
+
+    /**
+     * @param elements
+     *            the elements to serialize
+     * @param delimited
+     *            true to serialize the elements as newline-delimited JSON,
+     *            false to serialize them as a JSON array
+     */
+    public JSONStream(Iterator<?> elements, boolean delimited) {
+
+        this.elements = elements;
+        this.delimited = delimited;
+    }
+
+    public String getContentType() {
+
+        return delimited ? NDJSON_CONTENT_TYPE : "application/json";
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        response.setContentType(getContentType());
+        JsonGenerator generator = mapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            if (delimited) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+
+            int count = 0;
+            while (elements.hasNext()) {
+                writer.writeValue(generator, elements.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+
+            if (delimited) {
+                if (count > 0) {
+                    generator.writeRaw('\n');
+                }
+            } else {
+                generator.writeEndArray();
+            }
+            generator.close();
+
+        } finally {
+            if (elements instanceof Closeable) {
+                ((Closeable) elements).close();
+            }
+        }
+    }
+}
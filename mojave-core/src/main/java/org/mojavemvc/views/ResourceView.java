@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.util.BufferPool;
+
+/**
+ * A view of a classpath or ServletContext resource. A resource that is a 
+ * file is sent as a {@link FileView} would send it; any other resource, 
+ * such as one in a jar, is copied through a pooled buffer. See 
+ * {@link ByteRangeView} for the headers and range requests that are 
+ * handled.
+ * 
+ * @author Luis Antunes
+ */
+public class ResourceView extends ByteRangeView {
+
+    private final URL url;
+    private final FileView fileView;
+    private long length = -1;
+    private long lastModified = -1;
+
+    /**
+     * @param path
+     *            the path of a resource of the context class loader
+     */
+    public ResourceView(String path) {
+
+        this(Thread.currentThread().getContextClassLoader().getResource(stripSlash(path)), null);
+    }
+
+    /**
+     * @param context
+     *            the ServletContext
+     * @param path
+     *            the path of a resource of the ServletContext, beginning 
+     *            with a '/'
+     */
+    public ResourceView(ServletContext context, String path) {
+
+        this(getContextResource(context, path), context.getMimeType(path));
+    }
+
+    /**
+     * @param url
+     *            the URL of the resource, or null if it does not exist
+     * @param contentType
+     *            the content type, or null to guess it from the URL
+     */
+    public ResourceView(URL url, String contentType) {
+
+        super(contentType != null ? contentType : 
+            url != null ? URLConnection.guessContentTypeFromName(url.getPath()) : null);
+        this.url = url;
+        this.fileView = toFileView(url, this.contentType);
+    }
+
+    @Override
+    protected boolean exists() {
+
+        if (url == null) {
+            return false;
+        }
+        if (fileView != null) {
+            return fileView.exists();
+        }
+        try {
+            URLConnection connection = url.openConnection();
+            length = connection.getContentLength();
+            lastModified = connection.getLastModified();
+            if (lastModified == 0) {
+                lastModified = -1;
+            }
+            connection.getInputStream().close();
+            return length >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected long getLength() {
+        return fileView != null ? fileView.getLength() : length;
+    }
+
+    @Override
+    protected long getLastModified() {
+        return fileView != null ? fileView.getLastModified() : lastModified;
+    }
+
+    @Override
+    protected void transfer(long position, long count, HttpServletResponse response) 
+            throws IOException {
+
+        if (fileView != null) {
+            fileView.transfer(position, count, response);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        BufferPool pool = BufferPool.getShared();
+        byte[] segment = pool.acquireSegment();
+        InputStream in = url.openStream();
+        try {
+            skipFully(in, position);
+            while (count > 0) {
+                int n = in.read(segment, 0, (int) Math.min(segment.length, count));
+                if (n == -1) {
+                    throw new IOException("unexpected end of resource " + url);
+                }
+                out.write(segment, 0, n);
+                count -= n;
+            }
+        } finally {
+            in.close();
+            pool.releaseSegment(segment);
+        }
+    }
+
+    @Override
+    protected void close() throws IOException {
+
+        if (fileView != null) {
+            fileView.close();
+        }
+    }
+
+    private void skipFully(InputStream in, long n) throws IOException {
+
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new IOException("unexpected end of resource " + url);
+                }
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    private static FileView toFileView(URL url, String contentType) {
+
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new FileView(new File(url.toURI()), contentType);
+        } catch (URISyntaxException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static URL getContextResource(ServletContext context, String path) {
+
+        try {
+            return context.getResource(path);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("invalid resource path: " + path, e);
+        }
+    }
+
+    private static String stripSlash(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+}
@@ -23,12 +23,16 @@
 import javax.servlet.http.HttpServletResponse;
 
 import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
 
 /**
  * An instance of this class obtains the servlet's OutputStream, and writes the
  * payload to that stream. It sets the content type and content length before
  * writing the content to the stream. This class does not use a buffer when 
- * writing to the OutputStream. This class is suitable for smaller entities.
+ * writing to the OutputStream, unless the subclass is a {@link BufferedView},
+ * in which case the payload is written into a pooled buffer. This class is 
+ * suitable for smaller entities.
  * 
  * @author Luis Antunes
  */
@@ -58,6 +62,11 @@ public void render(HttpServletRequest request, HttpServletResponse response,
             response.setContentType(contentType);
         }
         
+        if (this instanceof BufferedView) {
+            renderBuffered((BufferedView) this, response);
+            return;
+        }
+        
         byte[] buf = getPayload();
         if (buf != null) {
             response.setContentLength(buf.length);
@@ -65,4 +74,18 @@ public void render(HttpServletRequest request, HttpServletResponse response,
             servletOut.write(buf);
         }
     }
+    
+    private void renderBuffered(BufferedView view, HttpServletResponse response) 
+            throws IOException {
+        
+        BufferPool pool = BufferPool.getShared();
+        ByteArrayBuffer buffer = pool.acquire();
+        try {
+            view.writePayload(buffer);
+            response.setContentLength(buffer.size());
+            buffer.writeTo(response.getOutputStream());
+        } finally {
+            pool.release(buffer);
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
+import org.mojavemvc.util.Utf8Writer;
+
+/**
+ * <p>
+ * A view rendered by a template engine. The template is rendered, encoded
+ * as UTF-8, into a buffer taken from the framework's {@link BufferPool}, 
+ * and the buffer is written out once rendering completes, with a 
+ * Content-Length. If rendering fails, nothing has been written to the 
+ * response, so that the application's error view can replace it.
+ * </p>
+ * 
+ * <p>
+ * A template whose output grows beyond the streaming threshold is written
+ * directly to the response from that point on, without a Content-Length,
+ * and a failure after that point can no longer be replaced.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public abstract class TemplateView<T extends TemplateView<T>> extends DataModelView<T> {
+
+    public static final int DEFAULT_STREAMING_THRESHOLD = 256 * 1024;
+    
+    private static final String DEFAULT_CONTENT_TYPE = "text/html";
+    private static final String CHARACTER_ENCODING = "UTF-8";
+
+    private int streamingThreshold = DEFAULT_STREAMING_THRESHOLD;
+
+    /**
+     * @param streamingThreshold
+     *            the size, in bytes, of rendered output beyond which the 
+     *            output is written directly to the response
+     */
+    @SuppressWarnings("unchecked")
+    public T withStreamingThreshold(int streamingThreshold) {
+
+        this.streamingThreshold = streamingThreshold;
+        return (T) this;
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        if (response.getContentType() == null) {
+            response.setContentType(DEFAULT_CONTENT_TYPE);
+        }
+        response.setCharacterEncoding(CHARACTER_ENCODING);
+
+        BufferPool pool = BufferPool.getShared();
+        ByteArrayBuffer buffer = pool.acquire();
+        byte[] segment = pool.acquireSegment();
+        try {
+            
+            RenderTarget target = new RenderTarget(response, buffer, streamingThreshold);
+            Writer writer = new Utf8Writer(target, segment);
+            renderTemplate(writer, properties);
+            writer.close();
+            target.finish();
+            
+        } finally {
+            pool.releaseSegment(segment);
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Render the template to the given writer. The writer must not be 
+     * retained once this method returns.
+     * 
+     * @param out
+     *            the writer
+     * @param properties
+     *            the application properties
+     */
+    protected abstract void renderTemplate(Writer out, AppProperties properties) 
+            throws ServletException, IOException;
+
+    /*
+     * buffers the rendered output until it exceeds the threshold; flushing 
+     * does nothing until then, so that a template engine flushing its 
+     * writer cannot commit the response
+     */
+    private static class RenderTarget extends OutputStream {
+
+        private final HttpServletResponse response;
+        private final ByteArrayBuffer buffer;
+        private final int threshold;
+        private OutputStream out;
+
+        RenderTarget(HttpServletResponse response, ByteArrayBuffer buffer, int threshold) {
+            this.response = response;
+            this.buffer = buffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+
+            if (out == null) {
+                if (buffer.size() + len <= threshold) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                out = response.getOutputStream();
+                buffer.writeTo(out);
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        void finish() throws IOException {
+
+            if (out == null) {
+                response.setContentLength(buffer.size());
+                buffer.writeTo(response.getOutputStream());
+            }
+        }
+    }
+}
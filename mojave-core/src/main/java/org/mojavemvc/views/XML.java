@@ -15,34 +15,67 @@
  */
 package org.mojavemvc.views;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.util.ByteArrayBuffer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
 /**
+ * An XML view. A view constructed with an object is serialized when it is 
+ * rendered, as UTF-8, through the Woodstox XMLStreamWriter of a 
+ * ToXmlGenerator writing directly to the response's output stream, so that 
+ * neither an intermediate String nor byte array is created. If a 
+ * Content-Length is required, the view can be buffered with 
+ * {@link #withContentLength()}.
+ * 
  * @author Luis Antunes
  */
-public class XML extends StreamView {
+public class XML extends StreamView implements BufferedView {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
     /*
      * XmlMapper is thread-safe
      */
     private static final XmlMapper mapper = new XmlMapper();
     
-    private String payload;
+    private final String payload;
+    private final Object pojo;
+    private boolean buffered;
 
     public XML(String payload) {
 
         this.payload = payload;
+        this.pojo = null;
     }
     
     public XML(Object pojo) {
         
-        try {
-            payload = mapper.writeValueAsString(pojo);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("could not construct XML View", e);
-        }
-    }   
+        this.payload = null;
+        this.pojo = pojo;
+    }
+
+    /**
+     * Serialize the object into a buffer when the view is rendered, so that
+     * the Content-Length of the response can be set.
+     * 
+     * @return this view
+     */
+    public XML withContentLength() {
+        
+        this.buffered = true;
+        return this;
+    }
 
     @Override
     public String getContentType() {
@@ -53,11 +86,54 @@ public String getContentType() {
     @Override
     public byte[] getPayload() {
 
-        return payload.getBytes();
+        if (payload != null) {
+            return payload.getBytes(UTF8);
+        }
+        try {
+            return mapper.writeValueAsBytes(pojo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("could not construct XML View", e);
+        }
+    }
+    
+    @Override
+    public void writePayload(ByteArrayBuffer buffer) throws IOException {
+        
+        if (payload != null) {
+            buffer.write(payload.getBytes(UTF8));
+        } else {
+            mapper.writeValue(buffer, pojo);
+        }
+    }
+    
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+        
+        if (payload != null || buffered) {
+            super.render(request, response, properties);
+            return;
+        }
+        
+        response.setContentType(getContentType());
+        JsonGenerator generator = mapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        /* the response's output stream is closed by the container */
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        mapper.writeValue(generator, pojo);
+        generator.close();
     }
     
     @Override
     public String toString() {
-        return payload;
+        
+        if (payload != null) {
+            return payload;
+        }
+        try {
+            return mapper.writeValueAsString(pojo);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("could not construct XML View", e);
+        }
     }
 }
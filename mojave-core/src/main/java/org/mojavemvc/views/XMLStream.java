@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.views;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.mojavemvc.initialization.AppProperties;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+
+/**
+ * A view that serializes a sequence of elements one at a time, as they are
+ * iterated, as the children of a root element. The elements are written
+ * through the Woodstox XMLStreamWriter of a ToXmlGenerator, directly to the
+ * response's output stream as UTF-8. The output is flushed periodically, so
+ * that the elements are sent as they are produced. If the iterator is a
+ * Closeable, it is closed once rendered.
+ * 
+ * @author Luis Antunes
+ */
+public class XMLStream implements View {
+
+    public static final String DEFAULT_ROOT_NAME = "List";
+
+    /* the number of elements written between flushes */
+    static final int FLUSH_INTERVAL = 1000;
+
+    /*
+     * XmlMapper and ObjectWriter are thread-safe
+     */
+    private static final XmlMapper mapper = new XmlMapper();
+    private static final ObjectWriter writer = 
+            mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final Iterator<?> elements;
+    private final String rootName;
+
+    public XMLStream(Iterator<?> elements) {
+
+        this(elements, DEFAULT_ROOT_NAME);
+    }
+
+    /**
+     * @param elements
+     *            the elements to serialize
+     * @param rootName
+     *            the name of the element enclosing the elements
+     */
+    public XMLStream(Iterator<?> elements, String rootName) {
+
+        this.elements = elements;
+        this.rootName = rootName;
+    }
+
+    public String getContentType() {
+
+        return "application/xml";
+    }
+
+    @Override
+    public void render(HttpServletRequest request, HttpServletResponse response, 
+            AppProperties properties) throws ServletException, IOException {
+
+        response.setContentType(getContentType());
+        ToXmlGenerator generator = mapper.getFactory()
+                .createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        XMLStreamWriter xmlWriter = generator.getStaxWriter();
+        try {
+            xmlWriter.writeStartElement(rootName);
+
+            int count = 0;
+            while (elements.hasNext()) {
+                writer.writeValue(generator, elements.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+
+            xmlWriter.writeEndElement();
+            generator.close();
+
+        } catch (XMLStreamException e) {
+            throw new IOException("could not write XML stream", e);
+        } finally {
+            if (elements instanceof Closeable) {
+                ((Closeable) elements).close();
+            }
+        }
+    }
+}
@@ -111,11 +111,21 @@ protected RequestAssertion assertThatRequestFor(String path) throws Exception {
         return new RequestAssertion(path);
     }
     
+    protected RequestAssertion assertThatRequestFor(String path, 
+            RequestHeader...headers) throws Exception {
+        return new RequestAssertion(path, headers);
+    }
+    
     protected RequestAssertion assertThatRequestFor(String path, RequestBody body,
             RequestContentType contentType) throws Exception {
         return new RequestAssertion(body, contentType, path);
     }
     
+    protected RequestAssertion assertThatRequestFor(HttpMethod method, String path, 
+            RequestHeader...headers) throws Exception {
+        return new RequestAssertion(method, path, headers);
+    }
+    
     protected RequestAssertion assertThatPOSTRequestFor(String path, 
             RequestParameter...params) throws Exception {
         
@@ -175,6 +185,10 @@ protected ElementAttribute withAttribute(String name) {
         return new ElementAttribute(name);
     }
     
+    protected RequestHeader withRequestHeader(String name, String value) {
+        return new RequestHeader(name, value);
+    }
+    
     protected RequestBody withBody(String body) {
         return new RequestBody(body);
     }
@@ -187,6 +201,16 @@ protected void newWebClient() {
         client = new WebClient();
     }
     
+    protected class RequestHeader {
+        private final String name;
+        private final String value;
+        
+        public RequestHeader(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+    
     protected class RequestParameter {
         private final String name;
         private final String value;
@@ -249,6 +273,10 @@ public String andGetTagContent(String name) {
         public String andGetH2TagContent() {
             return andGetTagContent("h2");
         }
+        
+        public String andGetContent() {
+            return page.getWebResponse().getContentAsString();
+        }
     }
     
     protected class RequestAssertion {
@@ -258,6 +286,25 @@ public RequestAssertion(String path) throws Exception {
             page = client.getPage(toUrl(path));
         }
         
+        public RequestAssertion(String path, RequestHeader...headers) throws Exception {
+            
+            WebRequest wr = new WebRequest(new URL(toUrl(path)));
+            for (RequestHeader header : headers) {
+                wr.setAdditionalHeader(header.name, header.value);
+            }
+            page = client.getPage(wr);
+        }
+        
+        public RequestAssertion(HttpMethod method, String path, 
+                RequestHeader...headers) throws Exception {
+            
+            WebRequest wr = new WebRequest(new URL(toUrl(path)), method);
+            for (RequestHeader header : headers) {
+                wr.setAdditionalHeader(header.name, header.value);
+            }
+            page = client.getPage(wr);
+        }
+        
         public RequestAssertion(HttpMethod method, String path, 
                 RequestParameter...params) throws Exception {
             
@@ -331,6 +378,14 @@ public ResponseAssertion withContent(String content) {
             return this;
         }
         
+        public String andGetHeader(String name) {
+            return resp.getResponseHeaderValue(name);
+        }
+        
+        public String andGetContent() {
+            return resp.getContentAsString();
+        }
+        
         public ResponseAssertion withContentType(String contentType) {
             assertEquals(contentType, resp.getContentType());
             return this;
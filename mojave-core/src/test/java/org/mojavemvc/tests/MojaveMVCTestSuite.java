@@ -33,7 +33,17 @@
     TestDataModelView.class,
     TestHttpRequestRouter.class,
     TestParamPathHelper.class,
+    TestBeanAccessor.class,
     TestRegexRouter.class,
+    TestExactMatchRouter.class,
+    TestAsyncRequestExecutor.class,
+    TestResponseCache.class,
+    TestPreconditions.class,
+    TestCompression.class,
+    TestBufferPool.class,
+    TestTemplateScanner.class,
+    TestFileView.class,
+    TestTemplateView.class,
     TestRegexRoute.class,
     TestRoute.class,
     TestHttpParameterMapSource.class,
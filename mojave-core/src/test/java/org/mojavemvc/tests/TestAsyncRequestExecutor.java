@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mojavemvc.core.ActionSignature;
+import org.mojavemvc.core.AsyncRequestExecutor;
+import org.mojavemvc.core.DispatchEntry;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestAsyncRequestExecutor {
+
+    @Test
+    public void isAsync() {
+
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(1, 1, 0);
+        assertFalse(executor.isAsync(null));
+        assertFalse(executor.isAsync(newDispatchEntry(false)));
+        assertTrue(executor.isAsync(newDispatchEntry(true)));
+        executor.shutdown();
+    }
+
+    @Test
+    public void isAsyncWithAllActions() {
+
+        ExecutorService pool = AsyncRequestExecutor.newPlatformThreadPool(1, 1);
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(pool, 0, true);
+        assertTrue(executor.isAsync(null));
+        assertTrue(executor.isAsync(newDispatchEntry(false)));
+        executor.shutdown();
+        assertTrue(pool.isShutdown());
+    }
+
+    @Test
+    public void dispatchWithoutAsyncSupport() {
+
+        /* the Servlet 2.5 request used in tests does not support async */
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(1, 1, 0);
+        RecordingTask task = new RecordingTask();
+        assertFalse(executor.dispatch(mock(HttpServletRequest.class), task));
+        assertNull(task.thread);
+        executor.shutdown();
+    }
+
+    @Test
+    public void dispatchRunsTaskOnPoolAndCompletes() throws Exception {
+
+        Servlet3Request req = mock(Servlet3Request.class);
+        AsyncContext asyncContext = newAsyncContext(req, 5000);
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(1, 1, 5000);
+        RecordingTask task = new RecordingTask();
+        
+        assertTrue(executor.dispatch(req, task));
+        
+        verify(asyncContext, timeout(2000)).complete();
+        verify(asyncContext).setTimeout(5000);
+        verify(asyncContext).addListener(any(AsyncListener.class));
+        assertTrue(task.thread.getName().startsWith("mojave-async-"));
+        assertTrue(task.rendered);
+        assertEquals(5000, task.getTimeout());
+        assertFalse(task.aborted);
+        executor.shutdown();
+    }
+
+    @Test
+    public void timeoutAbortsTaskBeforeRendering() throws Exception {
+
+        Servlet3Request req = mock(Servlet3Request.class);
+        AsyncContext asyncContext = newAsyncContext(req, 30000);
+        ExecutorService pool = AsyncRequestExecutor.newPlatformThreadPool(1, 1);
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(pool, 0, false);
+        RecordingTask task = new RecordingTask();
+        task.proceed = new CountDownLatch(1);
+        
+        assertTrue(executor.dispatch(req, task));
+        verify(asyncContext, never()).setTimeout(anyLong());
+        
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        listener.getValue().onTimeout(mock(AsyncEvent.class));
+        
+        assertTrue(task.aborted);
+        assertNull(task.abortCause);
+        verify(asyncContext).complete();
+        
+        task.proceed.countDown();
+        executor.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.SECONDS));
+        assertFalse(task.rendered);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void errorAbortsTaskWithCause() throws Exception {
+
+        Servlet3Request req = mock(Servlet3Request.class);
+        AsyncContext asyncContext = newAsyncContext(req, 30000);
+        ExecutorService pool = AsyncRequestExecutor.newPlatformThreadPool(1, 1);
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(pool, 0, false);
+        RecordingTask task = new RecordingTask();
+        task.proceed = new CountDownLatch(1);
+        
+        assertTrue(executor.dispatch(req, task));
+        
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        AsyncEvent event = mock(AsyncEvent.class);
+        IllegalStateException cause = new IllegalStateException();
+        when(event.getThrowable()).thenReturn(cause);
+        listener.getValue().onError(event);
+        
+        assertTrue(task.aborted);
+        assertSame(cause, task.abortCause);
+        task.proceed.countDown();
+        executor.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.SECONDS));
+        assertFalse(task.rendered);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void newVirtualThreadExecutor() throws Exception {
+
+        ExecutorService executor = AsyncRequestExecutor.newVirtualThreadExecutor();
+        boolean supported = hasMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+        assertEquals(supported, executor != null);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private boolean hasMethod(Class<?> clazz, String name) {
+
+        try {
+            clazz.getMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private AsyncContext newAsyncContext(Servlet3Request req, long timeout) {
+
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(req.isAsyncSupported()).thenReturn(true);
+        when(req.startAsync()).thenReturn(asyncContext);
+        when(asyncContext.getTimeout()).thenReturn(timeout);
+        return asyncContext;
+    }
+
+    private DispatchEntry newDispatchEntry(boolean async) {
+
+        return new DispatchEntry.Builder(Object.class, mock(ActionSignature.class))
+                .withAsync(async)
+                .build();
+    }
+
+    private static class RecordingTask extends AsyncRequestExecutor.AsyncTask {
+
+        CountDownLatch proceed;
+        volatile Thread thread;
+        volatile boolean rendered;
+        volatile boolean aborted;
+        volatile Throwable abortCause;
+
+        @Override
+        protected void process() {
+
+            thread = Thread.currentThread();
+            try {
+                if (proceed != null) {
+                    proceed.await(2, TimeUnit.SECONDS);
+                }
+                rendered = beginRender();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        protected void onAbort(Throwable cause) {
+
+            aborted = true;
+            abortCause = cause;
+        }
+    }
+
+    /*
+     * stand-ins for the Servlet 3 types, which are not available to the
+     * Servlet 2.5 API the tests are compiled against
+     */
+    public interface Servlet3Request extends HttpServletRequest {
+
+        boolean isAsyncSupported();
+
+        AsyncContext startAsync();
+    }
+
+    public interface AsyncContext {
+
+        void setTimeout(long timeout);
+
+        long getTimeout();
+
+        void complete();
+
+        void addListener(AsyncListener listener);
+    }
+
+    public interface AsyncListener {
+
+        void onComplete(AsyncEvent event);
+
+        void onTimeout(AsyncEvent event);
+
+        void onError(AsyncEvent event);
+
+        void onStartAsync(AsyncEvent event);
+    }
+
+    public interface AsyncEvent {
+
+        Throwable getThrowable();
+    }
+}
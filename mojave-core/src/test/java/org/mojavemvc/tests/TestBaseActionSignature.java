@@ -24,12 +24,15 @@
 import java.util.HashMap;
 import java.util.Map;
 
+import org.bigtesting.routd.Route;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.mojavemvc.annotations.Param;
 import org.mojavemvc.annotations.Resource;
 import org.mojavemvc.core.ActionSignature;
 import org.mojavemvc.core.BaseActionSignature;
+import org.mojavemvc.core.MethodInvoker;
+import org.mojavemvc.core.PathParameters;
 
 /**
  * 
@@ -37,10 +40,12 @@
  */
 public class TestBaseActionSignature {
     
+    private final MethodInvoker invoker = Mockito.mock(MethodInvoker.class);
+    
     @Test
     public void noParameters() {
 
-        ActionSignature sig = new BaseActionSignature(1, "testAction", new Class[] {}, 
+        ActionSignature sig = new BaseActionSignature(invoker, "testAction", new Class[] {}, 
                 new Annotation[][] {}, new Annotation[]{});
 
         assertEquals(0, sig.parameterTypes().length);
@@ -50,7 +55,7 @@ public void noParameters() {
     @Test
     public void getArgsWithStringArrayParameters() {
 
-        ActionSignature sig = new BaseActionSignature(1, "testAction", new Class[] { String.class, Integer.class,
+        ActionSignature sig = new BaseActionSignature(invoker, "testAction", new Class[] { String.class, Integer.class,
                 Double.class, Date.class, Long.class, InputStream.class }, 
                 new Annotation[][] { { createParam("p1") }, { createParam("p2") },
                 { createParam("p3") }, { createParam("p4") }, { createParam("p5") }, { createResource() } }, 
@@ -87,7 +92,7 @@ public void getArgsWithStringArrayParameters() {
     @Test
     public void getArgsWithObjectParameters() {
 
-        ActionSignature sig = new BaseActionSignature(1, "testAction", new Class[] { String.class, Integer.class,
+        ActionSignature sig = new BaseActionSignature(invoker, "testAction", new Class[] { String.class, Integer.class,
                 Double.class, Date.class, SomeUserDefinedType.class, Long.class }, new Annotation[][] { { createParam("p1") },
                 { createParam("p2") }, { createParam("p3") }, { createParam("p4") }, { createParam("p5") }, 
                 { createParam("p6") } }, new Annotation[]{});
@@ -121,6 +126,45 @@ public void getArgsWithObjectParameters() {
         assertEquals(123456L, args[5]);
     }
 
+    @Test
+    public void getArgsWithMissingParameters() {
+
+        ActionSignature sig = new BaseActionSignature(invoker, "testAction", new Class[] { String.class, int.class,
+                Long.class, double.class, Boolean.class }, new Annotation[][] { { createParam("p1") }, 
+                { createParam("p2") }, { createParam("p3") }, { createParam("p4") }, { createParam("p5") } }, 
+                new Annotation[]{});
+
+        Object[] args = sig.getArgs(new HashMap<String, Object>(), null);
+        assertEquals(5, args.length);
+        assertNull(args[0]);
+        assertEquals(0, args[1]);
+        assertEquals(0L, args[2]);
+        assertEquals(0d, args[3]);
+        assertEquals(false, args[4]);
+    }
+
+    @Test
+    public void getArgsWithPathParameters() {
+
+        ActionSignature sig = new BaseActionSignature(invoker, "testAction", new Class[] { int.class, String.class, 
+                Long.class, Double.class }, new Annotation[][] { { createParam("id") }, { createParam("name") }, 
+                { createParam("p3") }, { createParam("p4") } }, new Annotation[]{});
+
+        Map<String, String[]> parameterMap = new HashMap<String, String[]>();
+        parameterMap.put("id", new String[] { "456" });
+        parameterMap.put("name", new String[] { "tom" });
+        
+        PathParameters pathParams = new PathParameters("/cntrl/actn/123/7/1.5", 
+                new Route("/cntrl/actn/:id/:p3/:p4").getNamedParameterElements());
+        
+        Object[] args = sig.getArgs(parameterMap, pathParams, null);
+        assertEquals(4, args.length);
+        assertEquals(123, args[0]);
+        assertEquals("tom", args[1]);
+        assertEquals(7L, args[2]);
+        assertEquals(1.5, args[3]);
+    }
+
     @SuppressWarnings("serial")
     private class SomeUserDefinedType implements Serializable {
     }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.mojavemvc.util.BeanAccessor;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestBeanAccessor {
+
+    @Test
+    public void forClassIsCached() {
+        
+        assertSame(BeanAccessor.forClass(SomeBean.class), BeanAccessor.forClass(SomeBean.class));
+    }
+    
+    @Test
+    public void readsAndWritesProperties() throws Exception {
+        
+        BeanAccessor accessor = BeanAccessor.forClass(SomeBean.class);
+        
+        assertEquals(2, accessor.getReadableProperties().size());
+        assertEquals(2, accessor.getWritableProperties().size());
+        
+        SomeBean bean = (SomeBean) accessor.newInstance();
+        accessor.getWritableProperty("name").set(bean, "tom");
+        accessor.getWritableProperty("count").set(bean, 3);
+        assertEquals("tom", bean.getName());
+        assertEquals(3, bean.getCount());
+        assertEquals(int.class, accessor.getWritableProperty("count").getType());
+        
+        for (BeanAccessor.Property property : accessor.getReadableProperties()) {
+            if (property.getName().equals("name")) {
+                assertEquals("tom", property.get(bean));
+            } else {
+                assertEquals(3, property.get(bean));
+            }
+        }
+    }
+    
+    @Test
+    public void excludesReadOnlyPropertiesFromWritable() {
+        
+        BeanAccessor accessor = BeanAccessor.forClass(ReadOnlyBean.class);
+        
+        assertEquals(1, accessor.getReadableProperties().size());
+        assertTrue(accessor.getWritableProperties().isEmpty());
+        assertNull(accessor.getWritableProperty("id"));
+        assertEquals("id", accessor.getReadableProperty("id").getName());
+    }
+    
+    @Test
+    public void setterExceptionIsUnwrapped() throws Exception {
+        
+        BeanAccessor accessor = BeanAccessor.forClass(SomeBean.class);
+        SomeBean bean = new SomeBean();
+        try {
+            accessor.getWritableProperty("count").set(bean, -1);
+            fail("should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("negative count", e.getMessage());
+        }
+    }
+    
+    public static class SomeBean {
+        
+        private String name;
+        private int count;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public void setCount(int count) {
+            if (count < 0) throw new IllegalArgumentException("negative count");
+            this.count = count;
+        }
+    }
+    
+    public static class ReadOnlyBean {
+        
+        public String getId() {
+            return "1";
+        }
+    }
+}
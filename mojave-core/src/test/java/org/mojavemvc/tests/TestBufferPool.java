@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
+import org.mojavemvc.util.BufferPool;
+import org.mojavemvc.util.ByteArrayBuffer;
+import org.mojavemvc.views.InputStreamView;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestBufferPool {
+
+    @Test
+    public void reusesReleasedBuffer() {
+        
+        BufferPool pool = new BufferPool(2, 16, 64);
+        ByteArrayBuffer buffer = pool.acquire();
+        buffer.write(1);
+        pool.release(buffer);
+        
+        ByteArrayBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+    }
+    
+    @Test
+    public void doesNotRetainGrownBuffer() {
+        
+        BufferPool pool = new BufferPool(2, 16, 64);
+        ByteArrayBuffer buffer = pool.acquire();
+        buffer.write(new byte[128], 0, 128);
+        pool.release(buffer);
+        
+        assertNotSame(buffer, pool.acquire());
+    }
+    
+    @Test
+    public void reusesReleasedSegment() {
+        
+        BufferPool pool = new BufferPool(2, 16, 64);
+        byte[] segment = pool.acquireSegment();
+        assertEquals(16, segment.length);
+        pool.releaseSegment(segment);
+        assertSame(segment, pool.acquireSegment());
+        
+        pool.releaseSegment(new byte[8]);
+        assertEquals(16, pool.acquireSegment().length);
+    }
+    
+    @Test
+    public void inputStreamViewCopiesThroughPooledSegment() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        byte[] content = new byte[BufferPool.getShared().getSegmentSize() * 2 + 1];
+        content[content.length - 1] = 1;
+        
+        new InputStreamView(new ByteArrayInputStream(content), "application/octet-stream")
+            .render(mock(HttpServletRequest.class), res, null);
+        
+        verify(res).setContentType("application/octet-stream");
+        assertArrayEquals(content, out.getBytes());
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.mojavemvc.core.CachedResponse;
+import org.mojavemvc.core.CompressingResponse;
+import org.mojavemvc.core.Compression;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestCompression {
+
+    private static final byte[] LARGE = new byte[4096];
+
+    @Test
+    public void negotiatesCoding() {
+        
+        Compression compression = new Compression();
+        assertEquals("gzip", compression.negotiate(requestAccepting("gzip, deflate")));
+        assertEquals("deflate", compression.negotiate(requestAccepting("gzip;q=0.5, deflate")));
+        assertEquals("deflate", compression.negotiate(requestAccepting("deflate, gzip;q=0")));
+        assertEquals("gzip", compression.negotiate(requestAccepting("*")));
+        assertNull(compression.negotiate(requestAccepting("identity")));
+        assertNull(compression.negotiate(requestAccepting(null)));
+    }
+    
+    @Test
+    public void matchesContentTypesWithoutParameters() {
+        
+        Compression compression = new Compression(0, 6, "text/html", "application/json");
+        assertTrue(compression.isCompressible("text/html; charset=UTF-8"));
+        assertTrue(compression.isCompressible("Application/JSON"));
+        assertFalse(compression.isCompressible("image/png"));
+        assertFalse(compression.isCompressible(null));
+    }
+    
+    @Test
+    public void compressesWithGzipAndDeflate() throws Exception {
+        
+        Compression compression = new Compression();
+        assertArrayEquals(LARGE, readAll(new GZIPInputStream(new ByteArrayInputStream(
+                compression.compress(LARGE, 0, LARGE.length, "gzip")))));
+        assertArrayEquals(LARGE, readAll(new InflaterInputStream(new ByteArrayInputStream(
+                compression.compress(LARGE, 0, LARGE.length, "deflate")))));
+    }
+    
+    @Test
+    public void compressesBodyAboveThreshold() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        when(res.getContentType()).thenReturn("text/plain");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.setContentLength(LARGE.length);
+        compressing.getOutputStream().write(LARGE);
+        compressing.finish();
+        compressing.release();
+        
+        verify(res).setHeader("Content-Encoding", "gzip");
+        verify(res, never()).setContentLength(anyInt());
+        assertArrayEquals(LARGE, readAll(new GZIPInputStream(
+                new ByteArrayInputStream(out.getBytes()))));
+    }
+    
+    @Test
+    public void doesNotCompressBodyBelowThreshold() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        when(res.getContentType()).thenReturn("text/plain");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.getWriter().write("small");
+        compressing.finish();
+        compressing.release();
+        
+        verify(res, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertEquals("small", out.getContent());
+    }
+    
+    @Test
+    public void doesNotCompressUnlistedContentType() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        when(res.getContentType()).thenReturn("image/png");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.getOutputStream().write(LARGE);
+        compressing.finish();
+        compressing.release();
+        
+        verify(res, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(LARGE, out.getBytes());
+    }
+    
+    @Test
+    public void passesThroughContentLengthAboveIntRange() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        when(res.getContentType()).thenReturn("text/plain");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.setHeader("Content-Length", "3000000000");
+        compressing.getOutputStream().write(LARGE);
+        compressing.finish();
+        compressing.release();
+        
+        verify(res).setHeader("Content-Length", "3000000000");
+        verify(res, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertArrayEquals(LARGE, out.getBytes());
+    }
+    
+    @Test
+    public void weakensETagOfCompressedBody() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        when(res.getOutputStream()).thenReturn(new CapturingServletOutputStream());
+        when(res.getContentType()).thenReturn("text/plain");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.setHeader("ETag", "\"abc\"");
+        compressing.getOutputStream().write(LARGE);
+        compressing.finish();
+        compressing.release();
+        
+        verify(res).setHeader("Content-Encoding", "gzip");
+        verify(res).setHeader("ETag", "W/\"abc\"");
+    }
+    
+    @Test
+    public void keepsStrongETagOfUncompressedBody() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        when(res.getOutputStream()).thenReturn(new CapturingServletOutputStream());
+        when(res.getContentType()).thenReturn("image/png");
+        
+        CompressingResponse compressing = new CompressingResponse(res, new Compression(), "gzip");
+        compressing.setHeader("ETag", "\"abc\"");
+        compressing.getOutputStream().write(LARGE);
+        compressing.finish();
+        compressing.release();
+        
+        verify(res).setHeader("ETag", "\"abc\"");
+        verify(res, never()).setHeader("ETag", "W/\"abc\"");
+    }
+    
+    @Test
+    public void cachedResponseCompressesOnce() throws Exception {
+        
+        Compression compression = new Compression();
+        CachedResponse cached = new CachedResponse("text/plain", Arrays.asList("ETag"), 
+                Arrays.<Object>asList("\"abc\""), LARGE);
+        byte[] compressed = cached.getCompressedBody(compression, "gzip");
+        assertSame(compressed, cached.getCompressedBody(compression, "gzip"));
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        when(res.getContentType()).thenReturn("text/plain");
+        
+        cached.render(mock(HttpServletRequest.class), 
+                new CompressingResponse(res, compression, "gzip"), null);
+        
+        verify(res).setHeader("Content-Encoding", "gzip");
+        verify(res).setHeader("ETag", "W/\"abc\"");
+        verify(res).setContentLength(compressed.length);
+        assertArrayEquals(compressed, out.getBytes());
+    }
+    
+    private HttpServletRequest requestAccepting(String acceptEncoding) {
+        
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        return req;
+    }
+    
+    private byte[] readAll(InputStream in) throws Exception {
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -16,24 +16,34 @@
 package org.mojavemvc.tests;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.junit.Test;
 import org.mojavemvc.annotations.Marshall;
 import org.mojavemvc.marshalling.DefaultEntityMarshaller;
 import org.mojavemvc.marshalling.JSONEntityMarshaller;
 import org.mojavemvc.marshalling.Marshallable;
+import org.mojavemvc.marshalling.NDJSONEntityMarshaller;
 import org.mojavemvc.marshalling.PlainTextEntityMarshaller;
 import org.mojavemvc.marshalling.XMLEntityMarshaller;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
 import org.mojavemvc.views.EmptyView;
 import org.mojavemvc.views.JSON;
+import org.mojavemvc.views.JSONStream;
 import org.mojavemvc.views.PlainText;
 import org.mojavemvc.views.View;
 import org.mojavemvc.views.XML;
+import org.mojavemvc.views.XMLStream;
 
 /**
  * @author Luis Antunes
@@ -125,6 +135,19 @@ public void xmlEntityMarshallerUnmarshalls() {
         assertEquals("test", entity.getVal());
     }
     
+    @Test
+    public void xmlEntityMarshallerUnmarshallsPreparedType() throws Exception {
+        
+        XMLEntityMarshaller m = new XMLEntityMarshaller();
+        m.prepare(SimplePojo.class);
+        String xml = "<SimplePojo><val>t\u00e9st</val></SimplePojo>";
+        for (int i = 0; i < 2; i++) {
+            ByteArrayInputStream in = new ByteArrayInputStream(xml.getBytes("UTF-8"));
+            SimplePojo entity = m.unmarshall(in, SimplePojo.class);
+            assertEquals("t\u00e9st", entity.getVal());
+        }
+    }
+    
     @Test
     public void plainTextEntityMarshallerSupportsPlainTextContentType() {
         
@@ -240,8 +263,105 @@ public void xmlEntityMarshallerHandlesMarshallAnnotation() {
         assertEquals(new XML(entity).toString(), ((XML)v).toString());
     }
     
+    /* incremental marshalling */
+    
+    @Test
+    public void jsonEntityMarshallerStreamsIterator() throws Exception {
+        
+        JSONEntityMarshaller m = new JSONEntityMarshaller();
+        View v = m.marshall(Arrays.asList(new SimplePojo("a"), new SimplePojo("b")).iterator());
+        assertTrue(v instanceof JSONStream);
+        assertEquals("[{\"val\":\"a\"},{\"val\":\"b\"}]", render(v));
+    }
+    
+    @Test
+    public void jsonEntityMarshallerDoesNotStreamCollection() {
+        
+        JSONEntityMarshaller m = new JSONEntityMarshaller();
+        View v = m.marshall(Arrays.asList(new SimplePojo("a")));
+        assertTrue(v instanceof JSON);
+    }
+    
+    @Test
+    public void ndjsonEntityMarshallerStreamsIteratorAndClosesIt() throws Exception {
+        
+        NDJSONEntityMarshaller m = new NDJSONEntityMarshaller();
+        assertEquals("application/x-ndjson", m.contentTypesHandled()[0]);
+        ClosingIterator it = new ClosingIterator(new SimplePojo("a"), new SimplePojo("b"));
+        View v = m.marshall(it);
+        assertEquals("{\"val\":\"a\"}\n{\"val\":\"b\"}\n", render(v));
+        assertTrue(it.closed);
+    }
+    
+    @Test
+    public void ndjsonEntityMarshallerWritesSingleEntityAsOneLine() throws Exception {
+        
+        NDJSONEntityMarshaller m = new NDJSONEntityMarshaller();
+        assertEquals("{\"val\":\"a\"}\n", render(m.marshall(new SimplePojo("a"))));
+    }
+    
+    @Test
+    public void xmlEntityMarshallerStreamsIterator() throws Exception {
+        
+        XMLEntityMarshaller m = new XMLEntityMarshaller();
+        View v = m.marshall(Arrays.asList(new SimplePojo("a"), new SimplePojo("b")).iterator());
+        assertTrue(v instanceof XMLStream);
+        assertEquals("<List><SimplePojo><val>a</val></SimplePojo>" + 
+                "<SimplePojo><val>b</val></SimplePojo></List>", render(v));
+    }
+    
+    @Test
+    public void xmlStreamClosesGeneratorButNotOutputStream() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = spy(new CapturingServletOutputStream());
+        when(res.getOutputStream()).thenReturn(out);
+        
+        new XMLStream(Arrays.asList(new SimplePojo("a")).iterator())
+            .render(mock(HttpServletRequest.class), res, null);
+        
+        assertEquals("<List><SimplePojo><val>a</val></SimplePojo></List>", out.getContent());
+        verify(out, never()).close();
+    }
+    
+    private String render(View v) throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        v.render(mock(HttpServletRequest.class), res, null);
+        return out.getContent();
+    }
+    
     /*------------------------------------*/
     
+    public static class ClosingIterator implements Iterator<SimplePojo>, Closeable {
+        
+        private final Iterator<SimplePojo> it;
+        private boolean closed;
+        
+        public ClosingIterator(SimplePojo... pojos) {
+            this.it = Arrays.asList(pojos).iterator();
+        }
+        
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+        
+        public SimplePojo next() {
+            return it.next();
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+        
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    
     public static class SimplePojo {
         private String val;
         
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.bigtesting.routd.Router;
+import org.bigtesting.routd.TreeRouter;
+import org.junit.Test;
+import org.mojavemvc.core.ExactMatchRouter;
+import org.mojavemvc.core.MojaveRoute;
+
+/**
+ * 
+ * @author Luis Antunes
+ */
+public class TestExactMatchRouter extends RouterContractTest {
+
+    @Override
+    protected Router newRouter() {
+        return new ExactMatchRouter(new TreeRouter());
+    }
+    
+    @Test
+    public void staticRouteDoesNotUseDelegate() {
+        
+        Router delegate = mock(Router.class);
+        Router router = new ExactMatchRouter(delegate);
+        MojaveRoute r1 = new MojaveRoute("cntrl", "actn", null);
+        router.add(r1);
+        
+        assertSame(r1, router.route("/cntrl/actn"));
+        verify(delegate).add(r1);
+        verify(delegate, never()).route(anyString());
+    }
+    
+    @Test
+    public void paramRouteUsesDelegate() {
+        
+        Router delegate = mock(Router.class);
+        Router router = new ExactMatchRouter(delegate);
+        MojaveRoute r1 = new MojaveRoute("cntrl", "actn", ":id");
+        router.add(r1);
+        when(delegate.route("/cntrl/actn/1")).thenReturn(r1);
+        
+        assertSame(r1, router.route("/cntrl/actn/1"));
+        verify(delegate).route("/cntrl/actn/1");
+    }
+    
+    @Test
+    public void encodedPathUsesDelegate() {
+        
+        Router router = newRouter();
+        MojaveRoute r1 = new MojaveRoute("cntrl", "actn", null);
+        router.add(r1);
+        
+        assertSame(r1, router.route("/cntrl/act%6E"));
+        assertSame(r1, router.route("/cntrl//actn"));
+    }
+}
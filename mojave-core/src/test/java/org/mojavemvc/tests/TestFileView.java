@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
+import org.mojavemvc.util.ByteRange;
+import org.mojavemvc.views.FileView;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestFileView {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private File file;
+    private HttpServletRequest req;
+    private HttpServletResponse res;
+    private CapturingServletOutputStream out;
+
+    @Before
+    public void beforeEachTest() throws Exception {
+        
+        file = File.createTempFile("mojave", ".txt");
+        FileOutputStream fileOut = new FileOutputStream(file);
+        fileOut.write(CONTENT.getBytes("US-ASCII"));
+        fileOut.close();
+        
+        req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getDateHeader(anyString())).thenReturn(-1L);
+        res = mock(HttpServletResponse.class);
+        out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+    }
+    
+    @After
+    public void afterEachTest() {
+        file.delete();
+    }
+    
+    @Test
+    public void sendsWholeFileWithMetadata() throws Exception {
+        
+        FileView view = new FileView(file);
+        view.render(req, res, null);
+        
+        verify(res).setContentType("text/plain");
+        verify(res).setContentLength(20);
+        verify(res).setHeader("ETag", view.getETag());
+        verify(res).setDateHeader("Last-Modified", file.lastModified());
+        assertEquals(CONTENT, out.getContent());
+    }
+    
+    @Test
+    public void sendsNotModified() throws Exception {
+        
+        FileView view = new FileView(file);
+        when(req.getHeader("If-None-Match")).thenReturn(view.getETag());
+        view.render(req, res, null);
+        
+        verify(res).setStatus(304);
+        assertEquals("", out.getContent());
+    }
+    
+    @Test
+    public void sendsSingleRange() throws Exception {
+        
+        when(req.getHeader("Range")).thenReturn("bytes=5-9");
+        new FileView(file).render(req, res, null);
+        
+        verify(res).setStatus(206);
+        verify(res).setHeader("Content-Range", "bytes 5-9/20");
+        verify(res).setContentLength(5);
+        assertEquals("56789", out.getContent());
+    }
+    
+    @Test
+    public void sendsMultipleRanges() throws Exception {
+        
+        when(req.getHeader("Range")).thenReturn("bytes=0-1,-2");
+        new FileView(file, "text/plain").render(req, res, null);
+        
+        verify(res).setStatus(206);
+        ArgumentCaptor<String> contentType = ArgumentCaptor.forClass(String.class);
+        verify(res).setContentType(contentType.capture());
+        assertTrue(contentType.getValue().startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.getValue().substring(contentType.getValue().indexOf('=') + 1);
+        
+        String expected = "\r\n--" + boundary + "\r\n" + 
+                "Content-Type: text/plain\r\n" + 
+                "Content-Range: bytes 0-1/20\r\n\r\n01" + 
+                "\r\n--" + boundary + "\r\n" + 
+                "Content-Type: text/plain\r\n" + 
+                "Content-Range: bytes 18-19/20\r\n\r\nij" + 
+                "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, out.getContent());
+        verify(res).setContentLength(expected.length());
+    }
+    
+    @Test
+    public void sendsRangeNotSatisfiable() throws Exception {
+        
+        when(req.getHeader("Range")).thenReturn("bytes=20-");
+        new FileView(file).render(req, res, null);
+        
+        verify(res).setStatus(416);
+        verify(res).setHeader("Content-Range", "bytes */20");
+    }
+    
+    @Test
+    public void ignoresRangeWhenIfRangeDoesNotMatch() throws Exception {
+        
+        when(req.getHeader("Range")).thenReturn("bytes=5-9");
+        when(req.getHeader("If-Range")).thenReturn("\"other\"");
+        new FileView(file).render(req, res, null);
+        
+        verify(res, never()).setStatus(206);
+        assertEquals(CONTENT, out.getContent());
+    }
+    
+    @Test
+    public void sendsNotFoundForMissingFile() throws Exception {
+        
+        file.delete();
+        new FileView(file).render(req, res, null);
+        
+        verify(res).sendError(404);
+    }
+    
+    @Test
+    public void parsesRanges() {
+        
+        List<ByteRange> ranges = ByteRange.parse("bytes=0-99, 150-, -50", 200);
+        assertEquals(2, ranges.size());
+        assertEquals("bytes 0-99/200", ranges.get(0).toContentRange(200));
+        assertEquals("bytes 150-199/200", ranges.get(1).toContentRange(200));
+        assertEquals("bytes 0-199/200", ByteRange.parse("bytes=0-500", 200).get(0).toContentRange(200));
+        assertTrue(ByteRange.parse("bytes=300-", 200).isEmpty());
+        assertNull(ByteRange.parse("bytes=5-1", 200));
+        assertNull(ByteRange.parse("items=0-1", 200));
+        assertNull(ByteRange.parse(null, 200));
+    }
+    
+    @Test
+    public void mergesOverlappingRanges() {
+        
+        List<ByteRange> ranges = ByteRange.parse("bytes=50-59, 0-9, 5-19, 20-29", 200);
+        assertEquals(2, ranges.size());
+        assertEquals("bytes 0-29/200", ranges.get(0).toContentRange(200));
+        assertEquals("bytes 50-59/200", ranges.get(1).toContentRange(200));
+    }
+    
+    @Test
+    public void ignoresRangesLongerThanContent() {
+        
+        StringBuilder header = new StringBuilder("bytes=0-");
+        for (int i = 1; i < ByteRange.MAX_RANGES; i++) {
+            header.append(",0-");
+        }
+        assertNull(ByteRange.parse(header.toString(), 200));
+    }
+}
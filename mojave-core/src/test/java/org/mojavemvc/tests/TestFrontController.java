@@ -21,6 +21,7 @@
 import java.util.List;
 
 import org.junit.Test;
+import org.mojavemvc.tests.controllers.CompressionController;
 import org.mojavemvc.tests.controllers.StartupController;
 import org.mojavemvc.tests.initializers.SomeInitializer;
 import org.mojavemvc.tests.initializers.SomeOtherInitializer;
@@ -54,6 +55,8 @@
 import org.mojavemvc.tests.othercontrollers.InterceptedController8;
 import org.mojavemvc.tests.othercontrollers.InterceptedController9;
 
+import com.gargoylesoftware.htmlunit.HttpMethod;
+
 /**
  * 
  * @author Luis Antunes
@@ -700,6 +703,23 @@ public void someSingletonControllerInjAction() throws Exception {
         assertFalse(hexHashcode1.equals(hexHashcode2));
     }
 
+    @Test
+    public void injectedOnceSingletonControllerInjAction() throws Exception {
+
+        /*
+         * Test that the @Injected resources are the same, as a singleton
+         * controller is injected only once by default
+         */
+
+        String hexHashcode1 = makeRequestFor("/injected-once-singleton/get-inj").andGetH2TagContent();
+
+        /* make a second request */
+        String hexHashcode2 = makeRequestFor("/injected-once-singleton/get-inj").andGetH2TagContent();
+
+        /* check that the @Inject dependency was not re-injected */
+        assertEquals(hexHashcode1, hexHashcode2);
+    }
+
     @Test
     public void startupController() throws Exception {
 
@@ -1646,7 +1666,8 @@ public void statusOK() throws Exception {
             .withStatus(200)
             .withContent("it's ok")
             .withContentType("text/plain")
-            .withHeader("Content-Language", "English");
+            .withHeader("Content-Language", "English")
+            .withHeader("Expires", "Sun, 09 Sep 2001 01:46:40 GMT");
     }
     
     @Test
@@ -1734,6 +1755,285 @@ public void marshallingExpectsCSV() throws Exception {
             .withH2Tag(withContent("marshalling,controller"));
     }
 
+    @Test
+    public void asyncAnnotatedAction() throws Exception {
+        
+        assertThatRequestFor("/async/annotated")
+            .producesPage()
+            .withH1Tag(withContent("async/annotated"));
+    }
+    
+    @Test
+    public void asyncCallableAction() throws Exception {
+        
+        assertThatRequestFor("/async/callable")
+            .producesPage()
+            .withH1Tag(withContent("async/callable"));
+    }
+    
+    @Test
+    public void asyncFutureAction() throws Exception {
+        
+        assertThatRequestFor("/async/future")
+            .producesPage()
+            .withH1Tag(withContent("async/future"));
+    }
+    
+    @Test
+    public void asyncFutureMarshalledAction() throws Exception {
+        
+        assertThatRequestFor("/async/future/plaintext")
+            .producesResponse()
+            .withContentType("text/plain")
+            .withContent("asyncPlainText");
+    }
+    
+    @Test
+    public void cacheableActionServesCachedResponse() throws Exception {
+        
+        String first = makeRequestFor("/cacheable/count?name=cached").andGetContent();
+        assertTrue(first.startsWith("cached:"));
+        assertEquals(first, makeRequestFor("/cacheable/count?name=cached").andGetContent());
+        assertFalse(first.equals(makeRequestFor("/cacheable/count?name=other").andGetContent()));
+    }
+    
+    @Test
+    public void cacheableActionSendsVaryHeader() throws Exception {
+        
+        String first = assertThatRequestFor("/cacheable/greeting", 
+                withRequestHeader("Accept-Language", "en"))
+            .producesResponse()
+            .withHeader("Vary", "Accept-Language")
+            .andGetContent();
+        assertTrue(first.startsWith("en:"));
+        
+        String cached = assertThatRequestFor("/cacheable/greeting", 
+                withRequestHeader("Accept-Language", "en"))
+            .producesResponse()
+            .withHeader("Vary", "Accept-Language")
+            .andGetContent();
+        assertEquals(first, cached);
+        
+        String other = assertThatRequestFor("/cacheable/greeting", 
+                withRequestHeader("Accept-Language", "fr"))
+            .producesResponse()
+            .withHeader("Vary", "Accept-Language")
+            .andGetContent();
+        assertTrue(other.startsWith("fr:"));
+    }
+    
+    @Test
+    public void cacheableActionInvalidated() throws Exception {
+        
+        String first = makeRequestFor("/cacheable/count?name=invalidated").andGetContent();
+        assertTrue(makeRequestFor("/cacheable/invalidate").andGetContent().startsWith("invalidated:"));
+        assertFalse(first.equals(makeRequestFor("/cacheable/count?name=invalidated").andGetContent()));
+    }
+    
+    @Test
+    public void resourceViewSendsWholeResource() throws Exception {
+        
+        String acceptRanges = assertThatRequestFor("/resource/text")
+            .producesResponse()
+            .withStatus(200)
+            .withContentType("text/plain")
+            .withContent("Uploaded File")
+            .andGetHeader("Accept-Ranges");
+        assertEquals("bytes", acceptRanges);
+    }
+    
+    @Test
+    public void resourceViewSendsRange() throws Exception {
+        
+        assertThatRequestFor("/resource/text", withRequestHeader("Range", "bytes=9-"))
+            .producesResponse()
+            .withStatus(206)
+            .withHeader("Content-Range", "bytes 9-12/13")
+            .withContent("File");
+    }
+    
+    @Test
+    public void resourceViewAnswersConditionalGETWithNotModified() throws Exception {
+        
+        String etag = assertThatRequestFor("/resource/text").producesResponse().andGetHeader("ETag");
+        
+        /* the client would otherwise serve the response from its own cache */
+        newWebClient();
+        assertThatRequestFor("/resource/text", withRequestHeader("If-None-Match", etag))
+            .producesResponse()
+            .withStatus(304);
+    }
+    
+    @Test
+    public void resourceViewIgnoresValidatorsOfPOSTRequest() throws Exception {
+        
+        String etag = assertThatRequestFor("/resource/text").producesResponse().andGetHeader("ETag");
+        
+        /* the client would otherwise serve the response from its own cache */
+        newWebClient();
+        assertThatRequestFor(HttpMethod.POST, "/resource/text", withRequestHeader("If-None-Match", etag))
+            .producesResponse()
+            .withStatus(200)
+            .withContent("Uploaded File");
+    }
+    
+    @Test
+    public void compressesLargeResponse() throws Exception {
+        
+        String encoding = assertThatRequestFor("/compression/large", 
+                withRequestHeader("Accept-Encoding", "gzip"))
+            .producesResponse()
+            .withStatus(200)
+            .withContent(CompressionController.LARGE_CONTENT)
+            .andGetHeader("Content-Encoding");
+        assertEquals("gzip", encoding);
+    }
+    
+    @Test
+    public void doesNotCompressSmallResponse() throws Exception {
+        
+        String encoding = assertThatRequestFor("/compression/small", 
+                withRequestHeader("Accept-Encoding", "gzip"))
+            .producesResponse()
+            .withStatus(200)
+            .withContent("small")
+            .andGetHeader("Content-Encoding");
+        assertNull(encoding);
+    }
+    
+    @Test
+    public void rendersUncompressedErrorViewAfterCompressionStarted() throws Exception {
+        
+        String encoding = assertThatRequestFor("/compression/failing", 
+                withRequestHeader("Accept-Encoding", "gzip"))
+            .producesResponse()
+            .andGetHeader("Content-Encoding");
+        assertNull(encoding);
+        
+        assertThatRequestFor("/compression/failing", 
+                withRequestHeader("Accept-Encoding", "gzip"))
+            .producesErrorPage();
+    }
+    
+    @Test
+    public void compressesCachedResponse() throws Exception {
+        
+        for (int i = 0; i < 2; i++) {
+            newWebClient();
+            String encoding = assertThatRequestFor("/compression/cached", 
+                    withRequestHeader("Accept-Encoding", "deflate"))
+                .producesResponse()
+                .withStatus(200)
+                .withContent(CompressionController.LARGE_CONTENT)
+                .andGetHeader("Content-Encoding");
+            assertEquals("deflate", encoding);
+        }
+    }
+    
+    @Test
+    public void generatedETag() throws Exception {
+        
+        String etag = assertThatRequestFor("/etag/generated")
+            .producesResponse()
+            .withStatus(200)
+            .withContent("generated")
+            .andGetHeader("ETag");
+        assertNotNull(etag);
+        
+        assertThatRequestFor("/etag/generated", withRequestHeader("If-None-Match", etag))
+            .producesResponse()
+            .withStatus(304)
+            .withHeader("ETag", etag);
+    }
+    
+    @Test
+    public void providedETag() throws Exception {
+        
+        assertThatRequestFor("/etag/provided")
+            .producesResponse()
+            .withStatus(200)
+            .withHeader("ETag", "\"v1\"");
+        
+        assertThatRequestFor("/etag/provided", withRequestHeader("If-None-Match", "\"v0\", \"v1\""))
+            .producesResponse()
+            .withStatus(304)
+            .withContent("");
+    }
+    
+    @Test
+    public void providedETagAnswersConditionalHEADRequest() throws Exception {
+        
+        assertThatRequestFor(HttpMethod.HEAD, "/etag/provided", 
+                withRequestHeader("If-None-Match", "\"v1\""))
+            .producesResponse()
+            .withStatus(304)
+            .withHeader("ETag", "\"v1\"");
+    }
+    
+    @Test
+    public void providedETagBoundToPathParameter() throws Exception {
+        
+        assertThatRequestFor("/etag/items/3")
+            .producesResponse()
+            .withStatus(200)
+            .withHeader("ETag", "\"item-3\"")
+            .withContent("item 3");
+        
+        assertThatRequestFor("/etag/items/3", withRequestHeader("If-None-Match", "\"item-3\""))
+            .producesResponse()
+            .withStatus(304);
+    }
+    
+    @Test
+    public void noETag() throws Exception {
+        
+        assertNull(assertThatRequestFor("/etag/none")
+            .producesResponse()
+            .withContent("none")
+            .andGetHeader("ETag"));
+    }
+    
+    @Test
+    public void lastModified() throws Exception {
+        
+        assertThatRequestFor("/last-modified/document")
+            .producesResponse()
+            .withStatus(200)
+            .withHeader("Last-Modified", "Sun, 09 Sep 2001 01:46:40 GMT")
+            .withContent("document");
+        
+        /* the client would otherwise serve the response from its own cache */
+        newWebClient();
+        assertThatRequestFor("/last-modified/document", 
+                withRequestHeader("If-Modified-Since", "Sun, 09 Sep 2001 01:46:40 GMT"))
+            .producesResponse()
+            .withStatus(304)
+            .withContent("");
+        
+        newWebClient();
+        assertThatRequestFor("/last-modified/document", 
+                withRequestHeader("If-Modified-Since", "Sat, 08 Sep 2001 01:46:40 GMT"))
+            .producesResponse()
+            .withStatus(200)
+            .withContent("document");
+    }
+    
+    @Test
+    public void lastModifiedBoundToPathParameter() throws Exception {
+        
+        assertThatRequestFor("/last-modified/documents/5")
+            .producesResponse()
+            .withStatus(200)
+            .withHeader("Last-Modified", "Sun, 09 Sep 2001 01:46:45 GMT")
+            .withContent("document 5");
+        
+        newWebClient();
+        assertThatRequestFor("/last-modified/documents/5", 
+                withRequestHeader("If-Modified-Since", "Sun, 09 Sep 2001 01:46:45 GMT"))
+            .producesResponse()
+            .withStatus(304);
+    }
+    
     @Test
     public void marshallingReturnsPlainTextString() throws Exception {
         
@@ -1770,6 +2070,34 @@ public void marshallingReturnsXML() throws Exception {
             .withContent("<SimplePojo><val>marshalledXML</val></SimplePojo>");
     }
     
+    @Test
+    public void marshallingReturnsJSONIterator() throws Exception {
+        
+        assertThatRequestFor("/marshalling/returns/json/iterator")
+            .producesResponse()
+            .withContentType("application/json")
+            .withContent("[{\"val\":\"first\"},{\"val\":\"second\"}]");
+    }
+    
+    @Test
+    public void marshallingReturnsNDJSONIterable() throws Exception {
+        
+        assertThatRequestFor("/marshalling/returns/ndjson/iterable")
+            .producesResponse()
+            .withContentType("application/x-ndjson")
+            .withContent("{\"val\":\"first\"}\n{\"val\":\"second\"}\n");
+    }
+    
+    @Test
+    public void marshallingReturnsXMLIterator() throws Exception {
+        
+        assertThatRequestFor("/marshalling/returns/xml/iterator")
+            .producesResponse()
+            .withContentType("application/xml")
+            .withContent("<List><SimplePojo><val>first</val></SimplePojo>" + 
+                    "<SimplePojo><val>second</val></SimplePojo></List>");
+    }
+    
     @Test
     public void marshallingExpectsJSONReturnsCSV() throws Exception {
 
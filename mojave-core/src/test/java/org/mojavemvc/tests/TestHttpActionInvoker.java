@@ -20,6 +20,7 @@
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,10 +43,17 @@
 import org.mojavemvc.core.ActionInvoker;
 import org.mojavemvc.core.ActionSignature;
 import org.mojavemvc.core.ControllerDatabase;
+import org.mojavemvc.core.DispatchEntry;
+import org.mojavemvc.core.FastClassInvoker;
 import org.mojavemvc.core.HttpActionInvoker;
+import org.mojavemvc.core.InterceptorChain;
+import org.mojavemvc.core.InterceptorDescriptor;
 import org.mojavemvc.core.MappedControllerDatabase;
+import org.mojavemvc.core.MethodInvoker;
+import org.mojavemvc.core.RequestScope;
 import org.mojavemvc.core.RoutedRequest;
 import org.mojavemvc.core.ServletResourceModule;
+import org.mojavemvc.exception.UploadSizeExceededException;
 import org.mojavemvc.initialization.AppProperties;
 import org.mojavemvc.marshalling.EntityMarshaller;
 import org.mojavemvc.tests.controllers.SomeStatelessController;
@@ -64,6 +72,7 @@
 import org.mojavemvc.tests.othercontrollers.InterceptedController8;
 import org.mojavemvc.tests.othercontrollers.InterceptedController9;
 import org.mojavemvc.tests.views.HTMLPage;
+import org.mojavemvc.views.Response;
 import org.mojavemvc.views.View;
 
 import com.google.inject.Guice;
@@ -87,6 +96,8 @@ public class TestHttpActionInvoker {
     private Map<String, Object> parametersMap = new HashMap<String, Object>();
     
     private AppProperties appProperties;
+    
+    private RequestScope previousScope;
 
     @Before
     public void beforeEachTest() throws Exception {
@@ -100,7 +111,7 @@ public void beforeEachTest() throws Exception {
 
         injector = Guice.createInjector(
                 new ServletResourceModule(appProperties), new SomeModule());
-        ServletResourceModule.set(req, res);
+        previousScope = ServletResourceModule.enter(new RequestScope(req, res));
 
         routed = new RoutedRequest(null, null, parametersMap);
     }
@@ -108,7 +119,7 @@ public void beforeEachTest() throws Exception {
     @After
     public void afterEachTest() {
         
-        ServletResourceModule.unset();
+        ServletResourceModule.exit(previousScope);
     }
     
     @Test
@@ -118,9 +129,9 @@ public void testInvokeAction() throws Exception {
 
         SetUp<SomeStatelessController> setup = 
                 setUp(SomeStatelessController.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -139,9 +150,9 @@ public void testInvokeDefaultAction() throws Exception {
 
         SetUp<SomeStatelessController> setup = 
                 setUp(SomeStatelessController.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -164,9 +175,9 @@ public void testInterceptors1() throws Exception {
 
         SetUp<InterceptedController1> setup = 
                 setUp(InterceptedController1.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -195,9 +206,9 @@ public void testInterceptors2() throws Exception {
 
         SetUp<InterceptedController2> setup = 
                 setUp(InterceptedController2.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -223,9 +234,9 @@ public void testInterceptors3() throws Exception {
 
         SetUp<InterceptedController2> setup = 
                 setUp(InterceptedController2.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -252,9 +263,9 @@ public void testInterceptors4() throws Exception {
 
         SetUp<InterceptedController3> setup = 
                 setUp(InterceptedController3.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -286,9 +297,9 @@ public void testInterceptors5() throws Exception {
 
         SetUp<InterceptedController4> setup = 
                 setUp(InterceptedController4.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -320,9 +331,9 @@ public void testInterceptors6() throws Exception {
 
         SetUp<InterceptedController4> setup = 
                 setUp(InterceptedController4.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -350,9 +361,9 @@ public void testInterceptors7() throws Exception {
 
         SetUp<InterceptedController1> setup = 
                 setUp(InterceptedController1.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -379,9 +390,9 @@ public void testInterceptors8() throws Exception {
 
         SetUp<InterceptedController3> setup = 
                 setUp(InterceptedController3.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -410,9 +421,9 @@ public void testInterceptors9() throws Exception {
 
         SetUp<InterceptedController5> setup = 
                 setUp(InterceptedController5.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -444,9 +455,9 @@ public void testInterceptors10() throws Exception {
 
         SetUp<InterceptedController5> setup = 
                 setUp(InterceptedController5.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -474,9 +485,9 @@ public void testInterceptors11() throws Exception {
 
         SetUp<InterceptedController6> setup = 
                 setUp(InterceptedController6.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -503,9 +514,9 @@ public void testInterceptors12() throws Exception {
 
         SetUp<InterceptedController7> setup = 
                 setUp(InterceptedController7.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -532,9 +543,9 @@ public void testInterceptors13() throws Exception {
 
         SetUp<InterceptedController8> setup = 
                 setUp(InterceptedController8.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -572,9 +583,9 @@ public void testInterceptors14() throws Exception {
 
         SetUp<InterceptedController8> setup = 
                 setUp(InterceptedController8.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -609,9 +620,9 @@ public void testInterceptors15() throws Exception {
 
         SetUp<InterceptedController9> setup = 
                 setUp(InterceptedController9.class, methodName);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -651,9 +662,9 @@ public void testInterceptors16() throws Exception {
 
         SetUp<InterceptedController9> setup = 
                 setUp(InterceptedController9.class, methodName, action);
-        ActionInvoker invoker = new HttpActionInvoker(req, res, setup.db, routed, injector);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
 
-        HTMLPage view = (HTMLPage) invoker.invokeAction(setup.controller, setup.signature);
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
 
         assertNotNull(view);
         String h2 = view.getH2Content();
@@ -676,6 +687,71 @@ public void testInterceptors16() throws Exception {
         assertEquals("interceptor1b-afterAction:req:resp:sess:someService:ok", invocationList.get(10));
     }
     
+    @Test
+    public void invokeActionUsesDispatchEntryOfSignature() throws Exception {
+
+        SetUp<SomeStatelessController> setup = 
+                setUp(SomeStatelessController.class, "doSomething");
+        ActionSignature signature = 
+                setup.db.getActionMethodSignature(SomeStatelessController.class, "do-something");
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
+
+        HTMLPage view = (HTMLPage) invoker.invokeAction(req, res, routed, setup.controller, signature);
+
+        assertEquals("test", view.getH2Content());
+        assertEquals(1, setup.controller.beforeInvokeCount);
+        assertEquals(1, setup.controller.afterInvokeCount);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void invokeActionRejectsSignatureWithoutDispatchEntry() throws Exception {
+
+        SetUp<SomeStatelessController> setup = 
+                setUp(SomeStatelessController.class, "doSomething");
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
+
+        invoker.invokeAction(req, res, routed, setup.controller, setup.signature);
+    }
+    
+    @Test
+    public void oversizeUploadIsRejectedBeforeArgumentsAreBound() throws Exception {
+
+        String methodName = "doSomething";
+        when(req.getContentLength()).thenReturn(100);
+
+        SetUp<SomeStatelessController> setup = 
+                setUp(SomeStatelessController.class, methodName);
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
+        DispatchEntry dispatchEntry = new DispatchEntry.Builder(SomeStatelessController.class, setup.signature)
+                .withMaxUploadSize(10)
+                .build();
+
+        View view = invoker.invokeAction(req, res, routed, setup.controller, dispatchEntry, 0);
+
+        assertTrue(view instanceof Response.RequestEntityTooLarge);
+        verify(setup.signature, never()).getArgs(parametersMap, null, null);
+        assertEquals(0, setup.controller.beforeInvokeCount);
+    }
+    
+    @Test
+    public void uploadSizeExceededWhileActionReadsIsRejected() throws Exception {
+
+        String methodName = "doSomething";
+
+        SetUp<SomeStatelessController> setup = 
+                setUp(SomeStatelessController.class, methodName);
+        when(setup.signature.invoker()).thenReturn(new MethodInvoker() {
+            public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+                throw new InvocationTargetException(new UploadSizeExceededException("too large", null));
+            }
+        });
+        ActionInvoker invoker = new HttpActionInvoker(setup.db, injector);
+
+        View view = invoker.invokeAction(req, res, routed, setup.controller, setup.entry, 0);
+
+        assertTrue(view instanceof Response.RequestEntityTooLarge);
+    }
+    
     /*----------------------------------*/
     
     private <T> SetUp<T> setUp(Class<T> clazz, String methodName) throws IOException {
@@ -693,9 +769,10 @@ private <T> SetUp<T> setUp(Class<T> clazz, String methodName, String action) thr
         int fastIndex = fastClass.getIndex(methodName, new Class<?>[] {});
         ActionSignature sig = mock(ActionSignature.class);
         when(sig.fastIndex()).thenReturn(fastIndex);
+        when(sig.invoker()).thenReturn(new FastClassInvoker(fastClass, fastIndex));
         when(sig.parameterTypes()).thenReturn(new Class<?>[] {});
         when(sig.methodName()).thenReturn(methodName);
-        when(sig.getArgs(parametersMap, req.getInputStream())).thenReturn(new Object[] {});
+        when(sig.getArgs(parametersMap, null, req.getInputStream())).thenReturn(new Object[] {});
         
         if (action == null) {
             when(sig.getInterceptorClasses(db, cntrl.getClass(), "")).thenReturn(
@@ -712,13 +789,37 @@ public View answer(InvocationOnMock invocation) throws Throwable {
             }
         });
         
+        Class<?> controllerClass = cntrl.getClass();
+        DispatchEntry entry = new DispatchEntry.Builder(controllerClass, sig)
+                .withAfterConstructSignature(db.getAfterConstructMethodFor(controllerClass))
+                .withBeforeActionSignature(db.getBeforeActionMethodFor(controllerClass))
+                .withAfterActionSignature(db.getAfterActionMethodFor(controllerClass))
+                .withInterceptorChain(new InterceptorChain(
+                        getInterceptorDescriptors(db, db.getInterceptorsFor(controllerClass)), 
+                        getInterceptorDescriptors(db, sig.getInterceptorClasses(db, controllerClass, 
+                                action == null ? "" : action))))
+                .build();
+        
         SetUp<T> result = new SetUp<T>();
         result.controller = cntrl;
         result.db = db;
         result.signature = sig;
+        result.entry = entry;
         return result;
     }
     
+    private List<InterceptorDescriptor> getInterceptorDescriptors(ControllerDatabase db, 
+            List<Class<?>> interceptorClasses) {
+
+        List<InterceptorDescriptor> descriptors = new ArrayList<InterceptorDescriptor>();
+        if (interceptorClasses != null) {
+            for (Class<?> interceptorClass : interceptorClasses) {
+                descriptors.add(db.getInterceptorDescriptor(interceptorClass));
+            }
+        }
+        return descriptors;
+    }
+    
     private ControllerDatabase newControllerDatabase(Set<Class<?>> controllerClasses) {
         return new MappedControllerDatabase(controllerClasses, new TreeRouter(), 
                 new HashMap<String, EntityMarshaller>());
@@ -728,5 +829,6 @@ private ControllerDatabase newControllerDatabase(Set<Class<?>> controllerClasses
         public T controller;
         public ControllerDatabase db;
         public ActionSignature signature;
+        public DispatchEntry entry;
     }
 }
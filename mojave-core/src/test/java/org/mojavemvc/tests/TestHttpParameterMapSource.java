@@ -15,24 +15,42 @@
  */
 package org.mojavemvc.tests;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mojavemvc.annotations.Param;
+import org.mojavemvc.core.ActionSignature;
+import org.mojavemvc.core.BaseActionSignature;
 import org.mojavemvc.core.HttpParameterMapSource;
+import org.mojavemvc.core.MultipartConfig;
+import org.mojavemvc.core.MultipartParameterMap;
+import org.mojavemvc.core.ReflectionInvoker;
+import org.mojavemvc.exception.UploadSizeExceededException;
+import org.mojavemvc.forms.UploadedFile;
 
 /**
  * @author Luis Antunes
  */
 public class TestHttpParameterMapSource {
 
+    private static final String BOUNDARY = "AaB03x";
+    
     private HttpServletRequest req;
     
     @Before
@@ -49,21 +67,226 @@ public void parameterMapExtractedFromRegularRequest() {
         paramMap.put("name", new String[]{"John"});
         when(req.getParameterMap()).thenReturn(paramMap);
         
-        Map<String, Object> extracted = newParamMapSource().getParameterMap();
+        Map<String, Object> extracted = newParamMapSource().getParameterMap(req);
         
         assertEquals(paramMap, extracted);
     }
     
-    /*
-     * TODO
-     * - set up an HttpServletRequest multipart request
-     * to test with, and implement tests for extracting
-     * a parameter map from multipart requests
-     */
+    @Test
+    public void parameterMapExtractedFromMultipartRequest() throws Exception {
+        
+        setMultipartBody(
+                field("userName", "John") + 
+                field("tag", "a") + 
+                field("tag", "b") + 
+                file("file", "upload-test.txt", "Uploaded File"));
+        
+        Map<String, Object> extracted = newParamMapSource().getParameterMap(req);
+        
+        assertTrue(extracted instanceof MultipartParameterMap);
+        assertArrayEquals(new String[]{"John"}, (String[]) extracted.get("userName"));
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) extracted.get("tag"));
+        UploadedFile file = (UploadedFile) extracted.get("file");
+        assertEquals("upload-test.txt", file.getFileName());
+        assertEquals("text/plain", file.getContentType());
+        assertEquals(13, file.getSize());
+        assertEquals("Uploaded File", read(file.getInputStream()));
+    }
+    
+    @Test
+    public void queryParameterTakesPrecedenceOverFormField() throws Exception {
+        
+        HashMap<String, Object> queryParams = new HashMap<String, Object>();
+        queryParams.put("userName", new String[]{"Jane"});
+        when(req.getParameterMap()).thenReturn(queryParams);
+        setMultipartBody(field("userName", "John"));
+        
+        Map<String, Object> extracted = newParamMapSource().getParameterMap(req);
+        
+        assertArrayEquals(new String[]{"Jane"}, (String[]) extracted.get("userName"));
+    }
+    
+    @Test
+    public void streamingParameterMapParsesPartsInOrder() throws Exception {
+        
+        setMultipartBody(
+                field("userName", "John") + 
+                file("file", "upload-test.txt", "Uploaded File") + 
+                field("comment", "after"));
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        
+        assertArrayEquals(new String[]{"John"}, (String[]) extracted.get("userName"));
+        UploadedFile file = (UploadedFile) extracted.get("file");
+        assertEquals("upload-test.txt", file.getFileName());
+        assertEquals(-1, file.getSize());
+        assertEquals("Uploaded File", read(file.getInputStream()));
+        assertArrayEquals(new String[]{"after"}, (String[]) extracted.get("comment"));
+        assertNull(extracted.get("missing"));
+    }
+    
+    @Test
+    public void streamingParameterMapReadsAllValuesOfRepeatedField() throws Exception {
+        
+        setMultipartBody(
+                field("tag", "a") + 
+                field("tag", "b") + 
+                file("file", "upload-test.txt", "Uploaded File") + 
+                field("tag", "c"));
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) extracted.get("tag"));
+        UploadedFile file = (UploadedFile) extracted.get("file");
+        assertEquals("Uploaded File", read(file.getInputStream()));
+    }
+    
+    @Test
+    public void streamingUploadBoundBeforeLaterFieldIsBuffered() throws Exception {
+        
+        setMultipartBody(
+                file("file", "upload-test.txt", "Uploaded File") + 
+                field("comment", "after"));
+        
+        Method action = getClass().getMethod("upload", UploadedFile.class, String.class);
+        ActionSignature sig = new BaseActionSignature(new ReflectionInvoker(action), "upload", action.getParameterTypes(), 
+                action.getParameterAnnotations(), action.getAnnotations());
+        
+        Object[] args = sig.getArgs(newStreamingParamMapSource().getParameterMap(req), null);
+        
+        assertEquals("after", args[1]);
+        assertEquals("Uploaded File", read(((UploadedFile) args[0]).getInputStream()));
+    }
+    
+    @Test
+    public void partlyReadStreamingUploadIsBufferedFromWhereItWasRead() throws Exception {
+        
+        setMultipartBody(
+                file("file", "upload-test.txt", "Uploaded File") + 
+                field("comment", "after"));
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        
+        InputStream in = ((UploadedFile) extracted.get("file")).getInputStream();
+        assertEquals('U', in.read());
+        assertArrayEquals(new String[]{"after"}, (String[]) extracted.get("comment"));
+        assertEquals("ploaded File", read(in));
+    }
+    
+    public void upload(@Param("file") UploadedFile file, @Param("comment") String comment) {
+    }
+    
+    @Test
+    public void streamingUploadTransferredToDestination() throws Exception {
+        
+        setMultipartBody(file("file", "upload-test.txt", "Uploaded File"));
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        
+        File destination = File.createTempFile("mojave", ".txt");
+        try {
+            UploadedFile file = (UploadedFile) extracted.get("file");
+            file.transferTo(destination);
+            assertEquals("Uploaded File", read(new FileInputStream(destination)));
+        } finally {
+            destination.delete();
+        }
+    }
+    
+    @Test(expected = UploadSizeExceededException.class)
+    public void oversizeRequestIsRejected() throws Exception {
+        
+        setMultipartBody(file("file", "upload-test.txt", "Uploaded File"));
+        
+        Map<String, Object> extracted = newParamMapSource().getParameterMap(req);
+        ((MultipartParameterMap) extracted).setSizeMax(10);
+        
+        extracted.get("file");
+    }
+    
+    @Test(expected = UploadSizeExceededException.class)
+    public void oversizeStreamingRequestIsRejected() throws Exception {
+        
+        setMultipartBody(file("file", "upload-test.txt", "Uploaded File"));
+        when(req.getContentLength()).thenReturn(-1);
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        ((MultipartParameterMap) extracted).setSizeMax(10);
+        
+        read(((UploadedFile) extracted.get("file")).getInputStream());
+    }
+    
+    @Test(expected = UploadSizeExceededException.class)
+    public void oversizeStreamingUploadIsRejectedWhileRead() throws Exception {
+        
+        char[] content = new char[20000];
+        Arrays.fill(content, 'a');
+        setMultipartBody(file("file", "upload-test.txt", new String(content)));
+        when(req.getContentLength()).thenReturn(-1);
+        
+        Map<String, Object> extracted = newStreamingParamMapSource().getParameterMap(req);
+        ((MultipartParameterMap) extracted).setSizeMax(10000);
+        
+        /* the limit is not reached while the part headers are parsed */
+        InputStream in = ((UploadedFile) extracted.get("file")).getInputStream();
+        read(in);
+    }
     
     /*----------------------*/
     
     private HttpParameterMapSource newParamMapSource() {
-        return new HttpParameterMapSource(req);
+        return new HttpParameterMapSource();
+    }
+    
+    private HttpParameterMapSource newStreamingParamMapSource() {
+        return new HttpParameterMapSource(new MultipartConfig(true, 0, null, -1));
+    }
+    
+    private void setMultipartBody(String parts) throws Exception {
+        
+        byte[] body = (parts + "--" + BOUNDARY + "--\r\n").getBytes("ISO-8859-1");
+        final InputStream in = new ByteArrayInputStream(body);
+        when(req.getMethod()).thenReturn("POST");
+        when(req.getContentType()).thenReturn("multipart/form-data; boundary=" + BOUNDARY);
+        when(req.getContentLength()).thenReturn(body.length);
+        when(req.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return in.read();
+            }
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return in.read(b, off, len);
+            }
+        });
+    }
+    
+    private String field(String name, String value) {
+        
+        return "--" + BOUNDARY + "\r\n" + 
+            "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + 
+            value + "\r\n";
+    }
+    
+    private String file(String name, String fileName, String content) {
+        
+        return "--" + BOUNDARY + "\r\n" + 
+            "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n" + 
+            "Content-Type: text/plain\r\n\r\n" + 
+            content + "\r\n";
+    }
+    
+    private String read(InputStream in) throws IOException {
+        
+        try {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                sb.append((char) c);
+            }
+            return sb.toString();
+        } finally {
+            in.close();
+        }
     }
 }
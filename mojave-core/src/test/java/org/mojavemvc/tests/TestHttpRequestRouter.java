@@ -21,12 +21,15 @@
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.bigtesting.routd.Router;
 import org.junit.Before;
 import org.junit.Test;
 import org.mojavemvc.core.HttpRequestRouter;
 import org.mojavemvc.core.MojaveRoute;
 import org.mojavemvc.core.ParameterMapSource;
+import org.mojavemvc.core.PathParameters;
 import org.mojavemvc.core.RoutedRequest;
 import org.mojavemvc.exception.NoMatchingRouteException;
 
@@ -35,6 +38,7 @@
  */
 public class TestHttpRequestRouter {
 
+    private HttpServletRequest req;
     private Map<String, Object> paramMap;
     private ParameterMapSource paramMapSource;
     private Router router;
@@ -42,16 +46,17 @@ public class TestHttpRequestRouter {
     @Before
     public void beforeEachTest() {
         
+        req = mock(HttpServletRequest.class);
         paramMap = new HashMap<String, Object>();
         router = mock(Router.class);
         paramMapSource = mock(ParameterMapSource.class);        
-        when(paramMapSource.getParameterMap()).thenReturn(paramMap);
+        when(paramMapSource.getParameterMap(req)).thenReturn(paramMap);
     }
     
     @Test
     public void handlesNullPath() {
         
-        RoutedRequest routed = newRouter(null).route();
+        RoutedRequest routed = newRouter().route(req, null);
         
         assertNull(routed.getController());
         assertNull(routed.getAction());
@@ -61,7 +66,7 @@ public void handlesNullPath() {
     @Test
     public void handlesEmptyPath() {
         
-        RoutedRequest routed = newRouter("").route();
+        RoutedRequest routed = newRouter().route(req, "");
         
         assertNull(routed.getController());
         assertNull(routed.getAction());
@@ -75,7 +80,7 @@ public void handlesRootPath() {
         when(router.route(pathInfo))
             .thenReturn(new MojaveRoute(null, null, null));
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertNull(routed.getController());
         assertNull(routed.getAction());
@@ -90,7 +95,7 @@ public void handlesControllerOnly() {
             .thenReturn(new MojaveRoute("cntrl", null, null));
         
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertNull(routed.getAction());
@@ -104,7 +109,7 @@ public void handlesControllerAndAction_NoPathParams() {
         when(router.route(pathInfo))
             .thenReturn(new MojaveRoute("cntrl", "actn", null));
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertEquals("actn", routed.getAction());
@@ -118,7 +123,7 @@ public void handlesRouteNotFound() {
         when(router.route(pathInfo)).thenReturn(null);
         
         try {
-            newRouter(pathInfo).route();
+            newRouter().route(req, pathInfo);
             fail("should have thrown exception");
         } catch (Exception e) {
             assertTrue(e instanceof NoMatchingRouteException);
@@ -132,14 +137,17 @@ public void handlesControllerAndAction_OnePathParam() {
         when(router.route(pathInfo))
             .thenReturn(new MojaveRoute("cntrl", "actn", ":id"));
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertEquals("actn", routed.getAction());
-        Map<String, Object> paramMap = routed.getParameterMap();
-        Object val = paramMap.get("id");
-        assertNotNull(val);
-        assertArrayEquals(new String[]{"123"}, (String[])val);
+        assertTrue(routed.getParameterMap().isEmpty());
+        PathParameters pathParams = routed.getPathParameters();
+        assertNotNull(pathParams);
+        assertEquals(1, pathParams.size());
+        assertEquals("123", pathParams.get("id"));
+        assertEquals(123, pathParams.getInt(pathParams.indexOf("id")));
+        assertEquals(123L, pathParams.getLong(pathParams.indexOf("id")));
     }
     
     @Test
@@ -149,17 +157,17 @@ public void handlesControllerAndAction_TwoPathParams() {
         when(router.route(pathInfo))
             .thenReturn(new MojaveRoute("cntrl", "actn", ":id/:name"));
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertEquals("actn", routed.getAction());
-        Map<String, Object> paramMap = routed.getParameterMap();
-        Object val = paramMap.get("id");
-        assertNotNull(val);
-        assertArrayEquals(new String[]{"123"}, (String[])val);
-        val = paramMap.get("name");
-        assertNotNull(val);
-        assertArrayEquals(new String[]{"tom"}, (String[])val);
+        PathParameters pathParams = routed.getPathParameters();
+        assertNotNull(pathParams);
+        assertEquals(2, pathParams.size());
+        assertEquals("123", pathParams.get("id"));
+        assertEquals("tom", pathParams.get("name"));
+        assertEquals("id", pathParams.getName(0));
+        assertEquals("name", pathParams.getName(1));
     }
     
     @Test
@@ -170,14 +178,13 @@ public void handlesControllerAndAction_OnePathParam_AlreadyExists() {
             .thenReturn(new MojaveRoute("cntrl", "actn", ":id"));
         paramMap.put("id", new String[]{"456"});
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertEquals("actn", routed.getAction());
-        Map<String, Object> paramMap = routed.getParameterMap();
-        Object val = paramMap.get("id");
-        assertNotNull(val);
-        assertArrayEquals(new String[]{"123"}, (String[])val);
+        assertEquals("123", routed.getPathParameters().get("id"));
+        /* the path parameter takes precedence when the action arguments are bound */
+        assertArrayEquals(new String[]{"456"}, (String[])routed.getParameterMap().get("id"));
     }
     
     @Test
@@ -188,22 +195,57 @@ public void handlesControllerAndAction_OnePathParam_AnotherExists() {
             .thenReturn(new MojaveRoute("cntrl", "actn", ":id"));
         paramMap.put("name", new String[]{"tom"});
         
-        RoutedRequest routed = newRouter(pathInfo).route();
+        RoutedRequest routed = newRouter().route(req, pathInfo);
         
         assertEquals("cntrl", routed.getController());
         assertEquals("actn", routed.getAction());
-        Map<String, Object> paramMap = routed.getParameterMap();
-        Object val = paramMap.get("id");
-        assertNotNull(val);
-        assertArrayEquals(new String[]{"123"}, (String[])val);
-        val = paramMap.get("name");
+        assertEquals("123", routed.getPathParameters().get("id"));
+        assertNull(routed.getPathParameters().get("name"));
+        Object val = routed.getParameterMap().get("name");
         assertNotNull(val);
         assertArrayEquals(new String[]{"tom"}, (String[])val);
     }
     
+    @Test
+    public void handlesPathParamsInMiddleOfPath() {
+        
+        String pathInfo = "/cntrl/actn/123/items/-42";
+        when(router.route(pathInfo))
+            .thenReturn(new MojaveRoute("cntrl", "actn", ":id/items/:item"));
+        
+        PathParameters pathParams = newRouter().route(req, pathInfo).getPathParameters();
+        
+        assertEquals("123", pathParams.get("id"));
+        assertEquals(-42, pathParams.getInt(pathParams.indexOf("item")));
+        assertEquals(-1, pathParams.indexOf("items"));
+    }
+    
+    @Test
+    public void pathParamNumberParsing() {
+        
+        String pathInfo = "/cntrl/actn/abc/9223372036854775807/2147483648";
+        when(router.route(pathInfo))
+            .thenReturn(new MojaveRoute("cntrl", "actn", ":a/:b/:c"));
+        
+        PathParameters pathParams = newRouter().route(req, pathInfo).getPathParameters();
+        
+        assertEquals(Long.MAX_VALUE, pathParams.getLong(1));
+        assertEquals(2147483648L, pathParams.getLong(2));
+        try {
+            pathParams.getInt(0);
+            fail("should have thrown exception");
+        } catch (NumberFormatException e) {
+            assertEquals("For input string: \"abc\"", e.getMessage());
+        }
+        try {
+            pathParams.getInt(2);
+            fail("should have thrown exception");
+        } catch (NumberFormatException e) {}
+    }
+    
     /*----------------------*/
     
-    private HttpRequestRouter newRouter(String pathInfo) {
-        return new HttpRequestRouter(pathInfo, paramMapSource, router);
+    private HttpRequestRouter newRouter() {
+        return new HttpRequestRouter(paramMapSource, router);
     }
 }
@@ -17,8 +17,13 @@
 
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
 import org.mojavemvc.views.JSON;
 
 /**
@@ -38,6 +43,41 @@ public void toStringAfterObjectConstructorReturnsJSON() {
         assertEquals("{\"val\":\"test\"}", json.toString());
     }
     
+    @Test
+    public void payloadIsUTF8() throws Exception {
+        
+        JSON json = new JSON("{\"val\":\"t\u00e9st\"}");
+        assertArrayEquals("{\"val\":\"t\u00e9st\"}".getBytes("UTF-8"), json.getPayload());
+    }
+    
+    @Test
+    public void rendersObjectToOutputStream() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        
+        new JSON(new SimplePojo("t\u00e9st")).render(mock(HttpServletRequest.class), res, null);
+        
+        verify(res).setContentType("application/json");
+        verify(res, never()).setContentLength(anyInt());
+        assertEquals("{\"val\":\"t\u00e9st\"}", out.getContent());
+    }
+    
+    @Test
+    public void rendersObjectWithContentLength() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        
+        new JSON(new SimplePojo("t\u00e9st")).withContentLength()
+            .render(mock(HttpServletRequest.class), res, null);
+        
+        verify(res).setContentLength(15);
+        assertEquals("{\"val\":\"t\u00e9st\"}", out.getContent());
+    }
+    
     /*------------------------------------*/
     
     public static class SimplePojo {
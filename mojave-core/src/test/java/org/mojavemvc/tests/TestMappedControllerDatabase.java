@@ -16,12 +16,16 @@
 package org.mojavemvc.tests;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
+
 import net.sf.cglib.reflect.FastClass;
 
 import org.bigtesting.routd.Route;
@@ -31,35 +35,53 @@
 import org.mojavemvc.annotations.AfterAction;
 import org.mojavemvc.annotations.AfterConstruct;
 import org.mojavemvc.annotations.BeforeAction;
+import org.mojavemvc.annotations.Cacheable;
 import org.mojavemvc.annotations.DELETEAction;
 import org.mojavemvc.annotations.DefaultAction;
 import org.mojavemvc.annotations.DefaultController;
+import org.mojavemvc.annotations.Entity;
 import org.mojavemvc.annotations.GETAction;
 import org.mojavemvc.annotations.HEADAction;
 import org.mojavemvc.annotations.Init;
 import org.mojavemvc.annotations.InterceptedBy;
+import org.mojavemvc.annotations.LastModified;
+import org.mojavemvc.annotations.Model;
 import org.mojavemvc.annotations.OPTIONSAction;
 import org.mojavemvc.annotations.POSTAction;
 import org.mojavemvc.annotations.PUTAction;
 import org.mojavemvc.annotations.Param;
 import org.mojavemvc.annotations.ParamPath;
 import org.mojavemvc.annotations.SingletonController;
+import org.mojavemvc.annotations.SingletonInterceptor;
 import org.mojavemvc.annotations.StatefulController;
 import org.mojavemvc.annotations.StatelessController;
 import org.mojavemvc.annotations.TRACEAction;
+import org.mojavemvc.aop.RequestContext;
 import org.mojavemvc.core.ActionSignature;
+import org.mojavemvc.core.CachePolicy;
 import org.mojavemvc.core.ControllerDatabase;
 import org.mojavemvc.core.DefaultActionSignature;
+import org.mojavemvc.core.DispatchEntry;
+import org.mojavemvc.core.FastClassInvoker;
 import org.mojavemvc.core.HttpMethod;
 import org.mojavemvc.core.HttpMethodActionSignature;
+import org.mojavemvc.core.InterceptorChain;
+import org.mojavemvc.core.InterceptorDescriptor;
 import org.mojavemvc.core.MappedControllerDatabase;
 import org.mojavemvc.core.MojaveRoute;
+import org.mojavemvc.core.ReflectionInvoker;
+import org.mojavemvc.core.ReflectionInvokerFactory;
+import org.mojavemvc.core.SingletonControllerHolder;
 import org.mojavemvc.exception.ConfigurationException;
 import org.mojavemvc.marshalling.EntityMarshaller;
+import org.mojavemvc.tests.forms.SomeForm;
 import org.mojavemvc.tests.views.HTMLPage;
 import org.mojavemvc.views.View;
 import org.mojavemvc.views.XML;
 
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
 /**
  * 
  * @author Luis Antunes
@@ -139,6 +161,84 @@ public void testConstruct() {
         assertTrue(rm.contains(new MojaveRoute(null, "some-service", null)));
         assertTrue(rm.contains(new MojaveRoute(null, "test-annotation", null)));
     }
+    
+    @Test
+    public void testDispatchEntries() {
+
+        Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+        controllerClasses.add(TestController.class);
+        controllerClasses.add(TestStartupController.class);
+        FakeRouteMap rm = new FakeRouteMap();
+        ControllerDatabase db = new MappedControllerDatabase(controllerClasses, rm, 
+                new HashMap<String, EntityMarshaller>());
+        
+        MojaveRoute route = rm.get(new MojaveRoute("test", "test1", null));
+        assertNotNull(route);
+        DispatchEntry entry = route.getDispatchEntry(HttpMethod.GET);
+        assertNotNull(entry);
+        assertSame(entry, route.getDispatchEntry(HttpMethod.POST));
+        assertSame(entry, db.getDispatchEntry(TestController.class, "test1", HttpMethod.PUT));
+        assertEquals(TestController.class, entry.getControllerClass());
+        assertEquals(DispatchEntry.Lifecycle.STATELESS, entry.getLifecycle());
+        assertSame(db.getActionMethodSignature(TestController.class, "test1"), entry.getActionSignature());
+        assertSame(db.getAfterConstructMethodFor(TestController.class), entry.getAfterConstructSignature());
+        assertSame(db.getBeforeActionMethodFor(TestController.class), entry.getBeforeActionSignature());
+        assertSame(db.getAfterActionMethodFor(TestController.class), entry.getAfterActionSignature());
+        assertTrue(entry.getInterceptorChain().isEmpty());
+        assertNull(entry.getSingletonHolder());
+        assertFalse(entry.isAsync());
+        assertNull(db.getSingletonHolder(TestController.class));
+        
+        SingletonControllerHolder holder = db.getSingletonHolder(TestStartupController.class);
+        assertNotNull(holder);
+        assertFalse(holder.isReinjected());
+        assertNull(holder.getInstance());
+        
+        route = rm.get(new MojaveRoute(null, "test1", null));
+        assertNotNull(route);
+        assertSame(entry, route.getDispatchEntry(HttpMethod.GET));
+        
+        route = rm.get(new MojaveRoute("test", null, null));
+        assertNotNull(route);
+        for (HttpMethod httpMethod : HttpMethod.values()) {
+            entry = route.getDispatchEntry(httpMethod);
+            assertNotNull(entry);
+            assertSame(db.getDefaultActionMethodFor(TestController.class), entry.getActionSignature());
+            assertSame(entry, db.getDispatchEntry(TestController.class, null, httpMethod));
+        }
+        
+        assertNull(db.getDispatchEntry(TestController.class, "unknown", HttpMethod.GET));
+        assertNull(new MojaveRoute("test", "test1", null).getDispatchEntry(HttpMethod.GET));
+    }
+    
+    @Test
+    public void testInvokerFactory() throws Exception {
+
+        Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+        controllerClasses.add(TestStartupController.class);
+        controllerClasses.add(TestInterceptorController1.class);
+        
+        ControllerDatabase db = new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                new HashMap<String, EntityMarshaller>());
+        ActionSignature sig = db.getActionMethodSignature(TestInterceptorController1.class, "someAction");
+        assertTrue(sig.invoker() instanceof FastClassInvoker);
+        assertEquals(db.getFastClass(TestInterceptorController1.class).getIndex("someAction", 
+                new Class<?>[0]), sig.fastIndex());
+        /* FastClass cannot invoke a private method */
+        assertTrue(db.getAfterConstructMethodFor(TestStartupController.class).invoker() 
+                instanceof ReflectionInvoker);
+        
+        db = new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                new HashMap<String, EntityMarshaller>(), new ReflectionInvokerFactory());
+        sig = db.getActionMethodSignature(TestInterceptorController1.class, "someAction");
+        assertTrue(sig.invoker() instanceof ReflectionInvoker);
+        assertEquals(-1, sig.fastIndex());
+        assertNull(sig.invoker().invoke(new TestInterceptorController1(), new Object[0]));
+        assertTrue(db.getBeforeActionMethodForInterceptor(Interceptor1.class).invoker() 
+                instanceof ReflectionInvoker);
+        assertNull(db.getAfterConstructMethodFor(TestStartupController.class).invoker()
+                .invoke(new TestStartupController(), new Object[0]));
+    }
 
     @Test
     public void testConstructWithInheritance() {
@@ -419,6 +519,37 @@ public void testInterceptor3() {
         }
     }
 
+    @Test
+    public void testInterceptorChain() {
+
+        Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+        controllerClasses.add(TestInterceptorChainController.class);
+        ControllerDatabase db = new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                new HashMap<String, EntityMarshaller>());
+
+        DispatchEntry entry = db.getDispatchEntry(TestInterceptorChainController.class, 
+                "someAction", HttpMethod.GET);
+        InterceptorChain chain = entry.getInterceptorChain();
+        assertFalse(chain.isEmpty());
+
+        InterceptorDescriptor[] interceptors = chain.getInterceptors();
+        assertEquals(3, interceptors.length);
+        assertEquals(BeforeOnlyInterceptor.class, interceptors[0].getInterceptorClass());
+        assertEquals(Interceptor1.class, interceptors[1].getInterceptorClass());
+        assertEquals(Interceptor2.class, interceptors[2].getInterceptorClass());
+        assertSame(interceptors[0], db.getInterceptorDescriptor(BeforeOnlyInterceptor.class));
+
+        assertArrayEquals(new int[]{0, 1, 2}, chain.getBeforeChain());
+        assertArrayEquals(new int[]{2}, chain.getActionAfterChain());
+        assertArrayEquals(new int[]{1}, chain.getClassAfterChain());
+
+        assertTrue(interceptors[0].isSingleton());
+        assertFalse(interceptors[1].isSingleton());
+        Injector injector = Guice.createInjector();
+        assertSame(interceptors[0].getInstance(injector), interceptors[0].getInstance(injector));
+        assertNotSame(interceptors[1].getInstance(injector), interceptors[1].getInstance(injector));
+    }
+
     @Test
     public void testMethodInterceptorController1() {
 
@@ -1264,6 +1395,76 @@ public void testParamPathController_Invalid2() {
         }
     }
     
+    @Test
+    public void cacheableActionKeyIncludesModelProperties() {
+        
+        Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+        controllerClasses.add(TestCacheableModelController.class);
+        ControllerDatabase db = new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                new HashMap<String, EntityMarshaller>());
+        
+        CachePolicy policy = db.getDispatchEntry(TestCacheableModelController.class, 
+                "search", HttpMethod.GET).getCachePolicy();
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("userName", new String[] { "john" });
+        String johnKey = policy.getKey("/search", req, params);
+        params.put("userName", new String[] { "jane" });
+        
+        assertTrue(johnKey.contains("userName=john"));
+        assertFalse(johnKey.equals(policy.getKey("/search", req, params)));
+    }
+    
+    @Test
+    public void cacheableActionWithEntityIsInvalid() {
+        
+        try {
+            Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+            controllerClasses.add(TestCacheableEntityController_Invalid.class);
+            new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                    new HashMap<String, EntityMarshaller>());
+            fail("should have thrown exception");
+        } catch (Exception e) {
+            if (!(e instanceof ConfigurationException)) {
+                fail("wrong exception type");
+            }
+        }
+    }
+    
+    @Test
+    public void lastModifiedMethodIsBoundLikeAction() {
+        
+        Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+        controllerClasses.add(TestLastModifiedController.class);
+        ControllerDatabase db = new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                new HashMap<String, EntityMarshaller>());
+        
+        ActionSignature sig = db.getLastModifiedMethodFor(TestLastModifiedController.class);
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("id", new String[] { "7" });
+        Object[] args = sig.getArgs(params, null);
+        
+        assertEquals(2, args.length);
+        assertEquals("7", args[0]);
+        assertNull(args[1]);
+    }
+    
+    @Test
+    public void lastModifiedMethodWithEntityIsInvalid() {
+        
+        try {
+            Set<Class<?>> controllerClasses = new HashSet<Class<?>>();
+            controllerClasses.add(TestLastModifiedController_Invalid.class);
+            new MappedControllerDatabase(controllerClasses, new FakeRouteMap(), 
+                    new HashMap<String, EntityMarshaller>());
+            fail("should have thrown exception");
+        } catch (Exception e) {
+            if (!(e instanceof ConfigurationException)) {
+                fail("wrong exception type");
+            }
+        }
+    }
+    
     @Test
     public void testParamPathController_Invalid3() {
         
@@ -1365,6 +1566,50 @@ public View getAction(@Param("name") String name) {
         }
     }
     
+    @StatelessController
+    private static class TestCacheableModelController {
+        
+        @Cacheable
+        @Action("search")
+        public View search(@Model SomeForm form) {
+            return null;
+        }
+    }
+    
+    @StatelessController
+    private static class TestCacheableEntityController_Invalid {
+        
+        @Cacheable
+        @Action("submit")
+        public View submit(@Entity String body) {
+            return null;
+        }
+    }
+    
+    @StatelessController
+    private static class TestLastModifiedController {
+        
+        @LastModified
+        public long lastModified(@Param("id") String id, RequestContext ctx) {
+            return -1;
+        }
+        
+        @Action("document")
+        @ParamPath(":id")
+        public View document(@Param("id") String id) {
+            return null;
+        }
+    }
+    
+    @StatelessController
+    private static class TestLastModifiedController_Invalid {
+        
+        @LastModified
+        public long lastModified(@Entity String body) {
+            return -1;
+        }
+    }
+    
     @StatelessController
     private static class TestParamPathController_Invalid3 {
         
@@ -1745,6 +1990,26 @@ private static class ConcreteInterceptor extends AbstractInterceptor {
         
     }
 
+    @StatelessController("interceptorChain")
+    @InterceptedBy({ BeforeOnlyInterceptor.class, Interceptor1.class })
+    private static class TestInterceptorChainController {
+
+        @Action("someAction")
+        @InterceptedBy(Interceptor2.class)
+        public View someAction() {
+            return null;
+        }
+    }
+
+    @SingletonInterceptor
+    public static class BeforeOnlyInterceptor {
+
+        @BeforeAction
+        public View before() {
+            return null;
+        }
+    }
+
     private static class Interceptor1 {
 
         @BeforeAction
@@ -1988,6 +2253,13 @@ public boolean contains(MojaveRoute route) {
             return routes.contains(route);
         }
         
+        public MojaveRoute get(MojaveRoute route) {
+            for (Route r : routes) {
+                if (r.equals(route)) return (MojaveRoute)r;
+            }
+            return null;
+        }
+        
         public int size() {
             return routes.size();
         }
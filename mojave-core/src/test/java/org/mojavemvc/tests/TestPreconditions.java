@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+import org.mojavemvc.core.Preconditions;
+import org.mojavemvc.util.HttpDates;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestPreconditions {
+
+    @Test
+    public void isETagMatched() {
+
+        assertTrue(Preconditions.isETagMatched(withIfNoneMatch("\"a\""), "\"a\""));
+        assertTrue(Preconditions.isETagMatched(withIfNoneMatch("\"b\", W/\"a\""), "\"a\""));
+        assertTrue(Preconditions.isETagMatched(withIfNoneMatch("*"), "\"a\""));
+        assertFalse(Preconditions.isETagMatched(withIfNoneMatch("\"b\""), "\"a\""));
+        assertFalse(Preconditions.isETagMatched(withIfNoneMatch(null), "\"a\""));
+        assertFalse(Preconditions.isETagMatched(withIfNoneMatch("\"a\""), null));
+    }
+
+    @Test
+    public void toETag() {
+
+        assertNull(Preconditions.toETag(null));
+        assertEquals("\"v1\"", Preconditions.toETag("v1"));
+        assertEquals("\"v1\"", Preconditions.toETag("\"v1\""));
+        assertEquals("W/\"v1\"", Preconditions.toETag("W/\"v1\""));
+        assertEquals("\"1\"", Preconditions.toETag(1));
+    }
+
+    @Test
+    public void hashETag() {
+
+        byte[] body = "hello".getBytes();
+        assertEquals("\"5d41402abc4b2a76b9719d911017c592\"", 
+                Preconditions.hashETag(body, body.length));
+        assertFalse(Preconditions.hashETag(body, body.length)
+                .equals(Preconditions.hashETag(body, 4)));
+    }
+
+    @Test
+    public void isNotModifiedSince() {
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getDateHeader("If-Modified-Since")).thenReturn(10000L);
+        assertTrue(Preconditions.isNotModifiedSince(req, 10999L));
+        assertFalse(Preconditions.isNotModifiedSince(req, 11000L));
+        assertFalse(Preconditions.isNotModifiedSince(req, -1));
+
+        when(req.getHeader("If-None-Match")).thenReturn("\"a\"");
+        assertFalse(Preconditions.isNotModifiedSince(req, 10999L));
+    }
+
+    @Test
+    public void isNotModifiedSinceWithInvalidDate() {
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getDateHeader("If-Modified-Since")).thenThrow(new IllegalArgumentException());
+        assertFalse(Preconditions.isNotModifiedSince(req, 10000L));
+    }
+
+    @Test
+    public void formatHttpDate() {
+
+        assertEquals("Sun, 09 Sep 2001 01:46:40 GMT", HttpDates.format(1000000000000L));
+    }
+
+    private HttpServletRequest withIfNoneMatch(String value) {
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getHeader("If-None-Match")).thenReturn(value);
+        return req;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+import org.mojavemvc.core.CachePolicy;
+import org.mojavemvc.core.CachedResponse;
+import org.mojavemvc.core.ResponseCache;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestResponseCache {
+
+    @Test
+    public void getAndPut() {
+
+        ResponseCache cache = new ResponseCache(10);
+        CachedResponse response = newCachedResponse();
+        assertNull(cache.get("/a"));
+        cache.put("/a", response, 60000);
+        assertSame(response, cache.get("/a"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+
+        ResponseCache cache = new ResponseCache(2);
+        cache.put("/a", newCachedResponse(), 60000);
+        cache.put("/b", newCachedResponse(), 60000);
+        cache.get("/a");
+        cache.put("/c", newCachedResponse(), 60000);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/a"));
+        assertNull(cache.get("/b"));
+        assertNotNull(cache.get("/c"));
+    }
+
+    @Test
+    public void expiredResponseIsRemoved() {
+
+        ResponseCache cache = new ResponseCache(10);
+        cache.put("/a", newCachedResponse(), 0);
+        assertNull(cache.get("/a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidateByPrefix() {
+
+        ResponseCache cache = new ResponseCache(10);
+        cache.put("/catalog/items?category=a", newCachedResponse(), 60000);
+        cache.put("/catalog/items?category=b", newCachedResponse(), 60000);
+        cache.put("/cart", newCachedResponse(), 60000);
+        assertEquals(2, cache.invalidate("/catalog/"));
+        assertNull(cache.get("/catalog/items?category=a"));
+        assertNotNull(cache.get("/cart"));
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cachePolicyKey() {
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getHeader("Accept-Language")).thenReturn("en");
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("category", new String[] { "a&b=c", "d" });
+        params.put("ignored", "x");
+
+        CachePolicy policy = new CachePolicy(60000, new String[] { "category", "page" }, 
+                new String[] { "Accept-Language" });
+        assertEquals("/catalog/items?category=a%26b%3Dc,d&page=|Accept-Language=en", 
+                policy.getKey("/catalog/items", req, params));
+    }
+
+    @Test
+    public void cachePolicyVary() {
+
+        assertEquals("Accept-Language, Accept", new CachePolicy(60000, new String[0], 
+                new String[] { "Accept-Language", "Accept" }).getVary());
+        assertNull(new CachePolicy(60000, new String[0], new String[0]).getVary());
+    }
+
+    private CachedResponse newCachedResponse() {
+
+        return new CachedResponse("text/plain", new ArrayList<String>(), 
+                new ArrayList<Object>(), new byte[0]);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mojavemvc.initialization.AppResources;
+import org.mojavemvc.initialization.TemplateCompiler;
+import org.mojavemvc.initialization.TemplateScanner;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestTemplateScanner {
+
+    @Test
+    public void findsResourceNamesInSubDirectories() {
+        
+        AppResources resources = mock(AppResources.class);
+        when(resources.getResourcePaths("/WEB-INF/ftl/")).thenReturn(new HashSet<String>(
+                Arrays.asList("/WEB-INF/ftl/index.ftl", "/WEB-INF/ftl/notes.txt", "/WEB-INF/ftl/admin/")));
+        when(resources.getResourcePaths("/WEB-INF/ftl/admin/")).thenReturn(
+                Collections.singleton("/WEB-INF/ftl/admin/users.ftl"));
+        
+        List<String> names = TemplateScanner.findResourceNames(resources, "/WEB-INF/ftl/", ".ftl");
+        Collections.sort(names);
+        
+        assertEquals(Arrays.asList("admin/users.ftl", "index.ftl"), names);
+    }
+    
+    @Test
+    public void findsFileNamesInSubDirectories() throws IOException {
+        
+        File dir = createTempDir();
+        try {
+            new File(dir, "index.vm").createNewFile();
+            new File(dir, "notes.txt").createNewFile();
+            File sub = new File(dir, "admin");
+            sub.mkdir();
+            new File(sub, "users.vm").createNewFile();
+            
+            List<String> names = TemplateScanner.findURLNames(dir.toURI().toURL(), ".vm");
+            Collections.sort(names);
+            
+            assertEquals(Arrays.asList("admin/users.vm", "index.vm"), names);
+        } finally {
+            delete(dir);
+        }
+    }
+    
+    @Test
+    public void findsNoNamesInJarURL() throws IOException {
+        
+        URL url = new URL("jar:file:/templates.jar!/mustache/");
+        assertTrue(TemplateScanner.findURLNames(url, ".mustache").isEmpty());
+        assertTrue(TemplateScanner.findURLNames(null, ".mustache").isEmpty());
+    }
+    
+    @Test
+    public void compileAllLeavesOutFailedTemplates() {
+        
+        final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+        TemplateCompiler<String> compiler = new TemplateCompiler<String>("test-compiler-") {
+            protected String compile(String name) throws Exception {
+                threadNames.add(Thread.currentThread().getName());
+                assertTrue(Thread.currentThread().isDaemon());
+                if (name.startsWith("bad")) {
+                    throw new Exception("cannot compile " + name);
+                }
+                return name.toUpperCase();
+            }
+        };
+        
+        Map<String, String> compiled = compiler.compileAll(Arrays.asList("a", "bad", "b"));
+        
+        assertEquals(2, compiled.size());
+        assertEquals("A", compiled.get("a"));
+        assertEquals("B", compiled.get("b"));
+        for (String threadName : threadNames) {
+            assertTrue(threadName.startsWith("test-compiler-"));
+        }
+    }
+    
+    @Test
+    public void compileAllWithNoNames() {
+        
+        TemplateCompiler<String> compiler = new TemplateCompiler<String>("test-compiler-") {
+            protected String compile(String name) {
+                throw new AssertionError();
+            }
+        };
+        assertTrue(compiler.compileAll(Collections.<String>emptyList()).isEmpty());
+    }
+    
+    private File createTempDir() throws IOException {
+        
+        File dir = File.createTempFile("mojave-templates", "");
+        dir.delete();
+        dir.mkdir();
+        return dir;
+    }
+    
+    private void delete(File file) {
+        
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
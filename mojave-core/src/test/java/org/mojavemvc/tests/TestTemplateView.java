@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
+import org.mojavemvc.views.TemplateView;
+
+/**
+ * @author Luis Antunes
+ */
+public class TestTemplateView {
+
+    private HttpServletResponse res;
+    private CapturingServletOutputStream out;
+
+    @Before
+    public void beforeEachTest() throws Exception {
+        
+        res = mock(HttpServletResponse.class);
+        out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+    }
+    
+    @Test
+    public void rendersToBufferWithContentLength() throws Exception {
+        
+        String content = "caf\u00e9 \u20ac \ud83d\ude00 end";
+        new StringView(content).render(null, res, null);
+        
+        byte[] expected = content.getBytes("UTF-8");
+        verify(res).setContentType("text/html");
+        verify(res).setCharacterEncoding("UTF-8");
+        verify(res).setContentLength(expected.length);
+        assertTrue(Arrays.equals(expected, out.getBytes()));
+    }
+    
+    @Test
+    public void replacesUnpairedSurrogates() throws Exception {
+        
+        new StringView("a\ud83db\ude00c\ud83d").render(null, res, null);
+        
+        assertEquals("a?b?c?", out.getContent());
+    }
+    
+    @Test
+    public void failedRenderWritesNothing() throws Exception {
+        
+        StringView view = new StringView("partial output");
+        view.fail = true;
+        try {
+            view.render(null, res, null);
+            fail("expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        
+        verify(res, never()).getOutputStream();
+        verify(res, never()).setContentLength(anyInt());
+    }
+    
+    @Test
+    public void streamsOutputAboveThreshold() throws Exception {
+        
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("\u00e9x");
+        }
+        new StringView(content.toString()).withStreamingThreshold(1024).render(null, res, null);
+        
+        verify(res, never()).setContentLength(anyInt());
+        assertEquals(content.toString(), out.getContent());
+    }
+    
+    private static class StringView extends TemplateView<StringView> {
+        
+        private final String content;
+        private boolean fail;
+        
+        StringView(String content) {
+            this.content = content;
+        }
+
+        @Override
+        protected void renderTemplate(Writer out, AppProperties properties) 
+                throws ServletException, IOException {
+            
+            out.write(content);
+            out.flush();
+            if (fail) {
+                throw new IllegalStateException("failed");
+            }
+        }
+    }
+}
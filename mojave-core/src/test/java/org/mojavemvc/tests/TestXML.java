@@ -16,8 +16,13 @@
 package org.mojavemvc.tests;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Test;
+import org.mojavemvc.tests.views.CapturingServletOutputStream;
 import org.mojavemvc.views.XML;
 
 /**
@@ -37,6 +42,41 @@ public void toStringAfterObjectConstructorReturnsXML() {
         assertEquals("<SimplePojo><val>test</val></SimplePojo>", xml.toString());
     }
     
+    @Test
+    public void payloadIsUTF8() throws Exception {
+        
+        XML xml = new XML("<val>t\u00e9st</val>");
+        assertArrayEquals("<val>t\u00e9st</val>".getBytes("UTF-8"), xml.getPayload());
+    }
+    
+    @Test
+    public void rendersObjectToOutputStream() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        
+        new XML(new SimplePojo("t\u00e9st")).render(mock(HttpServletRequest.class), res, null);
+        
+        verify(res).setContentType("application/xml");
+        verify(res, never()).setContentLength(anyInt());
+        assertEquals("<SimplePojo><val>t\u00e9st</val></SimplePojo>", out.getContent());
+    }
+    
+    @Test
+    public void rendersObjectWithContentLength() throws Exception {
+        
+        HttpServletResponse res = mock(HttpServletResponse.class);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        when(res.getOutputStream()).thenReturn(out);
+        
+        new XML(new SimplePojo("t\u00e9st")).withContentLength()
+            .render(mock(HttpServletRequest.class), res, null);
+        
+        verify(res).setContentLength(41);
+        assertEquals("<SimplePojo><val>t\u00e9st</val></SimplePojo>", out.getContent());
+    }
+    
     /*------------------------------------*/
     
     public static class SimplePojo {
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.controllers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.mojavemvc.annotations.Action;
+import org.mojavemvc.annotations.Async;
+import org.mojavemvc.annotations.Returns;
+import org.mojavemvc.annotations.StatelessController;
+import org.mojavemvc.tests.views.HTMLPage;
+import org.mojavemvc.views.View;
+
+@StatelessController("async")
+public class AsyncController {
+
+    @Async
+    @Action("annotated")
+    public View annotated() {
+        return new HTMLPage()
+            .withH1Content("async/annotated");
+    }
+
+    @Action("callable")
+    public Callable<View> callable() {
+        return new Callable<View>() {
+            public View call() {
+                return new HTMLPage()
+                    .withH1Content("async/callable");
+            }
+        };
+    }
+
+    @Action("future")
+    public Future<View> future() {
+        FutureTask<View> task = new FutureTask<View>(new Callable<View>() {
+            public View call() {
+                return new HTMLPage()
+                    .withH1Content("async/future");
+            }
+        });
+        task.run();
+        return task;
+    }
+
+    @Action("future/plaintext")
+    @Returns("text/plain")
+    public Future<String> futurePlainText() {
+        FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+            public String call() {
+                return "asyncPlainText";
+            }
+        });
+        task.run();
+        return task;
+    }
+}
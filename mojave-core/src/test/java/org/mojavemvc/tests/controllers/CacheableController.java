@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.controllers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.mojavemvc.annotations.Action;
+import org.mojavemvc.annotations.Cacheable;
+import org.mojavemvc.annotations.Param;
+import org.mojavemvc.annotations.Returns;
+import org.mojavemvc.annotations.StatelessController;
+import org.mojavemvc.core.ResponseCache;
+
+import com.google.inject.Inject;
+
+@StatelessController("cacheable")
+public class CacheableController {
+
+    private static final AtomicInteger invocations = new AtomicInteger();
+
+    @Inject
+    private ResponseCache cache;
+
+    @Inject
+    private HttpServletRequest req;
+
+    @Cacheable(ttl = 60)
+    @Action("count")
+    @Returns("text/plain")
+    public String count(@Param("name") String name) {
+        return name + ":" + invocations.incrementAndGet();
+    }
+
+    @Cacheable(ttl = 60, varyOn = { "Accept-Language" })
+    @Action("greeting")
+    @Returns("text/plain")
+    public String greeting() {
+        return req.getHeader("Accept-Language") + ":" + invocations.incrementAndGet();
+    }
+
+    @Action("invalidate")
+    @Returns("text/plain")
+    public String invalidate() {
+        return "invalidated:" + cache.invalidate("/cacheable/count");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mojavemvc.annotations.Action;
+import org.mojavemvc.annotations.Cacheable;
+import org.mojavemvc.annotations.Returns;
+import org.mojavemvc.annotations.StatelessController;
+import org.mojavemvc.initialization.AppProperties;
+import org.mojavemvc.views.View;
+
+/**
+ * @author Luis Antunes
+ */
+@StatelessController("compression")
+public class CompressionController {
+
+    public static final String LARGE_CONTENT = repeat("compressible ", 200);
+
+    @Action("large")
+    @Returns("text/plain")
+    public String large() {
+        return LARGE_CONTENT;
+    }
+
+    @Action("small")
+    @Returns("text/plain")
+    public String small() {
+        return "small";
+    }
+
+    @Cacheable
+    @Action("cached")
+    @Returns("text/plain")
+    public String cached() {
+        return LARGE_CONTENT;
+    }
+
+    @Action("failing")
+    public View failing() {
+        return new View() {
+            public void render(HttpServletRequest request, HttpServletResponse response, 
+                    AppProperties properties) throws ServletException, IOException {
+                response.setContentType("text/plain");
+                response.getOutputStream().write(LARGE_CONTENT.getBytes("UTF-8"));
+                throw new IllegalStateException("failed after writing");
+            }
+        };
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
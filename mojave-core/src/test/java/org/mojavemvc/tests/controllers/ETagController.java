@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.controllers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mojavemvc.annotations.Action;
+import org.mojavemvc.annotations.ETagProvider;
+import org.mojavemvc.annotations.GenerateETag;
+import org.mojavemvc.annotations.Param;
+import org.mojavemvc.annotations.ParamPath;
+import org.mojavemvc.annotations.Returns;
+import org.mojavemvc.annotations.StatelessController;
+import org.mojavemvc.aop.RequestContext;
+
+@StatelessController("etag")
+public class ETagController {
+
+    private static final AtomicInteger invocations = new AtomicInteger();
+
+    @ETagProvider
+    public String version(@Param("id") String id, RequestContext ctx) {
+        if ("items".equals(ctx.getAction())) {
+            return "item-" + id;
+        }
+        return "provided".equals(ctx.getAction()) ? "v1" : null;
+    }
+
+    @GenerateETag
+    @Action("generated")
+    @Returns("text/plain")
+    public String generated() {
+        return "generated";
+    }
+
+    @Action("provided")
+    @Returns("text/plain")
+    public String provided() {
+        return "provided:" + invocations.incrementAndGet();
+    }
+
+    @Action("items")
+    @ParamPath(":id")
+    @Returns("text/plain")
+    public String item(@Param("id") String id) {
+        return "item " + id;
+    }
+
+    @Action("none")
+    @Returns("text/plain")
+    public String none() {
+        return "none";
+    }
+}
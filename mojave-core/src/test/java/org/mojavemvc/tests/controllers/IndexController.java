@@ -268,7 +268,8 @@ public View statusOK() {
         return new Response.OK()
             .withContent("it's ok")
             .withContentType("text/plain")
-            .withLanguage("English");
+            .withLanguage("English")
+            .withExpires(new Date(1000000000000L));
     }
     
     public String getParameter(String key) {
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.controllers;
+
+import java.util.Date;
+
+import org.mojavemvc.annotations.Action;
+import org.mojavemvc.annotations.LastModified;
+import org.mojavemvc.annotations.Param;
+import org.mojavemvc.annotations.ParamPath;
+import org.mojavemvc.annotations.Returns;
+import org.mojavemvc.annotations.StatelessController;
+
+@StatelessController("last-modified")
+public class LastModifiedController {
+
+    /* Sun, 09 Sep 2001 01:46:40 GMT */
+    public static final long LAST_MODIFIED = 1000000000000L;
+
+    @LastModified
+    public Date lastModified(@Param("id") int id) {
+        return new Date(LAST_MODIFIED + id * 1000L);
+    }
+
+    @Action("document")
+    @Returns("text/plain")
+    public String document() {
+        return "document";
+    }
+
+    @Action("documents")
+    @ParamPath(":id<[0-9]+>")
+    @Returns("text/plain")
+    public String documents(@Param("id") int id) {
+        return "document " + id;
+    }
+}
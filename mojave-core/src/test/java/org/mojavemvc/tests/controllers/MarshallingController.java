@@ -15,6 +15,9 @@
  */
 package org.mojavemvc.tests.controllers;
 
+import java.util.Arrays;
+import java.util.Iterator;
+
 import org.mojavemvc.annotations.Action;
 import org.mojavemvc.annotations.DefaultAction;
 import org.mojavemvc.annotations.Entity;
@@ -111,6 +114,34 @@ public SimplePojo returnXML() {
         return new SimplePojo("marshalledXML");
     }
     
+    @Action("returns/json/iterator")
+    @Returns("application/json")
+    public Iterator<SimplePojo> returnJSONIterator() {
+        return newPojoIterable().iterator();
+    }
+    
+    @Action("returns/ndjson/iterable")
+    @Returns("application/x-ndjson")
+    public Iterable<SimplePojo> returnNDJSONIterable() {
+        return newPojoIterable();
+    }
+    
+    @Action("returns/xml/iterator")
+    @Returns("application/xml")
+    public Iterator<SimplePojo> returnXMLIterator() {
+        return newPojoIterable().iterator();
+    }
+    
+    private Iterable<SimplePojo> newPojoIterable() {
+        return new Iterable<SimplePojo>() {
+            @Override
+            public Iterator<SimplePojo> iterator() {
+                return Arrays.asList(new SimplePojo("first"), 
+                        new SimplePojo("second")).iterator();
+            }
+        };
+    }
+    
     @Action("returns/csv/expects/json")
     @Returns("text/csv")
     @Expects("application/json")
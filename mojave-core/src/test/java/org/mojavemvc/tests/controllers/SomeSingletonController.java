@@ -27,7 +27,7 @@
 
 import com.google.inject.Inject;
 
-@SingletonController("some-singleton")
+@SingletonController(value = "some-singleton", reinject = true)
 public class SomeSingletonController {
 
     @Inject
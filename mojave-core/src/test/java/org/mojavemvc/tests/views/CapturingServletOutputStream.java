@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.views;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+
+import javax.servlet.ServletOutputStream;
+
+/**
+ * A ServletOutputStream that captures what is written to it, for
+ * asserting on the output of rendered views.
+ * 
+ * @author Luis Antunes
+ */
+public class CapturingServletOutputStream extends ServletOutputStream {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Override
+    public void write(int b) {
+        out.write(b);
+    }
+
+    public byte[] getBytes() {
+        return out.toByteArray();
+    }
+
+    public String getContent() throws UnsupportedEncodingException {
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.freemarker;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.mojavemvc.util.BeanAccessor;
+
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.SimpleNumber;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.TemplateSequenceModel;
+
+/**
+ * <p>
+ * An {@link freemarker.template.ObjectWrapper} for the data model of a 
+ * {@link org.mojavemvc.views.FTL} view. Unlike the {@link DefaultObjectWrapper}
+ * it extends, it wraps a Map, List or other Collection in an adapter rather
+ * than copying it, and reads the properties of a JavaBean through a cached 
+ * {@link BeanAccessor} rather than through reflection. Anything else a 
+ * template asks of a bean, such as a method call, is delegated to the 
+ * reflective bean model of the {@link DefaultObjectWrapper}, which is 
+ * created only when it is first needed.
+ * </p>
+ * 
+ * <p>
+ * The models of Boolean values, small Integers and enum constants are 
+ * immutable, and are shared. An instance of this class is thread-safe.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public class MojaveObjectWrapper extends DefaultObjectWrapper {
+
+    private static final int CACHED_INTEGER_MIN = -128;
+    private static final int CACHED_INTEGER_MAX = 1024;
+    
+    private static final TemplateModel[] INTEGER_MODELS = 
+            new TemplateModel[CACHED_INTEGER_MAX - CACHED_INTEGER_MIN + 1];
+    static {
+        for (int i = 0; i < INTEGER_MODELS.length; i++) {
+            INTEGER_MODELS[i] = new SimpleNumber(i + CACHED_INTEGER_MIN);
+        }
+    }
+
+    private final ConcurrentMap<Enum<?>, TemplateModel> enumModels = 
+            new ConcurrentHashMap<Enum<?>, TemplateModel>();
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public TemplateModel wrap(Object obj) throws TemplateModelException {
+
+        if (obj == null || obj instanceof String || obj instanceof Date) {
+            return super.wrap(obj);
+        }
+        if (obj instanceof TemplateModel) {
+            return (TemplateModel) obj;
+        }
+        if (obj instanceof Boolean) {
+            return ((Boolean) obj).booleanValue() ? 
+                    TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
+        }
+        if (obj instanceof Integer) {
+            int i = ((Integer) obj).intValue();
+            if (i >= CACHED_INTEGER_MIN && i <= CACHED_INTEGER_MAX) {
+                return INTEGER_MODELS[i - CACHED_INTEGER_MIN];
+            }
+            return new SimpleNumber((Integer) obj);
+        }
+        if (obj instanceof Number) {
+            return super.wrap(obj);
+        }
+        if (obj instanceof Map) {
+            return new MapModel((Map<Object, Object>) obj);
+        }
+        if (obj instanceof List) {
+            return new ListModel((List<Object>) obj);
+        }
+        if (obj instanceof Collection) {
+            return new CollectionModel((Collection<Object>) obj);
+        }
+        if (obj instanceof Enum) {
+            return getEnumModel((Enum<?>) obj);
+        }
+        if (isBean(obj.getClass())) {
+            return new BeanModel(obj, BeanAccessor.forClass(obj.getClass()));
+        }
+        return super.wrap(obj);
+    }
+
+    private TemplateModel getEnumModel(Enum<?> constant) {
+
+        TemplateModel model = enumModels.get(constant);
+        if (model == null) {
+            model = new BeanModel(constant, BeanAccessor.forClass(constant.getDeclaringClass()));
+            enumModels.putIfAbsent(constant, model);
+        }
+        return model;
+    }
+
+    /*
+     * arrays, iterators, enumerations, DOM nodes and the JDK's own classes are left
+     * to the DefaultObjectWrapper
+     */
+    private boolean isBean(Class<?> clazz) {
+
+        if (clazz.isArray() || Iterator.class.isAssignableFrom(clazz) || 
+                Enumeration.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        String className = clazz.getName();
+        return !className.startsWith("java.") && !className.startsWith("javax.") && 
+            !className.startsWith("org.w3c.");
+    }
+
+    private TemplateModel wrapAsBean(Object obj) throws TemplateModelException {
+
+        return handleUnknownType(obj);
+    }
+
+    private abstract class AdapterModel implements AdapterTemplateModel, WrapperTemplateModel {
+
+        public Object getAdaptedObject(@SuppressWarnings("rawtypes") Class hint) {
+            return getWrappedObject();
+        }
+    }
+
+    private class MapModel extends AdapterModel implements TemplateHashModelEx {
+
+        private final Map<Object, Object> map;
+
+        MapModel(Map<Object, Object> map) {
+            this.map = map;
+        }
+
+        public TemplateModel get(String key) throws TemplateModelException {
+            
+            Object value = map.get(key);
+            if (value == null && key.length() == 1 && !map.containsKey(key)) {
+                /* as with a SimpleHash, a key of one character may be a Character */
+                value = map.get(Character.valueOf(key.charAt(0)));
+            }
+            return value != null ? wrap(value) : null;
+        }
+
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        public int size() {
+            return map.size();
+        }
+
+        public TemplateCollectionModel keys() {
+            return new CollectionModel(map.keySet());
+        }
+
+        public TemplateCollectionModel values() {
+            return new CollectionModel(map.values());
+        }
+
+        public Object getWrappedObject() {
+            return map;
+        }
+    }
+
+    private class ListModel extends AdapterModel implements TemplateSequenceModel {
+
+        private final List<Object> list;
+
+        ListModel(List<Object> list) {
+            this.list = list;
+        }
+
+        public TemplateModel get(int index) throws TemplateModelException {
+            
+            if (index < 0 || index >= list.size()) {
+                return null;
+            }
+            return wrap(list.get(index));
+        }
+
+        public int size() {
+            return list.size();
+        }
+
+        public Object getWrappedObject() {
+            return list;
+        }
+    }
+
+    private class CollectionModel extends AdapterModel implements TemplateCollectionModel {
+
+        private final Collection<Object> collection;
+
+        @SuppressWarnings("unchecked")
+        CollectionModel(Collection<?> collection) {
+            this.collection = (Collection<Object>) collection;
+        }
+
+        public TemplateModelIterator iterator() {
+            
+            final Iterator<Object> iterator = collection.iterator();
+            return new TemplateModelIterator() {
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+                public TemplateModel next() throws TemplateModelException {
+                    return wrap(iterator.next());
+                }
+            };
+        }
+
+        public Object getWrappedObject() {
+            return collection;
+        }
+    }
+
+    private class BeanModel extends AdapterModel implements TemplateHashModelEx, TemplateScalarModel {
+
+        private final Object bean;
+        private final BeanAccessor accessor;
+        private TemplateHashModelEx reflectiveModel;
+
+        BeanModel(Object bean, BeanAccessor accessor) {
+            this.bean = bean;
+            this.accessor = accessor;
+        }
+
+        public TemplateModel get(String key) throws TemplateModelException {
+
+            BeanAccessor.Property property = accessor.getReadableProperty(key);
+            if (property == null) {
+                return getReflectiveModel().get(key);
+            }
+            try {
+                return wrap(property.get(bean));
+            } catch (Exception e) {
+                throw new TemplateModelException("error getting property " + key + 
+                        " of " + bean.getClass().getName(), e);
+            }
+        }
+
+        public boolean isEmpty() throws TemplateModelException {
+            return getReflectiveModel().isEmpty();
+        }
+
+        public int size() throws TemplateModelException {
+            return getReflectiveModel().size();
+        }
+
+        public TemplateCollectionModel keys() throws TemplateModelException {
+            return getReflectiveModel().keys();
+        }
+
+        public TemplateCollectionModel values() throws TemplateModelException {
+            return getReflectiveModel().values();
+        }
+
+        public String getAsString() {
+            return bean.toString();
+        }
+
+        public Object getWrappedObject() {
+            return bean;
+        }
+
+        private TemplateHashModelEx getReflectiveModel() throws TemplateModelException {
+
+            /* a concurrent first use may wrap the bean twice, which is harmless */
+            if (reflectiveModel == null) {
+                reflectiveModel = (TemplateHashModelEx) wrapAsBean(bean);
+            }
+            return reflectiveModel;
+        }
+    }
+}
@@ -47,7 +47,12 @@ public MojaveTemplateLoader(AppResources resources, String path) {
         this.resources = resources;
     }
 
-    private String fixPath(String path) {
+    /**
+     * @param path
+     *            a template directory path
+     * @return the path with forward slashes, beginning and ending with a '/'
+     */
+    public static String fixPath(String path) {
         
         String fixedPath = path.replace('\\', '/');
         if(!fixedPath.endsWith("/")) {
@@ -88,8 +93,7 @@ private FileTemplateSource newFileTemplateSource(String fullPath) {
         return templateSource;
     }
     
-    private URLTemplateSource newURLTemplateSource(String fullPath) 
-            throws IOException {
+    private URLTemplateSource newURLTemplateSource(String fullPath) {
         
         URLTemplateSource templateSource = null;
         try {
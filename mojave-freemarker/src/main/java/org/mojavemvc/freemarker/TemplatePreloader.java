@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.freemarker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.mojavemvc.initialization.TemplateCompiler;
+import org.mojavemvc.util.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * <p>
+ * Compiles templates into the cache of a FreeMarker {@link Configuration}
+ * ahead of the first request for them. When the configuration's update delay
+ * disables modification checks, the preloaded templates can optionally be
+ * watched from a background thread, so that a changed template is reloaded
+ * without a request having to check its source. Closing the preloader 
+ * stops the watching thread.
+ * </p>
+ * 
+ * @author Luis Antunes
+ */
+public class TemplatePreloader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc.freemarker");
+
+    private final Configuration config;
+    private final Map<String, Long> lastModifiedTimes = new ConcurrentHashMap<String, Long>();
+    private ScheduledExecutorService watcher;
+
+    public TemplatePreloader(Configuration config) {
+
+        this.config = config;
+    }
+
+    /**
+     * Compiles the given templates in parallel. A template that cannot be 
+     * compiled is logged, and will be loaded again when it is first requested.
+     * 
+     * @param names
+     *            the names of the templates, relative to the template loader
+     * @return the number of templates compiled
+     */
+    public int preload(Collection<String> names) {
+
+        TemplateCompiler<Template> compiler = 
+                new TemplateCompiler<Template>("mojave-ftl-preloader-") {
+            protected Template compile(String name) throws IOException {
+                return load(name);
+            }
+        };
+        return compiler.compileAll(names).size();
+    }
+
+    /**
+     * Checks the sources of the preloaded templates for changes every given
+     * number of seconds, from a daemon thread.
+     * 
+     * @param intervalSeconds
+     *            the number of seconds between checks
+     */
+    public synchronized void watch(int intervalSeconds) {
+
+        if (watcher != null) {
+            return;
+        }
+        logger.debug("watching preloaded templates every " + intervalSeconds + " seconds");
+        watcher = Executors.newSingleThreadScheduledExecutor(
+                new DaemonThreadFactory("mojave-ftl-watcher-"));
+        watcher.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                reloadChanged();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopWatching() {
+
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    public void close() {
+
+        stopWatching();
+    }
+
+    /**
+     * Reloads the preloaded templates whose sources have been modified
+     * since they were last loaded.
+     * 
+     * @return the number of templates reloaded
+     */
+    public int reloadChanged() {
+
+        int reloaded = 0;
+        for (Map.Entry<String, Long> entry : lastModifiedTimes.entrySet()) {
+            String name = entry.getKey();
+            try {
+                long lastModified = getLastModified(name);
+                if (lastModified != entry.getValue()) {
+                    logger.debug("reloading modified template " + name);
+                    lastModifiedTimes.put(name, lastModified);
+                    config.removeTemplateFromCache(name);
+                    load(name);
+                    reloaded++;
+                }
+            } catch (IOException e) {
+                logger.error("error reloading template " + name, e);
+            }
+        }
+        return reloaded;
+    }
+
+    private Template load(String name) throws IOException {
+
+        Template template = config.getTemplate(name);
+        lastModifiedTimes.put(name, getLastModified(name));
+        return template;
+    }
+
+    private long getLastModified(String name) throws IOException {
+
+        TemplateLoader loader = config.getTemplateLoader();
+        Object source = loader.findTemplateSource(name);
+        if (source == null) {
+            return -1;
+        }
+        try {
+            return loader.getLastModified(source);
+        } finally {
+            loader.closeTemplateSource(source);
+        }
+    }
+}
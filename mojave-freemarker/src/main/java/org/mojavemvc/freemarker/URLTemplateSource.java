@@ -31,10 +31,10 @@ public class URLTemplateSource implements TemplateSource {
     private URLConnection conn;
     private InputStream in;
 
-    URLTemplateSource(URL url) throws IOException {
+    URLTemplateSource(URL url) {
         
+        /* the connection is opened only when the source is read or checked */
         this.url = url;
-        this.conn = url.openConnection();
     }
 
     @Override
@@ -65,7 +65,11 @@ public String toString() {
     @Override
     public long getLastModified() {
         
-        return conn.getLastModified();
+        try {
+            return getConnection().getLastModified();
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
     @Override
@@ -82,7 +86,15 @@ public void close() throws IOException {
     @Override
     public Reader getReader(String encoding) throws IOException {
         
-        in = conn.getInputStream();
+        in = getConnection().getInputStream();
         return new InputStreamReader(in, encoding);
     }
+    
+    private URLConnection getConnection() throws IOException {
+        
+        if (conn == null) {
+            conn = url.openConnection();
+        }
+        return conn;
+    }
 }
\ No newline at end of file
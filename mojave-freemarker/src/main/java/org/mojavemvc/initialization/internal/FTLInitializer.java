@@ -15,22 +15,28 @@
  */
 package org.mojavemvc.initialization.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.mojavemvc.exception.DefaultFTLErrorHandler;
 import org.mojavemvc.exception.DefaultFTLErrorHandlerFactory;
 import org.mojavemvc.exception.ErrorHandlerFactory;
+import org.mojavemvc.freemarker.MojaveObjectWrapper;
 import org.mojavemvc.freemarker.MojaveTemplateLoader;
+import org.mojavemvc.freemarker.TemplatePreloader;
 import org.mojavemvc.initialization.AppPropertyCollector;
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
 import org.mojavemvc.initialization.Initializer;
+import org.mojavemvc.initialization.TemplateScanner;
 import org.mojavemvc.views.FTL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.MruCacheStorage;
 import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
-import freemarker.template.DefaultObjectWrapper;
 
 /**
  * <p>
@@ -43,6 +49,18 @@
  * through the ftl-path-class init param.
  * </p>
  * 
+ * <p>
+ * In production mode, enabled with the ftl-production-mode init param,
+ * every template under the path with the suffix given by the 
+ * ftl-template-suffix init param (.ftl by default) is compiled at startup,
+ * and templates are never checked for modifications when rendered. The
+ * ftl-watch-interval init param can specify a number of seconds between
+ * checks for modified templates made from a background thread instead.
+ * The ftl-cache-strong-size and ftl-cache-soft-size init params size the
+ * template cache; in production mode, the strong size defaults to the 
+ * number of templates preloaded, so that none of them are evicted.
+ * </p>
+ * 
  * @author Luis Antunes
  */
 public class FTLInitializer implements Initializer {
@@ -52,6 +70,15 @@ public class FTLInitializer implements Initializer {
     private static final String FTL_PATH_INIT_PARAM = "ftl-path";
     private static final String FTL_PATH_CLASS_INIT_PARAM = "ftl-path-class";
     private static final String FTL_ERROR_FILE_INIT_PARAM = "ftl-error-file";
+    private static final String FTL_PRODUCTION_MODE_INIT_PARAM = "ftl-production-mode";
+    private static final String FTL_TEMPLATE_SUFFIX_INIT_PARAM = "ftl-template-suffix";
+    private static final String FTL_WATCH_INTERVAL_INIT_PARAM = "ftl-watch-interval";
+    private static final String FTL_CACHE_STRONG_SIZE_INIT_PARAM = "ftl-cache-strong-size";
+    private static final String FTL_CACHE_SOFT_SIZE_INIT_PARAM = "ftl-cache-soft-size";
+    
+    private static final String DEFAULT_TEMPLATE_SUFFIX = ".ftl";
+    private static final int DEFAULT_CACHE_STRONG_SIZE = 20;
+    private static final int DEFAULT_CACHE_SOFT_SIZE = 250;
     
     private static final String CLASSPATH_PATH_PREFIX = "classpath:"; 
     
@@ -61,6 +88,13 @@ public void initialize(InitParams initParams, AppResources resources,
         
         String ftlPath = getFTLPath(initParams);
         Configuration config = initFTLConfig(initParams, resources, ftlPath);
+        if (isProductionMode(initParams)) {
+            TemplatePreloader preloader = initProductionMode(initParams, resources, ftlPath, config);
+            /* kept as a property so that the watcher is stopped when the app is destroyed */
+            collector.addProperty(FTL.PRELOADER_PROPERTY, preloader);
+        } else if (isCacheSizeSpecified(initParams)) {
+            config.setCacheStorage(newCacheStorage(initParams, DEFAULT_CACHE_STRONG_SIZE));
+        }
         collector.addProperty(FTL.CONFIG_PROPERTY, config);
         readFTLErrorFile(initParams, collector);
     }
@@ -83,10 +117,91 @@ private Configuration initFTLConfig(InitParams initParams,
         Configuration config = new Configuration();
         TemplateLoader templateLoader = getTemplateLoader(initParams, resources, ftlPath);
         config.setTemplateLoader(templateLoader);
-        config.setObjectWrapper(new DefaultObjectWrapper());
+        config.setObjectWrapper(new MojaveObjectWrapper());
         return config;
     }
     
+    private boolean isProductionMode(InitParams initParams) {
+        
+        String productionMode = initParams.getParameter(FTL_PRODUCTION_MODE_INIT_PARAM);
+        return productionMode != null && Boolean.parseBoolean(productionMode.trim());
+    }
+    
+    private TemplatePreloader initProductionMode(InitParams initParams, AppResources resources, 
+            String ftlPath, Configuration config) {
+        
+        logger.debug("initializing freemarker production mode...");
+        List<String> templateNames = findTemplateNames(initParams, resources, ftlPath);
+        
+        /* setting the cache storage clears the cache, so it must come first */
+        config.setCacheStorage(newCacheStorage(initParams, 
+                Math.max(templateNames.size(), DEFAULT_CACHE_STRONG_SIZE)));
+        config.setTemplateUpdateDelay(Integer.MAX_VALUE);
+        
+        TemplatePreloader preloader = new TemplatePreloader(config);
+        preloader.preload(templateNames);
+        
+        int watchInterval = getIntParameter(initParams, FTL_WATCH_INTERVAL_INIT_PARAM, 0);
+        if (watchInterval > 0) {
+            preloader.watch(watchInterval);
+        }
+        return preloader;
+    }
+    
+    private boolean isCacheSizeSpecified(InitParams initParams) {
+        
+        return !isEmpty(initParams.getParameter(FTL_CACHE_STRONG_SIZE_INIT_PARAM)) || 
+            !isEmpty(initParams.getParameter(FTL_CACHE_SOFT_SIZE_INIT_PARAM));
+    }
+    
+    private MruCacheStorage newCacheStorage(InitParams initParams, int defaultStrongSize) {
+        
+        int strongSize = getIntParameter(initParams, FTL_CACHE_STRONG_SIZE_INIT_PARAM, 
+                defaultStrongSize);
+        int softSize = getIntParameter(initParams, FTL_CACHE_SOFT_SIZE_INIT_PARAM, 
+                DEFAULT_CACHE_SOFT_SIZE);
+        return new MruCacheStorage(strongSize, softSize);
+    }
+    
+    private List<String> findTemplateNames(InitParams initParams, AppResources resources, 
+            String ftlPath) {
+        
+        String suffix = initParams.getParameter(FTL_TEMPLATE_SUFFIX_INIT_PARAM);
+        if (isEmpty(suffix)) {
+            suffix = DEFAULT_TEMPLATE_SUFFIX;
+        }
+        
+        List<String> templateNames;
+        if (ftlPath.startsWith(CLASSPATH_PATH_PREFIX)) {
+            templateNames = findClasspathTemplateNames(getFTLPathClass(initParams), 
+                    ftlPath.replaceFirst(CLASSPATH_PATH_PREFIX, ""), suffix);
+        } else {
+            templateNames = TemplateScanner.findResourceNames(resources, 
+                    MojaveTemplateLoader.fixPath(ftlPath), suffix);
+        }
+        logger.debug("found " + templateNames.size() + " templates to preload");
+        return templateNames;
+    }
+    
+    private List<String> findClasspathTemplateNames(Class<?> clazz, String classpathPath, 
+            String suffix) {
+        
+        if (clazz == null) {
+            return new ArrayList<String>();
+        }
+        return TemplateScanner.findURLNames(clazz.getResource(classpathPath), suffix);
+    }
+    
+    private int getIntParameter(InitParams initParams, String name, int defaultValue) {
+        
+        String value = initParams.getParameter(name);
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        logger.debug("setting " + name + " to " + value);
+        return Integer.parseInt(value.trim());
+    }
+    
     private TemplateLoader getTemplateLoader(InitParams initParams, 
             AppResources resources, String ftlPath) {
         
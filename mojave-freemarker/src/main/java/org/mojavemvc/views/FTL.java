@@ -16,10 +16,9 @@
 package org.mojavemvc.views;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 
 import org.mojavemvc.initialization.AppProperties;
 
@@ -30,9 +29,10 @@
 /**
  * @author Luis Antunes
  */
-public class FTL extends DataModelView<FTL> {
+public class FTL extends TemplateView<FTL> {
 
     public static final String CONFIG_PROPERTY = "mojavemvc-internal-ftl-config";
+    public static final String PRELOADER_PROPERTY = "mojavemvc-internal-ftl-preloader";
     
     private final String templateName;
     
@@ -45,8 +45,7 @@ public FTL(String templateName) {
     }
     
     @Override
-    public void render(HttpServletRequest request, HttpServletResponse response, 
-            AppProperties properties)
+    protected void renderTemplate(Writer out, AppProperties properties) 
             throws ServletException, IOException {
 
         Configuration config = (Configuration)properties.getProperty(CONFIG_PROPERTY);
@@ -55,7 +54,7 @@ public void render(HttpServletRequest request, HttpServletResponse response,
         
         try {
             
-            template.process(attributes, response.getWriter());
+            template.process(attributes, out);
             
         } catch (TemplateException e) {
             throw new RuntimeException("error processing template : " + templateName, e);
@@ -25,6 +25,8 @@
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     TestFTLInitializer.class,
+    TestTemplatePreloader.class,
+    TestMojaveObjectWrapper.class,
     TestFrontController.class,
     TestMultiClient.class
 })
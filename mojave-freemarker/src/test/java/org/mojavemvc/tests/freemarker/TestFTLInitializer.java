@@ -15,10 +15,18 @@
  */
 package org.mojavemvc.tests.freemarker;
 
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mojavemvc.freemarker.TemplatePreloader;
 import org.mojavemvc.initialization.AppPropertyCollector;
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
@@ -45,4 +53,51 @@ public void createsConfiguration() throws Exception {
         
         verify(collector).addProperty(eq(FTL.CONFIG_PROPERTY), any(Configuration.class));
     }
+    
+    @Test
+    public void productionModePreloadsTemplates() throws Exception {
+        
+        File dir = File.createTempFile("mojave", "ftl");
+        dir.delete();
+        File subDir = new File(dir, "sub");
+        subDir.mkdirs();
+        File template1 = writeTemplate(new File(dir, "one.ftl"), "one");
+        File template2 = writeTemplate(new File(subDir, "two.ftl"), "two");
+        
+        InitParams params = mock(InitParams.class);
+        when(params.getParameter("ftl-path")).thenReturn("/ftl/");
+        when(params.getParameter("ftl-production-mode")).thenReturn("true");
+        AppResources resources = mock(AppResources.class);
+        when(resources.getResourcePaths("/ftl/")).thenReturn(
+                new HashSet<String>(Arrays.asList("/ftl/one.ftl", "/ftl/sub/", "/ftl/notes.txt")));
+        when(resources.getResourcePaths("/ftl/sub/")).thenReturn(
+                new HashSet<String>(Arrays.asList("/ftl/sub/two.ftl")));
+        when(resources.getRealPath("/ftl/one.ftl")).thenReturn(template1.getPath());
+        when(resources.getRealPath("/ftl/sub/two.ftl")).thenReturn(template2.getPath());
+        AppPropertyCollector collector = mock(AppPropertyCollector.class);
+        
+        FTLInitializer init = new FTLInitializer();
+        init.initialize(params, resources, collector);
+        
+        ArgumentCaptor<Configuration> config = ArgumentCaptor.forClass(Configuration.class);
+        verify(collector).addProperty(eq(FTL.CONFIG_PROPERTY), config.capture());
+        verify(collector).addProperty(eq(FTL.PRELOADER_PROPERTY), any(TemplatePreloader.class));
+        verify(resources, never()).getRealPath("/ftl/notes.txt");
+        
+        /* the templates are served from the cache without checking their sources */
+        template1.delete();
+        template2.delete();
+        subDir.delete();
+        dir.delete();
+        assertEquals("one", config.getValue().getTemplate("one.ftl").toString());
+        assertEquals("two", config.getValue().getTemplate("sub/two.ftl").toString());
+    }
+    
+    static File writeTemplate(File file, String content) throws Exception {
+        
+        FileWriter writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+        return file;
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.freemarker;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mojavemvc.freemarker.MojaveObjectWrapper;
+
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateModel;
+
+/**
+ * 
+ * @author Luis Antunes
+ */
+public class TestMojaveObjectWrapper {
+
+    private MojaveObjectWrapper wrapper;
+    private StringTemplateLoader loader;
+    private Configuration config;
+    
+    @Before
+    public void beforeEachTest() {
+        
+        wrapper = new MojaveObjectWrapper();
+        loader = new StringTemplateLoader();
+        config = new Configuration();
+        config.setTemplateLoader(loader);
+        config.setObjectWrapper(wrapper);
+    }
+    
+    @Test
+    public void rendersBeanProperties() throws Exception {
+        
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("product", new Product("Widget", 3, Status.IN_STOCK));
+        
+        assertEquals("Widget 3 IN_STOCK true WIDGET", render(
+                "${product.name} ${product.quantity} ${product.status} " + 
+                "${product.available?string} ${product.upperCaseName()}", model));
+    }
+    
+    @Test
+    public void rendersMapsAndListsOfBeans() throws Exception {
+        
+        List<Product> products = new ArrayList<Product>();
+        products.add(new Product("A", 1, Status.IN_STOCK));
+        products.add(new Product("B", 2, Status.SOLD_OUT));
+        Map<String, Object> prices = new LinkedHashMap<String, Object>();
+        prices.put("A", 10);
+        prices.put("B", 20);
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("products", products);
+        model.put("prices", prices);
+        model.put("tags", new TreeSet<String>(Arrays.asList("x", "y")));
+        
+        assertEquals("A:10,B:20,|2|A B |x y |null", render(
+                "<#list products as p>${p.name}:${prices[p.name]},</#list>|" + 
+                "${products?size}|<#list prices?keys as k>${k} </#list>|" + 
+                "<#list tags as t>${t} </#list>|${prices.C!'null'}", model));
+    }
+    
+    @Test
+    public void wrapsCollectionsWithoutCopying() throws Exception {
+        
+        List<String> list = new ArrayList<String>();
+        Map<String, Object> map = new HashMap<String, Object>();
+        
+        assertSame(list, wrapper.unwrap(wrapper.wrap(list)));
+        assertSame(map, wrapper.unwrap(wrapper.wrap(map)));
+        
+        list.add("added after wrapping");
+        Map<String, Object> model = new HashMap<String, Object>();
+        model.put("list", wrapper.wrap(list));
+        assertEquals("added after wrapping", render("${list[0]}", model));
+    }
+    
+    @Test
+    public void sharesModelsOfImmutableValues() throws Exception {
+        
+        assertSame(wrapper.wrap(Boolean.TRUE), wrapper.wrap(true));
+        assertSame(wrapper.wrap(42), wrapper.wrap(Integer.valueOf(42)));
+        assertSame(wrapper.wrap(Status.SOLD_OUT), wrapper.wrap(Status.SOLD_OUT));
+        
+        TemplateModel product = wrapper.wrap(new Product("A", 1, Status.IN_STOCK));
+        assertNotSame(product, wrapper.wrap(new Product("A", 1, Status.IN_STOCK)));
+    }
+    
+    private String render(String template, Map<String, Object> model) throws Exception {
+        
+        loader.putTemplate("test.ftl", template);
+        StringWriter writer = new StringWriter();
+        config.getTemplate("test.ftl").process(model, writer);
+        return writer.toString();
+    }
+    
+    public enum Status {
+        IN_STOCK, SOLD_OUT
+    }
+    
+    public static class Product {
+        
+        private final String name;
+        private final int quantity;
+        private final Status status;
+        
+        public Product(String name, int quantity, Status status) {
+            this.name = name;
+            this.quantity = quantity;
+            this.status = status;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getQuantity() {
+            return quantity;
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public boolean isAvailable() {
+            return status == Status.IN_STOCK;
+        }
+        
+        public String upperCaseName() {
+            return name.toUpperCase();
+        }
+    }
+}
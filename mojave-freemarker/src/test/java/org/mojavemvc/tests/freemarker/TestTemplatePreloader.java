@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.freemarker;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mojavemvc.freemarker.TemplatePreloader;
+
+import freemarker.cache.FileTemplateLoader;
+import freemarker.template.Configuration;
+
+/**
+ * 
+ * @author Luis Antunes
+ */
+public class TestTemplatePreloader {
+
+    private File dir;
+    private Configuration config;
+    
+    @Before
+    public void beforeEachTest() throws Exception {
+        
+        dir = File.createTempFile("mojave", "ftl");
+        dir.delete();
+        dir.mkdirs();
+        config = new Configuration();
+        config.setTemplateLoader(new FileTemplateLoader(dir));
+        config.setTemplateUpdateDelay(Integer.MAX_VALUE);
+    }
+    
+    @After
+    public void afterEachTest() {
+        
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+    
+    @Test
+    public void preloadsTemplatesThatCompile() throws Exception {
+        
+        TestFTLInitializer.writeTemplate(new File(dir, "good.ftl"), "good");
+        TestFTLInitializer.writeTemplate(new File(dir, "bad.ftl"), "<#if true>unclosed");
+        
+        TemplatePreloader preloader = new TemplatePreloader(config);
+        
+        assertEquals(1, preloader.preload(Arrays.asList("good.ftl", "bad.ftl", "missing.ftl")));
+    }
+    
+    @Test
+    public void reloadsModifiedTemplates() throws Exception {
+        
+        File file = TestFTLInitializer.writeTemplate(new File(dir, "page.ftl"), "before");
+        TemplatePreloader preloader = new TemplatePreloader(config);
+        preloader.preload(Arrays.asList("page.ftl"));
+        
+        TestFTLInitializer.writeTemplate(file, "after");
+        file.setLastModified(file.lastModified() + 10000);
+        assertEquals("before", config.getTemplate("page.ftl").toString());
+        
+        assertEquals(1, preloader.reloadChanged());
+        assertEquals("after", config.getTemplate("page.ftl").toString());
+        assertEquals(0, preloader.reloadChanged());
+    }
+    
+    @Test
+    public void closeStopsWatcherThread() throws Exception {
+        
+        TemplatePreloader preloader = new TemplatePreloader(config);
+        preloader.watch(60);
+        assertNotNull(findWatcherThread());
+        
+        preloader.close();
+        
+        Thread watcher = findWatcherThread();
+        if (watcher != null) {
+            watcher.join(2000);
+            assertFalse(watcher.isAlive());
+        }
+    }
+    
+    private Thread findWatcherThread() {
+        
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("mojave-ftl-watcher-") && thread.isAlive()) {
+                return thread;
+            }
+        }
+        return null;
+    }
+}
@@ -16,6 +16,10 @@
 package org.mojavemvc.initialization.internal;
 
 import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.mojavemvc.exception.DefaultMustacheErrorHandler;
 import org.mojavemvc.exception.DefaultMustacheErrorHandlerFactory;
@@ -24,14 +28,32 @@
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
 import org.mojavemvc.initialization.Initializer;
+import org.mojavemvc.initialization.TemplateCompiler;
+import org.mojavemvc.initialization.TemplateScanner;
+import org.mojavemvc.mustache.FastClassObjectHandler;
 import org.mojavemvc.views.MustacheView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
 
 /**
+ * <p>
+ * Every template under the mustache-path with the suffix given by the 
+ * mustache-template-suffix init param (.mustache by default) is compiled
+ * in parallel at startup, and the compiled templates are made available to
+ * {@link MustacheView} in an immutable map. Templates that are not found at 
+ * startup, such as those in a jar on the classpath, are compiled when first
+ * rendered.
+ * </p>
+ * 
+ * <p>
+ * Setting the mustache-compiled-lookups init param to true replaces the
+ * reflection-based object handler with a {@link FastClassObjectHandler}.
+ * </p>
+ * 
  * @author Luis Antunes
  */
 public class MustacheInitializer implements Initializer {
@@ -40,6 +62,10 @@ public class MustacheInitializer implements Initializer {
     
     private static final String MUSTACHE_PATH_INIT_PARAM = "mustache-path";
     private static final String MUSTACHE_ERROR_FILE_INIT_PARAM = "mustache-error-file";
+    private static final String MUSTACHE_TEMPLATE_SUFFIX_INIT_PARAM = "mustache-template-suffix";
+    private static final String MUSTACHE_COMPILED_LOOKUPS_INIT_PARAM = "mustache-compiled-lookups";
+    
+    private static final String DEFAULT_TEMPLATE_SUFFIX = ".mustache";
     
     private static final String CLASSPATH_PATH_PREFIX = "classpath:";
     
@@ -49,10 +75,17 @@ public void initialize(InitParams initParams, AppResources resources,
         
         String mustachePath = getMustachePath(initParams);
 
-        MustacheFactory mf = getMustacheFactory(mustachePath, resources);
+        DefaultMustacheFactory mf = getMustacheFactory(mustachePath, resources);
+        if (isCompiledLookups(initParams)) {
+            logger.debug("using compiled variable lookups");
+            mf.setObjectHandler(new FastClassObjectHandler());
+        }
         
         collector.addProperty(MustacheView.CONFIG_PROPERTY, mf);
         
+        List<String> names = findTemplateNames(initParams, resources, mustachePath);
+        collector.addProperty(MustacheView.MUSTACHES_PROPERTY, precompile(mf, names));
+        
         readMustacheErrorFile(initParams, collector);
     }
 
@@ -67,7 +100,7 @@ private String getMustachePath(InitParams initParams) {
         return mustachePath;
     }
     
-    private MustacheFactory getMustacheFactory(String path, AppResources resources) {
+    private DefaultMustacheFactory getMustacheFactory(String path, AppResources resources) {
         
         if (path.startsWith(CLASSPATH_PATH_PREFIX)) {
             
@@ -78,6 +111,44 @@ private MustacheFactory getMustacheFactory(String path, AppResources resources)
         return new DefaultMustacheFactory(new File(realPath));
     }
     
+    private boolean isCompiledLookups(InitParams initParams) {
+        
+        String compiledLookups = initParams.getParameter(MUSTACHE_COMPILED_LOOKUPS_INIT_PARAM);
+        return compiledLookups != null && Boolean.parseBoolean(compiledLookups.trim());
+    }
+    
+    private List<String> findTemplateNames(InitParams initParams, AppResources resources, 
+            String path) {
+        
+        String suffix = initParams.getParameter(MUSTACHE_TEMPLATE_SUFFIX_INIT_PARAM);
+        if (isEmpty(suffix)) {
+            suffix = DEFAULT_TEMPLATE_SUFFIX;
+        }
+        
+        if (path.startsWith(CLASSPATH_PATH_PREFIX)) {
+            return findClasspathTemplateNames(path.replaceFirst(CLASSPATH_PATH_PREFIX, ""), suffix);
+        }
+        return TemplateScanner.findResourceNames(resources, fixPath(path), suffix);
+    }
+    
+    private List<String> findClasspathTemplateNames(String resourceRoot, String suffix) {
+        
+        String root = resourceRoot.startsWith("/") ? resourceRoot.substring(1) : resourceRoot;
+        URL url = Thread.currentThread().getContextClassLoader().getResource(root);
+        return TemplateScanner.findURLNames(url, suffix);
+    }
+    
+    private Map<String, Mustache> precompile(final MustacheFactory mf, List<String> names) {
+        
+        TemplateCompiler<Mustache> compiler = 
+                new TemplateCompiler<Mustache>("mojave-mustache-compiler-") {
+            protected Mustache compile(String name) {
+                return mf.compile(name);
+            }
+        };
+        return Collections.unmodifiableMap(compiler.compileAll(names));
+    }
+    
     private String fixPath(String path) {
         
         String fixedPath = path.replace('\\', '/');
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.mustache;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sf.cglib.reflect.FastClass;
+
+import com.github.mustachejava.MustacheException;
+import com.github.mustachejava.reflect.Guard;
+import com.github.mustachejava.reflect.ReflectionObjectHandler;
+import com.github.mustachejava.reflect.ReflectionWrapper;
+import com.github.mustachejava.util.GuardException;
+import com.github.mustachejava.util.Wrapper;
+
+/**
+ * A mustache.java object handler that looks up variables as the 
+ * {@link ReflectionObjectHandler} does, but invokes the public methods it
+ * finds through a generated FastClass rather than through reflection. Fields,
+ * and methods a FastClass cannot be generated for, are still accessed 
+ * reflectively. FastClasses are cached per class.
+ * 
+ * @author Luis Antunes
+ */
+public class FastClassObjectHandler extends ReflectionObjectHandler {
+
+    private final ConcurrentMap<Class<?>, FastClass> fastClasses = 
+            new ConcurrentHashMap<Class<?>, FastClass>();
+
+    @Override
+    protected Wrapper createWrapper(int scopeIndex, Wrapper[] wrappers, 
+            List<? extends Guard> guards, AccessibleObject member, Object[] arguments) {
+
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            FastClass fastClass = getFastClass(method.getDeclaringClass());
+            if (fastClass != null) {
+                int fastIndex = fastClass.getIndex(method.getName(), method.getParameterTypes());
+                if (fastIndex != -1) {
+                    return new FastClassWrapper(scopeIndex, wrappers, 
+                            guards.toArray(new Guard[guards.size()]), method, arguments, 
+                            fastClass, fastIndex);
+                }
+            }
+        }
+        return super.createWrapper(scopeIndex, wrappers, guards, member, arguments);
+    }
+
+    private FastClass getFastClass(Class<?> clazz) {
+
+        if (!Modifier.isPublic(clazz.getModifiers())) {
+            return null;
+        }
+        FastClass fastClass = fastClasses.get(clazz);
+        if (fastClass == null) {
+            try {
+                fastClass = FastClass.create(clazz);
+            } catch (Throwable e) {
+                /* e.g. a class not visible to the generated class; use reflection */
+                return null;
+            }
+            FastClass existing = fastClasses.putIfAbsent(clazz, fastClass);
+            if (existing != null) {
+                fastClass = existing;
+            }
+        }
+        return fastClass;
+    }
+
+    private class FastClassWrapper extends ReflectionWrapper {
+
+        private final FastClass fastClass;
+        private final int fastIndex;
+
+        FastClassWrapper(int scopeIndex, Wrapper[] wrappers, Guard[] guards, Method method, 
+                Object[] arguments, FastClass fastClass, int fastIndex) {
+
+            super(scopeIndex, wrappers, guards, method, arguments, FastClassObjectHandler.this);
+            this.fastClass = fastClass;
+            this.fastIndex = fastIndex;
+        }
+
+        @Override
+        public Object call(Object[] scopes) throws GuardException {
+
+            guardCall(scopes);
+            Object scope = unwrap(scopes);
+            if (scope == null) {
+                return null;
+            }
+            try {
+                return fastClass.invoke(fastIndex, scope, arguments);
+            } catch (InvocationTargetException e) {
+                throw new MustacheException("Failed to execute method: " + method, e.getTargetException());
+            }
+        }
+    }
+}
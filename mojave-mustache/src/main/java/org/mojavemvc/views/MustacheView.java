@@ -16,10 +16,10 @@
 package org.mojavemvc.views;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 
 import org.mojavemvc.initialization.AppProperties;
 
@@ -29,9 +29,10 @@
 /**
  * @author Luis Antunes
  */
-public class MustacheView extends DataModelView<MustacheView> {
+public class MustacheView extends TemplateView<MustacheView> {
 
     public static final String CONFIG_PROPERTY = "mojavemvc-internal-mustache-config";
+    public static final String MUSTACHES_PROPERTY = "mojavemvc-internal-mustaches";
     
     private final String mustacheName;
     
@@ -44,23 +45,35 @@ public MustacheView(String mustacheName) {
     }
     
     @Override
-    public void render(HttpServletRequest request, HttpServletResponse response, 
-            AppProperties properties)
+    protected void renderTemplate(Writer out, AppProperties properties) 
             throws ServletException, IOException {
 
-        MustacheFactory mf = (MustacheFactory)properties.getProperty(CONFIG_PROPERTY);
-        
-        /*
-         * the DefaultMustacheFactory caches the template once compiled
-         */
-        Mustache mustache = mf.compile(mustacheName);
+        Mustache mustache = getMustache(properties);
         
         try {
             
-            mustache.execute(response.getWriter(), attributes);
+            mustache.execute(out, attributes);
             
         } catch (Exception e) {
             throw new RuntimeException("error processing mustache : " + mustacheName, e);
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private Mustache getMustache(AppProperties properties) {
+        
+        /* the map of templates precompiled at startup is immutable */
+        Map<String, Mustache> mustaches = 
+                (Map<String, Mustache>)properties.getProperty(MUSTACHES_PROPERTY);
+        Mustache mustache = mustaches != null ? mustaches.get(mustacheName) : null;
+        if (mustache != null) {
+            return mustache;
+        }
+        
+        /*
+         * the DefaultMustacheFactory caches the template once compiled
+         */
+        MustacheFactory mf = (MustacheFactory)properties.getProperty(CONFIG_PROPERTY);
+        return mf.compile(mustacheName);
+    }
 }
@@ -25,6 +25,7 @@
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     TestMustacheInitializer.class,
+    TestFastClassObjectHandler.class,
     TestFrontController.class,
     TestMultiClient.class
 })
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011-2013 Mojavemvc.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mojavemvc.tests.mustache;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mojavemvc.mustache.FastClassObjectHandler;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.MustacheException;
+
+/**
+ * 
+ * @author Luis Antunes
+ */
+public class TestFastClassObjectHandler {
+
+    private DefaultMustacheFactory mf;
+    
+    @Before
+    public void beforeEachTest() {
+        
+        mf = new DefaultMustacheFactory();
+        mf.setObjectHandler(new FastClassObjectHandler());
+    }
+    
+    @Test
+    public void looksUpBeanMethodsMapsAndSections() throws Exception {
+        
+        Map<String, Object> scope = new HashMap<String, Object>();
+        scope.put("product", new Product("Widget", 3));
+        scope.put("tags", Arrays.asList(new Product("a", 1), new Product("b", 2)));
+        
+        assertEquals("Widget 3 true WIDGET a1b2", execute(
+                "{{product.name}} {{product.quantity}} {{product.available}} " + 
+                "{{product.upperCaseName}} {{#tags}}{{name}}{{quantity}}{{/tags}}", scope));
+    }
+    
+    @Test
+    public void exceptionFromMethodIsReported() throws Exception {
+        
+        Map<String, Object> scope = new HashMap<String, Object>();
+        scope.put("product", new Product(null, 0));
+        
+        try {
+            execute("{{product.upperCaseName}}", scope);
+            fail("should have thrown exception");
+        } catch (MustacheException e) {
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+    }
+    
+    private String execute(String template, Object scope) {
+        
+        StringWriter writer = new StringWriter();
+        mf.compile(new StringReader(template), "test").execute(writer, scope);
+        return writer.toString();
+    }
+    
+    public static class Product {
+        
+        private final String name;
+        private final int quantity;
+        
+        public Product(String name, int quantity) {
+            this.name = name;
+            this.quantity = quantity;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getQuantity() {
+            return quantity;
+        }
+        
+        public boolean isAvailable() {
+            return quantity > 0;
+        }
+        
+        public String upperCaseName() {
+            return name.toUpperCase();
+        }
+    }
+}
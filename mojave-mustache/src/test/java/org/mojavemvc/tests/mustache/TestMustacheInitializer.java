@@ -15,16 +15,29 @@
  */
 package org.mojavemvc.tests.mustache;
 
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mojavemvc.initialization.AppPropertyCollector;
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
 import org.mojavemvc.initialization.internal.MustacheInitializer;
+import org.mojavemvc.mustache.FastClassObjectHandler;
 import org.mojavemvc.views.MustacheView;
 
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
 
 /**
@@ -47,4 +60,81 @@ public void createsConfiguration() throws Exception {
         
         verify(collector).addProperty(eq(MustacheView.CONFIG_PROPERTY), any(MustacheFactory.class));
     }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void precompilesTemplates() throws Exception {
+        
+        File dir = File.createTempFile("mojave", "mustache");
+        dir.delete();
+        File subDir = new File(dir, "sub");
+        subDir.mkdirs();
+        File template1 = writeTemplate(new File(dir, "one.mustache"), "one {{val}}");
+        File template2 = writeTemplate(new File(subDir, "two.mustache"), "two {{val}}");
+        
+        InitParams params = mock(InitParams.class);
+        when(params.getParameter("mustache-path")).thenReturn("/mustache/");
+        AppResources resources = mock(AppResources.class);
+        when(resources.getRealPath("/mustache/")).thenReturn(dir.getPath());
+        when(resources.getResourcePaths("/mustache/")).thenReturn(new HashSet<String>(
+                Arrays.asList("/mustache/one.mustache", "/mustache/sub/", "/mustache/notes.txt")));
+        when(resources.getResourcePaths("/mustache/sub/")).thenReturn(
+                new HashSet<String>(Arrays.asList("/mustache/sub/two.mustache")));
+        AppPropertyCollector collector = mock(AppPropertyCollector.class);
+        
+        MustacheInitializer init = new MustacheInitializer();
+        init.initialize(params, resources, collector);
+        
+        ArgumentCaptor<Object> mustaches = ArgumentCaptor.forClass(Object.class);
+        verify(collector).addProperty(eq(MustacheView.MUSTACHES_PROPERTY), mustaches.capture());
+        Map<String, Mustache> map = (Map<String, Mustache>) mustaches.getValue();
+        
+        /* the compiled templates no longer need their sources */
+        template1.delete();
+        template2.delete();
+        subDir.delete();
+        dir.delete();
+        assertEquals(2, map.size());
+        assertEquals("one 1", execute(map.get("one.mustache")));
+        assertEquals("two 1", execute(map.get("sub/two.mustache")));
+        try {
+            map.clear();
+            fail("should have thrown exception");
+        } catch (UnsupportedOperationException e) {
+            /* expected */
+        }
+    }
+    
+    @Test
+    public void usesCompiledLookups() throws Exception {
+        
+        InitParams params = mock(InitParams.class);
+        when(params.getParameter("mustache-compiled-lookups")).thenReturn("true");
+        AppResources resources = mock(AppResources.class);
+        when(resources.getRealPath(anyString())).thenReturn("/");
+        AppPropertyCollector collector = mock(AppPropertyCollector.class);
+        
+        MustacheInitializer init = new MustacheInitializer();
+        init.initialize(params, resources, collector);
+        
+        ArgumentCaptor<Object> mf = ArgumentCaptor.forClass(Object.class);
+        verify(collector).addProperty(eq(MustacheView.CONFIG_PROPERTY), mf.capture());
+        assertTrue(((DefaultMustacheFactory) mf.getValue()).getObjectHandler() 
+                instanceof FastClassObjectHandler);
+    }
+    
+    private String execute(Mustache mustache) {
+        
+        StringWriter writer = new StringWriter();
+        mustache.execute(writer, Collections.singletonMap("val", "1"));
+        return writer.toString();
+    }
+    
+    private File writeTemplate(File file, String content) throws Exception {
+        
+        FileWriter writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+        return file;
+    }
 }
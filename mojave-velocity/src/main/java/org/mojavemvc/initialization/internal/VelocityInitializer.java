@@ -15,10 +15,12 @@
  */
 package org.mojavemvc.initialization.internal;
 
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.velocity.Template;
 import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.runtime.resource.loader.FileResourceLoader;
+import org.apache.velocity.runtime.RuntimeConstants;
 import org.mojavemvc.exception.DefaultVMErrorHandler;
 import org.mojavemvc.exception.DefaultVMErrorHandlerFactory;
 import org.mojavemvc.exception.ErrorHandlerFactory;
@@ -26,42 +28,76 @@
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
 import org.mojavemvc.initialization.Initializer;
+import org.mojavemvc.initialization.TemplateCompiler;
+import org.mojavemvc.initialization.TemplateScanner;
+import org.mojavemvc.velocity.MojaveResourceLoader;
 import org.mojavemvc.views.VM;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <p>
+ * Velocity templates are loaded by a {@link MojaveResourceLoader} from the
+ * path given by the vm-path init param, such as /WEB-INF/vm/. Loaded 
+ * templates are cached unless the vm-cache init param is false, and cached
+ * templates are checked for modifications every number of seconds given by
+ * the vm-modification-check-interval init param (2 by default); an interval
+ * of 0 disables the checks, as is appropriate in production.
+ * </p>
+ * 
+ * <p>
+ * When caching is on, every template under the path with the suffix given
+ * by the vm-template-suffix init param (.vm by default) is compiled in 
+ * parallel at startup.
+ * </p>
+ * 
  * @author Luis Antunes
  */
 public class VelocityInitializer implements Initializer {
 
     private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc.velocity");
     
-    //private static final String VM_PATH_INIT_PARAM = "vm-path";
+    private static final String VM_PATH_INIT_PARAM = "vm-path";
     private static final String VM_ERROR_FILE_INIT_PARAM = "vm-error-file";
+    private static final String VM_CACHE_INIT_PARAM = "vm-cache";
+    private static final String VM_MODIFICATION_CHECK_INTERVAL_INIT_PARAM = 
+            "vm-modification-check-interval";
+    private static final String VM_TEMPLATE_SUFFIX_INIT_PARAM = "vm-template-suffix";
+    
+    private static final String LOADER_NAME = "mojave";
+    private static final String DEFAULT_TEMPLATE_SUFFIX = ".vm";
+    private static final int DEFAULT_MODIFICATION_CHECK_INTERVAL = 2;
+    private static final int DEFAULT_CACHE_SIZE = 89;
     
     @Override
     public void initialize(InitParams initParams, AppResources resources, 
             AppPropertyCollector collector) {
         
-        //String ftlPath = getVMPath(initParams); //TODO use path
+        String vmPath = getVMPath(initParams);
+        boolean cache = isCachingOn(initParams);
+        List<String> templateNames = cache ? 
+                findTemplateNames(initParams, resources, vmPath) : new ArrayList<String>();
         
         VelocityEngine engine = new VelocityEngine();
-        engine.setProperty("resource.loader", "mojave"); 
-        //TODO replace with MojaveResourceLoader
-        // see org.apache.velocity.tools.view.servlet.WebappLoader
-        engine.setProperty("mojave.resource.loader.instance", new FileResourceLoader());
-        Vector<String> path = new Vector<String>();
-        path.add("src/test/resources/standard/WEB-INF/vm");
-        engine.setProperty("mojave.resource.loader.path", path);
+        engine.setProperty(RuntimeConstants.RESOURCE_LOADER, LOADER_NAME); 
+        engine.setProperty(LOADER_NAME + ".resource.loader.instance", 
+                new MojaveResourceLoader(resources, vmPath));
+        engine.setProperty(LOADER_NAME + ".resource.loader.cache", String.valueOf(cache));
+        engine.setProperty(LOADER_NAME + ".resource.loader.modificationCheckInterval", 
+                String.valueOf(getIntParameter(initParams, VM_MODIFICATION_CHECK_INTERVAL_INIT_PARAM, 
+                        DEFAULT_MODIFICATION_CHECK_INTERVAL)));
+        /* keep every precompiled template in the cache */
+        engine.setProperty(RuntimeConstants.RESOURCE_MANAGER_DEFAULTCACHE_SIZE, 
+                String.valueOf(Math.max(DEFAULT_CACHE_SIZE, templateNames.size())));
         engine.init();
         
+        precompile(engine, templateNames);
+        
         collector.addProperty(VM.CONFIG_PROPERTY, engine);
         
         readVMErrorFile(initParams, collector);
     }
 
-    /*
     private String getVMPath(InitParams initParams) {
         
         String vmPath = initParams.getParameter(VM_PATH_INIT_PARAM);
@@ -72,7 +108,43 @@ private String getVMPath(InitParams initParams) {
         logger.debug("setting " + VM_PATH_INIT_PARAM + " to " + vmPath);
         return vmPath;
     }
-    */
+    
+    private boolean isCachingOn(InitParams initParams) {
+        
+        String cache = initParams.getParameter(VM_CACHE_INIT_PARAM);
+        return isEmpty(cache) || Boolean.parseBoolean(cache.trim());
+    }
+    
+    private List<String> findTemplateNames(InitParams initParams, AppResources resources, 
+            String vmPath) {
+        
+        String suffix = initParams.getParameter(VM_TEMPLATE_SUFFIX_INIT_PARAM);
+        if (isEmpty(suffix)) {
+            suffix = DEFAULT_TEMPLATE_SUFFIX;
+        }
+        
+        return TemplateScanner.findResourceNames(resources, 
+                MojaveResourceLoader.fixPath(vmPath), suffix);
+    }
+    
+    private void precompile(final VelocityEngine engine, List<String> templateNames) {
+        
+        new TemplateCompiler<Template>("mojave-vm-compiler-") {
+            protected Template compile(String name) throws Exception {
+                return engine.getTemplate(name);
+            }
+        }.compileAll(templateNames);
+    }
+    
+    private int getIntParameter(InitParams initParams, String name, int defaultValue) {
+        
+        String value = initParams.getParameter(name);
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        logger.debug("setting " + name + " to " + value);
+        return Integer.parseInt(value.trim());
+    }
     
     private void readVMErrorFile(InitParams initParams, AppPropertyCollector collector) {
 
@@ -15,10 +15,146 @@
  */
 package org.mojavemvc.velocity;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.apache.commons.collections.ExtendedProperties;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.runtime.resource.loader.ResourceLoader;
+import org.mojavemvc.initialization.AppResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
+ * A Velocity resource loader that reads templates from the application's
+ * resources, under a given path. A template is read from the file system 
+ * if the path can be resolved to a real path, and from the URL of the 
+ * resource otherwise. Caching and the modification check interval are 
+ * configured through the usual Velocity resource loader properties.
+ * 
  * @author Luis Antunes
  */
-public class MojaveResourceLoader {
+public class MojaveResourceLoader extends ResourceLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger("org.mojavemvc.velocity");
+
+    private final AppResources resources;
+    private final String path;
+    
+    public MojaveResourceLoader(AppResources resources, String path) {
+        
+        if (path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        
+        this.path = fixPath(path);
+        this.resources = resources;
+    }
+
+    /**
+     * @param path
+     *            a template directory path
+     * @return the path with forward slashes, beginning and ending with a '/'
+     */
+    public static String fixPath(String path) {
+        
+        String fixedPath = path.replace('\\', '/');
+        if (!fixedPath.endsWith("/")) {
+            fixedPath += "/";
+        }
+        if (!fixedPath.startsWith("/")) {
+            fixedPath = "/" + fixedPath;
+        }
+        return fixedPath;
+    }
+    
+    @Override
+    public void init(ExtendedProperties configuration) {
+        /* configured through the constructor */
+    }
+
+    @Override
+    public InputStream getResourceStream(String name) throws ResourceNotFoundException {
+        
+        String fullPath = path + name;
+        try {
+            
+            File file = getFile(fullPath);
+            if (file != null) {
+                return new FileInputStream(file);
+            }
+            
+            URL url = resources.getResource(fullPath);
+            if (url != null) {
+                return url.openStream();
+            }
+            
+        } catch (FileNotFoundException e) {
+            /* the file was removed since it was found */
+        } catch (MalformedURLException e) {
+            logger.error("could not retrieve resource " + fullPath, e);
+        } catch (IOException e) {
+            throw new ResourceNotFoundException("could not read resource " + fullPath, e);
+        }
+        
+        throw new ResourceNotFoundException("could not find resource " + fullPath);
+    }
+
+    @Override
+    public boolean resourceExists(String name) {
+        
+        String fullPath = path + name;
+        try {
+            return getFile(fullPath) != null || resources.getResource(fullPath) != null;
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isSourceModified(Resource resource) {
+        
+        return getLastModified(resource) != resource.getLastModified();
+    }
 
-    //TODO
+    @Override
+    public long getLastModified(Resource resource) {
+        
+        String fullPath = path + resource.getName();
+        File file = getFile(fullPath);
+        if (file != null) {
+            return file.lastModified();
+        }
+        try {
+            URL url = resources.getResource(fullPath);
+            if (url != null) {
+                return url.openConnection().getLastModified();
+            }
+        } catch (IOException e) {
+            logger.error("could not check resource " + fullPath, e);
+        }
+        return 0;
+    }
+    
+    private File getFile(String fullPath) {
+        
+        String realPath = resources.getRealPath(fullPath);
+        if (realPath != null) {
+            File file = new File(realPath);
+            try {
+                if (file.isFile() && file.canRead()) {
+                    return file;
+                }
+            } catch (SecurityException e) {
+                /* ignore - the file cannot be read */
+            }
+        }
+        return null;
+    }
 }
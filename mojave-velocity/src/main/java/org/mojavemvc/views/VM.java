@@ -16,10 +16,9 @@
 package org.mojavemvc.views;
 
 import java.io.IOException;
+import java.io.Writer;
 
 import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -29,7 +28,7 @@
 /**
  * @author Luis Antunes
  */
-public class VM extends DataModelView<VM> {
+public class VM extends TemplateView<VM> {
 
     public static final String CONFIG_PROPERTY = "mojavemvc-internal-vm-config";
     
@@ -44,8 +43,7 @@ public VM(String templateName) {
     }
     
     @Override
-    public void render(HttpServletRequest request, HttpServletResponse response, 
-            AppProperties properties)
+    protected void renderTemplate(Writer out, AppProperties properties) 
             throws ServletException, IOException {
 
         VelocityEngine engine = (VelocityEngine)properties.getProperty(CONFIG_PROPERTY);
@@ -54,7 +52,7 @@ public void render(HttpServletRequest request, HttpServletResponse response,
         
         try {
             
-            template.merge(new VelocityContext(attributes), response.getWriter());
+            template.merge(new VelocityContext(attributes), out);
             
         } catch (Exception e) {
             throw new RuntimeException("error processing template : " + templateName, e);
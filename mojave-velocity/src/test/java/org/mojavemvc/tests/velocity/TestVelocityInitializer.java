@@ -15,11 +15,22 @@
  */
 package org.mojavemvc.tests.velocity;
 
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mojavemvc.initialization.AppPropertyCollector;
 import org.mojavemvc.initialization.AppResources;
 import org.mojavemvc.initialization.InitParams;
@@ -32,6 +43,25 @@
  */
 public class TestVelocityInitializer {
 
+    private File dir;
+    
+    @Before
+    public void beforeEachTest() throws Exception {
+        
+        dir = File.createTempFile("mojave", "vm");
+        dir.delete();
+        dir.mkdirs();
+    }
+    
+    @After
+    public void afterEachTest() {
+        
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+    
     @Test
     public void createsConfiguration() throws Exception {
         
@@ -44,4 +74,76 @@ public void createsConfiguration() throws Exception {
         
         verify(collector).addProperty(eq(VM.CONFIG_PROPERTY), any(VelocityEngine.class));
     }
+    
+    @Test
+    public void precompilesAndCachesTemplates() throws Exception {
+        
+        File template = writeTemplate(new File(dir, "one.vm"), "one $val");
+        
+        InitParams params = mock(InitParams.class);
+        when(params.getParameter("vm-path")).thenReturn("/vm/");
+        when(params.getParameter("vm-modification-check-interval")).thenReturn("0");
+        AppResources resources = mock(AppResources.class);
+        when(resources.getResourcePaths("/vm/")).thenReturn(
+                new HashSet<String>(Arrays.asList("/vm/one.vm", "/vm/notes.txt")));
+        when(resources.getRealPath("/vm/one.vm")).thenReturn(template.getPath());
+        AppPropertyCollector collector = mock(AppPropertyCollector.class);
+        
+        VelocityInitializer init = new VelocityInitializer();
+        init.initialize(params, resources, collector);
+        
+        VelocityEngine engine = captureEngine(collector);
+        verify(resources, atLeastOnce()).getRealPath("/vm/one.vm");
+        
+        /* the cached template is not checked for modifications */
+        template.delete();
+        assertEquals("one 1", merge(engine, "one.vm"));
+    }
+    
+    @Test
+    public void loadsTemplateFromResourceURL() throws Exception {
+        
+        File template = writeTemplate(new File(dir, "two.vm"), "two $val");
+        
+        InitParams params = mock(InitParams.class);
+        when(params.getParameter("vm-path")).thenReturn("vm");
+        when(params.getParameter("vm-cache")).thenReturn("false");
+        AppResources resources = mock(AppResources.class);
+        when(resources.getResource("/vm/two.vm")).thenReturn(template.toURI().toURL());
+        AppPropertyCollector collector = mock(AppPropertyCollector.class);
+        
+        VelocityInitializer init = new VelocityInitializer();
+        init.initialize(params, resources, collector);
+        
+        VelocityEngine engine = captureEngine(collector);
+        verify(resources, never()).getResourcePaths(anyString());
+        
+        assertEquals("two 1", merge(engine, "two.vm"));
+        writeTemplate(template, "changed $val");
+        assertEquals("changed 1", merge(engine, "two.vm"));
+    }
+    
+    private VelocityEngine captureEngine(AppPropertyCollector collector) {
+        
+        ArgumentCaptor<Object> engine = ArgumentCaptor.forClass(Object.class);
+        verify(collector).addProperty(eq(VM.CONFIG_PROPERTY), engine.capture());
+        return (VelocityEngine) engine.getValue();
+    }
+    
+    private String merge(VelocityEngine engine, String name) throws Exception {
+        
+        VelocityContext context = new VelocityContext();
+        context.put("val", "1");
+        StringWriter writer = new StringWriter();
+        engine.getTemplate(name).merge(context, writer);
+        return writer.toString();
+    }
+    
+    private File writeTemplate(File file, String content) throws Exception {
+        
+        FileWriter writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+        return file;
+    }
 }